@@ -0,0 +1,189 @@
+package com.morpheus.stockbetting.middleware;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+
+import com.morpheus.stockbetting.accesslog.AccessLog;
+import com.morpheus.stockbetting.accesslog.AccessLogProperties;
+import com.morpheus.stockbetting.capture.CaptureProperties;
+import com.morpheus.stockbetting.capture.RequestCapture;
+import com.morpheus.stockbetting.security.HttpMethodValidationFilter;
+import com.morpheus.stockbetting.security.InMemoryTokenRevocationStore;
+import com.morpheus.stockbetting.security.JwtAuthenticationFilter;
+import com.morpheus.stockbetting.security.JwtTokenProvider;
+import com.morpheus.stockbetting.security.UserPrincipal;
+import com.morpheus.stockbetting.tracing.TraceStore;
+import com.morpheus.stockbetting.tracing.TracingProperties;
+
+import ch.qos.logback.classic.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the filters every {@code /api/*} request passes through, alone and chained in the
+ * order the application registers them. Each operation handles one mock request whose handler
+ * only sets the status; {@link #baseline()} measures creating the mock request and response, to
+ * be subtracted from the other results. With the gc profiler the {@code gc.alloc.rate.norm}
+ * column gives the bytes allocated per request.
+ * Run with {@code mvn -Pjmh test-compile exec:exec@jmh -Djmh.args=FilterChainBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterChainBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private static final FilterChain HANDLER = (request, response) -> {
+        ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_OK);
+        SecurityContextHolder.clearContext();
+    };
+
+    private static final FilterChain NOT_FOUND = (request, response) ->
+        ((HttpServletResponse) response).sendError(HttpServletResponse.SC_NOT_FOUND, "Stock not found: AAPL");
+
+    private HttpMethodValidationFilter methodValidation;
+    private JwtAuthenticationFilter jwtCached;
+    private JwtAuthenticationFilter jwtUncached;
+    private ErrorHandlingMiddleware errorHandling;
+    private RequestLoggingMiddleware requestLogging;
+    private AccessLog accessLog;
+    private FilterChain chain;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // Keep the fork quiet, log calls below WARN cost a level check as with the production config
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        var meterRegistry = new SimpleMeterRegistry();
+        var revocationStore = new InMemoryTokenRevocationStore(Duration.ofMinutes(15));
+        var cachingProvider = new JwtTokenProvider(SECRET, 900_000, 10_000);
+        token = cachingProvider.generateToken(new UserPrincipal(1L, "alice", null, List.of("USER"), 0));
+
+        methodValidation = new HttpMethodValidationFilter();
+        jwtCached = new JwtAuthenticationFilter(cachingProvider, revocationStore, meterRegistry);
+        jwtUncached = new JwtAuthenticationFilter(new JwtTokenProvider(SECRET, 900_000, 0), revocationStore,
+            meterRegistry);
+        errorHandling = new ErrorHandlingMiddleware(Jackson2ObjectMapperBuilder.json().build());
+        accessLog = new AccessLog(new AccessLogProperties(true, 8192, 0.1, Duration.ofSeconds(1),
+            List.of("User-Agent", "X-Trace-ID"), Duration.ofMillis(50)), meterRegistry);
+        accessLog.start();
+        requestLogging = new RequestLoggingMiddleware(accessLog,
+            new TraceStore(new TracingProperties(true, Duration.ofMillis(500), 200, 256)),
+            new RequestCapture(new CaptureProperties(false, 0, Path.of("target"), 0, DataSize.ofBytes(0), 1,
+                Duration.ZERO), meterRegistry));
+
+        // Registration order of the application: logging, error handling, then the security chain
+        chain = chain(HANDLER, requestLogging, errorHandling, methodValidation, jwtCached);
+    }
+
+    @TearDown
+    public void tearDown() {
+        accessLog.stop();
+    }
+
+    private static FilterChain chain(FilterChain handler, Filter... filters) {
+        var next = handler;
+        for (int i = filters.length - 1; i >= 0; i--) {
+            var filter = filters[i];
+            var rest = next;
+            next = (request, response) -> filter.doFilter(request, response, rest);
+        }
+        return next;
+    }
+
+    private MockHttpServletRequest request() {
+        var request = new MockHttpServletRequest("GET", "/api/stocks/AAPL");
+        request.addHeader("Authorization", "Bearer " + token);
+        request.addHeader("User-Agent", "FilterChainBenchmark");
+        return request;
+    }
+
+    private MockHttpServletResponse run(Filter filter, FilterChain next) throws IOException, ServletException {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request(), response, next);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse baseline() throws IOException, ServletException {
+        var response = new MockHttpServletResponse();
+        HANDLER.doFilter(request(), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse methodValidation() throws IOException, ServletException {
+        return run(methodValidation, HANDLER);
+    }
+
+    /**
+     * Token recognized from the cache of verified tokens, the steady state of an active client.
+     */
+    @Benchmark
+    public MockHttpServletResponse jwtCached() throws IOException, ServletException {
+        return run(jwtCached, HANDLER);
+    }
+
+    /**
+     * Token parsed and its signature verified, the first request with a new token.
+     */
+    @Benchmark
+    public MockHttpServletResponse jwtUncached() throws IOException, ServletException {
+        return run(jwtUncached, HANDLER);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse errorHandling() throws IOException, ServletException {
+        return run(errorHandling, HANDLER);
+    }
+
+    /**
+     * Error status turned into a JSON error body with the ObjectMapper.
+     */
+    @Benchmark
+    public MockHttpServletResponse errorSerialization() throws IOException, ServletException {
+        return run(errorHandling, NOT_FOUND);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse requestLogging() throws IOException, ServletException {
+        return run(requestLogging, HANDLER);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fullChain() throws IOException, ServletException {
+        var response = new MockHttpServletResponse();
+        chain.doFilter(request(), response);
+        return response;
+    }
+}
@@ -0,0 +1,150 @@
+package com.morpheus.stockbetting.service.impl;
+
+import org.apache.spark.ml.classification.LogisticRegressionModel;
+import org.apache.spark.ml.linalg.Vectors;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.morpheus.stockbetting.config.AsyncConfig;
+import com.morpheus.stockbetting.dto.response.PredictionResponse;
+import com.morpheus.stockbetting.service.MLService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of the scoring paths behind {@code /api/stocks/predict}.
+ * Each {@link MLService} implementation is scored one call at a time, in batches submitted
+ * together and from several request threads at once, through the same CPU executor the
+ * application uses. Models are built in memory so that no training data or saved model is needed.
+ * A new scoring path is covered by adding it to the {@code service} parameter.
+ * Run with {@code mvn -Pjmh test-compile exec:exec@jmh -Djmh.args=PredictionBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictionBenchmark {
+
+    private static final int BATCH_SIZE = 32;
+    private static final int TRAINING_ROWS = 2_000;
+
+    @Param({"default", "advanced"})
+    private String service;
+
+    private ExecutorService scoringExecutor;
+    private SparkSession spark;
+    private MLService mlService;
+
+    @Setup
+    public void setUp() {
+        var meterRegistry = new SimpleMeterRegistry();
+        scoringExecutor = new AsyncConfig().cpuExecutor(0, 1_000, meterRegistry);
+        mlService = switch (service) {
+            case "default" -> new DefaultMLService(
+                new LogisticRegressionModel("benchmark", Vectors.dense(-0.8, 0.1, -0.1, 0.8, 0.0), 0.0),
+                scoringExecutor);
+            case "advanced" -> {
+                spark = SparkSession.builder()
+                    .appName("PredictionBenchmark")
+                    .master("local[*]")
+                    .config("spark.ui.enabled", false)
+                    .getOrCreate();
+                var model = AdvancedMLService.createPipeline().fit(trainingData(spark));
+                yield new AdvancedMLService(spark, model, scoringExecutor, scoringExecutor, meterRegistry);
+            }
+            default -> throw new IllegalArgumentException("Unknown scoring path " + service);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        scoringExecutor.shutdownNow();
+        if (spark != null) {
+            spark.stop();
+        }
+    }
+
+    /**
+     * Random daily bars labelled 1 when they closed above their open.
+     */
+    private static Dataset<Row> trainingData(SparkSession spark) {
+        var random = new Random(42);
+        var rows = new ArrayList<Row>(TRAINING_ROWS);
+        for (int i = 0; i < TRAINING_ROWS; i++) {
+            double open = 100 + random.nextGaussian() * 10;
+            double close = open + random.nextGaussian() * 2;
+            double high = Math.max(open, close) + random.nextDouble();
+            double low = Math.min(open, close) - random.nextDouble();
+            double volume = 1_000_000 + random.nextInt(500_000);
+            rows.add(RowFactory.create(open, high, low, close, volume, close > open ? 1.0 : 0.0));
+        }
+        var schema = DataTypes.createStructType(List.of(
+            DataTypes.createStructField("Open", DataTypes.DoubleType, false),
+            DataTypes.createStructField("High", DataTypes.DoubleType, false),
+            DataTypes.createStructField("Low", DataTypes.DoubleType, false),
+            DataTypes.createStructField("Close", DataTypes.DoubleType, false),
+            DataTypes.createStructField("Volume", DataTypes.DoubleType, false),
+            DataTypes.createStructField("Label", DataTypes.DoubleType, false)
+        ).toArray(new StructField[0]));
+        return spark.createDataFrame(rows, schema);
+    }
+
+    private CompletableFuture<PredictionResponse> predict() {
+        return mlService.predict("AAPL", 150.0, 155.0, 148.0, 152.0, 1_000_000L);
+    }
+
+    @Benchmark
+    public PredictionResponse single() {
+        return predict().join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void batch(Blackhole blackhole) {
+        var futures = new ArrayList<CompletableFuture<PredictionResponse>>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            futures.add(predict());
+        }
+        futures.forEach(future -> blackhole.consume(future.join()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PredictionResponse concurrent4() {
+        return predict().join();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public PredictionResponse concurrent16() {
+        return predict().join();
+    }
+}
@@ -0,0 +1,71 @@
+package com.morpheus.stockbetting.service.impl;
+
+import org.apache.spark.scheduler.SparkListener;
+import org.apache.spark.scheduler.SparkListenerStageCompleted;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the metrics of completed Spark stages, grouped by stage name.
+ * Cross-validation runs the same stages once per fold and parameter combination, so stages with
+ * the same call site are summed into one row.
+ */
+class StageMetricsListener extends SparkListener {
+
+    private final Map<String, StageMetrics> stages = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void onStageCompleted(SparkListenerStageCompleted stageCompleted) {
+        var info = stageCompleted.stageInfo();
+        var metrics = info.taskMetrics();
+        long duration = info.submissionTime().isDefined() && info.completionTime().isDefined()
+            ? (Long) info.completionTime().get() - (Long) info.submissionTime().get()
+            : 0;
+        stages.merge(info.name(), new StageMetrics(info.name(), 1, info.numTasks(), duration,
+                metrics.executorRunTime(), metrics.inputMetrics().bytesRead(),
+                metrics.shuffleReadMetrics().totalBytesRead(), metrics.shuffleWriteMetrics().bytesWritten(),
+                metrics.memoryBytesSpilled(), metrics.diskBytesSpilled(), metrics.peakExecutionMemory()),
+            StageMetrics::plus);
+    }
+
+    /**
+     * Returns the stages completed since the last call and forgets them.
+     */
+    synchronized List<StageMetrics> drain() {
+        var drained = new ArrayList<>(stages.values());
+        stages.clear();
+        return drained;
+    }
+
+    /**
+     * Metrics of the stages sharing a name.
+     *
+     * @param name              the stage name, the call site that started it
+     * @param count             stages run under this name
+     * @param tasks             tasks of those stages
+     * @param wallMillis        summed time from submission to completion
+     * @param executorRunMillis summed time tasks spent running
+     * @param inputBytes        bytes read from the input files
+     * @param shuffleReadBytes  bytes read from shuffle files, local and remote
+     * @param shuffleWriteBytes bytes written to shuffle files
+     * @param memorySpilledBytes in-memory size of the data spilled, as it was before serialization
+     * @param diskSpilledBytes  bytes the spilled data took on disk; both count the same spill
+     * @param peakExecutionMemory largest peak execution memory of a stage, on or off heap
+     */
+    record StageMetrics(String name, int count, int tasks, long wallMillis, long executorRunMillis,
+                        long inputBytes, long shuffleReadBytes, long shuffleWriteBytes, long memorySpilledBytes,
+                        long diskSpilledBytes, long peakExecutionMemory) {
+
+        StageMetrics plus(StageMetrics other) {
+            return new StageMetrics(name, count + other.count, tasks + other.tasks,
+                wallMillis + other.wallMillis, executorRunMillis + other.executorRunMillis,
+                inputBytes + other.inputBytes, shuffleReadBytes + other.shuffleReadBytes,
+                shuffleWriteBytes + other.shuffleWriteBytes, memorySpilledBytes + other.memorySpilledBytes,
+                diskSpilledBytes + other.diskSpilledBytes,
+                Math.max(peakExecutionMemory, other.peakExecutionMemory));
+        }
+    }
+}
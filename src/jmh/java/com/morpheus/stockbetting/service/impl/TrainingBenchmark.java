@@ -0,0 +1,236 @@
+package com.morpheus.stockbetting.service.impl;
+
+import org.apache.spark.SparkEnv;
+import org.apache.spark.sql.SparkSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import ch.qos.logback.classic.Level;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Scaling of model training with the size of the training set.
+ * For every size a synthetic OHLCV file is generated once, then the training of
+ * {@link AdvancedMLService} runs on it: CSV load, VectorAssembler, StandardScaler and
+ * LogisticRegression cross-validated over the same parameter grid, and evaluation of the best model.
+ * Each run reports its wall time, the peak JVM heap, direct buffer and Spark off-heap memory seen
+ * by a sampler, and the time, shuffle and spill of every Spark stage. Training runs take seconds
+ * to hours, so this is a plain job rather than a JMH benchmark; compare runs by their JSON reports.
+ * The first run also pays for class loading and JIT compilation, so start with a small size.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec@training -Dtraining.args="--rows 10000,100000"}.
+ * Options: {@code --rows} training set sizes (10000,100000,1000000), {@code --conf key=value}
+ * Spark settings applied over the application's (repeatable), {@code --data} directory of the
+ * generated files (target/training-data), {@code --output} JSON report
+ * (target/training-benchmark.json), {@code --stages} stages printed per run (10).
+ */
+public final class TrainingBenchmark {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 20;
+
+    private TrainingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var rows = new long[]{10_000, 100_000, 1_000_000};
+        var conf = new LinkedHashMap<String, String>();
+        var data = Path.of("target/training-data");
+        var output = Path.of("target/training-benchmark.json");
+        int printedStages = 10;
+        for (int i = 0; i < args.length; i += 2) {
+            var value = args[i + 1];
+            switch (args[i]) {
+                case "--rows" -> rows = Arrays.stream(value.split(",")).mapToLong(Long::parseLong).toArray();
+                case "--conf" -> conf.put(value.substring(0, value.indexOf('=')), value.substring(value.indexOf('=') + 1));
+                case "--data" -> data = Path.of(value);
+                case "--output" -> output = Path.of(value);
+                case "--stages" -> printedStages = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        // Without Spring Boot's logging setup Logback logs everything at DEBUG
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        var builder = AdvancedMLService.sparkSessionBuilder()
+            .appName("TrainingBenchmark")
+            .config("spark.ui.enabled", false);
+        conf.forEach(builder::config);
+        var spark = builder.getOrCreate();
+        var listener = new StageMetricsListener();
+        spark.sparkContext().addSparkListener(listener);
+        var sparkConf = new TreeMap<String, String>();
+        for (var entry : spark.sparkContext().getConf().getAll()) {
+            sparkConf.put(entry._1(), entry._2());
+        }
+
+        var runs = new ArrayList<Map<String, Object>>();
+        try {
+            for (long size : rows) {
+                var file = syntheticBars(data, size);
+                runs.add(train(spark, listener, file, size, printedStages));
+            }
+        } finally {
+            spark.stop();
+        }
+
+        var report = new LinkedHashMap<String, Object>();
+        report.put("sparkConf", sparkConf);
+        report.put("runs", runs);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        System.out.printf("Report written to %s%n", output);
+    }
+
+    private static Map<String, Object> train(SparkSession spark, StageMetricsListener listener, Path file,
+                                             long size, int printedStages)
+            throws InterruptedException, TimeoutException {
+        System.gc();
+        listener.drain();
+        long gcBefore = gcMillis();
+        var sampler = new MemorySampler();
+        sampler.start();
+
+        long started = System.nanoTime();
+        var dataset = AdvancedMLService.readTrainingData(spark, AdvancedMLService.createSchema(), file.toString());
+        AdvancedMLService.fitAndEvaluate(dataset, AdvancedMLService.createPipeline(),
+            AdvancedMLService.createParamGrid());
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        sampler.interrupt();
+        sampler.join();
+        // Stage events are delivered asynchronously
+        spark.sparkContext().listenerBus().waitUntilEmpty();
+        var stages = listener.drain();
+        stages.sort(Comparator.comparingLong(StageMetricsListener.StageMetrics::wallMillis).reversed());
+
+        long shuffleRead = stages.stream().mapToLong(StageMetricsListener.StageMetrics::shuffleReadBytes).sum();
+        long shuffleWrite = stages.stream().mapToLong(StageMetricsListener.StageMetrics::shuffleWriteBytes).sum();
+        long memorySpilled = stages.stream().mapToLong(StageMetricsListener.StageMetrics::memorySpilledBytes).sum();
+        long diskSpilled = stages.stream().mapToLong(StageMetricsListener.StageMetrics::diskSpilledBytes).sum();
+        System.out.printf(Locale.ROOT, "%,d rows: %,d ms, peak heap %s, peak direct %s, peak Spark off-heap %s, "
+                + "GC %,d ms, %d stages, shuffle read %s, shuffle write %s, spilled %s (%s on disk)%n",
+            size, wallMillis, bytes(sampler.peakHeap), bytes(sampler.peakDirect), bytes(sampler.peakSparkOffHeap),
+            gcMillis() - gcBefore, stages.stream().mapToInt(StageMetricsListener.StageMetrics::count).sum(),
+            bytes(shuffleRead), bytes(shuffleWrite), bytes(memorySpilled), bytes(diskSpilled));
+        System.out.printf("  %6s %5s %7s %10s %10s %10s %10s  %s%n",
+            "count", "tasks", "wall ms", "input", "shuf read", "shuf write", "peak exec", "stage");
+        stages.stream().limit(printedStages).forEach(stage -> System.out.printf(Locale.ROOT,
+            "  %6d %5d %7d %10s %10s %10s %10s  %s%n", stage.count(), stage.tasks(), stage.wallMillis(),
+            bytes(stage.inputBytes()), bytes(stage.shuffleReadBytes()), bytes(stage.shuffleWriteBytes()),
+            bytes(stage.peakExecutionMemory()), stage.name()));
+
+        var run = new LinkedHashMap<String, Object>();
+        run.put("rows", size);
+        run.put("wallMillis", wallMillis);
+        run.put("peakHeapBytes", sampler.peakHeap);
+        run.put("peakDirectBytes", sampler.peakDirect);
+        run.put("peakSparkOffHeapBytes", sampler.peakSparkOffHeap);
+        run.put("gcMillis", gcMillis() - gcBefore);
+        run.put("shuffleReadBytes", shuffleRead);
+        run.put("shuffleWriteBytes", shuffleWrite);
+        run.put("memorySpilledBytes", memorySpilled);
+        run.put("diskSpilledBytes", diskSpilled);
+        run.put("stages", stages);
+        return run;
+    }
+
+    /**
+     * Writes a random walk of daily bars labelled 1 when they closed above their open,
+     * unless the file of that size already exists.
+     */
+    private static Path syntheticBars(Path directory, long rows) throws IOException {
+        var file = directory.resolve("bars-" + rows + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Files.createDirectories(directory);
+        var random = new Random(42);
+        var temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary)) {
+            writer.write("Open,High,Low,Close,Volume,Label\n");
+            double close = 100;
+            for (long i = 0; i < rows; i++) {
+                double open = close * (1 + random.nextGaussian() * 0.005);
+                close = Math.max(1, open * (1 + random.nextGaussian() * 0.02));
+                double high = Math.max(open, close) * (1 + random.nextDouble() * 0.01);
+                double low = Math.min(open, close) * (1 - random.nextDouble() * 0.01);
+                long volume = 1_000_000 + random.nextInt(500_000);
+                writer.write(String.format(Locale.ROOT, "%.4f,%.4f,%.4f,%.4f,%d,%d%n",
+                    open, high, low, close, volume, close > open ? 1 : 0));
+            }
+        }
+        Files.move(temporary, file);
+        return file;
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format(Locale.ROOT, "%.1f %siB", bytes / (double) (1L << unit * 10), "KMGTPE".charAt(unit - 1));
+    }
+
+    /**
+     * Polls memory usage until interrupted and keeps the peaks. Short-lived peaks between two
+     * samples are missed, so the figures are lower bounds.
+     */
+    private static final class MemorySampler extends Thread {
+
+        private final List<BufferPoolMXBean> directPools =
+            ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+        private volatile long peakHeap;
+        private volatile long peakDirect;
+        private volatile long peakSparkOffHeap;
+
+        MemorySampler() {
+            super("memory-sampler");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            var memory = ManagementFactory.getMemoryMXBean();
+            var memoryManager = SparkEnv.get().memoryManager();
+            while (!isInterrupted()) {
+                peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+                peakDirect = Math.max(peakDirect, directPools.stream().mapToLong(BufferPoolMXBean::getMemoryUsed).sum());
+                peakSparkOffHeap = Math.max(peakSparkOffHeap,
+                    memoryManager.offHeapExecutionMemoryUsed() + memoryManager.offHeapStorageMemoryUsed());
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.morpheus.stockbetting.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Load driver finding the saturation point of the auth and stock endpoints of a running instance,
+ * usually one started with the loadtest profile.
+ * For every scenario the arrival rate is stepped up until a step misses its objectives: less than
+ * 95% of the offered rate completed, a p99 above the objective or too many errors. The last rate
+ * that met them is reported as the sustainable rate. Each step prints its offered and achieved
+ * rates, latency percentiles and error counts, and the whole run is written as JSON.
+ * <p>
+ * Options, all optional:
+ * <pre>
+ * --base-url URL          instance under test (http://localhost:8080)
+ * --scenario LIST         login, history, save, predict and/or mixed (login,history,save,predict)
+ * --rates LIST            arrival rates of every scenario in requests per second
+ * --SCENARIO-rates LIST   arrival rates of one scenario, e.g. --login-rates 2,4,8
+ * --step DURATION         length of each step (30s)
+ * --warmup DURATION       unrecorded run at the first rate of each scenario (10s)
+ * --p99 DURATION          latency objective (500ms)
+ * --max-error-rate RATIO  share of failed requests tolerated (0.01)
+ * --max-in-flight N       requests in flight beyond which due requests are dropped (2000)
+ * --timeout DURATION      request timeout (10s)
+ * --users N               users registered for the run (10)
+ * --symbols N             symbols with seeded history (20)
+ * --bars N                seeded bars per symbol (100)
+ * --all-steps             keep stepping past the saturation point
+ * --output FILE           JSON report (target/loadtest-result.json)
+ * </pre>
+ * Durations are written like 30s, 500ms or 2m.
+ */
+public final class LoadDriver {
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var options = parse(args);
+        var baseUri = URI.create(options.getOrDefault("base-url", "http://localhost:8080"));
+        var step = duration(options.getOrDefault("step", "30s"));
+        var warmup = duration(options.getOrDefault("warmup", "10s"));
+        var p99Objective = duration(options.getOrDefault("p99", "500ms"));
+        var maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+        var timeout = duration(options.getOrDefault("timeout", "10s"));
+        var output = Path.of(options.getOrDefault("output", "target/loadtest-result.json"));
+        boolean allSteps = options.containsKey("all-steps");
+
+        var client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        var workload = new Workload(baseUri, timeout);
+        System.out.printf("Seeding %s%n", baseUri);
+        workload.setUp(client,
+            Integer.parseInt(options.getOrDefault("users", "10")),
+            Integer.parseInt(options.getOrDefault("symbols", "20")),
+            Integer.parseInt(options.getOrDefault("bars", "100")));
+
+        var generator = new OpenLoadGenerator(client,
+            Integer.parseInt(options.getOrDefault("max-in-flight", "2000")), timeout.plusSeconds(1));
+        var steps = new ArrayList<StepResult>();
+        var saturation = new LinkedHashMap<String, Map<String, Object>>();
+        for (var name : options.getOrDefault("scenario", "login,history,save,predict").split(",")) {
+            var scenario = Scenario.parse(name);
+            var rates = rates(options, scenario);
+            if (!warmup.isZero()) {
+                System.out.printf("Warming up %s at %.1f/s for %s%n", scenario, rates[0], warmup);
+                generator.run(scenario.toString(), () -> scenario.next(workload), rates[0], warmup);
+            }
+            printHeader();
+            double sustained = 0;
+            String reason = null;
+            for (double rate : rates) {
+                var result = generator.run(scenario.toString(), () -> scenario.next(workload), rate, step);
+                steps.add(result);
+                print(result);
+                var stepReason = result.saturationReason(p99Objective, maxErrorRate);
+                if (stepReason == null && reason == null) {
+                    sustained = rate;
+                } else if (reason == null) {
+                    reason = rate + "/s: " + stepReason;
+                    if (!allSteps) {
+                        break;
+                    }
+                }
+            }
+            var point = new LinkedHashMap<String, Object>();
+            point.put("sustainedRate", sustained);
+            point.put("saturatedAt", reason);
+            saturation.put(scenario.toString(), point);
+            System.out.printf("%s sustains %.1f/s, %s%n%n", scenario, sustained,
+                reason == null ? "saturation not reached" : "saturated at " + reason);
+        }
+
+        var report = new LinkedHashMap<String, Object>();
+        report.put("baseUrl", baseUri.toString());
+        report.put("step", step.toString());
+        report.put("p99Objective", p99Objective.toString());
+        report.put("maxErrorRate", maxErrorRate);
+        report.put("saturation", saturation);
+        report.put("steps", steps);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        System.out.printf("Report written to %s%n", output);
+    }
+
+    private static void printHeader() {
+        System.out.printf("%-8s %8s %8s %9s %8s %7s %6s %7s %8s %8s %8s %8s %8s%n", "scenario", "target/s",
+            "sent/s", "done/s", "requests", "errors", "429/503", "dropped", "p50 ms", "p90 ms", "p99 ms",
+            "p99.9 ms", "max ms");
+    }
+
+    private static void print(StepResult r) {
+        System.out.printf(Locale.ROOT, "%-8s %8.1f %8.1f %9.1f %8d %7d %6d %7d %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+            r.scenario(), r.targetRate(), r.sentRate(), r.throughput(), r.requests(), r.errors() + r.failures(),
+            r.rejected(), r.dropped(), r.p50(), r.p90(), r.p99(), r.p999(), r.max());
+    }
+
+    private static double[] rates(Map<String, String> options, Scenario scenario) {
+        var list = options.getOrDefault(scenario + "-rates", options.get("rates"));
+        if (list == null) {
+            return scenario.defaultRates();
+        }
+        return Arrays.stream(list.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        var options = new HashMap<String, String>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            var name = args[i].substring(2);
+            boolean flag = i + 1 == args.length || args[i + 1].startsWith("--");
+            options.put(name, flag ? "" : args[++i]);
+        }
+        return options;
+    }
+
+    /**
+     * Parses durations like 500ms, 30s or 2m.
+     */
+    private static Duration duration(String value) {
+        var matcher = Pattern.compile("(\\d+)(ms|s|m)").matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid duration " + value);
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        return switch (matcher.group(2)) {
+            case "ms" -> Duration.ofMillis(amount);
+            case "s" -> Duration.ofSeconds(amount);
+            default -> Duration.ofMinutes(amount);
+        };
+    }
+}
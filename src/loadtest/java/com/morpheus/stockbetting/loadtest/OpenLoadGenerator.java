@@ -0,0 +1,123 @@
+package com.morpheus.stockbetting.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open model load generator: requests are sent at a constant arrival rate whether or not earlier
+ * ones have completed, the way independent clients arrive at a service.
+ * Request i of a step is due at {@code start + i / rate}. Its latency is measured from that due
+ * time rather than from when it was actually sent, so a stalled driver or a full connection pool
+ * shows up in the percentiles instead of silently lowering the load (coordinated omission).
+ * Requests due while the in-flight cap is reached are counted as dropped.
+ */
+final class OpenLoadGenerator {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final HttpClient client;
+    private final int maxInFlight;
+    private final Duration drainTimeout;
+
+    OpenLoadGenerator(HttpClient client, int maxInFlight, Duration drainTimeout) {
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Sends requests at the given rate for the given duration, then waits for the responses.
+     *
+     * @param scenario the name reported with the result
+     * @param requests supplies the next request, called on the calling thread only
+     * @param rate     arrival rate in requests per second
+     * @param duration how long requests are sent
+     * @return the counts and latency percentiles of the step
+     */
+    StepResult run(String scenario, Supplier<HttpRequest> requests, double rate, Duration duration)
+            throws InterruptedException {
+        var recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        var inFlight = new AtomicInteger();
+        var ok = new LongAdder();
+        var okInStep = new LongAdder();
+        var errors = new LongAdder();
+        var rejected = new LongAdder();
+        var failures = new LongAdder();
+        long dropped = 0;
+        long sent = 0;
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long due = start;
+        for (long i = 0; due < end; due = start + (long) (++i * 1e9 / rate)) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                dropped++;
+                continue;
+            }
+            inFlight.incrementAndGet();
+            sent++;
+            long dueAt = due;
+            client.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long now = System.nanoTime();
+                    recorder.recordValue(Math.min(MAX_LATENCY_MICROS, (now - dueAt) / 1_000));
+                    if (error != null) {
+                        failures.increment();
+                    } else if (response.statusCode() / 100 == 2) {
+                        ok.increment();
+                        if (now <= end) {
+                            okInStep.increment();
+                        }
+                    } else {
+                        errors.increment();
+                        if (response.statusCode() == 429 || response.statusCode() == 503) {
+                            rejected.increment();
+                        }
+                    }
+                    inFlight.decrementAndGet();
+                });
+        }
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        // Responses still missing count as failures
+        failures.add(inFlight.get());
+
+        var histogram = recorder.getIntervalHistogram();
+        long requestsDue = sent + dropped;
+        return new StepResult(
+            scenario,
+            rate,
+            sent * 1e9 / duration.toNanos(),
+            okInStep.sum() * 1e9 / duration.toNanos(),
+            requestsDue,
+            ok.sum(),
+            errors.sum(),
+            rejected.sum(),
+            failures.sum(),
+            dropped,
+            millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(90)),
+            millis(histogram.getValueAtPercentile(99)),
+            millis(histogram.getValueAtPercentile(99.9)),
+            millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
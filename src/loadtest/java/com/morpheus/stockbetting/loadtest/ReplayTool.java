@@ -0,0 +1,256 @@
+package com.morpheus.stockbetting.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.morpheus.stockbetting.capture.CaptureCodec;
+import com.morpheus.stockbetting.capture.CapturedRequest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Replays a file written by the request capture against an instance and compares the outcome.
+ * Requests are sent at the times they were captured, divided by the speed factor, whether or
+ * not earlier ones have completed; latency is measured from that due time. Each response is
+ * compared with the captured one by status and by the CRC32 of its body, and latency
+ * percentiles of the capture and of the replay are reported per route. Routes group paths by
+ * replacing segments that look like symbols or ids with {@code *}.
+ * Captured requests carried no token, those that were authenticated are sent with the token of
+ * a user the tool registers. Credentials in captured bodies were redacted, so logins and other
+ * requests depending on them are expected to differ; leave them out with {@code --exclude}.
+ * Bodies with timestamps or generated ids also differ between runs, compare their status only.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec@replay -Dreplay.args="--file capture.sbcap"}.
+ * Options: {@code --file} capture file (required), {@code --base-url} instance under test
+ * (http://localhost:8080), {@code --speed} replay speed factor, 2 replays twice as fast (1),
+ * {@code --exclude} regular expression of paths not replayed, {@code --max-in-flight} requests in
+ * flight beyond which due requests are dropped (2000), {@code --timeout} request timeout in
+ * seconds (10), {@code --output} JSON report (target/replay-result.json).
+ */
+public final class ReplayTool {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final Pattern VARIABLE_SEGMENT = Pattern.compile("[A-Z0-9.^-]*[A-Z0-9][A-Z0-9.^-]*");
+    private static final Set<String> BODILESS_METHODS = Set.of("GET", "DELETE", "HEAD", "OPTIONS");
+
+    private ReplayTool() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var options = new LinkedHashMap<String, String>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        var file = Path.of(required(options, "file"));
+        var baseUri = URI.create(options.getOrDefault("base-url", "http://localhost:8080"));
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        var exclude = options.containsKey("exclude") ? Pattern.compile(options.get("exclude")) : null;
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        var inFlight = new Semaphore(maxInFlight);
+        var timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "10")));
+        var output = Path.of(options.getOrDefault("output", "target/replay-result.json"));
+
+        var client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        var token = token(client, baseUri, timeout);
+        var routes = new ConcurrentHashMap<String, RouteStats>();
+        long dropped = 0;
+
+        try (var in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            long capturedAt = CaptureCodec.readHeader(in);
+            System.out.printf("Replaying %s, captured from %tF %<tT, at %.1fx against %s%n",
+                file, capturedAt, speed, baseUri);
+            long start = System.nanoTime();
+            long firstOffset = -1;
+            for (var captured = CaptureCodec.read(in); captured != null; captured = CaptureCodec.read(in)) {
+                if (exclude != null && exclude.matcher(captured.path()).find()) {
+                    continue;
+                }
+                if (firstOffset < 0) {
+                    firstOffset = captured.offsetMicros();
+                }
+                long due = start + (long) ((captured.offsetMicros() - firstOffset) * 1_000 / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                var stats = routes.computeIfAbsent(captured.method() + " " + route(captured.path()),
+                    route -> new RouteStats());
+                stats.captured.recordValue(Math.min(MAX_LATENCY_MICROS, captured.durationMicros()));
+                if (!inFlight.tryAcquire()) {
+                    dropped++;
+                    stats.dropped.increment();
+                    continue;
+                }
+                send(client, request(baseUri, captured, token, timeout), captured, stats, due, inFlight);
+            }
+        }
+        // Wait for the responses still in flight
+        inFlight.acquire(maxInFlight);
+
+        var report = report(new TreeMap<>(routes), dropped);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        System.out.printf("Report written to %s%n", output);
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        var value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing option --" + name);
+        }
+        return value;
+    }
+
+    /**
+     * Registers a user for this replay and returns its access token.
+     */
+    private static String token(HttpClient client, URI baseUri, Duration timeout)
+            throws IOException, InterruptedException {
+        var credentials = "{\"username\":\"replay" + System.currentTimeMillis() + "\",\"password\":\"replay-password\"}";
+        for (var path : new String[]{"/api/auth/register", "/api/auth/login"}) {
+            var response = client.send(HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(path + " failed with " + response.statusCode());
+            }
+            if (path.endsWith("login")) {
+                return new ObjectMapper().readTree(response.body()).get("token").asText();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private static HttpRequest request(URI baseUri, CapturedRequest captured, String token, Duration timeout) {
+        var builder = HttpRequest.newBuilder(baseUri.resolve(captured.path()))
+            .timeout(timeout)
+            .header("User-Agent", "stockbetting-replay");
+        if (captured.authenticated()) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        if (captured.contentType() != null) {
+            builder.header("Content-Type", captured.contentType());
+        }
+        var body = captured.body().length == 0 && BODILESS_METHODS.contains(captured.method())
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(captured.body());
+        return builder.method(captured.method(), body).build();
+    }
+
+    private static void send(HttpClient client, HttpRequest request, CapturedRequest captured, RouteStats stats,
+                             long due, Semaphore inFlight) {
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+                stats.replayed.recordValue(Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - due) / 1_000));
+                if (error != null) {
+                    stats.failures.increment();
+                } else if (response.statusCode() != captured.status()) {
+                    stats.statusMismatches.increment();
+                } else {
+                    var crc = new CRC32();
+                    crc.update(response.body());
+                    if ((int) crc.getValue() != captured.responseCrc()) {
+                        stats.bodyMismatches.increment();
+                    }
+                }
+                inFlight.release();
+            });
+    }
+
+    /**
+     * Replaces path segments that look like symbols, dates or ids, and drops the query string.
+     */
+    static String route(String path) {
+        int query = path.indexOf('?');
+        var segments = (query < 0 ? path : path.substring(0, query)).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (VARIABLE_SEGMENT.matcher(segments[i]).matches()) {
+                segments[i] = "*";
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    private static Map<String, Object> report(Map<String, RouteStats> routes, long dropped) {
+        System.out.printf("%-32s %7s %9s %9s %9s %9s %8s %8s %6s %6s %6s%n", "route", "count", "cap p50",
+            "cap p99", "rep p50", "rep p99", "p50 diff", "p99 diff", "status", "body", "failed");
+        var rows = new LinkedHashMap<String, Object>();
+        routes.forEach((route, stats) -> {
+            var replayed = stats.replayed.getIntervalHistogram();
+            var row = new LinkedHashMap<String, Object>();
+            row.put("count", stats.captured.getTotalCount());
+            row.put("replayed", replayed.getTotalCount());
+            row.put("capturedP50Ms", millis(stats.captured, 50));
+            row.put("capturedP99Ms", millis(stats.captured, 99));
+            row.put("replayedP50Ms", millis(replayed, 50));
+            row.put("replayedP99Ms", millis(replayed, 99));
+            row.put("statusMismatches", stats.statusMismatches.sum());
+            row.put("bodyMismatches", stats.bodyMismatches.sum());
+            row.put("failures", stats.failures.sum());
+            row.put("dropped", stats.dropped.sum());
+            rows.put(route, row);
+            System.out.printf(Locale.ROOT, "%-32s %7d %9.1f %9.1f %9.1f %9.1f %7.0f%% %7.0f%% %6d %6d %6d%n",
+                route, stats.captured.getTotalCount(), millis(stats.captured, 50), millis(stats.captured, 99),
+                millis(replayed, 50), millis(replayed, 99),
+                change(millis(stats.captured, 50), millis(replayed, 50)),
+                change(millis(stats.captured, 99), millis(replayed, 99)),
+                stats.statusMismatches.sum(), stats.bodyMismatches.sum(), stats.failures.sum() + stats.dropped.sum());
+        });
+        var report = new LinkedHashMap<String, Object>();
+        report.put("dropped", dropped);
+        report.put("routes", rows);
+        return report;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    private static double change(double captured, double replayed) {
+        return captured == 0 ? 0 : (replayed - captured) * 100 / captured;
+    }
+
+    /**
+     * Latencies and comparison outcomes of one route. Captured latencies are only recorded by
+     * the reading thread, replay latencies by the response threads.
+     */
+    private static final class RouteStats {
+        private final Histogram captured = new Histogram(MAX_LATENCY_MICROS, 3);
+        private final Recorder replayed = new Recorder(MAX_LATENCY_MICROS, 3);
+        private final LongAdder statusMismatches = new LongAdder();
+        private final LongAdder bodyMismatches = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+}
@@ -0,0 +1,97 @@
+package com.morpheus.stockbetting.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Locale;
+
+/**
+ * Request mixes the driver can offer. Each scenario draws its next request from the {@link Workload}.
+ */
+enum Scenario {
+
+    /**
+     * Logins of the seeded users, dominated by the BCrypt check on the password hashing executor.
+     */
+    LOGIN(1, 2, 4, 8, 16, 32) {
+        @Override
+        HttpRequest next(Workload workload) {
+            return workload.login();
+        }
+    },
+
+    /**
+     * Authenticated history reads of the seeded symbols.
+     */
+    HISTORY(50, 100, 200, 400, 800, 1600) {
+        @Override
+        HttpRequest next(Workload workload) {
+            return workload.history();
+        }
+    },
+
+    /**
+     * Authenticated saves of new daily bars.
+     */
+    SAVE(50, 100, 200, 400, 800, 1600) {
+        @Override
+        HttpRequest next(Workload workload) {
+            return workload.save();
+        }
+    },
+
+    /**
+     * Authenticated predictions for random bars.
+     */
+    PREDICT(50, 100, 200, 400, 800, 1600) {
+        @Override
+        HttpRequest next(Workload workload) {
+            return workload.predict();
+        }
+    },
+
+    /**
+     * 70% history reads, 15% predictions, 10% saves and 5% logins.
+     */
+    MIXED(25, 50, 100, 200, 400, 800) {
+        @Override
+        HttpRequest next(Workload workload) {
+            int draw = workload.draw(100);
+            if (draw < 70) {
+                return workload.history();
+            }
+            if (draw < 85) {
+                return workload.predict();
+            }
+            if (draw < 95) {
+                return workload.save();
+            }
+            return workload.login();
+        }
+    };
+
+    private final double[] defaultRates;
+
+    Scenario(double... defaultRates) {
+        this.defaultRates = defaultRates;
+    }
+
+    /**
+     * Arrival rates stepped through when none are given, in requests per second.
+     */
+    double[] defaultRates() {
+        return defaultRates.clone();
+    }
+
+    /**
+     * Returns the next request to send.
+     */
+    abstract HttpRequest next(Workload workload);
+
+    static Scenario parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
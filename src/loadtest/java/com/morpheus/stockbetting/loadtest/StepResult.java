@@ -0,0 +1,62 @@
+package com.morpheus.stockbetting.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one constant arrival rate step.
+ * Latencies are in milliseconds and measured from the time each request was due to be sent.
+ *
+ * @param scenario   the request mix
+ * @param targetRate the arrival rate asked for, in requests per second
+ * @param sentRate   the rate requests were actually sent at
+ * @param throughput successful responses per second received during the step
+ * @param requests   requests due during the step, sent or not
+ * @param ok         responses with a 2xx status
+ * @param errors     responses with any other status
+ * @param rejected   responses with 429 or 503, the share of errors due to rate limits and shedding
+ * @param failures   requests without a response, timeouts and connection errors
+ * @param dropped    requests not sent because too many were in flight
+ */
+record StepResult(
+    String scenario,
+    double targetRate,
+    double sentRate,
+    double throughput,
+    long requests,
+    long ok,
+    long errors,
+    long rejected,
+    long failures,
+    long dropped,
+    double p50,
+    double p90,
+    double p99,
+    double p999,
+    double max
+) {
+
+    /**
+     * Share of due requests that did not get a successful response.
+     */
+    public double errorRate() {
+        return requests == 0 ? 0 : (double) (requests - ok) / requests;
+    }
+
+    /**
+     * Returns why the step is past the saturation point, or null if the application kept up.
+     * The application keeps up while it completes at least 95% of the offered rate, keeps the
+     * p99 within the objective and fails no more than the allowed share of requests.
+     */
+    String saturationReason(Duration p99Objective, double maxErrorRate) {
+        if (throughput < targetRate * 0.95) {
+            return String.format("throughput %.1f/s below 95%% of %.1f/s", throughput, targetRate);
+        }
+        if (p99 > p99Objective.toMillis()) {
+            return String.format("p99 %.1f ms above %d ms", p99, p99Objective.toMillis());
+        }
+        if (errorRate() > maxErrorRate) {
+            return String.format("error rate %.2f%% above %.2f%%", errorRate() * 100, maxErrorRate * 100);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.morpheus.stockbetting.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Users, tokens and symbols the scenarios draw their requests from.
+ * {@link #setUp} registers and logs in the users and seeds the history of every symbol, so that
+ * reads hit real rows. Requests are only built on the driver thread, the random source is not shared.
+ */
+final class Workload {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 3);
+    private static final int SEED_CONCURRENCY = 16;
+
+    private final URI baseUri;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final List<String> usernames = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<String> symbols = new ArrayList<>();
+    private int nextDay;
+
+    Workload(URI baseUri, Duration timeout) {
+        this.baseUri = baseUri;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Registers and logs in the users and saves the seed bars of every symbol.
+     *
+     * @throws IllegalStateException if a user cannot log in or a seed bar is not saved
+     */
+    void setUp(HttpClient client, int users, int symbolCount, int barsPerSymbol)
+            throws IOException, InterruptedException {
+        long runId = System.currentTimeMillis() % 1_000_000;
+        for (int i = 0; i < users; i++) {
+            var username = "load" + runId + "u" + i;
+            // Already registered names answer 400, their login below still succeeds
+            client.send(post("/api/auth/register", credentials(username), null), HttpResponse.BodyHandlers.discarding());
+            var response = client.send(post("/api/auth/login", credentials(username), null),
+                HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login of " + username + " failed with " + response.statusCode());
+            }
+            usernames.add(username);
+            tokens.add(objectMapper.readTree(response.body()).get("token").asText());
+        }
+
+        for (int i = 0; i < symbolCount; i++) {
+            symbols.add("LT" + i);
+        }
+        var pending = new ArrayList<CompletableFuture<HttpResponse<Void>>>();
+        for (int day = 0; day < barsPerSymbol; day++) {
+            for (var symbol : symbols) {
+                pending.add(client.sendAsync(post("/api/stocks", bar(symbol, FIRST_DAY.plusDays(day)), token()),
+                    HttpResponse.BodyHandlers.discarding()));
+                if (pending.size() == SEED_CONCURRENCY) {
+                    awaitSeeded(pending);
+                }
+            }
+        }
+        awaitSeeded(pending);
+        nextDay = barsPerSymbol;
+    }
+
+    private static void awaitSeeded(List<CompletableFuture<HttpResponse<Void>>> pending) {
+        for (var future : pending) {
+            int status = future.join().statusCode();
+            if (status != 200) {
+                throw new IllegalStateException("Seeding history failed with " + status);
+            }
+        }
+        pending.clear();
+    }
+
+    HttpRequest login() {
+        return post("/api/auth/login", credentials(usernames.get(random.nextInt(usernames.size()))), null);
+    }
+
+    HttpRequest history() {
+        return request("/api/stocks/" + symbol(), token()).GET().build();
+    }
+
+    HttpRequest save() {
+        return post("/api/stocks", bar(symbol(), FIRST_DAY.plusDays(nextDay++)), token());
+    }
+
+    HttpRequest predict() {
+        return post("/api/stocks/predict", bar(symbol(), FIRST_DAY), token());
+    }
+
+    int draw(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private String symbol() {
+        return symbols.get(random.nextInt(symbols.size()));
+    }
+
+    private String token() {
+        return tokens.get(random.nextInt(tokens.size()));
+    }
+
+    private String credentials(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    /**
+     * A random daily bar with a consistent high and low.
+     */
+    private String bar(String symbol, LocalDate date) {
+        double open = 100 + random.nextDouble(-10, 10);
+        double close = open + random.nextDouble(-2, 2);
+        double high = Math.max(open, close) + random.nextDouble();
+        double low = Math.min(open, close) - random.nextDouble();
+        return String.format(Locale.ROOT,
+            "{\"symbol\":\"%s\",\"open\":%.2f,\"high\":%.2f,\"low\":%.2f,\"close\":%.2f,\"volume\":%d,\"date\":\"%s\"}",
+            symbol, open, high, low, close, 1_000_000 + random.nextInt(500_000), date);
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        return request(path, token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        var builder = HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(timeout)
+            .header("User-Agent", "stockbetting-load-driver");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+}
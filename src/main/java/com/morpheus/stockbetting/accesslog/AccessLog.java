@@ -0,0 +1,209 @@
+package com.morpheus.stockbetting.accesslog;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Structured access log with one JSON line per logged request.
+ * Request threads only decide whether to sample the request and copy a few references into a
+ * preallocated ring buffer slot; a background thread formats the events and hands them to the
+ * "access" logger. Failed (status 400 and above, or an exception) and slow requests are always
+ * logged, successful ones at the configured sample rate. Events arriving while the buffer is full
+ * are dropped and counted in access.log.dropped, as are events that could not be read from the
+ * request.
+ */
+@Component
+@EnableConfigurationProperties(AccessLogProperties.class)
+public class AccessLog implements SmartLifecycle {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+
+    private final AccessLogProperties properties;
+    private final List<String> headerNames;
+    private final long slowThresholdNanos;
+    private final AccessLogRingBuffer buffer;
+    private final StringBuilder line = new StringBuilder(512);
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public AccessLog(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.headerNames = properties.requestHeaders();
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+        this.buffer = new AccessLogRingBuffer(properties.bufferSize(), headerNames.size());
+        FunctionCounter.builder("access.log.dropped", buffer, AccessLogRingBuffer::getDropped)
+            .description("Access events dropped because the buffer was full or the request could not be read")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Records a finished request if it is sampled.
+     *
+     * @param request the request
+     * @param requestId id of the request
+     * @param status response status
+     * @param durationNanos time from the start of the request to its completion
+     * @param error exception the request failed with, or null
+     */
+    public void record(HttpServletRequest request, String requestId, int status, long durationNanos, Throwable error) {
+        if (!properties.enabled() || !isSampled(status, durationNanos, error)) {
+            return;
+        }
+        long sequence = buffer.claim();
+        if (sequence < 0) {
+            return;
+        }
+        var event = buffer.get(sequence);
+        boolean filled = false;
+        try {
+            event.timestampMillis = System.currentTimeMillis();
+            event.requestId = requestId;
+            event.method = request.getMethod();
+            event.path = request.getRequestURI();
+            event.status = status;
+            event.durationNanos = durationNanos;
+            event.clientIp = request.getRemoteAddr();
+            event.error = error == null ? null : error.getClass().getSimpleName();
+            for (int i = 0; i < headerNames.size(); i++) {
+                event.headers[i] = request.getHeader(headerNames.get(i));
+            }
+            filled = true;
+        } finally {
+            // The writer stops at the first unpublished slot, so a claimed slot is always published
+            if (filled) {
+                buffer.publish(sequence);
+            } else {
+                buffer.discard(sequence);
+            }
+        }
+    }
+
+    private boolean isSampled(int status, long durationNanos, Throwable error) {
+        if (status >= 400 || error != null || durationNanos >= slowThresholdNanos) {
+            return true;
+        }
+        double rate = properties.successSampleRate();
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Writes every published event. Only called from the writer thread, or after it stopped.
+     *
+     * @return the number of events written
+     */
+    int flush() {
+        return buffer.drain(this::write);
+    }
+
+    private void write(AccessLogEvent event) {
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.timestampMillis))
+            .append("\",\"id\":");
+        appendString(event.requestId);
+        line.append(",\"method\":");
+        appendString(event.method);
+        line.append(",\"path\":");
+        appendString(event.path);
+        line.append(",\"status\":").append(event.status)
+            .append(",\"durationMs\":").append(TimeUnit.NANOSECONDS.toMicros(event.durationNanos) / 1000.0)
+            .append(",\"client\":");
+        appendString(event.clientIp);
+        if (event.error != null) {
+            line.append(",\"error\":");
+            appendString(event.error);
+        }
+        for (int i = 0; i < headerNames.size(); i++) {
+            if (event.headers[i] != null) {
+                line.append(',');
+                appendString(headerNames.get(i));
+                line.append(':');
+                appendString(event.headers[i]);
+            }
+        }
+        line.append('}');
+        accessLogger.info(line.toString());
+        event.clear();
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void run() {
+        long idleNanos = properties.idleWait().toNanos();
+        while (running) {
+            if (flush() == 0) {
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("access-log").daemon(true).start(this::run);
+    }
+
+    /**
+     * Stops the writer and writes the events still buffered.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        var thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+            if (thread.isAlive()) {
+                // The writer is still busy, a second consumer would corrupt the buffer
+                return;
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
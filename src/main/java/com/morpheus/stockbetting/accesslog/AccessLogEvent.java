@@ -0,0 +1,87 @@
+package com.morpheus.stockbetting.accesslog;
+
+import java.util.Arrays;
+
+/**
+ * Mutable access event, one per ring buffer slot and reused for every request written into it.
+ * Fields are written by the request thread before the slot is published and read by the writer
+ * thread after it observed the publication.
+ */
+public final class AccessLogEvent {
+
+    long timestampMillis;
+    String requestId;
+    String method;
+    String path;
+    int status;
+    long durationNanos;
+    String clientIp;
+    String error;
+    final String[] headers;
+
+    /**
+     * Set when the request thread failed to fill the event; the slot is published but not written.
+     */
+    boolean discarded;
+
+    /**
+     * Sequence of the last event published into this slot, -1 while the slot was never used.
+     */
+    volatile long published = -1;
+
+    AccessLogEvent(int headerCount) {
+        this.headers = new String[headerCount];
+    }
+
+    /**
+     * Drops references so the slot does not keep request data alive.
+     */
+    void clear() {
+        requestId = null;
+        method = null;
+        path = null;
+        clientIp = null;
+        error = null;
+        Arrays.fill(headers, null);
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @param index position of the header in the configured allow-list
+     * @return the header value, or null if the request did not carry it
+     */
+    public String getHeader(int index) {
+        return headers[index];
+    }
+}
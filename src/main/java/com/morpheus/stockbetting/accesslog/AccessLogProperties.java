@@ -0,0 +1,25 @@
+package com.morpheus.stockbetting.accesslog;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Access log settings, bound from the "access-log" configuration prefix.
+ *
+ * @param enabled Whether access events are recorded at all
+ * @param bufferSize Events the ring buffer holds, rounded up to a power of two; events beyond it are dropped
+ * @param successSampleRate Share of successful requests logged, between 0 and 1; failed and slow requests are always logged
+ * @param slowThreshold Requests taking longer are logged whatever the sample rate
+ * @param requestHeaders Request headers copied into each event, all others are left out
+ * @param idleWait How long the writer sleeps when the buffer is empty
+ */
+@ConfigurationProperties("access-log")
+public record AccessLogProperties(boolean enabled, int bufferSize, double successSampleRate,
+                                  Duration slowThreshold, List<String> requestHeaders, Duration idleWait) {
+
+    public AccessLogProperties {
+        requestHeaders = requestHeaders == null ? List.of() : List.copyOf(requestHeaders);
+    }
+}
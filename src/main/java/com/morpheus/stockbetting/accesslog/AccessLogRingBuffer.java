@@ -0,0 +1,114 @@
+package com.morpheus.stockbetting.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated access events.
+ * Request threads claim a slot with one CAS, fill it in place and publish it, or discard it if
+ * filling failed; when the writer has fallen a full ring behind, the event is dropped instead
+ * of blocking the request.
+ * The consumer hands published events out in claim order.
+ */
+public final class AccessLogRingBuffer {
+
+    private final AccessLogEvent[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Next sequence to consume; only written by the consumer.
+     */
+    private volatile long consumed;
+
+    public AccessLogRingBuffer(int size, int headerCount) {
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.slots = new AccessLogEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AccessLogEvent(headerCount);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Claims the next free slot.
+     *
+     * @return the sequence of the claimed slot, or -1 if the buffer is full and the event was dropped
+     */
+    public long claim() {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.incrementAndGet();
+                return -1;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        return sequence;
+    }
+
+    /**
+     * @param sequence a sequence returned by {@link #claim()}
+     * @return the event of the slot, to be filled before {@link #publish(long)}
+     */
+    public AccessLogEvent get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    public void publish(long sequence) {
+        var event = slots[(int) sequence & mask];
+        event.discarded = false;
+        event.published = sequence;
+    }
+
+    /**
+     * Publishes a claimed slot whose event could not be filled. The consumer skips it, and it is
+     * counted as dropped; leaving the slot unpublished would stop the consumer for good.
+     *
+     * @param sequence a sequence returned by {@link #claim()}
+     */
+    public void discard(long sequence) {
+        var event = slots[(int) sequence & mask];
+        event.discarded = true;
+        dropped.incrementAndGet();
+        event.published = sequence;
+    }
+
+    /**
+     * Hands published events to the handler in claim order, stopping at the first slot that is
+     * claimed but not yet published. Discarded events are skipped. Must only be called from the
+     * consumer thread.
+     *
+     * @param handler receives each event; it must not keep a reference after returning
+     * @return the number of events handled
+     */
+    public int drain(Consumer<AccessLogEvent> handler) {
+        long next = consumed;
+        int count = 0;
+        while (true) {
+            var event = slots[(int) next & mask];
+            if (event.published != next) {
+                break;
+            }
+            if (event.discarded) {
+                event.clear();
+            } else {
+                handler.accept(event);
+                count++;
+            }
+            next++;
+            // Free each slot right away so producers can reuse it during long drains
+            consumed = next;
+        }
+        return count;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
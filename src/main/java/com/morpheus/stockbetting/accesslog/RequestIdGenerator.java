@@ -0,0 +1,29 @@
+package com.morpheus.stockbetting.accesslog;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates request ids from a random per-instance prefix and a counter.
+ * Only the prefix draws from SecureRandom, once at startup; each id costs an atomic increment.
+ * Ids are unique across instances with high probability but, unlike random UUIDs, reveal the
+ * order in which an instance received its requests.
+ */
+public final class RequestIdGenerator {
+
+    private final String prefix;
+    private final AtomicLong counter = new AtomicLong();
+
+    public RequestIdGenerator() {
+        this(new SecureRandom().nextLong());
+    }
+
+    RequestIdGenerator(long instanceId) {
+        this.prefix = HexFormat.of().toHexDigits(instanceId) + '-';
+    }
+
+    public String next() {
+        return prefix + Long.toHexString(counter.incrementAndGet());
+    }
+}
@@ -0,0 +1,218 @@
+package com.morpheus.stockbetting.admission;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.morpheus.stockbetting.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrency limiter with a bounded wait queue and an AIMD adaptive limit.
+ * Tasks beyond the limit wait in the queue without holding a thread; once the queue is full,
+ * new tasks are rejected immediately with a {@link ServiceOverloadedException}. Queued tasks
+ * give up their place when their caller cancels them, or fail with the same exception once they
+ * waited longer than the queue timeout, so callers that have gone away do not hold the queue.
+ * Every completed task adjusts the limit: a latency above the threshold multiplies it by the
+ * backoff ratio, otherwise a saturated limit grows by one per limit's worth of completions.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final AdmissionProperties.Limit settings;
+    private final long latencyThresholdNanos;
+    private final Duration retryAfter;
+    private final ArrayDeque<Pending<?>> queue = new ArrayDeque<>();
+    private final Counter shed;
+    private final Counter expired;
+
+    /**
+     * Current limit, fractional so that additive increases accumulate.
+     */
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, AdmissionProperties.Limit settings,
+                                      Duration retryAfter, MeterRegistry meterRegistry) {
+        if (settings.minLimit() < 1 || settings.maxLimit() < settings.minLimit() || settings.queueCapacity() < 0
+                || settings.queueTimeout() == null || !settings.queueTimeout().isPositive()
+                || settings.backoffRatio() <= 0 || settings.backoffRatio() >= 1) {
+            throw new IllegalArgumentException("Invalid concurrency limit settings for " + name + ": " + settings);
+        }
+        this.name = name;
+        this.settings = settings;
+        this.latencyThresholdNanos = settings.latencyThreshold().toNanos();
+        this.retryAfter = retryAfter;
+        this.limit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+
+        Gauge.builder("admission.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .tag("endpoint", name)
+            .description("Current concurrency limit")
+            .register(meterRegistry);
+        Gauge.builder("admission.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+            .tag("endpoint", name)
+            .description("Requests currently executing")
+            .register(meterRegistry);
+        Gauge.builder("admission.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+            .tag("endpoint", name)
+            .description("Requests waiting for a free slot")
+            .register(meterRegistry);
+        this.shed = Counter.builder("admission.shed")
+            .tag("endpoint", name)
+            .description("Requests rejected because the limit and the queue were full")
+            .register(meterRegistry);
+        this.expired = Counter.builder("admission.queue.expired")
+            .tag("endpoint", name)
+            .description("Queued requests rejected because they waited longer than the queue timeout")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts a task now if the limit allows it, queues it otherwise.
+     * Exceptions thrown by the supplier of a task started right away are rethrown to the caller.
+     *
+     * @param task Supplier starting the asynchronous work
+     * @return CompletableFuture completing with the result of the task
+     * @throws ServiceOverloadedException if the limit is reached and the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        Pending<T> pending = null;
+        synchronized (this) {
+            if (inFlight >= (int) limit) {
+                if (queue.size() >= settings.queueCapacity()) {
+                    shed.increment();
+                    throw overloaded();
+                }
+                pending = new Pending<>(task, new CompletableFuture<T>());
+                queue.add(pending);
+            } else {
+                inFlight++;
+            }
+        }
+        if (pending != null) {
+            pending.awaitSlot();
+            return pending.result;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = task.get();
+        } catch (RuntimeException e) {
+            release(-1);
+            throw e;
+        }
+        return future.whenComplete((result, error) -> release(System.nanoTime() - start));
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Too many concurrent " + name + " requests, retry later", retryAfter);
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Frees the slot of a finished task, adjusts the limit and starts queued tasks that now fit.
+     *
+     * @param latencyNanos Execution time of the task, negative if it failed to start
+     */
+    private void release(long latencyNanos) {
+        List<Pending<?>> ready;
+        synchronized (this) {
+            boolean saturated = inFlight >= (int) limit || !queue.isEmpty();
+            inFlight--;
+            if (latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+            } else if (latencyNanos >= 0 && saturated) {
+                limit = Math.min(settings.maxLimit(), limit + 1.0 / limit);
+            }
+
+            ready = new ArrayList<>();
+            while (inFlight < (int) limit && !queue.isEmpty()) {
+                ready.add(queue.poll());
+                inFlight++;
+            }
+        }
+        ready.forEach(Pending::start);
+    }
+
+    /**
+     * Queued task and the future handed to its caller.
+     */
+    private final class Pending<T> {
+        private final Supplier<CompletableFuture<T>> task;
+        private final CompletableFuture<T> result;
+
+        Pending(Supplier<CompletableFuture<T>> task, CompletableFuture<T> result) {
+            this.task = task;
+            this.result = result;
+        }
+
+        /**
+         * Takes the task out of the queue if its caller cancels it or it is still waiting when
+         * the queue timeout elapses.
+         */
+        void awaitSlot() {
+            result.whenComplete((value, error) -> {
+                if (error instanceof CancellationException) {
+                    leaveQueue();
+                }
+            });
+            CompletableFuture.delayedExecutor(settings.queueTimeout().toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (leaveQueue()) {
+                    expired.increment();
+                    result.completeExceptionally(overloaded());
+                }
+            });
+        }
+
+        private boolean leaveQueue() {
+            synchronized (AdaptiveConcurrencyLimiter.this) {
+                return queue.remove(this);
+            }
+        }
+
+        void start() {
+            if (result.isDone()) {
+                // Cancelled between leaving the queue and starting
+                release(-1);
+                return;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<T> future;
+            try {
+                future = task.get();
+            } catch (RuntimeException e) {
+                release(-1);
+                result.completeExceptionally(e);
+                return;
+            }
+            future.whenComplete((value, error) -> {
+                release(System.nanoTime() - start);
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+}
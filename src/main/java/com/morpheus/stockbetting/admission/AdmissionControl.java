@@ -0,0 +1,52 @@
+package com.morpheus.stockbetting.admission;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control in front of the expensive endpoints.
+ * Each configured endpoint gets its own adaptive concurrency limiter, so a burst of predictions
+ * cannot delay ingestion and the other way round.
+ */
+@Component
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControl {
+
+    /**
+     * Limiter name of the prediction endpoint.
+     */
+    public static final String PREDICT = "predict";
+
+    /**
+     * Limiter name of the stock data ingest endpoint.
+     */
+    public static final String INGEST = "ingest";
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new HashMap<>();
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        properties.endpoints().forEach((endpoint, limit) -> limiters.put(endpoint,
+            new AdaptiveConcurrencyLimiter(endpoint, limit, properties.retryAfter(), meterRegistry)));
+    }
+
+    /**
+     * Runs a task under the concurrency limit of an endpoint.
+     * Endpoints without configured limits are not limited.
+     *
+     * @param endpoint The limiter name, e.g. {@link #PREDICT}
+     * @param task Supplier starting the asynchronous work
+     * @return CompletableFuture completing with the result of the task
+     * @throws com.morpheus.stockbetting.exception.ServiceOverloadedException if the request is shed
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, Supplier<CompletableFuture<T>> task) {
+        var limiter = limiters.get(endpoint);
+        return limiter == null ? task.get() : limiter.submit(task);
+    }
+}
@@ -0,0 +1,35 @@
+package com.morpheus.stockbetting.admission;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission control settings, bound from the "admission" configuration prefix.
+ *
+ * @param retryAfter Delay suggested to clients whose request was shed
+ * @param endpoints Concurrency limit settings per endpoint name
+ */
+@ConfigurationProperties("admission")
+public record AdmissionProperties(Duration retryAfter, Map<String, Limit> endpoints) {
+
+    public AdmissionProperties {
+        endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+    }
+
+    /**
+     * Concurrency limit settings of one endpoint.
+     *
+     * @param initialLimit Concurrent requests allowed before any latency was observed
+     * @param minLimit Lower bound of the adaptive limit
+     * @param maxLimit Upper bound of the adaptive limit
+     * @param queueCapacity Requests waiting for a slot beyond which new requests are shed
+     * @param queueTimeout Longest wait for a slot, queued requests are shed after it
+     * @param latencyThreshold Latency above which the limit is decreased
+     * @param backoffRatio Factor the limit is multiplied by when latency exceeds the threshold
+     */
+    public record Limit(int initialLimit, int minLimit, int maxLimit, int queueCapacity, Duration queueTimeout,
+                        Duration latencyThreshold, double backoffRatio) {
+    }
+}
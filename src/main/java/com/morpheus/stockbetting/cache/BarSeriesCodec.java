@@ -0,0 +1,518 @@
+package com.morpheus.stockbetting.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.util.DateUtil;
+
+/**
+ * Compact columnar binary encoding for a series of {@link StockData} bars.
+ *
+ * <p>Layout: a three byte header (magic, version, flags) followed by the body, which is
+ * optionally deflated. The body stores the row count, a symbol dictionary and then one
+ * column per field. Ids and dates are delta encoded as zigzag varints, prices are stored as
+ * delta encoded fixed-point values when that round-trips exactly (raw IEEE bits otherwise)
+ * and volumes are zigzag varints. Every column falls back to a lossless representation, so
+ * decoding always yields the bars that were encoded.
+ */
+public final class BarSeriesCodec {
+
+    /** First byte of every encoded series; never the first byte of a JSON document. */
+    public static final byte MAGIC = (byte) 0xB5;
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_COMPRESSED = 1;
+    private static final int HEADER_LENGTH = 3;
+    private static final int COMPRESSION_THRESHOLD = 512; // Bodies below this size are stored as-is
+
+    private static final byte MODE_ABSENT = 0; // Every value in the column is null
+    private static final byte MODE_DELTA = 1; // Delta encoded zigzag varints
+    private static final byte MODE_RAW = 2; // Uncompressed fallback representation
+
+    private static final double PRICE_SCALE = 10_000d; // Four decimal places of fixed-point precision
+    private static final double MAX_SCALED_PRICE = 1e14; // Keeps scaled prices well inside long range
+
+    private BarSeriesCodec() {}
+
+    /**
+     * Returns whether the given payload was produced by {@link #encode(List)}.
+     *
+     * @param bytes the raw payload
+     * @return true if the payload starts with the series header
+     */
+    public static boolean isEncodedSeries(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    /**
+     * Encodes a list of bars.
+     *
+     * @param bars the bars to encode, in the order they should be returned on decode
+     * @return the encoded series
+     */
+    public static byte[] encode(List<StockData> bars) {
+        var body = new ByteWriter(64 + bars.size() * 12);
+        body.writeVarLong(bars.size());
+        writeSymbols(body, bars);
+        writeIds(body, bars);
+        writeDates(body, bars);
+        writePrices(body, bars, StockData::getOpen);
+        writePrices(body, bars, StockData::getHigh);
+        writePrices(body, bars, StockData::getLow);
+        writePrices(body, bars, StockData::getClose);
+        writeVolumes(body, bars);
+
+        byte[] compressed = body.size() >= COMPRESSION_THRESHOLD ? deflate(body) : null;
+        var out = new ByteWriter(HEADER_LENGTH + (compressed != null ? compressed.length + 5 : body.size()));
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        if (compressed != null) {
+            out.writeByte(FLAG_COMPRESSED);
+            out.writeVarLong(body.size());
+            out.writeBytes(compressed, 0, compressed.length);
+        } else {
+            out.writeByte(0);
+            out.writeBytes(body.buffer(), 0, body.size());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a series produced by {@link #encode(List)}.
+     *
+     * @param bytes the encoded series
+     * @return the decoded bars as a mutable list
+     * @throws IllegalArgumentException if the payload is not a supported series
+     */
+    public static List<StockData> decode(byte[] bytes) {
+        if (!isEncodedSeries(bytes)) {
+            throw new IllegalArgumentException("Payload is not an encoded bar series");
+        }
+        if (bytes[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported bar series version: " + bytes[1]);
+        }
+
+        ByteReader body;
+        if ((bytes[2] & FLAG_COMPRESSED) != 0) {
+            var header = new ByteReader(bytes, HEADER_LENGTH);
+            int rawLength = (int) header.readVarLong();
+            body = new ByteReader(inflate(bytes, header.position(), rawLength), 0);
+        } else {
+            body = new ByteReader(bytes, HEADER_LENGTH);
+        }
+
+        int count = (int) body.readVarLong();
+        var bars = new ArrayList<StockData>(count);
+        for (int i = 0; i < count; i++) {
+            bars.add(new StockData());
+        }
+        readSymbols(body, bars);
+        readIds(body, bars);
+        readDates(body, bars);
+        readPrices(body, bars, StockData::setOpen);
+        readPrices(body, bars, StockData::setHigh);
+        readPrices(body, bars, StockData::setLow);
+        readPrices(body, bars, StockData::setClose);
+        readVolumes(body, bars);
+        return bars;
+    }
+
+    private static void writeSymbols(ByteWriter out, List<StockData> bars) {
+        var dictionary = new LinkedHashMap<String, Integer>();
+        var indexes = new int[bars.size()];
+        boolean hasNull = false;
+        for (int i = 0; i < bars.size(); i++) {
+            String symbol = bars.get(i).getSymbol();
+            if (symbol == null) {
+                hasNull = true;
+                indexes[i] = 0;
+            } else {
+                indexes[i] = dictionary.computeIfAbsent(symbol, s -> dictionary.size() + 1);
+            }
+        }
+
+        out.writeVarLong(dictionary.size());
+        for (String symbol : dictionary.keySet()) {
+            out.writeString(symbol);
+        }
+        // A single non-null symbol is by far the common case and needs no per-row column
+        if (dictionary.size() == 1 && !hasNull) {
+            out.writeByte(MODE_ABSENT);
+            return;
+        }
+        out.writeByte(MODE_RAW);
+        for (int index : indexes) {
+            out.writeVarLong(index);
+        }
+    }
+
+    private static void readSymbols(ByteReader in, List<StockData> bars) {
+        int size = (int) in.readVarLong();
+        var dictionary = new String[size + 1];
+        for (int i = 1; i <= size; i++) {
+            dictionary[i] = in.readString();
+        }
+        if (in.readByte() == MODE_ABSENT) {
+            bars.forEach(bar -> bar.setSymbol(dictionary[1]));
+            return;
+        }
+        for (StockData bar : bars) {
+            bar.setSymbol(dictionary[(int) in.readVarLong()]);
+        }
+    }
+
+    private static void writeIds(ByteWriter out, List<StockData> bars) {
+        var mode = MODE_DELTA;
+        int nulls = 0;
+        for (StockData bar : bars) {
+            if (bar.getId() == null) {
+                nulls++;
+            }
+        }
+        if (nulls == bars.size()) {
+            mode = MODE_ABSENT;
+        } else if (nulls > 0) {
+            mode = MODE_RAW;
+        }
+
+        out.writeByte(mode);
+        long previous = 0;
+        for (StockData bar : bars) {
+            if (mode == MODE_DELTA) {
+                out.writeZigZag(bar.getId() - previous);
+                previous = bar.getId();
+            } else if (mode == MODE_RAW) {
+                // Zero marks a null id, every other value is shifted by one
+                out.writeVarLong(bar.getId() == null ? 0 : zigZag(bar.getId()) + 1);
+            }
+        }
+    }
+
+    private static void readIds(ByteReader in, List<StockData> bars) {
+        byte mode = in.readByte();
+        long previous = 0;
+        for (StockData bar : bars) {
+            if (mode == MODE_DELTA) {
+                previous += in.readZigZag();
+                bar.setId(previous);
+            } else if (mode == MODE_RAW) {
+                long raw = in.readVarLong();
+                bar.setId(raw == 0 ? null : unZigZag(raw - 1));
+            }
+        }
+    }
+
+    private static void writeDates(ByteWriter out, List<StockData> bars) {
+        var epochDays = new long[bars.size()];
+        boolean allNull = true;
+        boolean parseable = true;
+        for (int i = 0; i < bars.size(); i++) {
+            String date = bars.get(i).getDate();
+            if (date == null) {
+                parseable = false;
+                continue;
+            }
+            allNull = false;
+            if (parseable) {
+                epochDays[i] = DateUtil.toEpochDay(date);
+                parseable = epochDays[i] != DateUtil.INVALID_EPOCH_DAY;
+            }
+        }
+
+        if (allNull) {
+            out.writeByte(MODE_ABSENT);
+        } else if (parseable) {
+            out.writeByte(MODE_DELTA);
+            long previous = 0;
+            for (long epochDay : epochDays) {
+                out.writeZigZag(epochDay - previous);
+                previous = epochDay;
+            }
+        } else {
+            // Anything that would not reproduce the exact stored string is written verbatim
+            out.writeByte(MODE_RAW);
+            for (StockData bar : bars) {
+                out.writeNullableString(bar.getDate());
+            }
+        }
+    }
+
+    private static void readDates(ByteReader in, List<StockData> bars) {
+        byte mode = in.readByte();
+        long previous = 0;
+        for (StockData bar : bars) {
+            if (mode == MODE_DELTA) {
+                previous += in.readZigZag();
+                bar.setDate(LocalDate.ofEpochDay(previous).toString());
+            } else if (mode == MODE_RAW) {
+                bar.setDate(in.readNullableString());
+            }
+        }
+    }
+
+    private static void writePrices(ByteWriter out, List<StockData> bars, PriceGetter getter) {
+        var scaled = new long[bars.size()];
+        boolean fixedPoint = true;
+        for (int i = 0; i < bars.size() && fixedPoint; i++) {
+            double price = getter.get(bars.get(i));
+            fixedPoint = Math.abs(price) < MAX_SCALED_PRICE / PRICE_SCALE;
+            if (fixedPoint) {
+                scaled[i] = Math.round(price * PRICE_SCALE);
+                // Only accept the fixed-point form when it decodes to the identical double
+                fixedPoint = Double.compare(scaled[i] / PRICE_SCALE, price) == 0;
+            }
+        }
+
+        if (fixedPoint) {
+            out.writeByte(MODE_DELTA);
+            long previous = 0;
+            for (long value : scaled) {
+                out.writeZigZag(value - previous);
+                previous = value;
+            }
+        } else {
+            out.writeByte(MODE_RAW);
+            for (StockData bar : bars) {
+                out.writeLong(Double.doubleToRawLongBits(getter.get(bar)));
+            }
+        }
+    }
+
+    private static void readPrices(ByteReader in, List<StockData> bars, PriceSetter setter) {
+        byte mode = in.readByte();
+        long previous = 0;
+        for (StockData bar : bars) {
+            if (mode == MODE_DELTA) {
+                previous += in.readZigZag();
+                setter.set(bar, previous / PRICE_SCALE);
+            } else {
+                setter.set(bar, Double.longBitsToDouble(in.readLong()));
+            }
+        }
+    }
+
+    private static void writeVolumes(ByteWriter out, List<StockData> bars) {
+        for (StockData bar : bars) {
+            out.writeZigZag(bar.getVolume());
+        }
+    }
+
+    private static void readVolumes(ByteReader in, List<StockData> bars) {
+        for (StockData bar : bars) {
+            bar.setVolume(in.readZigZag());
+        }
+    }
+
+    private static byte[] deflate(ByteWriter body) {
+        var deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(body.buffer(), 0, body.size());
+            deflater.finish();
+            var out = new ByteArrayOutputStream(body.size() / 2);
+            var chunk = new byte[Math.min(body.size(), 8192)];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                out.write(chunk, 0, written);
+                if (out.size() >= body.size()) {
+                    return null; // Not worth it, store the body uncompressed
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int rawLength) {
+        var inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            var raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IllegalArgumentException("Truncated bar series payload");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt bar series payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @FunctionalInterface
+    private interface PriceGetter {
+        double get(StockData bar);
+    }
+
+    @FunctionalInterface
+    private interface PriceSetter {
+        void set(StockData bar, double value);
+    }
+
+    /**
+     * Growable byte buffer with varint helpers.
+     */
+    private static final class ByteWriter {
+        private byte[] buffer;
+        private int size;
+
+        ByteWriter(int initialCapacity) {
+            this.buffer = new byte[Math.max(16, initialCapacity)];
+        }
+
+        byte[] buffer() { return buffer; }
+        int size() { return size; }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong(zigZag(value));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        void writeNullableString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * Sequential reader over an encoded payload.
+     */
+    private static final class ByteReader {
+        private final byte[] bytes;
+        private int position;
+
+        ByteReader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int position() { return position; }
+
+        byte readByte() {
+            checkAvailable(1);
+            return bytes[position++];
+        }
+
+        long readLong() {
+            checkAvailable(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in bar series payload");
+        }
+
+        long readZigZag() {
+            return unZigZag(readVarLong());
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            checkAvailable(length);
+            var value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readNullableString() {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            checkAvailable(length - 1);
+            var value = new String(bytes, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        private void checkAvailable(int length) {
+            if (length < 0 || position + length > bytes.length) {
+                throw new IllegalArgumentException("Truncated bar series payload");
+            }
+        }
+    }
+}
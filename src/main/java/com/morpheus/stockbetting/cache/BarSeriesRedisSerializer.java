@@ -0,0 +1,59 @@
+package com.morpheus.stockbetting.cache;
+
+import java.util.List;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+
+/**
+ * Redis value serializer that stores bar series in the compact {@link BarSeriesCodec} format
+ * and every other value as JSON.
+ * Payloads are told apart by their first byte, so entries written by the previous
+ * JSON-only serializer remain readable.
+ */
+public class BarSeriesRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> fallback;
+
+    public BarSeriesRedisSerializer() {
+        this(new GenericJackson2JsonRedisSerializer());
+    }
+
+    public BarSeriesRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof List<?> list && isBarSeries(list)) {
+            @SuppressWarnings("unchecked")
+            var bars = (List<StockData>) list;
+            return BarSeriesCodec.encode(bars);
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (!BarSeriesCodec.isEncodedSeries(bytes)) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            return BarSeriesCodec.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Could not decode bar series", e);
+        }
+    }
+
+    private static boolean isBarSeries(List<?> list) {
+        for (Object element : list) {
+            if (!(element instanceof StockData)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.morpheus.stockbetting.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reads and writes many entries of a shared cache in a single round trip.
+ */
+public interface BulkCacheOperations {
+
+    /**
+     * Reads the given keys of a cache.
+     *
+     * @param cacheName the cache to read from
+     * @param keys      the keys to read
+     * @return the entries found, keyed by cache key; missing keys are absent
+     */
+    Map<String, Object> getAll(String cacheName, Collection<String> keys);
+
+    /**
+     * Writes entries to a cache, each with the lifetime the cache gives single writes.
+     *
+     * @param cacheName the cache to write to
+     * @param entries   the values to store, keyed by cache key
+     */
+    void putAll(String cacheName, Map<String, ?> entries);
+}
@@ -0,0 +1,54 @@
+package com.morpheus.stockbetting.cache;
+
+/**
+ * Invalidation message exchanged between application instances.
+ *
+ * @param cacheName name of the cache the key belongs to
+ * @param key       the invalidated key, or null when the whole cache was cleared
+ * @param version   version stamp of the change; older stamps never override newer ones
+ * @param origin    id of the instance that made the change
+ */
+public record CacheInvalidation(String cacheName, String key, long version, String origin) {
+
+    private static final char SEPARATOR = '|';
+
+    public boolean isClear() {
+        return key == null;
+    }
+
+    /**
+     * Encodes the message as {@code cacheName|version|origin|key}.
+     * The key comes last so it may itself contain the separator.
+     *
+     * @return the wire form of the message
+     */
+    public String encode() {
+        return cacheName + SEPARATOR + version + SEPARATOR + origin + SEPARATOR + (key == null ? "" : "k" + key);
+    }
+
+    /**
+     * Parses a message produced by {@link #encode()}.
+     *
+     * @param message the wire form
+     * @return the decoded invalidation
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public static CacheInvalidation decode(String message) {
+        int first = message.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : message.indexOf(SEPARATOR, first + 1);
+        int third = second < 0 ? -1 : message.indexOf(SEPARATOR, second + 1);
+        if (third < 0) {
+            throw new IllegalArgumentException("Malformed cache invalidation: " + message);
+        }
+        try {
+            String key = third + 1 < message.length() ? message.substring(third + 2) : null;
+            return new CacheInvalidation(
+                message.substring(0, first),
+                key,
+                Long.parseLong(message.substring(first + 1, second)),
+                message.substring(second + 1, third));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cache invalidation: " + message, e);
+        }
+    }
+}
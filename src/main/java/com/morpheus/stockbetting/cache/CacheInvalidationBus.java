@@ -0,0 +1,39 @@
+package com.morpheus.stockbetting.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport for {@link CacheInvalidation} messages between application instances.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Broadcasts an invalidation to every instance, including this one.
+     *
+     * @param invalidation the invalidation to send
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Registers the handler for invalidations received from the bus.
+     *
+     * @param handler the handler to call for every received message
+     */
+    void subscribe(Consumer<CacheInvalidation> handler);
+
+    /**
+     * Returns whether messages are currently being received.
+     * Near caches must not trust their entries for long while this is false.
+     *
+     * @return true if the subscription is active
+     */
+    boolean isConnected();
+
+    /**
+     * Returns a counter that changes every time the subscription is (re)established.
+     * Entries loaded under an older epoch may have missed invalidations.
+     *
+     * @return the current subscription epoch
+     */
+    long epoch();
+}
@@ -0,0 +1,33 @@
+package com.morpheus.stockbetting.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link CacheInvalidationBus} for a single instance without Redis.
+ * Invalidations are handed to the local handler on the publishing thread and the bus is always
+ * connected, so near caches keep their regular TTL.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private volatile Consumer<CacheInvalidation> handler = invalidation -> {};
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        handler.accept(invalidation);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return true;
+    }
+
+    @Override
+    public long epoch() {
+        return 0;
+    }
+}
@@ -0,0 +1,356 @@
+package com.morpheus.stockbetting.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * In-process cache in front of a shared (Redis) cache.
+ *
+ * <p>Writes go to the shared cache and are broadcast over a {@link CacheInvalidationBus} so
+ * other instances drop their local copy. Every local entry remembers the version of the last
+ * invalidation it has seen for its key; an invalidation only removes entries older than itself
+ * and a load only lands if no newer invalidation arrived while it was in flight, so messages
+ * delivered out of order can never resurrect stale data.
+ *
+ * <p>While the bus is disconnected entries live for the short degraded TTL only, and entries
+ * loaded under a previous subscription are discarded once it is re-established.
+ */
+public class NearCache implements Cache {
+
+    private final String name;
+    private final Cache delegate;
+    private final CacheInvalidationBus bus;
+    private final BulkCacheOperations bulkOperations;
+    private final VersionClock clock;
+    private final String origin;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long degradedTtlNanos;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong clearedVersion = new AtomicLong(); // Entries based on an older version predate the last clear
+
+    public NearCache(String name, Cache delegate, CacheInvalidationBus bus,
+                     @Nullable BulkCacheOperations bulkOperations, VersionClock clock, String origin,
+                     int maxEntries, Duration ttl, Duration degradedTtl) {
+        this.name = name;
+        this.delegate = delegate;
+        this.bus = bus;
+        this.bulkOperations = bulkOperations;
+        this.clock = clock;
+        this.origin = origin;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.degradedTtlNanos = degradedTtl.toNanos();
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    /**
+     * Returns the underlying shared cache.
+     *
+     * @return the wrapped cache
+     */
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        String localKey = localKey(key);
+        var local = getLocal(localKey);
+        if (local != null) {
+            return local;
+        }
+        long observed = observedVersion(localKey);
+        var loaded = delegate.get(key);
+        if (loaded != null) {
+            putLocal(localKey, loaded.get(), observed);
+        }
+        return loaded;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        var wrapper = get(key);
+        var value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        var local = getLocal(localKey);
+        if (local != null) {
+            return (T) local.get();
+        }
+        long observed = observedVersion(localKey);
+        T value = delegate.get(key, valueLoader);
+        putLocal(localKey, value, observed);
+        return value;
+    }
+
+    /**
+     * Resolves many keys at once: local entries first, then a single bulk read of the shared
+     * cache, then one call to {@code loader} for whatever is still missing. Loaded values are
+     * written to the shared cache in one bulk write, without broadcasting, as they do not
+     * change any data.
+     *
+     * @param keys   the keys to resolve
+     * @param loader loads the values of the keys found in neither cache
+     * @return the resolved values in the order of {@code keys}; keys the loader did not
+     *         return are absent
+     */
+    public Map<String, Object> getAll(Collection<String> keys, Function<Set<String>, Map<String, ?>> loader) {
+        var result = new LinkedHashMap<String, Object>(keys.size() * 2);
+        var observed = new LinkedHashMap<String, Long>();
+        for (String key : keys) {
+            var local = getLocal(key);
+            result.put(key, local != null ? local.get() : null);
+            if (local == null) {
+                observed.put(key, observedVersion(key));
+            }
+        }
+        if (observed.isEmpty()) {
+            return result;
+        }
+
+        var shared = readShared(observed.keySet());
+        shared.forEach((key, value) -> {
+            result.put(key, value);
+            putLocal(key, value, observed.remove(key));
+        });
+
+        if (!observed.isEmpty()) {
+            var loaded = new LinkedHashMap<String, Object>(loader.apply(observed.keySet()));
+            loaded.keySet().retainAll(observed.keySet());
+            writeShared(loaded);
+            loaded.forEach((key, value) -> {
+                putLocal(key, value, observed.get(key));
+                result.put(key, value);
+            });
+        }
+        result.values().removeIf(value -> value == null);
+        return result;
+    }
+
+    private Map<String, Object> readShared(Set<String> keys) {
+        if (bulkOperations != null) {
+            return bulkOperations.getAll(name, keys);
+        }
+        var found = new HashMap<String, Object>();
+        for (String key : keys) {
+            var wrapper = delegate.get(key);
+            if (wrapper != null) {
+                found.put(key, wrapper.get());
+            }
+        }
+        return found;
+    }
+
+    private void writeShared(Map<String, Object> entries) {
+        if (bulkOperations != null) {
+            bulkOperations.putAll(name, entries);
+            return;
+        }
+        entries.forEach(delegate::put);
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+        long version = clock.next();
+        String localKey = localKey(key);
+        entries.put(localKey, Entry.value(value, version, System.nanoTime(), bus.epoch()));
+        bus.publish(new CacheInvalidation(name, localKey, version, origin));
+        evictIfNecessary();
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        delegate.evict(key);
+        String localKey = localKey(key);
+        long version = clock.next();
+        invalidateLocal(localKey, version);
+        bus.publish(new CacheInvalidation(name, localKey, version, origin));
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        long version = clock.next();
+        clearLocal(version);
+        bus.publish(new CacheInvalidation(name, null, version, origin));
+    }
+
+    /**
+     * Applies an invalidation received from another instance.
+     *
+     * @param invalidation the received invalidation
+     */
+    public void onInvalidation(CacheInvalidation invalidation) {
+        clock.observe(invalidation.version());
+        if (invalidation.isClear()) {
+            clearLocal(invalidation.version());
+        } else {
+            invalidateLocal(invalidation.key(), invalidation.version());
+        }
+    }
+
+    /**
+     * Returns the locally held value without consulting the shared cache.
+     *
+     * @param key the cache key
+     * @return the local value, or null if it is absent or no longer trusted
+     */
+    @Nullable
+    public ValueWrapper getLocal(Object key) {
+        var entry = entries.get(localKey(key));
+        return entry != null && isLive(entry) ? new SimpleValueWrapper(entry.value) : null;
+    }
+
+    /**
+     * Returns the version a subsequent load of the key must be stamped with.
+     * Capture it before reading from the shared cache and pass it to
+     * {@link #putLocal(Object, Object, long)} afterwards.
+     *
+     * @param key the cache key
+     * @return the newest invalidation version known for the key
+     */
+    public long observedVersion(Object key) {
+        var entry = entries.get(localKey(key));
+        return Math.max(clearedVersion.get(), entry != null ? entry.version : 0L);
+    }
+
+    /**
+     * Stores a value loaded from the shared cache or the database, unless the key was
+     * invalidated after {@code observedVersion} was captured.
+     *
+     * @param key             the cache key
+     * @param value           the loaded value
+     * @param observedVersion the result of {@link #observedVersion(Object)} before loading
+     */
+    public void putLocal(Object key, @Nullable Object value, long observedVersion) {
+        if (observedVersion < clearedVersion.get()) {
+            return;
+        }
+        var loaded = Entry.value(value, observedVersion, System.nanoTime(), bus.epoch());
+        entries.compute(localKey(key), (k, current) ->
+            current == null || current.version <= observedVersion ? loaded : current);
+        evictIfNecessary();
+    }
+
+    int localSize() {
+        return entries.size();
+    }
+
+    private void invalidateLocal(String key, long version) {
+        var tombstone = Entry.tombstone(version, System.nanoTime());
+        entries.compute(key, (k, current) ->
+            current == null || current.version < version ? tombstone : current);
+        evictIfNecessary();
+    }
+
+    private void clearLocal(long version) {
+        long cleared = clearedVersion.accumulateAndGet(version, Math::max);
+        entries.values().removeIf(entry -> entry.version < cleared);
+    }
+
+    private boolean isLive(Entry entry) {
+        if (entry.tombstone || entry.version < clearedVersion.get()) {
+            return false;
+        }
+        long age = System.nanoTime() - entry.loadedAt;
+        if (!bus.isConnected()) {
+            return age < degradedTtlNanos;
+        }
+        return age < ttlNanos && entry.epoch == bus.epoch();
+    }
+
+    private void evictIfNecessary() {
+        if (entries.size() <= maxEntries || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            // Expired values and tombstones go first; tombstones only matter while loads
+            // started before them can still be in flight
+            entries.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+            var iterator = entries.values().iterator();
+            int target = maxEntries - maxEntries / 10;
+            while (entries.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static String localKey(Object key) {
+        return key.toString();
+    }
+
+    private record Entry(Object value, long version, long loadedAt, long epoch, boolean tombstone) {
+        static Entry value(Object value, long version, long loadedAt, long epoch) {
+            return new Entry(value, version, loadedAt, epoch, false);
+        }
+
+        static Entry tombstone(long version, long loadedAt) {
+            return new Entry(null, version, loadedAt, -1L, true);
+        }
+    }
+
+    /**
+     * Hybrid logical clock used to stamp cache changes.
+     * Stamps increase with wall-clock time and never fall behind a stamp received from
+     * another instance, so versions are comparable across the cluster.
+     */
+    public static final class VersionClock {
+        private static final int COUNTER_BITS = 16;
+        private final AtomicLong last = new AtomicLong();
+
+        public long next() {
+            long physical = System.currentTimeMillis() << COUNTER_BITS;
+            return last.accumulateAndGet(physical, (previous, now) -> Math.max(previous + 1, now));
+        }
+
+        public void observe(long remote) {
+            last.accumulateAndGet(remote, Math::max);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.morpheus.stockbetting.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link CacheManager} that puts a {@link NearCache} in front of every cache of a shared
+ * cache manager and routes invalidations received from other instances to them.
+ */
+public class NearCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheInvalidationBus bus;
+    private final BulkCacheOperations bulkOperations;
+    private final NearCache.VersionClock clock = new NearCache.VersionClock();
+    private final String origin = UUID.randomUUID().toString();
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Duration degradedTtl;
+    private final ConcurrentHashMap<String, NearCache> caches = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates the manager and subscribes it to the invalidation bus.
+     *
+     * @param delegate       the shared cache manager
+     * @param bus            the bus carrying invalidations between instances
+     * @param bulkOperations multi-key reads and writes of the shared caches, or null to access them key by key
+     * @param maxEntries     maximum number of local entries per cache
+     * @param ttl            local entry lifetime while the bus is connected
+     * @param degradedTtl    local entry lifetime while the bus is disconnected
+     */
+    public NearCacheManager(CacheManager delegate, CacheInvalidationBus bus,
+                            @Nullable BulkCacheOperations bulkOperations,
+                            int maxEntries, Duration ttl, Duration degradedTtl) {
+        this.delegate = delegate;
+        this.bus = bus;
+        this.bulkOperations = bulkOperations;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.degradedTtl = degradedTtl;
+        bus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    @Nullable
+    public Cache getCache(@NonNull String name) {
+        var cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        var shared = delegate.getCache(name);
+        if (shared == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n ->
+            new NearCache(n, shared, bus, bulkOperations, clock, origin, maxEntries, ttl, degradedTtl));
+    }
+
+    @Override
+    @NonNull
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Registers a listener for invalidations made by other instances, so that other
+     * in-process copies of cached data can be dropped along with the near cache entries.
+     *
+     * @param listener called with every remote invalidation
+     */
+    public void addInvalidationListener(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (origin.equals(invalidation.origin())) {
+            return; // Already applied locally when the change was made
+        }
+        var cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.onInvalidation(invalidation);
+        } else {
+            clock.observe(invalidation.version());
+        }
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+}
@@ -0,0 +1,109 @@
+package com.morpheus.stockbetting.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+
+/**
+ * {@link BulkCacheOperations} for {@code RedisCache} entries, using the same key prefix, value
+ * serialization and TTL as the cache itself. Reads are a single MGET; writes are pipelined SETs,
+ * as MSET cannot give the keys an expiry.
+ */
+public class RedisBulkCacheOperations implements BulkCacheOperations {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final Map<String, RedisCacheConfiguration> configurations;
+
+    public RedisBulkCacheOperations(RedisConnectionFactory connectionFactory,
+                                Map<String, RedisCacheConfiguration> configurations) {
+        this.connectionFactory = connectionFactory;
+        this.configurations = Map.copyOf(configurations);
+    }
+
+    @Override
+    public Map<String, Object> getAll(String cacheName, Collection<String> keys) {
+        var configuration = configuration(cacheName);
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        var orderedKeys = new ArrayList<>(keys);
+        var rawKeys = new byte[orderedKeys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = rawKey(configuration, cacheName, orderedKeys.get(i));
+        }
+
+        List<byte[]> rawValues;
+        try (var connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+
+        var result = new HashMap<String, Object>(rawKeys.length * 2);
+        for (int i = 0; rawValues != null && i < rawValues.size(); i++) {
+            byte[] raw = rawValues.get(i);
+            if (raw == null) {
+                continue;
+            }
+            Object value = configuration.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+            if (value != null && !(value instanceof NullValue)) {
+                result.put(orderedKeys.get(i), value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(String cacheName, Map<String, ?> entries) {
+        var configuration = configuration(cacheName);
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (var connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                entries.forEach((key, value) -> {
+                    if (value == null && !configuration.getAllowCacheNullValues()) {
+                        return;
+                    }
+                    Object stored = value == null ? NullValue.INSTANCE : value;
+                    Duration ttl = configuration.getTtlFunction().getTimeToLive(key, value);
+                    connection.stringCommands().set(rawKey(configuration, cacheName, key),
+                        toBytes(configuration.getValueSerializationPair().write(stored)),
+                        ttl == null || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl),
+                        SetOption.upsert());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    private RedisCacheConfiguration configuration(String cacheName) {
+        var configuration = configurations.get(cacheName);
+        if (configuration == null) {
+            throw new IllegalArgumentException("No Redis cache configuration for " + cacheName);
+        }
+        return configuration;
+    }
+
+    private static byte[] rawKey(RedisCacheConfiguration configuration, String cacheName, String key) {
+        return toBytes(configuration.getKeySerializationPair().write(configuration.getKeyPrefixFor(cacheName) + key));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
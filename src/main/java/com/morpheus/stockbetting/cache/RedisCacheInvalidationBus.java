@@ -0,0 +1,85 @@
+package com.morpheus.stockbetting.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * {@link CacheInvalidationBus} backed by a Redis pub/sub channel.
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, MessageListener, SubscriptionListener {
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer container;
+    private final String channel;
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile boolean subscribed;
+    private volatile Consumer<CacheInvalidation> handler = invalidation -> {};
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer container,
+                                     String channel) {
+        this.redisTemplate = redisTemplate;
+        this.container = container;
+        this.channel = channel;
+        container.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        try {
+            redisTemplate.convertAndSend(channel, invalidation.encode());
+        } catch (RuntimeException e) {
+            // Other instances fall back to their short TTL once they notice the outage
+            logger.warn("Could not publish cache invalidation {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return subscribed && container.isListening();
+    }
+
+    @Override
+    public long epoch() {
+        return epoch.get();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            handler.accept(CacheInvalidation.decode(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        epoch.incrementAndGet();
+        subscribed = true;
+        logger.info("Subscribed to cache invalidation channel {}", this.channel);
+    }
+
+    @Override
+    public void onChannelUnsubscribed(byte[] channel, long count) {
+        subscribed = false;
+        logger.warn("Unsubscribed from cache invalidation channel {}, near caches fall back to short TTLs",
+            this.channel);
+    }
+}
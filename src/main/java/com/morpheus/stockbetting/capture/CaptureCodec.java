@@ -0,0 +1,177 @@
+package com.morpheus.stockbetting.capture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of capture files.
+ * A file starts with a magic number, the format version and the wall clock time the capture
+ * started. Each request follows as a frame: the payload length, the payload and the CRC32 of the
+ * payload. Numbers in the payload are variable-length, strings are UTF-8 prefixed with their
+ * length. A frame cut short at the end of the file, as left by a stopped process, ends the file;
+ * a frame whose checksum does not match is reported as corrupt.
+ */
+public final class CaptureCodec {
+
+    /**
+     * "SBCP" in ASCII.
+     */
+    private static final int MAGIC = 0x53424350;
+    private static final int VERSION = 1;
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private CaptureCodec() {
+    }
+
+    /**
+     * Writes the file header.
+     *
+     * @param out the capture file
+     * @param startMillis wall clock time the capture started
+     * @throws IOException if the header cannot be written
+     */
+    public static void writeHeader(OutputStream out, long startMillis) throws IOException {
+        var data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeLong(startMillis);
+    }
+
+    /**
+     * Reads the file header.
+     *
+     * @param in the capture file
+     * @return the wall clock time the capture started
+     * @throws IOException if the stream is not a capture file of a supported version
+     */
+    public static long readHeader(InputStream in) throws IOException {
+        var data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a capture file");
+        }
+        int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported capture format version " + version);
+        }
+        return data.readLong();
+    }
+
+    /**
+     * Writes one request as a frame.
+     *
+     * @param out the capture file
+     * @param request the request
+     * @return the number of bytes written
+     * @throws IOException if the frame cannot be written
+     */
+    public static int write(OutputStream out, CapturedRequest request) throws IOException {
+        var payload = new ByteArrayOutputStream(128 + request.body().length);
+        writeVarLong(payload, request.offsetMicros());
+        writeVarLong(payload, request.timestampMillis());
+        writeString(payload, request.method());
+        writeString(payload, request.path());
+        writeString(payload, request.contentType() == null ? "" : request.contentType());
+        payload.write(request.authenticated() ? 1 : 0);
+        writeVarLong(payload, request.body().length);
+        payload.write(request.body());
+        writeVarLong(payload, request.status());
+        writeVarLong(payload, request.durationMicros());
+        writeVarLong(payload, request.responseLength());
+        writeVarLong(payload, Integer.toUnsignedLong(request.responseCrc()));
+
+        var bytes = payload.toByteArray();
+        var crc = new CRC32();
+        crc.update(bytes);
+        var data = new DataOutputStream(out);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+        data.writeInt((int) crc.getValue());
+        return bytes.length + 8;
+    }
+
+    /**
+     * Reads the next frame.
+     *
+     * @param in the capture file, positioned after the header or a previous frame
+     * @return the request, or null at the end of the file
+     * @throws IOException if the frame is corrupt
+     */
+    public static CapturedRequest read(InputStream in) throws IOException {
+        var data = new DataInputStream(in);
+        byte[] bytes;
+        int expectedCrc;
+        try {
+            int length = data.readInt();
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                throw new IOException("Corrupt capture frame length " + length);
+            }
+            bytes = data.readNBytes(length);
+            if (bytes.length < length) {
+                return null;
+            }
+            expectedCrc = data.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        var crc = new CRC32();
+        crc.update(bytes);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Corrupt capture frame, checksum mismatch");
+        }
+
+        var payload = ByteBuffer.wrap(bytes);
+        long offsetMicros = readVarLong(payload);
+        long timestampMillis = readVarLong(payload);
+        var method = readString(payload);
+        var path = readString(payload);
+        var contentType = readString(payload);
+        boolean authenticated = payload.get() == 1;
+        var body = new byte[(int) readVarLong(payload)];
+        payload.get(body);
+        return new CapturedRequest(offsetMicros, timestampMillis, method, path,
+            contentType.isEmpty() ? null : contentType, authenticated, body, (int) readVarLong(payload),
+            readVarLong(payload), readVarLong(payload), (int) readVarLong(payload));
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        var bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a non-negative number in 7-bit groups, low group first.
+     */
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.morpheus.stockbetting.capture;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Request capture settings, bound from the "capture" configuration prefix.
+ *
+ * @param enabled Whether sampled requests are written at all
+ * @param sampleRate Share of /api/* requests captured, between 0 and 1
+ * @param directory Directory of the capture files, one file per application start
+ * @param maxBodyBytes Requests with larger bodies are not captured
+ * @param maxFileSize Capture stops once the file reaches this size
+ * @param bufferSize Captured requests waiting for the writer, more are dropped
+ * @param idleWait How long the writer waits for requests before flushing the file
+ */
+@ConfigurationProperties("capture")
+public record CaptureProperties(boolean enabled, double sampleRate, Path directory, int maxBodyBytes,
+                                DataSize maxFileSize, int bufferSize, Duration idleWait) {
+}
@@ -0,0 +1,21 @@
+package com.morpheus.stockbetting.capture;
+
+/**
+ * One captured request and the outcome it had.
+ *
+ * @param offsetMicros time the request arrived, relative to the start of the capture
+ * @param timestampMillis wall clock time the request arrived
+ * @param method HTTP method
+ * @param path request URI with its query string, tokens and passwords redacted
+ * @param contentType content type of the body, or null
+ * @param authenticated whether the request carried a bearer token, which is not captured
+ * @param body request body with tokens and passwords redacted, empty if there was none
+ * @param status response status
+ * @param durationMicros time from arrival to the completed response
+ * @param responseLength bytes of the response body
+ * @param responseCrc CRC32 of the response body
+ */
+public record CapturedRequest(long offsetMicros, long timestampMillis, String method, String path,
+                              String contentType, boolean authenticated, byte[] body, int status,
+                              long durationMicros, long responseLength, int responseCrc) {
+}
@@ -0,0 +1,113 @@
+package com.morpheus.stockbetting.capture;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.CRC32;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper computing the length and CRC32 of the body as it is written.
+ * Nothing is buffered, the bytes go straight through to the wrapped response.
+ */
+public class ChecksumResponseWrapper extends HttpServletResponseWrapper {
+
+    private final CRC32 crc = new CRC32();
+    private long length;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    public ChecksumResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new ChecksumOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    /**
+     * @return bytes written to the body so far
+     */
+    public long getBodyLength() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return length;
+    }
+
+    /**
+     * @return CRC32 of the body written so far
+     */
+    public int getChecksum() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return (int) crc.getValue();
+    }
+
+    private final class ChecksumOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        ChecksumOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            crc.update(b);
+            length++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            crc.update(b, off, len);
+            length += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.morpheus.stockbetting.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Opt-in capture of sampled /api/* requests into a binary file for the replay tool, see
+ * {@link CaptureCodec} for the format.
+ * Request threads only decide whether to sample a request and, once it is complete, queue a copy
+ * of it; a background thread redacts credentials and appends the requests to a file created at
+ * startup. Bearer tokens are never written, only whether a request carried one; passwords and
+ * tokens in bodies and query strings are replaced. Requests arriving while the queue is full are
+ * dropped and counted in capture.dropped. Capture stops when the file reaches its maximum size.
+ */
+@Component
+@EnableConfigurationProperties(CaptureProperties.class)
+public class RequestCapture implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCapture.class);
+
+    static final String REDACTED = "REDACTED";
+
+    private static final Pattern SENSITIVE_JSON = Pattern.compile(
+        "(\"(?:password|token|refreshToken|accessToken|secret)\"\\s*:\\s*)\"(?:[^\"\\\\]|\\\\.)*\"",
+        Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SENSITIVE_QUERY = Pattern.compile(
+        "([?&](?:password|token|access_token|refresh_token)=)[^&]*", Pattern.CASE_INSENSITIVE);
+
+    private final CaptureProperties properties;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile long startNanos;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public RequestCapture(CaptureProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.bufferSize()));
+        FunctionCounter.builder("capture.dropped", dropped, AtomicLong::get)
+            .description("Captured requests dropped because the writer fell behind")
+            .register(meterRegistry);
+        FunctionCounter.builder("capture.written", written, AtomicLong::get)
+            .description("Captured requests written to the capture file")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether a request is captured. Only called when the request starts, its body and
+     * response are then wrapped so that they can be recorded.
+     *
+     * @param request the request
+     * @return true if the request should be captured
+     */
+    public boolean isSampled(HttpServletRequest request) {
+        if (!running || !request.getRequestURI().startsWith("/api/")
+                || request.getContentLengthLong() > properties.maxBodyBytes()) {
+            return false;
+        }
+        double rate = properties.sampleRate();
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * @return the body size beyond which requests are not captured
+     */
+    public int maxBodyBytes() {
+        return properties.maxBodyBytes();
+    }
+
+    /**
+     * Queues a completed request for writing.
+     *
+     * @param request the request, wrapped when it was sampled
+     * @param response the response, wrapped when the request was sampled
+     * @param arrivalNanos {@link System#nanoTime()} when the request arrived
+     * @param status the final response status
+     */
+    public void record(ContentCachingRequestWrapper request, ChecksumResponseWrapper response,
+                       long arrivalNanos, int status) {
+        long now = System.nanoTime();
+        var body = request.getContentAsByteArray();
+        if (body.length >= properties.maxBodyBytes() && request.getContentLengthLong() < 0) {
+            // A chunked body longer than the limit was only partly cached
+            return;
+        }
+        var query = request.getQueryString();
+        var authorization = request.getHeader("Authorization");
+        var captured = new CapturedRequest(
+            TimeUnit.NANOSECONDS.toMicros(arrivalNanos - startNanos),
+            System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(now - arrivalNanos),
+            request.getMethod(),
+            query == null ? request.getRequestURI() : request.getRequestURI() + '?' + query,
+            request.getContentType(),
+            authorization != null && authorization.startsWith("Bearer "),
+            body,
+            status,
+            TimeUnit.NANOSECONDS.toMicros(now - arrivalNanos),
+            response.getBodyLength(),
+            response.getChecksum());
+        if (!queue.offer(captured)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Replaces passwords and tokens in a request path and body.
+     */
+    static CapturedRequest redact(CapturedRequest request) {
+        var body = request.body();
+        if (body.length > 0) {
+            var text = new String(body, StandardCharsets.UTF_8);
+            var redacted = SENSITIVE_JSON.matcher(text).replaceAll("$1\"" + REDACTED + "\"");
+            if (!redacted.equals(text)) {
+                body = redacted.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        var path = SENSITIVE_QUERY.matcher(request.path()).replaceAll("$1" + REDACTED);
+        return new CapturedRequest(request.offsetMicros(), request.timestampMillis(), request.method(), path,
+            request.contentType(), request.authenticated(), body, request.status(), request.durationMicros(),
+            request.responseLength(), request.responseCrc());
+    }
+
+    private void run(Path file, long startMillis) {
+        long maxBytes = properties.maxFileSize().toBytes();
+        long idleMillis = properties.idleWait().toMillis();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            CaptureCodec.writeHeader(out, startMillis);
+            long size = 14;
+            while (running || !queue.isEmpty()) {
+                var request = queue.poll(idleMillis, TimeUnit.MILLISECONDS);
+                if (request == null) {
+                    out.flush();
+                    continue;
+                }
+                size += CaptureCodec.write(out, redact(request));
+                written.incrementAndGet();
+                if (size >= maxBytes) {
+                    logger.warn("Capture file {} reached {} bytes, capture stopped", file, size);
+                    running = false;
+                    queue.clear();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Capture to {} failed, capture stopped", file, e);
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        Path file;
+        try {
+            Files.createDirectories(properties.directory());
+            file = properties.directory().resolve("capture-" + startMillis + ".sbcap");
+        } catch (IOException e) {
+            logger.error("Cannot create capture directory {}, capture disabled", properties.directory(), e);
+            return;
+        }
+        startNanos = System.nanoTime();
+        running = true;
+        logger.info("Capturing {} of /api/* requests to {}", properties.sampleRate(), file);
+        writer = Thread.ofPlatform().name("request-capture").daemon(true).start(() -> run(file, startMillis));
+    }
+
+    /**
+     * Stops capturing and writes the requests still queued.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        var thread = writer;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -14,8 +14,8 @@ public class AppConfig {
     /**
      * Registers the error handling middleware as a filter that handles all "/api/*" endpoints.
      * This middleware catches all exceptions and errors, and returns a standardized API error response.
-     * The order of this filter is set to the highest precedence, so it will catch any exceptions that occur
-     * in other filters before they reach the application's endpoints.
+     * The order of this filter is set right after the request logging middleware, so it will catch any exceptions
+     * that occur in other filters before they reach the application's endpoints.
      * @param errorHandlingMiddleware the error handling middleware to register
      * @return a filter registration bean for the error handling middleware
      */
@@ -25,15 +25,15 @@ public class AppConfig {
         var registrationBean = new FilterRegistrationBean<ErrorHandlingMiddleware>();
         registrationBean.setFilter(errorHandlingMiddleware);
         registrationBean.addUrlPatterns("/api/*");
-        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
         return registrationBean;
     }
 
     /**
-     * Registers the request logging middleware as a filter that logs all "/api/*" endpoint requests and responses.
-     * This middleware logs the request and response bodies, headers, and status codes, and the time taken to process the request.
-     * The order of this filter is set to the highest precedence, so it will catch any exceptions that occur
-     * in other filters before they reach the application's endpoints.
+     * Registers the request logging middleware as a filter that records an access event for every "/api/*" request.
+     * Events carry the status, the duration and the allow-listed request headers, and are written by a background thread.
+     * The order of this filter is set to the highest precedence, so it wraps the error handling middleware
+     * and records the status of the error responses it writes.
      * @param requestLoggingMiddleware the request logging middleware to register
      * @return a filter registration bean for the request logging middleware
      */
@@ -43,7 +43,7 @@ public class AppConfig {
         var registrationBean = new FilterRegistrationBean<RequestLoggingMiddleware>();
         registrationBean.setFilter(requestLoggingMiddleware);
         registrationBean.addUrlPatterns("/api/*");
-        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
         return registrationBean;
     }
 
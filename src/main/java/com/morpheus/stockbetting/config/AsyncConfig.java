@@ -1,30 +1,150 @@
 package com.morpheus.stockbetting.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import com.morpheus.stockbetting.tracing.Tracing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Configuration for asynchronous execution to improve performance by
- * running tasks concurrently in a custom thread pool.
+ * Configuration of the executors every asynchronous task of the application runs on.
+ * Blocking database and Redis calls run on virtual threads, model scoring on a bounded pool
+ * sized to the CPU count, model training on a separate low priority pool and password hashing
+ * on a small pool of its own.
+ * Each executor publishes Micrometer metrics tagged with its name (executor.active,
+ * executor.queued, executor for task duration and executor.idle for time spent waiting), and runs
+ * its tasks with the trace span and MDC of the submitting thread.
+ * The executors are shut down with the context; running tasks are not waited for.
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+
+    /**
+     * Executor for blocking I/O such as JPA and Redis calls, also the default for {@code @Async}.
+     */
+    public static final String IO_EXECUTOR = "ioExecutor";
+
+    /**
+     * Executor for CPU-bound work such as model scoring.
+     */
+    public static final String CPU_EXECUTOR = "cpuExecutor";
+
     /**
-     * Defines a custom async executor.
+     * Executor for model training.
+     */
+    public static final String TRAINING_EXECUTOR = "trainingExecutor";
+
+    /**
+     * Executor for password hashing and verification.
+     */
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+
+    /**
+     * Defines the executor for blocking I/O, starting one virtual thread per task.
+     * Virtual threads are not queued, so only the active count is published next to the timings.
+     * It is also registered as "taskExecutor", the executor {@code @Async} methods default to.
      *
-     * @return an Executor configured for async execution
-     */
-    public Executor asyncExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(15);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("AsyncExecutor-");
-        executor.initialize();
-        return executor;
+     * @param meterRegistry registry the executor metrics are published to
+     * @return an ExecutorService running each task on a new virtual thread
+     */
+    @Bean(name = {IO_EXECUTOR, "taskExecutor"}, destroyMethod = "shutdown")
+    public ExecutorService ioExecutor(MeterRegistry meterRegistry) {
+        var active = new AtomicInteger();
+        var virtualThreads = Thread.ofVirtual().name("io-", 0).factory();
+        ThreadFactory factory = task -> virtualThreads.newThread(() -> {
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        });
+        Gauge.builder("executor.active", active, AtomicInteger::get)
+            .tag("name", IO_EXECUTOR)
+            .description("The approximate number of threads that are actively executing tasks")
+            .baseUnit("threads")
+            .register(meterRegistry);
+        return Tracing.wrap(ExecutorServiceMetrics.monitor(meterRegistry, Executors.newThreadPerTaskExecutor(factory), IO_EXECUTOR));
+    }
+
+    /**
+     * Defines the executor for CPU-bound work: one platform thread per core and a bounded queue.
+     * Once the queue is full the submitting thread runs the task itself, which slows callers down
+     * instead of letting the backlog grow.
+     *
+     * @param threads number of threads, 0 for the number of available processors
+     * @param queueCapacity maximum number of tasks waiting for a thread
+     * @param meterRegistry registry the executor metrics are published to
+     * @return an ExecutorService for CPU-bound tasks
+     */
+    @Bean(name = CPU_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService cpuExecutor(
+            @Value("${executors.cpu.threads}") int threads,
+            @Value("${executors.cpu.queue-capacity}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        var executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), platformThreads("cpu-", Thread.NORM_PRIORITY),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        return Tracing.wrap(ExecutorServiceMetrics.monitor(meterRegistry, executor, CPU_EXECUTOR));
+    }
+
+    /**
+     * Defines the executor for model training. Its threads run at minimum priority so that
+     * training does not take CPU time away from request handling.
+     *
+     * @param threads number of training threads
+     * @param meterRegistry registry the executor metrics are published to
+     * @return an ExecutorService for training tasks
+     */
+    @Bean(name = TRAINING_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService trainingExecutor(
+            @Value("${executors.training.threads}") int threads,
+            MeterRegistry meterRegistry) {
+        var executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), platformThreads("training-", Thread.MIN_PRIORITY));
+        return Tracing.wrap(ExecutorServiceMetrics.monitor(meterRegistry, executor, TRAINING_EXECUTOR));
+    }
+
+    /**
+     * Defines the executor for BCrypt hashing and verification. Each hash keeps a core busy for
+     * a few hundred milliseconds, so a login storm is capped at a fixed number of threads and a
+     * bounded queue; once the queue is full further tasks are rejected rather than run on the
+     * calling request thread.
+     *
+     * @param threads number of hashing threads, 0 for half the available processors
+     * @param queueCapacity maximum number of hashes waiting for a thread
+     * @param meterRegistry registry the executor metrics are published to
+     * @return an ExecutorService for password hashing, rejecting tasks with RejectedExecutionException when full
+     */
+    @Bean(name = PASSWORD_HASHING_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor(
+            @Value("${executors.password-hashing.threads}") int threads,
+            @Value("${executors.password-hashing.queue-capacity}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        var executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), platformThreads("bcrypt-", Thread.NORM_PRIORITY),
+            new ThreadPoolExecutor.AbortPolicy());
+        return Tracing.wrap(ExecutorServiceMetrics.monitor(meterRegistry, executor, PASSWORD_HASHING_EXECUTOR));
+    }
+
+    private static ThreadFactory platformThreads(String prefix, int priority) {
+        return Thread.ofPlatform().name(prefix, 0).daemon(true).priority(priority).factory();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.morpheus.stockbetting.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.morpheus.stockbetting.cache.CacheInvalidationBus;
+import com.morpheus.stockbetting.cache.LocalCacheInvalidationBus;
+import com.morpheus.stockbetting.cache.NearCacheManager;
+
+import java.time.Duration;
+
+/**
+ * In-memory stand-ins for the Redis caches, active with the loadtest profile.
+ * Together with the embedded database of application-loadtest.yml the application runs without
+ * any external service, so that load tests measure the application itself.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus() {
+        return new LocalCacheInvalidationBus();
+    }
+
+    /**
+     * Near caches in front of in-process maps, keeping the near cache code on the request path.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            CacheInvalidationBus cacheInvalidationBus,
+            @Value("${cache.near.max-entries}") int maxEntries,
+            @Value("${cache.near.ttl}") Duration ttl,
+            @Value("${cache.near.degraded-ttl}") Duration degradedTtl) {
+        var shared = new ConcurrentMapCacheManager(RedisConfig.STOCK_DATA_CACHE, RedisConfig.PREDICTIONS_CACHE);
+        return new NearCacheManager(shared, cacheInvalidationBus, null, maxEntries, ttl, degradedTtl);
+    }
+}
@@ -0,0 +1,41 @@
+package com.morpheus.stockbetting.config;
+
+import org.apache.spark.ml.classification.LogisticRegressionModel;
+import org.apache.spark.ml.linalg.Vectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the prediction engine selected by ml.engine.
+ * The "advanced" engine trains a cross-validated Spark pipeline on startup; the "default" engine
+ * scores with a logistic regression model built from configured coefficients and does not
+ * start Spark SQL.
+ */
+@Configuration
+public class MLConfig {
+
+    /**
+     * Number of features of a prediction: open, high, low, close and volume.
+     */
+    private static final int FEATURES = 5;
+
+    /**
+     * Defines the model scored by the default engine.
+     *
+     * @param coefficients weights of the open, high, low, close and volume features
+     * @param intercept intercept of the model
+     * @return a logistic regression model ready for scoring
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ml.engine", havingValue = "default")
+    public LogisticRegressionModel logisticRegressionModel(
+            @Value("${ml.default.coefficients}") double[] coefficients,
+            @Value("${ml.default.intercept}") double intercept) {
+        if (coefficients.length != FEATURES) {
+            throw new IllegalArgumentException("Expected " + FEATURES + " coefficients, got " + coefficients.length);
+        }
+        return new LogisticRegressionModel("stockbetting", Vectors.dense(coefficients), intercept);
+    }
+}
@@ -0,0 +1,33 @@
+package com.morpheus.stockbetting.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.morpheus.stockbetting.ratelimit.LocalRateLimiter;
+import com.morpheus.stockbetting.ratelimit.RateLimitProperties;
+import com.morpheus.stockbetting.ratelimit.RateLimiter;
+import com.morpheus.stockbetting.ratelimit.RedisRateLimiter;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    /**
+     * Defines the rate limiter selected by rate-limit.mode.
+     * The local mode limits each instance on its own; the Redis mode shares budgets across instances
+     * and falls back to local budgets while Redis is unavailable.
+     * @param properties the rate limiting settings
+     * @param stringRedisTemplate the template used for token reservations in Redis mode
+     * @return the rate limiter
+     */
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties, StringRedisTemplate stringRedisTemplate) {
+        if (properties.mode() == RateLimitProperties.Mode.REDIS) {
+            return new RedisRateLimiter(stringRedisTemplate, properties.redis().batchSize(),
+                properties.redis().lease(), new LocalRateLimiter());
+        }
+        return new LocalRateLimiter();
+    }
+}
@@ -1,38 +1,89 @@
 package com.morpheus.stockbetting.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import com.morpheus.stockbetting.cache.BarSeriesRedisSerializer;
+import com.morpheus.stockbetting.cache.CacheInvalidationBus;
+import com.morpheus.stockbetting.cache.NearCacheManager;
+import com.morpheus.stockbetting.cache.RedisBulkCacheOperations;
+import com.morpheus.stockbetting.cache.RedisCacheInvalidationBus;
 
 import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    public static final String STOCK_DATA_CACHE = "stockData";
+    public static final String PREDICTIONS_CACHE = "predictions";
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // Bar series are stored in a compact columnar format, everything else as JSON
+        template.setValueSerializer(new BarSeriesRedisSerializer());
         return template;
     }
 
     @Bean
-    public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer() {
-        return builder -> builder
-            .withCacheConfiguration("stockData",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(10)))
-            .withCacheConfiguration("predictions",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(5)));
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @Profile("!loadtest")
+    public CacheInvalidationBus cacheInvalidationBus(
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            @Value("${cache.near.channel}") String channel) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate, redisMessageListenerContainer, channel);
+    }
+
+    /**
+     * Redis backed cache manager with an in-process near cache in front of every cache.
+     * Changes are broadcast over the invalidation bus so other instances drop their copies.
+     * The loadtest profile replaces it with in-memory caches, see {@link LoadTestConfig}.
+     */
+    @Bean
+    @Profile("!loadtest")
+    public CacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            CacheInvalidationBus cacheInvalidationBus,
+            @Value("${cache.near.max-entries}") int maxEntries,
+            @Value("${cache.near.ttl}") Duration ttl,
+            @Value("${cache.near.degraded-ttl}") Duration degradedTtl) {
+        var configurations = Map.of(
+            STOCK_DATA_CACHE, RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(10))
+                .serializeValuesWith(SerializationPair.fromSerializer(new BarSeriesRedisSerializer())),
+            PREDICTIONS_CACHE, RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(5)));
+
+        var redisCacheManager = RedisCacheManager.builder(connectionFactory)
+            .withInitialCacheConfigurations(configurations)
+            .build();
+        redisCacheManager.afterPropertiesSet();
+        // Multi-key lookups read every missing entry with one MGET and write loaded ones back in one pipeline
+        var bulkOperations = new RedisBulkCacheOperations(connectionFactory, configurations);
+        return new NearCacheManager(redisCacheManager, cacheInvalidationBus, bulkOperations,
+            maxEntries, ttl, degradedTtl);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.morpheus.stockbetting.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs such as the bar archiving job.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
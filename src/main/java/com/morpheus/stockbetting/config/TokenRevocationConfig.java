@@ -0,0 +1,45 @@
+package com.morpheus.stockbetting.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.morpheus.stockbetting.security.InMemoryTokenRevocationStore;
+import com.morpheus.stockbetting.security.RedisTokenRevocationStore;
+import com.morpheus.stockbetting.security.TokenRevocationStore;
+
+@Configuration
+public class TokenRevocationConfig {
+
+    /**
+     * Defines the token revocation store selected by jwt.revocation.mode.
+     * The local mode only revokes tokens on the instance handling the logout; the Redis mode
+     * replicates revocations to every instance, which still answers lookups from memory.
+     * @param mode local or redis
+     * @param tokenLifetimeMs the token validity, revocations are kept this long
+     * @param key the Redis hash holding the revocations
+     * @param channel the Redis channel revocations are broadcast on
+     * @param stringRedisTemplate the template used in Redis mode
+     * @param redisMessageListenerContainer the container subscribing to the channel in Redis mode
+     * @return the token revocation store
+     */
+    @Bean
+    public TokenRevocationStore tokenRevocationStore(
+            @Value("${jwt.revocation.mode}") String mode,
+            @Value("${jwt.jwt-expiration-ms}") long tokenLifetimeMs,
+            @Value("${jwt.revocation.key}") String key,
+            @Value("${jwt.revocation.channel}") String channel,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        var local = new InMemoryTokenRevocationStore(Duration.ofMillis(tokenLifetimeMs));
+        if ("redis".equalsIgnoreCase(mode)) {
+            return new RedisTokenRevocationStore(stringRedisTemplate, redisMessageListenerContainer,
+                key, channel, local);
+        }
+        return local;
+    }
+}
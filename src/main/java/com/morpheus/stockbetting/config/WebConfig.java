@@ -0,0 +1,56 @@
+package com.morpheus.stockbetting.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.morpheus.stockbetting.tracing.TracingHandlerInterceptor;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final Executor ioExecutor;
+
+    public WebConfig(@Qualifier(AsyncConfig.IO_EXECUTOR) Executor ioExecutor) {
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Runs streaming response bodies on the I/O executor, they block on the database and the client.
+     * @param configurer the MVC async support configurer
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(ioExecutor));
+    }
+
+    /**
+     * Records a span for every controller method invocation.
+     * @param registry the MVC interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TracingHandlerInterceptor());
+    }
+
+    /**
+     * Registers CBOR (application/cbor) as an alternative to JSON for request and response bodies.
+     * Clients opt in with the Accept and Content-Type headers; JSON stays the default.
+     * The mapper is built from the application's Jackson settings, so both formats carry the same fields.
+     * @param builder the Jackson builder configured by Spring Boot
+     * @return a message converter for CBOR bodies
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
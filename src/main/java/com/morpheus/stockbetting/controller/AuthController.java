@@ -1,7 +1,12 @@
 package com.morpheus.stockbetting.controller;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,20 +14,37 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.morpheus.stockbetting.config.AsyncConfig;
 import com.morpheus.stockbetting.domain.entity.User;
 import com.morpheus.stockbetting.domain.repository.UserRepository;
 import com.morpheus.stockbetting.dto.request.LoginRequest;
+import com.morpheus.stockbetting.dto.request.RefreshTokenRequest;
 import com.morpheus.stockbetting.dto.request.SignUpRequest;
 import com.morpheus.stockbetting.dto.response.ApiResponse;
 import com.morpheus.stockbetting.dto.response.JwtAuthenticationResponse;
-import com.morpheus.stockbetting.security.JwtTokenProvider;
+import com.morpheus.stockbetting.exception.AuthenticationFailedException;
+import com.morpheus.stockbetting.exception.ServiceOverloadedException;
+import com.morpheus.stockbetting.security.RefreshTokenService;
+import com.morpheus.stockbetting.security.TokenRevocationStore;
+import com.morpheus.stockbetting.security.UserPrincipal;
+import com.morpheus.stockbetting.security.UsernameRegistry;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import jakarta.validation.Valid;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 /**
- * Authentication endpoints controller
+ * Authentication endpoints controller.
+ * Password checks and hashing run on the bounded password hashing executor, so a login storm
+ * queues there instead of occupying request threads, and is shed with 503 once the queue is full.
+ * Clients keep their session alive through /refresh, which never runs BCrypt.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -31,48 +53,140 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final JwtTokenProvider tokenProvider;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationStore revocationStore;
+    private final UsernameRegistry usernameRegistry;
+    private final Executor passwordHashingExecutor;
+    private final Executor ioExecutor;
+    private final Duration retryAfter;
 
     public AuthController(AuthenticationManager authenticationManager,
                          UserRepository userRepository,
-                         JwtTokenProvider tokenProvider,
-                         PasswordEncoder passwordEncoder) {
+                         PasswordEncoder passwordEncoder,
+                         RefreshTokenService refreshTokenService,
+                         TokenRevocationStore revocationStore,
+                         UsernameRegistry usernameRegistry,
+                         @Qualifier(AsyncConfig.PASSWORD_HASHING_EXECUTOR) Executor passwordHashingExecutor,
+                         @Qualifier(AsyncConfig.IO_EXECUTOR) Executor ioExecutor,
+                         @Value("${admission.retry-after}") Duration retryAfter) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
-        this.tokenProvider = tokenProvider;
         this.passwordEncoder = passwordEncoder;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationStore = revocationStore;
+        this.usernameRegistry = usernameRegistry;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.ioExecutor = ioExecutor;
+        this.retryAfter = retryAfter;
     }
 
+    /**
+     * Checks the credentials and issues an access token and a new refresh token family.
+     */
     @PostMapping("/login")
-    public ResponseEntity<JwtAuthenticationResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
-        var authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                loginRequest.username(),
-                loginRequest.password()
-            )
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        var jwt = tokenProvider.generateToken(authentication);
-        
-        return ResponseEntity.ok(new JwtAuthenticationResponse(jwt));
+    public CompletableFuture<ResponseEntity<JwtAuthenticationResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return hashAsync(() -> {
+            try {
+                return authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                        loginRequest.username(),
+                        loginRequest.password()
+                    )
+                );
+            } catch (AuthenticationException e) {
+                throw new AuthenticationFailedException("Invalid username or password", e);
+            }
+        }).thenApplyAsync(authentication -> {
+            var tokens = refreshTokenService.issue((UserPrincipal) authentication.getPrincipal());
+            return ResponseEntity.ok(new JwtAuthenticationResponse(tokens.accessToken(), tokens.refreshToken()));
+        }, ioExecutor);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token.
+     * The presented refresh token can not be used again; reusing it revokes the whole session.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtAuthenticationResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        var tokens = refreshTokenService.refresh(refreshRequest.refreshToken());
+        return ResponseEntity.ok(new JwtAuthenticationResponse(tokens.accessToken(), tokens.refreshToken()));
     }
 
+    /**
+     * Registers a user. Names the username registry knows to be taken are rejected and names it
+     * knows to be free skip the existence query; the others are checked against the database
+     * before any BCrypt work is done. A concurrent registration of the same name is caught by
+     * the unique constraint and reported the same way.
+     */
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse> register(@Valid @RequestBody SignUpRequest signUpRequest) {
-        if (userRepository.existsByUsername(signUpRequest.username())) {
-            return ResponseEntity.badRequest()
-                .body(new ApiResponse(false, "Username already taken"));
+    public CompletableFuture<ResponseEntity<ApiResponse>> register(@Valid @RequestBody SignUpRequest signUpRequest) {
+        var username = signUpRequest.username();
+        if (usernameRegistry.isKnownTaken(username)) {
+            return CompletableFuture.completedFuture(usernameTaken());
+        }
+        if (usernameRegistry.mightBeTaken(username) && userRepository.existsByUsername(username)) {
+            usernameRegistry.add(username);
+            return CompletableFuture.completedFuture(usernameTaken());
         }
 
-        var user = new User(
-            signUpRequest.username(),
-            passwordEncoder.encode(signUpRequest.password())
-        );
+        return hashAsync(() -> passwordEncoder.encode(signUpRequest.password()))
+            .thenApplyAsync(passwordHash -> {
+                try {
+                    userRepository.save(new User(username, passwordHash));
+                } catch (DataIntegrityViolationException e) {
+                    if (!isUsernameConflict(e, username)) {
+                        throw e;
+                    }
+                    usernameRegistry.add(username);
+                    return usernameTaken();
+                }
+                usernameRegistry.add(username);
+                return ResponseEntity.ok(new ApiResponse(true, "User registered successfully"));
+            }, ioExecutor);
+    }
+
+    /**
+     * Revokes every token of the authenticated user by bumping their token version,
+     * and deletes their refresh tokens.
+     * Tokens issued afterwards carry the new version and stay valid.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(@AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ApiResponse(false, "Not authenticated"));
+        }
 
-        userRepository.save(user);
-        return ResponseEntity.ok(new ApiResponse(true, "User registered successfully"));
+        userRepository.incrementTokenVersion(principal.getId());
+        revocationStore.revoke(principal.getId(), principal.getTokenVersion() + 1);
+        refreshTokenService.revokeAll(principal.getId());
+        return ResponseEntity.ok(new ApiResponse(true, "Logged out"));
     }
-}
 
+    /**
+     * Tells a violation of the username unique constraint apart from other integrity failures.
+     * Tables created before the constraint was named keep a generated name; a unique violation
+     * reported under another name counts only if the username exists now.
+     */
+    private boolean isUsernameConflict(DataIntegrityViolationException e, String username) {
+        if (!(e.getCause() instanceof ConstraintViolationException violation)
+                || violation.getKind() != ConstraintViolationException.ConstraintKind.UNIQUE) {
+            return false;
+        }
+        return User.USERNAME_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())
+            || userRepository.existsByUsername(username);
+    }
+
+    private static ResponseEntity<ApiResponse> usernameTaken() {
+        return ResponseEntity.badRequest().body(new ApiResponse(false, "Username already taken"));
+    }
+
+    private <T> CompletableFuture<T> hashAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, passwordHashingExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Too many concurrent logins, retry later", retryAfter);
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.morpheus.stockbetting.controller;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.morpheus.stockbetting.admission.AdmissionControl;
 import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.dto.response.OhlcvBar;
 import com.morpheus.stockbetting.dto.response.PredictionResponse;
+import com.morpheus.stockbetting.service.HistoryExportService;
 import com.morpheus.stockbetting.service.MLService;
+import com.morpheus.stockbetting.service.RollupService;
 import com.morpheus.stockbetting.service.StockService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -21,51 +30,142 @@ public class StockController {
 
     private final StockService stockService; // Service for managing stock data operations (retrieving and saving stock data)
     private final MLService mlService; // Service for machine learning predictions related to stock trends
+    private final RollupService rollupService; // Service providing precomputed OHLCV bars
+    private final HistoryExportService historyExportService; // Service writing history in columnar formats
+    private final AdmissionControl admissionControl; // Concurrency limits of the prediction and ingest endpoints
 
-    public StockController(StockService stockService, MLService mlService) {
+    public StockController(StockService stockService, MLService mlService, RollupService rollupService,
+                           HistoryExportService historyExportService, AdmissionControl admissionControl) {
         this.stockService = stockService;
         this.mlService = mlService;
+        this.rollupService = rollupService;
+        this.historyExportService = historyExportService;
+        this.admissionControl = admissionControl;
     }
 
     /**
-     * Endpoint to retrieve all stock data for a given stock symbol.
+     * Endpoint to retrieve stock data for a given stock symbol.
+     * Without a date range all bars kept in the database are returned; with a range, archived bars are included.
      *
      * @param symbol The stock symbol (e.g., "AAPL").
+     * @param from Optional inclusive start date in YYYY-MM-DD format.
+     * @param to Optional inclusive end date in YYYY-MM-DD format.
      * @return A CompletableFuture of ResponseEntity containing a list of StockData objects for the given symbol.
      */
     @GetMapping("/{symbol}")
-    public CompletableFuture<ResponseEntity<List<StockData>>> getStockData(@PathVariable String symbol) {
-        return stockService.getStockDataAsync(symbol)
+    public CompletableFuture<ResponseEntity<List<StockData>>> getStockData(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        var stockData = from == null && to == null
+            ? stockService.getStockDataAsync(symbol)
+            : stockService.getStockDataAsync(symbol, from, to);
+        return stockData.thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Endpoint streaming the history of a stock symbol as Arrow IPC record batches.
+     * Selected with {@code Accept: application/vnd.apache.arrow.stream}.
+     *
+     * @param symbol The stock symbol (e.g., "AAPL").
+     * @param from Optional inclusive start date in YYYY-MM-DD format.
+     * @param to Optional inclusive end date in YYYY-MM-DD format.
+     * @return A ResponseEntity streaming the bars, including archived ones, in columnar form.
+     */
+    @GetMapping(value = "/{symbol}", produces = HistoryExportService.ARROW_STREAM)
+    public ResponseEntity<StreamingResponseBody> getStockDataAsArrow(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        var export = historyExportService.exportArrow(symbol, from, to);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(HistoryExportService.ARROW_STREAM))
+            .body(export::writeTo);
+    }
+
+    /**
+     * Endpoint downloading the history of a stock symbol as a Parquet file.
+     * Selected with {@code Accept: application/vnd.apache.parquet}.
+     *
+     * @param symbol The stock symbol (e.g., "AAPL").
+     * @param from Optional inclusive start date in YYYY-MM-DD format.
+     * @param to Optional inclusive end date in YYYY-MM-DD format.
+     * @return A ResponseEntity streaming the bars, including archived ones, as a Parquet attachment.
+     */
+    @GetMapping(value = "/{symbol}", produces = HistoryExportService.PARQUET)
+    public ResponseEntity<StreamingResponseBody> getStockDataAsParquet(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        var export = historyExportService.exportParquet(symbol, from, to);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(HistoryExportService.PARQUET))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(symbol + ".parquet").build().toString())
+            .body(export::writeTo);
+    }
+
+    /**
+     * Endpoint to retrieve stock data for several symbols in one call.
+     * All symbols are resolved together: cached entries in bulk, everything else with a single query.
+     *
+     * @param symbols Comma separated stock symbols (e.g., "AAPL,MSFT").
+     * @param from Optional inclusive start date in YYYY-MM-DD format.
+     * @return A CompletableFuture of ResponseEntity containing the StockData list of every requested symbol.
+     */
+    @GetMapping(params = "symbols")
+    public CompletableFuture<ResponseEntity<Map<String, List<StockData>>>> getStockDataForSymbols(
+            @RequestParam List<String> symbols,
+            @RequestParam(required = false) String from) {
+        return stockService.getStockDataAsync(symbols, from)
             .thenApply(ResponseEntity::ok);
     }
 
+    /**
+     * Endpoint to retrieve aggregated OHLCV bars of a stock symbol.
+     * Bars are read from precomputed buckets that are updated on every save.
+     *
+     * @param symbol The stock symbol (e.g., "AAPL").
+     * @param interval The bar interval (e.g., "1w", "1M" or "5d"); must be one of the configured intervals.
+     * @return A ResponseEntity containing the bars of the symbol, oldest first.
+     */
+    @GetMapping("/{symbol}/bars")
+    public ResponseEntity<List<OhlcvBar>> getBars(@PathVariable String symbol,
+                                                  @RequestParam(defaultValue = "1w") String interval) {
+        return ResponseEntity.ok(rollupService.getBars(symbol, interval));
+    }
+
     /**
      * Endpoint to predict the stock trend based on provided stock data.
+     * Requests beyond the concurrency limit wait in a bounded queue and are rejected with 503 once it is full.
      *
      * @param stockData The StockData object containing the relevant stock information for prediction.
      * @return A CompletableFuture of ResponseEntity containing a PredictionResponse object with the predicted trend.
      */
     @PostMapping("/predict")
     public CompletableFuture<ResponseEntity<PredictionResponse>> predictStockTrend(@RequestBody StockData stockData) {
-        return mlService.predict(
+        return admissionControl.submit(AdmissionControl.PREDICT, () -> mlService.predict(
                 stockData.getSymbol(),
                 stockData.getOpen(),
                 stockData.getHigh(),
                 stockData.getLow(),
                 stockData.getClose(),
                 stockData.getVolume()
-        ).thenApply(ResponseEntity::ok);
+        )).thenApply(ResponseEntity::ok);
     }
 
     /**
      * Endpoint to save a new stock data entry to the database.
+     * Requests beyond the concurrency limit wait in a bounded queue and are rejected with 503 once it is full.
+     * An id sent by the client is ignored, so every request inserts a new row and never overwrites an existing one.
      *
      * @param stockData The StockData object to save in the database.
      * @return A CompletableFuture of ResponseEntity containing the saved StockData object.
      */
     @PostMapping
     public CompletableFuture<ResponseEntity<StockData>> saveStockData(@RequestBody StockData stockData) {
-        return stockService.saveStockDataAsync(stockData)
+        stockData.setId(null);
+        return admissionControl.submit(AdmissionControl.INGEST, () -> stockService.saveStockDataAsync(stockData))
             .thenApply(ResponseEntity::ok);
     }
 }
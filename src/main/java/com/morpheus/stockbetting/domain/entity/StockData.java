@@ -67,17 +67,21 @@ public class StockData {
     @Column(nullable = false, length = 10) // Enforcing the date format length.
     private String date;
 
+    public Long getId() { return id; }
     public String getSymbol() { return symbol; }
     public double getOpen() { return open; }
     public double getHigh() { return high; }
     public double getLow() { return low; }
     public double getClose() { return close; }
     public long getVolume() { return volume; }
+    public String getDate() { return date; }
 
+    public void setId(Long id) { this.id = id; }
     public void setSymbol(String symbol) { this.symbol = symbol; }
     public void setOpen(double open) { this.open = open; }
     public void setHigh(double high) { this.high = high; }
     public void setLow(double low) { this.low = low; }
     public void setClose(double close) { this.close = close; }
     public void setVolume(long volume) { this.volume = volume; }
+    public void setDate(String date) { this.date = date; }
 }
\ No newline at end of file
@@ -2,19 +2,44 @@ package com.morpheus.stockbetting.domain.entity;
 
 import jakarta.persistence.*;
 
+import java.util.Arrays;
+import java.util.List;
+
+import com.morpheus.stockbetting.security.UserChangeListener;
+
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+    uniqueConstraints = @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"))
+@EntityListeners(UserChangeListener.class)
 public class User {
+
+    /**
+     * Unique constraint on the username, violated when two signups race for the same name.
+     */
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
     
     @Column(nullable = false)
     private String password;
 
+    /**
+     * Comma separated role names, copied into every token issued to the user.
+     */
+    @Column(nullable = false, columnDefinition = "varchar(255) default 'USER'")
+    private String roles = "USER";
+
+    /**
+     * Version stamped into issued tokens; tokens below the current version are revoked.
+     */
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion;
+
     public User() {}
 
     public User(String username, String password) {
@@ -33,4 +58,12 @@ public class User {
     public String getPassword() {
         return password;
     }
+
+    public List<String> getRoles() {
+        return Arrays.stream(roles.split(",")).map(String::trim).filter(role -> !role.isEmpty()).toList();
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
 }
@@ -1,11 +1,19 @@
 package com.morpheus.stockbetting.domain.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.morpheus.stockbetting.domain.entity.StockData;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface StockRepository extends JpaRepository<StockData, Long> {
     List<StockData> findBySymbol(String symbol);
+    List<StockData> findBySymbolIn(Collection<String> symbols);
+    List<StockData> findBySymbolAndDateLessThanOrderByDateAsc(String symbol, String date, Pageable pageable);
+
+    @Query("select distinct s.symbol from StockData s")
+    List<String> findDistinctSymbols();
 }
@@ -0,0 +1,7 @@
+package com.morpheus.stockbetting.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequest(
+    @NotBlank String refreshToken
+) {}
@@ -2,9 +2,11 @@ package com.morpheus.stockbetting.dto.response;
 
 public class JwtAuthenticationResponse {
     private String token;
+    private String refreshToken;
 
-    public JwtAuthenticationResponse(String token) {
+    public JwtAuthenticationResponse(String token, String refreshToken) {
         this.token = token;
+        this.refreshToken = refreshToken;
     }
 
     public String getToken() {
@@ -14,4 +16,12 @@ public class JwtAuthenticationResponse {
     public void setToken(String token) {
         this.token = token;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
 }
@@ -0,0 +1,28 @@
+package com.morpheus.stockbetting.dto.response;
+
+/**
+ * Aggregated open/high/low/close/volume bar covering one rollup interval.
+ *
+ * @param symbol   stock symbol
+ * @param interval rollup interval (e.g. "1w")
+ * @param start    first day of the interval (YYYY-MM-DD)
+ * @param end      last day of the interval (YYYY-MM-DD)
+ * @param open     open of the earliest bar in the interval
+ * @param high     highest high in the interval
+ * @param low      lowest low in the interval
+ * @param close    close of the latest bar in the interval
+ * @param volume   total volume in the interval
+ * @param bars     number of source bars merged into this one
+ */
+public record OhlcvBar(
+    String symbol,
+    String interval,
+    String start,
+    String end,
+    double open,
+    double high,
+    double low,
+    double close,
+    long volume,
+    int bars
+) {}
@@ -1,10 +1,14 @@
 package com.morpheus.stockbetting.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Data Transfer Object representing a stock market prediction response.
  * Contains detailed information about market predictions including direction,
  * confidence levels, and trading recommendations.
+ * Unset fields are left out of the serialized form.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PredictionResponse {
     
     /** Market movement direction (UP/DOWN/STABLE) */
@@ -0,0 +1,18 @@
+package com.morpheus.stockbetting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when credentials or a refresh token are rejected
+ */
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class AuthenticationFailedException extends RuntimeException {
+    public AuthenticationFailedException(String message) {
+        super(message);
+    }
+
+    public AuthenticationFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,22 @@
+package com.morpheus.stockbetting.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a client has used up the request budget of a route group
+ */
+public class RateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return how long the client should wait before the next request is allowed
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,22 @@
+package com.morpheus.stockbetting.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request is shed because the endpoint is at its concurrency limit
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return how long the client should wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -3,27 +3,43 @@ package com.morpheus.stockbetting.middleware;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.morpheus.stockbetting.dto.response.ErrorResponse;
+import com.morpheus.stockbetting.exception.AuthenticationFailedException;
+import com.morpheus.stockbetting.exception.RateLimitExceededException;
+import com.morpheus.stockbetting.exception.ServiceOverloadedException;
 import com.morpheus.stockbetting.exception.StockNotFoundException;
 import com.morpheus.stockbetting.exception.ValidationException;
 
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.servlet.DispatcherServlet;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Answers failed API requests with a JSON ErrorResponse.
+ * Successful bodies are written straight to the client without being buffered, so streaming
+ * endpoints keep streaming and large responses are never copied. Errors are answered only while
+ * the response is not committed: exceptions, and error statuses set through sendError or
+ * without a body. Exceptions raised after the body started streaming are only logged.
+ * Async dispatches are filtered too, since the failure of an asynchronous handler only
+ * surfaces when its result is dispatched.
+ */
 @Component
 @Order(1)
 public class ErrorHandlingMiddleware extends OncePerRequestFilter {
@@ -34,47 +50,71 @@ public class ErrorHandlingMiddleware extends OncePerRequestFilter {
         this.objectMapper = objectMapper;
     }
 
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws IOException {
 
-        var requestWrapper = new ContentCachingRequestWrapper(request);
-        var responseWrapper = new ContentCachingResponseWrapper(response);
-        var errorRef = new AtomicReference<Throwable>();
+        // Bodies pass straight through; only sendError calls are held back so they can be answered in JSON
+        var responseWrapper = new ErrorCapturingResponse(response);
+        Throwable error = null;
 
         try {
-            filterChain.doFilter(requestWrapper, responseWrapper);
-            handlePossibleError(requestWrapper, responseWrapper);
+            filterChain.doFilter(request, responseWrapper);
+            handlePossibleError(request, responseWrapper);
         } catch (Exception e) {
-            errorRef.set(e);
-            handleException(requestWrapper, responseWrapper, e);
+            error = e;
+            if (response.isCommitted()) {
+                // Part of the body already reached the client, the error can only be logged
+                logger.warn("Request {} {} failed after the response was committed",
+                    request.getMethod(), request.getRequestURI());
+            } else {
+                response.resetBuffer();
+                handleException(request, response, e);
+            }
         } finally {
-            responseWrapper.copyBodyToResponse();
-            logError(errorRef.get(), requestWrapper);
+            logError(error, request);
         }
     }
 
-    private void handlePossibleError(ContentCachingRequestWrapper request, 
-                                   ContentCachingResponseWrapper response) throws IOException {
-        if (response.getStatus() >= 400) {
+    private void handlePossibleError(HttpServletRequest request,
+                                   ErrorCapturingResponse response) throws IOException {
+        // Error bodies written by the handler itself are kept
+        if (response.getStatus() >= 400 && !response.isCommitted() && !response.hasBody()) {
             var errorResponse = ErrorResponse.builder()
                 .path(request.getRequestURI())
                 .status(response.getStatus())
                 .timestamp(Instant.now())
                 .traceId(request.getHeader("X-Trace-ID"))
                 .error(HttpStatus.valueOf(response.getStatus()).getReasonPhrase())
+                .message(errorMessage(request, response))
                 .build();
 
-            writeErrorResponse(response, errorResponse);
+            writeErrorResponse((HttpServletResponse) response.getResponse(), errorResponse);
+        }
+    }
+
+    private static String errorMessage(HttpServletRequest request, ErrorCapturingResponse response) {
+        // Exceptions mapped through @ResponseStatus arrive as sendError without a reason
+        if (response.getErrorMessage() == null
+                && request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE) instanceof Exception e) {
+            return e.getMessage();
         }
+        return response.getErrorMessage();
     }
 
-    private void handleException(ContentCachingRequestWrapper request,
-                               ContentCachingResponseWrapper response,
+    private void handleException(HttpServletRequest request,
+                               HttpServletResponse response,
                                Exception ex) throws IOException {
-        var errorResponse = switch (ex) {
+        // Exceptions thrown by handlers reach the filter wrapped by the dispatcher servlet
+        Throwable error = ex instanceof ServletException && ex.getCause() != null ? ex.getCause() : ex;
+        var errorResponse = switch (error) {
             case StockNotFoundException e -> ErrorResponse.builder()
                 .path(request.getRequestURI())
                 .status(HttpStatus.NOT_FOUND.value())
@@ -93,6 +133,39 @@ public class ErrorHandlingMiddleware extends OncePerRequestFilter {
                 .traceId(request.getHeader("X-Trace-ID"))
                 .build();
                 
+            case AuthenticationFailedException e -> ErrorResponse.builder()
+                .path(request.getRequestURI())
+                .status(HttpStatus.UNAUTHORIZED.value())
+                .error("Unauthorized")
+                .message(e.getMessage())
+                .timestamp(Instant.now())
+                .traceId(request.getHeader("X-Trace-ID"))
+                .build();
+
+            case RateLimitExceededException e -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(e.getRetryAfter())));
+                yield ErrorResponse.builder()
+                    .path(request.getRequestURI())
+                    .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                    .error("Too Many Requests")
+                    .message(e.getMessage())
+                    .timestamp(Instant.now())
+                    .traceId(request.getHeader("X-Trace-ID"))
+                    .build();
+            }
+
+            case ServiceOverloadedException e -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(e.getRetryAfter())));
+                yield ErrorResponse.builder()
+                    .path(request.getRequestURI())
+                    .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                    .error("Service Overloaded")
+                    .message(e.getMessage())
+                    .timestamp(Instant.now())
+                    .traceId(request.getHeader("X-Trace-ID"))
+                    .build();
+            }
+
             default -> ErrorResponse.builder()
                 .path(request.getRequestURI())
                 .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -106,6 +179,11 @@ public class ErrorHandlingMiddleware extends OncePerRequestFilter {
         writeErrorResponse(response, errorResponse);
     }
 
+    private static long retryAfterSeconds(Duration retryAfter) {
+        // Retry-After takes whole seconds, round up so clients never retry early
+        return retryAfter == null ? 1 : Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
     private void writeErrorResponse(HttpServletResponse response, 
                                   ErrorResponse errorResponse) throws IOException {
         response.setStatus(errorResponse.status());
@@ -114,7 +192,12 @@ public class ErrorHandlingMiddleware extends OncePerRequestFilter {
     }
 
     private void logError(Throwable error, HttpServletRequest request) {
-        if (error != null) {
+        var cause = error instanceof ServletException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ServiceOverloadedException || cause instanceof RateLimitExceededException
+                || cause instanceof AuthenticationFailedException) {
+            // Shed, rate limited and unauthenticated requests are expected and carry no stack worth logging
+            logger.debug("Request {} {} rejected: {}", request.getMethod(), request.getRequestURI(), cause.getMessage());
+        } else if (error != null) {
             logger.error("Request {} {} failed: {}", 
                 request.getMethod(), 
                 request.getRequestURI(), 
@@ -122,4 +205,52 @@ public class ErrorHandlingMiddleware extends OncePerRequestFilter {
                 error);
         }
     }
+
+    /**
+     * Response passing everything through except sendError, which only sets the status so that
+     * the middleware can write the error body instead of the container's error page.
+     */
+    private static final class ErrorCapturingResponse extends HttpServletResponseWrapper {
+        private boolean bodyStarted;
+        private String errorMessage;
+
+        ErrorCapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) {
+            if (isCommitted()) {
+                throw new IllegalStateException("Cannot send error after the response was committed");
+            }
+            resetBuffer();
+            setStatus(sc);
+            errorMessage = msg;
+        }
+
+        @Override
+        public void sendError(int sc) {
+            sendError(sc, null);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            bodyStarted = true;
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            bodyStarted = true;
+            return super.getWriter();
+        }
+
+        boolean hasBody() {
+            return bodyStarted;
+        }
+
+        String getErrorMessage() {
+            return errorMessage;
+        }
+    }
 }
@@ -1,27 +1,58 @@
 package com.morpheus.stockbetting.middleware;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
-import com.morpheus.stockbetting.util.HeadersUtil;
+import com.morpheus.stockbetting.accesslog.AccessLog;
+import com.morpheus.stockbetting.accesslog.RequestIdGenerator;
+import com.morpheus.stockbetting.capture.ChecksumResponseWrapper;
+import com.morpheus.stockbetting.capture.RequestCapture;
+import com.morpheus.stockbetting.tracing.Trace;
+import com.morpheus.stockbetting.tracing.TraceStore;
+import com.morpheus.stockbetting.tracing.Tracing;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.regex.Pattern;
 
+/**
+ * Assigns every request an id, returned in the X-Request-ID header and put into the MDC, and
+ * records one access event per request once its response is complete. Requests handled
+ * asynchronously are recorded when the async processing completes, with their final status.
+ * Each request is also traced under its id, the trace being finished at the same point.
+ * Requests sampled by the {@link RequestCapture} have their body cached and their response
+ * checksummed while they are handled, and are captured once complete.
+ */
 @Component
-@Order(2)
+@Order(0)
 public class RequestLoggingMiddleware extends OncePerRequestFilter {
-    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingMiddleware.class);
+
+    public static final String REQUEST_ID_HEADER = "X-Request-ID";
+
+    /**
+     * Ids supplied by clients are kept when they are short and contain no characters
+     * that could break a log line.
+     */
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final AccessLog accessLog;
+    private final TraceStore traceStore;
+    private final RequestCapture requestCapture;
+    private final RequestIdGenerator requestIds = new RequestIdGenerator();
+
+    public RequestLoggingMiddleware(AccessLog accessLog, TraceStore traceStore, RequestCapture requestCapture) {
+        this.accessLog = accessLog;
+        this.traceStore = traceStore;
+        this.requestCapture = requestCapture;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -29,55 +60,89 @@ public class RequestLoggingMiddleware extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String requestId = UUID.randomUUID().toString();
+        long start = System.nanoTime();
+        var requestId = requestId(request);
         MDC.put("requestId", requestId);
-        long startTime = System.currentTimeMillis();
-
-        // Wrap the request and response to capture their content
-        ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
-
-        // Add tracking header to response
-        response.setHeader("X-Request-ID", requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        var trace = traceStore.begin(requestId, request.getMethod() + " " + request.getRequestURI());
+        if (requestCapture.isSampled(request)) {
+            request = new ContentCachingRequestWrapper(request, requestCapture.maxBodyBytes());
+            response = new ChecksumResponseWrapper(response);
+        }
 
+        Throwable error = null;
         try {
-            logIncomingRequest(requestWrapper, requestId);
-            filterChain.doFilter(requestWrapper, responseWrapper);
-            logOutgoingResponse(responseWrapper, requestId, System.currentTimeMillis() - startTime);
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            error = e;
+            throw e;
         } finally {
-            // Ensure response body is copied to the original response
-            responseWrapper.copyBodyToResponse();
-            MDC.clear(); // Clear MDC to avoid memory leaks
+            MDC.remove("requestId");
+            Tracing.detach();
+            if (error == null && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(
+                    new CompletionListener(request, response, requestId, trace, start));
+            } else {
+                // Exceptions escaping here are answered with 500 by the servlet container
+                int status = error == null ? response.getStatus() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+                complete(request, response, requestId, trace, start, status, error);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response, String requestId,
+                          Trace trace, long start, int status, Throwable error) {
+        accessLog.record(request, requestId, status, System.nanoTime() - start, error);
+        traceStore.finish(trace, status, error);
+        if (request instanceof ContentCachingRequestWrapper cachedRequest
+                && response instanceof ChecksumResponseWrapper checksummedResponse) {
+            requestCapture.record(cachedRequest, checksummedResponse, start, status);
         }
     }
 
-    private void logIncomingRequest(ContentCachingRequestWrapper request, String requestId) {
-        logger.info("""
-            Incoming Request:
-            ID: {}
-            Method: {}
-            URI: {}
-            Headers: {}
-            """,
-            requestId,
-            request.getMethod(),
-            request.getRequestURI(),
-            HeadersUtil.getHeadersMap(request)
-        );
+    private String requestId(HttpServletRequest request) {
+        var supplied = request.getHeader(REQUEST_ID_HEADER);
+        return supplied != null && VALID_REQUEST_ID.matcher(supplied).matches() ? supplied : requestIds.next();
     }
 
-    private void logOutgoingResponse(ContentCachingResponseWrapper response, String requestId, long duration) {
-        logger.info("""
-            Outgoing Response:
-            ID: {}
-            Status: {}
-            Duration: {} ms
-            Headers: {}
-            """,
-            requestId,
-            response.getStatus(),
-            duration,
-            HeadersUtil.getHeadersMap(response)
-        );
+    /**
+     * Records an asynchronously handled request once its response is complete.
+     */
+    private final class CompletionListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final String requestId;
+        private final Trace trace;
+        private final long start;
+        private Throwable error;
+
+        CompletionListener(HttpServletRequest request, HttpServletResponse response, String requestId,
+                           Trace trace, long start) {
+            this.request = request;
+            this.response = response;
+            this.requestId = requestId;
+            this.trace = trace;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(request, response, requestId, trace, start, response.getStatus(), error);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            error = event.getThrowable();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            error = event.getThrowable();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
     }
 }
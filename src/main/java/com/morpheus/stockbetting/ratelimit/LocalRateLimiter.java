@@ -0,0 +1,30 @@
+package com.morpheus.stockbetting.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Rate limiter keeping every budget on this instance.
+ * Each client gets one lock-free token bucket per route group.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(RateLimitProperties.Group group, String key) {
+        long now = System.nanoTime();
+        var bucket = buckets.computeIfAbsent(group.name() + ':' + key,
+            k -> new TokenBucket(group.capacity(), group.refillPerSecond(), now));
+        return bucket.tryAcquire(now);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
@@ -0,0 +1,44 @@
+package com.morpheus.stockbetting.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Rate limiting settings, bound from the "rate-limit" configuration prefix.
+ *
+ * @param mode Where budgets are kept: on this instance only or shared through Redis
+ * @param redis Settings of the Redis backed mode
+ * @param cleanupInterval How often idle client budgets are dropped from memory
+ * @param groups Route groups, a request is limited by the first group matching its path
+ */
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(Mode mode, Redis redis, Duration cleanupInterval, List<Group> groups) {
+
+    public RateLimitProperties {
+        groups = groups == null ? List.of() : List.copyOf(groups);
+    }
+
+    public enum Mode { LOCAL, REDIS }
+
+    /**
+     * Settings of the Redis backed mode.
+     *
+     * @param batchSize Tokens reserved from Redis per round trip
+     * @param lease How long reserved tokens may be used before they expire unused
+     */
+    public record Redis(int batchSize, Duration lease) {
+    }
+
+    /**
+     * Budget of a route group, applied per user or per client IP.
+     *
+     * @param name Group name, used as key prefix and metric tag
+     * @param patterns Path patterns of the group (e.g. "/api/stocks/**")
+     * @param capacity Largest burst of requests allowed at once
+     * @param refillPerSecond Sustained requests per second
+     */
+    public record Group(String name, List<String> patterns, int capacity, double refillPerSecond) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.morpheus.stockbetting.ratelimit;
+
+/**
+ * Token bucket budgets per route group and client.
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes one token from the bucket of a client in a route group.
+     *
+     * @param group The route group of the request
+     * @param key The client key, "user:{id}" or "ip:{address}"
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    long tryAcquire(RateLimitProperties.Group group, String key);
+
+    /**
+     * Drops the state of clients whose budget is full again, they are indistinguishable from new clients.
+     */
+    void evictIdle();
+}
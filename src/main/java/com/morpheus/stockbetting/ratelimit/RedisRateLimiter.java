@@ -0,0 +1,154 @@
+package com.morpheus.stockbetting.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Rate limiter sharing budgets across instances through Redis.
+ * The bucket of a client lives in a Redis hash refilled by a Lua script. Instead of one round trip
+ * per request, an instance reserves a batch of tokens and hands them out locally until the batch
+ * is used up or its lease expires; when Redis has no tokens left the client is rejected locally
+ * until the wait reported by Redis has passed. Unused tokens of an expired lease are lost, so an
+ * instance can at most over-reserve one batch per client.
+ * If Redis cannot be reached, budgets fall back to the local limiter of this instance.
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private static final String KEY_PREFIX = "stockbetting:rate-limit:";
+
+    /**
+     * Refills the bucket from the elapsed Redis time and grants up to the requested tokens.
+     * Returns the granted count and, when nothing was granted, the milliseconds until a token is available.
+     */
+    private static final RedisScript<List> RESERVE = RedisScript.of("""
+        local capacity = tonumber(ARGV[1])
+        local rate = tonumber(ARGV[2])
+        local requested = tonumber(ARGV[3])
+        local time = redis.call('TIME')
+        local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+        local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+        local tokens = tonumber(state[1]) or capacity
+        local ts = tonumber(state[2]) or now
+        tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+        local granted = math.min(requested, math.floor(tokens))
+        tokens = tokens - granted
+        redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+        redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+        local wait = 0
+        if granted == 0 then
+            wait = math.ceil((1 - tokens) * 1000 / rate)
+        end
+        return {granted, wait}
+        """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int batchSize;
+    private final long leaseNanos;
+    private final LocalRateLimiter fallback;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, int batchSize, Duration lease, LocalRateLimiter fallback) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.redisTemplate = redisTemplate;
+        this.batchSize = batchSize;
+        this.leaseNanos = lease.toNanos();
+        this.fallback = fallback;
+    }
+
+    @Override
+    public long tryAcquire(RateLimitProperties.Group group, String key) {
+        var bucketKey = group.name() + ':' + key;
+        long now = System.nanoTime();
+        var lease = leases.computeIfAbsent(bucketKey, k -> new Lease(now));
+        if (lease.tryTake(now)) {
+            return 0;
+        }
+        synchronized (lease) {
+            // Another request may have renewed the lease while this one waited
+            if (lease.tryTake(now)) {
+                return 0;
+            }
+            long deniedFor = lease.deniedUntil - now;
+            if (deniedFor > 0) {
+                return deniedFor;
+            }
+            List<?> reply;
+            try {
+                reply = redisTemplate.execute(RESERVE, List.of(KEY_PREFIX + bucketKey),
+                    String.valueOf(group.capacity()), String.valueOf(group.refillPerSecond()),
+                    String.valueOf(Math.min(batchSize, group.capacity())));
+            } catch (RuntimeException e) {
+                logger.warn("Rate limit reservation failed, using local budget: {}", e.getMessage());
+                return fallback.tryAcquire(group, key);
+            }
+            long granted = ((Number) reply.get(0)).longValue();
+            if (granted == 0) {
+                long wait = TimeUnit.MILLISECONDS.toNanos(((Number) reply.get(1)).longValue());
+                lease.deniedUntil = now + wait;
+                return wait;
+            }
+            lease.renew(granted - 1, now + leaseNanos);
+            return 0;
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        leases.values().removeIf(lease -> lease.isExpired(now));
+        fallback.evictIdle();
+    }
+
+    /**
+     * Tokens reserved from Redis for one client, taken without locking.
+     */
+    private static final class Lease {
+        private final AtomicLong remaining = new AtomicLong();
+        private volatile long expiresAt;
+        private volatile long deniedUntil;
+
+        Lease(long now) {
+            this.expiresAt = now;
+            this.deniedUntil = now;
+        }
+
+        boolean tryTake(long now) {
+            if (now - expiresAt >= 0) {
+                return false;
+            }
+            long current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        void renew(long tokens, long expiresAt) {
+            // Publish the count before the expiry, readers check the expiry first
+            remaining.set(tokens);
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0 && now - deniedUntil >= 0;
+        }
+    }
+}
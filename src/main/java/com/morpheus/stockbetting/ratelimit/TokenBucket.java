@@ -0,0 +1,53 @@
+package com.morpheus.stockbetting.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept as a single theoretical arrival time (GCRA).
+ * Each request pushes the arrival time one emission interval further; a request is allowed while
+ * the arrival time stays within the burst tolerance of now. This is equivalent to a bucket of
+ * {@code capacity} tokens refilled at a constant rate, updated with a single compare-and-set.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong arrivalTime;
+
+    TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.arrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current - nowNanos, 0) + nowNanos + emissionIntervalNanos;
+            long wait = next - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return whether every token has been refilled
+     */
+    boolean isFull(long nowNanos) {
+        return arrivalTime.get() - nowNanos <= 0;
+    }
+}
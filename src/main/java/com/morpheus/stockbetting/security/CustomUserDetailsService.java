@@ -8,6 +8,10 @@ import org.springframework.stereotype.Service;
 import com.morpheus.stockbetting.domain.entity.User;
 import com.morpheus.stockbetting.domain.repository.UserRepository;
 
+/**
+ * Loads users for password logins. Authenticated requests build their principal from the
+ * verified token claims instead, see {@link JwtTokenProvider#verify}.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
@@ -20,12 +24,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword());
-    }
-
-    public UserDetails loadUserById(Long id) {
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword());
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(),
+            user.getRoles(), user.getTokenVersion());
     }
 }
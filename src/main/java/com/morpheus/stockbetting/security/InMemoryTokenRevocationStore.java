@@ -0,0 +1,86 @@
+package com.morpheus.stockbetting.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Token revocation store kept in the memory of this instance.
+ * Entries are dropped once every token they revoke has expired, which keeps the denylist down to
+ * the users who logged out within one token lifetime.
+ */
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+    private final long tokenLifetimeMillis;
+    private final Map<Long, Revocation> revocations = new ConcurrentHashMap<>();
+
+    public InMemoryTokenRevocationStore(Duration tokenLifetime) {
+        this.tokenLifetimeMillis = tokenLifetime.toMillis();
+    }
+
+    @Override
+    public int minimumVersion(long userId) {
+        var revocation = revocations.get(userId);
+        return revocation == null ? 0 : revocation.minimumVersion();
+    }
+
+    @Override
+    public void revoke(long userId, int minimumVersion) {
+        apply(userId, minimumVersion, System.currentTimeMillis());
+    }
+
+    /**
+     * Merges a revocation, keeping the highest minimum version and the latest revocation time.
+     *
+     * @param userId the user id
+     * @param minimumVersion the lowest token version still accepted
+     * @param revokedAtMillis when the revocation was made, in epoch milliseconds
+     */
+    void apply(long userId, int minimumVersion, long revokedAtMillis) {
+        revocations.merge(userId, new Revocation(minimumVersion, revokedAtMillis), Revocation::max);
+    }
+
+    void forEach(BiConsumer<Long, Revocation> action) {
+        revocations.forEach(action);
+    }
+
+    /**
+     * Drops revocations older than the token lifetime, the tokens they cover have all expired.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval}")
+    public void prune() {
+        long cutoff = System.currentTimeMillis() - tokenLifetimeMillis;
+        revocations.values().removeIf(revocation -> revocation.revokedAtMillis() < cutoff);
+    }
+
+    /**
+     * @return whether a revocation made at the given time may still cover unexpired tokens
+     */
+    boolean isLive(long revokedAtMillis) {
+        return revokedAtMillis >= System.currentTimeMillis() - tokenLifetimeMillis;
+    }
+
+    record Revocation(int minimumVersion, long revokedAtMillis) {
+
+        static Revocation max(Revocation a, Revocation b) {
+            return new Revocation(Math.max(a.minimumVersion, b.minimumVersion),
+                Math.max(a.revokedAtMillis, b.revokedAtMillis));
+        }
+
+        String encode() {
+            return minimumVersion + ":" + revokedAtMillis;
+        }
+
+        static Revocation decode(String value) {
+            int separator = value.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed revocation: " + value);
+            }
+            return new Revocation(Integer.parseInt(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+        }
+    }
+}
@@ -6,53 +6,87 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import java.io.IOException;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
- * JWT Authentication filter that processes each incoming request
+ * JWT Authentication filter that processes each incoming request.
+ * Tokens are verified once and then recognized from a cache, and the principal is built from the
+ * claims of the token, so authenticated requests neither parse tokens nor query the database at
+ * steady state. Revoked tokens are recognized by their version from the in-memory revocation store.
+ * The time spent authenticating, excluding the rest of the chain, is timed per outcome.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final JwtTokenProvider tokenProvider;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationStore revocationStore;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+    private final Timer anonymousTimer;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, 
-                                 CustomUserDetailsService userDetailsService) {
+                                 TokenRevocationStore revocationStore,
+                                 MeterRegistry meterRegistry) {
         this.tokenProvider = tokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.revocationStore = revocationStore;
+        this.anonymousTimer = outcomeTimer(meterRegistry, "anonymous");
+        this.authenticatedTimer = outcomeTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = outcomeTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer outcomeTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.jwt.filter")
+            .tag("outcome", outcome)
+            .description("Time spent authenticating a request from its bearer token")
+            .register(meterRegistry);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
-        extractJwtToken(request)
-            .filter(tokenProvider::isTokenValid)
-            .ifPresent(jwt -> authenticateUser(jwt, request));
+        long start = System.nanoTime();
+        var timer = anonymousTimer;
+        var jwt = extractJwtToken(request);
+        if (jwt != null) {
+            var principal = tokenProvider.verify(jwt);
+            if (principal != null && !isRevoked(principal)) {
+                authenticateUser(principal, request);
+                timer = authenticatedTimer;
+            } else {
+                timer = rejectedTimer;
+            }
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
 
-    private Optional<String> extractJwtToken(HttpServletRequest request) {
-        return Optional.ofNullable(request.getHeader("Authorization"))
-                .filter(header -> header.startsWith("Bearer "))
-                .map(header -> header.substring(7));
+    private static String extractJwtToken(HttpServletRequest request) {
+        var header = request.getHeader("Authorization");
+        return header != null && header.startsWith(BEARER_PREFIX) ? header.substring(BEARER_PREFIX.length()) : null;
+    }
+
+    private boolean isRevoked(UserPrincipal principal) {
+        return principal.getTokenVersion() < revocationStore.minimumVersion(principal.getId());
     }
 
-    private void authenticateUser(String jwt, HttpServletRequest request) {
-        Long userId = tokenProvider.extractUserId(jwt);
-        UserDetails userDetails = userDetailsService.loadUserById(userId);
-        
+    private void authenticateUser(UserPrincipal principal, HttpServletRequest request) {
         var authentication = new UsernamePasswordAuthenticationToken(
-            userDetails, null, userDetails.getAuthorities());
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            principal, null, principal.getAuthorities());
+        authentication.setDetails(authenticationDetailsSource.buildDetails(request));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
     }
-}
\ No newline at end of file
+}
@@ -9,55 +9,101 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Handles JWT token generation and validation using modern Java features
  */
 @Component
 public class JwtTokenProvider {
+
+    static final String USERNAME_CLAIM = "username";
+    static final String ROLES_CLAIM = "roles";
+    static final String VERSION_CLAIM = "ver";
     
     private final SecretKey key;
     private final int jwtExpirationMs;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
 
     public JwtTokenProvider(
-            @Value("${app.jwt-secret}") String jwtSecret,
-            @Value("${app.jwt-expiration-ms}") int jwtExpirationMs) {
+            @Value("${jwt.jwt-secret}") String jwtSecret,
+            @Value("${jwt.jwt-expiration-ms}") int jwtExpirationMs,
+            @Value("${jwt.verified-cache-size}") int verifiedCacheSize) {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
         this.jwtExpirationMs = jwtExpirationMs;
+        // Parsers are immutable and thread-safe, build it once
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
     }
 
     public String generateToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return generateToken((UserPrincipal) authentication.getPrincipal());
+    }
+
+    public String generateToken(UserPrincipal userPrincipal) {
         Instant now = Instant.now();
         Instant expiry = now.plus(jwtExpirationMs, ChronoUnit.MILLIS);
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getId().toString())
+                .claim(USERNAME_CLAIM, userPrincipal.getUsername())
+                .claim(ROLES_CLAIM, userPrincipal.getRoles())
+                .claim(VERSION_CLAIM, userPrincipal.getTokenVersion())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiry))
                 .signWith(key)
                 .compact();
     }
 
-    public Long extractUserId(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject()
-                .transform(Long::parseLong);
-    }
+    /**
+     * Verifies a token and returns the principal described by its claims.
+     * The token is parsed and its signature checked once; afterwards it is recognized by its hash
+     * until it expires. Tokens issued without a username claim are rejected, their holders have
+     * to log in again.
+     *
+     * @param token The raw token
+     * @return the principal, without password, or null if the token is invalid or expired
+     */
+    public UserPrincipal verify(String token) {
+        long now = System.currentTimeMillis();
+        var cacheKey = VerifiedTokenCache.key(token);
+        var principal = verifiedTokens.get(cacheKey, now);
+        if (principal != null) {
+            return principal;
+        }
 
-    public boolean isTokenValid(String token) {
+        Claims claims;
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
+            claims = parser.parseClaimsJws(token).getBody();
+            principal = toPrincipal(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (principal == null) {
+            return null;
+        }
+        // Tokens without an expiry are accepted but never cached
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, principal, claims.getExpiration().getTime(), now);
+        }
+        return principal;
+    }
+
+    private static UserPrincipal toPrincipal(Claims claims) {
+        var username = claims.get(USERNAME_CLAIM, String.class);
+        if (username == null) {
+            return null;
         }
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        return new UserPrincipal(
+            Long.parseLong(claims.getSubject()),
+            username,
+            null,
+            roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+            version == null ? 0 : version);
     }
-}
\ No newline at end of file
+}
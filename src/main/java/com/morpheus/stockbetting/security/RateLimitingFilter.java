@@ -0,0 +1,92 @@
+package com.morpheus.stockbetting.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.morpheus.stockbetting.exception.RateLimitExceededException;
+import com.morpheus.stockbetting.ratelimit.RateLimitProperties;
+import com.morpheus.stockbetting.ratelimit.RateLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting filter, placed after the JWT filter so that authenticated requests are limited
+ * per user and anonymous ones per client IP. Rejected requests raise a RateLimitExceededException,
+ * answered with 429 by the error handling middleware.
+ */
+@Component
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final List<RouteGroup> routeGroups = new ArrayList<>();
+
+    public RateLimitingFilter(RateLimiter rateLimiter, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        for (var group : properties.groups()) {
+            var patterns = group.patterns().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            var rejected = Counter.builder("rate.limit.rejected")
+                .tag("group", group.name())
+                .description("Requests rejected because the client exceeded the budget of the route group")
+                .register(meterRegistry);
+            routeGroups.add(new RouteGroup(group, patterns, rejected));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        var routeGroup = match(request);
+        if (routeGroup != null) {
+            long wait = rateLimiter.tryAcquire(routeGroup.group(), clientKey(request));
+            if (wait > 0) {
+                routeGroup.rejected().increment();
+                throw new RateLimitExceededException(
+                    "Rate limit of " + routeGroup.group().name() + " requests exceeded", Duration.ofNanos(wait));
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RouteGroup match(HttpServletRequest request) {
+        if (routeGroups.isEmpty()) {
+            return null;
+        }
+        var path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (var routeGroup : routeGroups) {
+            for (PathPattern pattern : routeGroup.patterns()) {
+                if (pattern.matches(path)) {
+                    return routeGroup;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        // Behind a proxy the remote address is rewritten by server.forward-headers-strategy
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record RouteGroup(RateLimitProperties.Group group, List<PathPattern> patterns, Counter rejected) {
+    }
+}
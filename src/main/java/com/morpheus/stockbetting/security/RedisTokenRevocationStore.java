@@ -0,0 +1,136 @@
+package com.morpheus.stockbetting.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Token revocation store replicated through Redis.
+ * Revocations are kept in a Redis hash (user id to "minimumVersion:revokedAtMillis") and broadcast
+ * on a pub/sub channel; every instance applies them to a local in-memory replica, so lookups never
+ * leave the process. The replica is reloaded from the hash whenever the channel subscription is
+ * (re)established and on every prune, which also catches messages missed while disconnected.
+ */
+public class RedisTokenRevocationStore implements TokenRevocationStore, MessageListener, SubscriptionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTokenRevocationStore.class);
+
+    /**
+     * Stores the revocation unless a higher minimum version is already stored.
+     */
+    private static final RedisScript<Long> REVOKE = RedisScript.of("""
+        local current = redis.call('HGET', KEYS[1], ARGV[1])
+        if current and tonumber(string.match(current, '^(%d+):')) >= tonumber(ARGV[2]) then
+            return 0
+        end
+        redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[3])
+        return 1
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final String channel;
+    private final InMemoryTokenRevocationStore replica;
+
+    public RedisTokenRevocationStore(StringRedisTemplate redisTemplate, RedisMessageListenerContainer container,
+                                     String key, String channel, InMemoryTokenRevocationStore replica) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.channel = channel;
+        this.replica = replica;
+        container.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    @Override
+    public int minimumVersion(long userId) {
+        return replica.minimumVersion(userId);
+    }
+
+    /**
+     * Revokes locally first, then stores and broadcasts the revocation.
+     * If Redis is unavailable the revocation is only effective on this instance and an
+     * IllegalStateException is thrown, so the caller can report the logout as failed.
+     */
+    @Override
+    public void revoke(long userId, int minimumVersion) {
+        var revocation = new InMemoryTokenRevocationStore.Revocation(minimumVersion, System.currentTimeMillis());
+        replica.apply(userId, revocation.minimumVersion(), revocation.revokedAtMillis());
+        try {
+            redisTemplate.execute(REVOKE, List.of(key), String.valueOf(userId),
+                String.valueOf(revocation.minimumVersion()), String.valueOf(revocation.revokedAtMillis()));
+            redisTemplate.convertAndSend(channel, userId + "=" + revocation.encode());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not replicate token revocation of user " + userId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        var body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            int separator = body.indexOf('=');
+            var revocation = InMemoryTokenRevocationStore.Revocation.decode(body.substring(separator + 1));
+            replica.apply(Long.parseLong(body.substring(0, separator)),
+                revocation.minimumVersion(), revocation.revokedAtMillis());
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed token revocation: {}", body);
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        reload();
+    }
+
+    /**
+     * Reloads the replica from Redis and removes revocations that no longer cover unexpired tokens.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval}")
+    public void prune() {
+        replica.prune();
+        reload();
+    }
+
+    private void reload() {
+        Map<Object, Object> stored;
+        try {
+            stored = redisTemplate.opsForHash().entries(key);
+        } catch (RuntimeException e) {
+            logger.warn("Could not load token revocations: {}", e.getMessage());
+            return;
+        }
+        var expired = new ArrayList<Object>();
+        stored.forEach((userId, value) -> {
+            try {
+                var revocation = InMemoryTokenRevocationStore.Revocation.decode(value.toString());
+                if (replica.isLive(revocation.revokedAtMillis())) {
+                    replica.apply(Long.parseLong(userId.toString()), revocation.minimumVersion(),
+                        revocation.revokedAtMillis());
+                } else {
+                    expired.add(userId);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring malformed token revocation of user {}: {}", userId, value);
+            }
+        });
+        if (!expired.isEmpty()) {
+            try {
+                redisTemplate.opsForHash().delete(key, expired.toArray());
+            } catch (RuntimeException e) {
+                logger.warn("Could not remove expired token revocations: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.morpheus.stockbetting.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.morpheus.stockbetting.domain.entity.RefreshToken;
+import com.morpheus.stockbetting.domain.repository.RefreshTokenRepository;
+import com.morpheus.stockbetting.domain.repository.UserRepository;
+import com.morpheus.stockbetting.exception.AuthenticationFailedException;
+
+/**
+ * Issues and rotates refresh tokens.
+ * Refresh tokens are random 256-bit values, so a SHA-256 hash is enough to store them safely and
+ * exchanging one costs a single indexed lookup instead of a BCrypt verification. Every exchange
+ * marks the presented token as used and issues a new one in the same family; presenting a used
+ * token again means it was copied, so the whole family and every access token of the user
+ * are revoked.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationStore revocationStore;
+    private final Duration refreshExpiration;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtTokenProvider tokenProvider,
+                               TokenRevocationStore revocationStore,
+                               @Value("${jwt.refresh-expiration}") Duration refreshExpiration) {
+        this(refreshTokenRepository, userRepository, tokenProvider, revocationStore, refreshExpiration,
+            Clock.systemUTC());
+    }
+
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                        JwtTokenProvider tokenProvider, TokenRevocationStore revocationStore,
+                        Duration refreshExpiration, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.tokenProvider = tokenProvider;
+        this.revocationStore = revocationStore;
+        this.refreshExpiration = refreshExpiration;
+        this.clock = clock;
+    }
+
+    /**
+     * Issues the tokens of a freshly authenticated user, starting a new refresh token family.
+     *
+     * @param principal the authenticated user
+     * @return the access token and the refresh token
+     */
+    public IssuedTokens issue(UserPrincipal principal) {
+        return new IssuedTokens(tokenProvider.generateToken(principal),
+            createRefreshToken(principal.getId(), UUID.randomUUID().toString()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * The user is reloaded, so role and token version changes apply from the next refresh on.
+     *
+     * @param refreshToken the raw refresh token
+     * @return the new access token and refresh token
+     * @throws AuthenticationFailedException if the token is unknown, expired, already used, or its user was deleted
+     */
+    public IssuedTokens refresh(String refreshToken) {
+        var now = clock.instant();
+        var stored = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+            .orElseThrow(() -> new AuthenticationFailedException("Invalid refresh token"));
+        if (!stored.getExpiresAt().isAfter(now)) {
+            throw new AuthenticationFailedException("Refresh token expired");
+        }
+        // The conditional update settles concurrent exchanges of the same token
+        if (stored.getUsedAt() != null || refreshTokenRepository.markUsed(stored.getId(), now) == 0) {
+            revokeOnReuse(stored);
+            throw new AuthenticationFailedException("Refresh token already used");
+        }
+
+        var user = userRepository.findById(stored.getUserId())
+            .orElseThrow(() -> new AuthenticationFailedException("User no longer exists"));
+        var principal = new UserPrincipal(user.getId(), user.getUsername(), null,
+            user.getRoles(), user.getTokenVersion());
+        return new IssuedTokens(tokenProvider.generateToken(principal),
+            createRefreshToken(user.getId(), stored.getFamilyId()));
+    }
+
+    /**
+     * Deletes every refresh token of a user, e.g. on logout.
+     *
+     * @param userId the user id
+     */
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(clock.instant());
+        if (deleted > 0) {
+            logger.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private void revokeOnReuse(RefreshToken stored) {
+        logger.warn("Refresh token reuse detected for user {}, revoking token family {}",
+            stored.getUserId(), stored.getFamilyId());
+        refreshTokenRepository.deleteByFamilyId(stored.getFamilyId());
+        userRepository.findById(stored.getUserId()).ifPresent(user -> {
+            userRepository.incrementTokenVersion(user.getId());
+            revocationStore.revoke(user.getId(), user.getTokenVersion() + 1);
+        });
+    }
+
+    private String createRefreshToken(Long userId, String familyId) {
+        var bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        var token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(token), userId, familyId,
+            clock.instant().plus(refreshExpiration)));
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Access token and refresh token handed to a client.
+     */
+    public record IssuedTokens(String accessToken, String refreshToken) {
+    }
+}
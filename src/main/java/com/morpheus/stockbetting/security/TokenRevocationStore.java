@@ -0,0 +1,26 @@
+package com.morpheus.stockbetting.security;
+
+/**
+ * Denylist of token versions. Revoking a user's tokens raises the lowest version still accepted
+ * for that user, so one small entry per user covers every token issued before the revocation.
+ */
+public interface TokenRevocationStore {
+
+    /**
+     * Returns the lowest token version still accepted for a user.
+     * Called for every authenticated request, implementations answer from memory.
+     *
+     * @param userId the user id
+     * @return the minimum accepted version, 0 if no token of the user was revoked
+     */
+    int minimumVersion(long userId);
+
+    /**
+     * Revokes every token of a user whose version is below the given one.
+     * Revocations never lower a minimum set before.
+     *
+     * @param userId the user id
+     * @param minimumVersion the lowest token version still accepted
+     */
+    void revoke(long userId, int minimumVersion);
+}
@@ -0,0 +1,32 @@
+package com.morpheus.stockbetting.security;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.morpheus.stockbetting.domain.entity.User;
+
+import jakarta.persistence.PostRemove;
+
+/**
+ * JPA entity listener revoking every token issued to a user when the user is deleted, and
+ * releasing their username on this instance.
+ * Other changes take effect through the token version, which logout bumps with a bulk update.
+ */
+@Component
+public class UserChangeListener {
+
+    private final TokenRevocationStore revocationStore;
+    private final UsernameRegistry usernameRegistry;
+
+    // Lazy: entity listeners are created while the entity manager factory is built
+    public UserChangeListener(@Lazy TokenRevocationStore revocationStore, @Lazy UsernameRegistry usernameRegistry) {
+        this.revocationStore = revocationStore;
+        this.usernameRegistry = usernameRegistry;
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        revocationStore.revoke(user.getId(), user.getTokenVersion() + 1);
+        usernameRegistry.remove(user.getUsername());
+    }
+}
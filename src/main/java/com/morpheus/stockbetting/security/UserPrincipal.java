@@ -1,19 +1,32 @@
 package com.morpheus.stockbetting.security;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
 public class UserPrincipal implements UserDetails {
     private final Long id;
     private final String username;
     private final String password;
+    private final List<String> roles;
+    private final int tokenVersion;
+    private final List<GrantedAuthority> authorities;
 
     public UserPrincipal(Long id, String username, String password) {
+        this(id, username, password, List.of(), 0);
+    }
+
+    public UserPrincipal(Long id, String username, String password, List<String> roles, int tokenVersion) {
         this.id = id;
         this.username = username;
         this.password = password;
+        this.roles = List.copyOf(roles);
+        this.tokenVersion = tokenVersion;
+        this.authorities = this.roles.stream()
+            .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+            .toList();
     }
 
     public Long getId() {
@@ -30,9 +43,20 @@ public class UserPrincipal implements UserDetails {
         return password;
     }
 
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * @return the token version of the user when the principal was loaded or the token was issued
+     */
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.emptyList();
+        return authorities;
     }
 
     @Override
@@ -0,0 +1,135 @@
+package com.morpheus.stockbetting.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.morpheus.stockbetting.config.AsyncConfig;
+import com.morpheus.stockbetting.domain.repository.UserRepository;
+
+/**
+ * In-memory view of the taken usernames, used to skip the database when a name is free.
+ * A Bloom filter over every username is loaded in the background once the application is
+ * ready and updated on every registration of this instance. Until it is loaded, and for names
+ * it reports as present, callers must ask the database; names registered by other instances
+ * are only caught by the unique constraint of the users table.
+ *
+ * <p>The filter can not tell a taken name from a false positive, so names confirmed taken (registered
+ * here or found in the database) are also kept in a bounded exact set. Repeated attempts at a taken
+ * name, such as retries or popular names, are then rejected without a query.
+ */
+@Component
+public class UsernameRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameRegistry.class);
+
+    private static final int SEED_PAGE_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final Executor ioExecutor;
+    private final UsernameBloomFilter filter;
+    private final Map<String, Boolean> knownTaken;
+    private volatile boolean seeded;
+
+    public UsernameRegistry(UserRepository userRepository,
+                            @Qualifier(AsyncConfig.IO_EXECUTOR) Executor ioExecutor,
+                            @Value("${signup.username-filter.expected-usernames}") long expectedUsernames,
+                            @Value("${signup.username-filter.false-positive-rate}") double falsePositiveRate,
+                            @Value("${signup.username-filter.known-taken-size}") int knownTakenSize) {
+        this.userRepository = userRepository;
+        this.ioExecutor = ioExecutor;
+        this.filter = new UsernameBloomFilter(expectedUsernames, falsePositiveRate);
+        // Access ordered, the least recently requested name is dropped first
+        this.knownTaken = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > knownTakenSize;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedAsync() {
+        ioExecutor.execute(this::seed);
+    }
+
+    /**
+     * Adds every username in the database to the filter, page by page.
+     */
+    void seed() {
+        long count = 0;
+        try {
+            var page = PageRequest.of(0, SEED_PAGE_SIZE, Sort.by("id"));
+            while (true) {
+                var usernames = userRepository.findAllUsernames(page);
+                usernames.forEach(filter::add);
+                count += usernames.getNumberOfElements();
+                if (!usernames.hasNext()) {
+                    break;
+                }
+                page = page.next();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not load usernames, availability checks keep querying the database: {}", e.getMessage());
+            return;
+        }
+        seeded = true;
+        logger.info("Loaded {} usernames into the availability filter", count);
+    }
+
+    /**
+     * @param username the requested username
+     * @return false if the name is certainly free, true if it may be taken and the database must be asked
+     */
+    public boolean mightBeTaken(String username) {
+        return !seeded || filter.mightContain(username);
+    }
+
+    /**
+     * @param username the requested username
+     * @return true if the name was recently confirmed taken and can be rejected without a query
+     */
+    public boolean isKnownTaken(String username) {
+        synchronized (knownTaken) {
+            return knownTaken.get(username) != null;
+        }
+    }
+
+    /**
+     * Records a username that was just registered, or found taken.
+     *
+     * @param username the username
+     */
+    public void add(String username) {
+        filter.add(username);
+        synchronized (knownTaken) {
+            knownTaken.put(username, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Forgets a username whose user was deleted, so it can be registered again. The filter keeps
+     * reporting it as possibly taken, which only costs a query.
+     *
+     * @param username the username
+     */
+    public void remove(String username) {
+        synchronized (knownTaken) {
+            knownTaken.remove(username);
+        }
+    }
+
+    boolean isSeeded() {
+        return seeded;
+    }
+}
@@ -0,0 +1,108 @@
+package com.morpheus.stockbetting.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ * Entries are keyed by the SHA-256 hash of the token, so raw tokens are never kept in memory,
+ * and expire together with the token.
+ */
+final class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param token The raw token
+     * @return the cache key of the token
+     */
+    static Key key(String token) {
+        var digest = SHA_256.get();
+        var hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new Key(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * @param key The cache key of the token
+     * @param nowMillis Current time in epoch milliseconds
+     * @return the principal of a verified, unexpired token, or null
+     */
+    UserPrincipal get(Key key, long nowMillis) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= nowMillis) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    void put(Key key, UserPrincipal principal, long expiresAtMillis, long nowMillis) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict(nowMillis);
+        }
+        entries.put(key, new Entry(principal, expiresAtMillis));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired tokens; if the cache is still full, drops entries in iteration order until a
+     * quarter of the capacity is free. One caller evicts while the others carry on.
+     */
+    private void evict(long nowMillis) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> entry.expiresAtMillis() <= nowMillis);
+            int target = maxEntries - Math.max(1, maxEntries / 4);
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * SHA-256 hash of a token.
+     */
+    record Key(long h0, long h1, long h2, long h3) {
+    }
+
+    private record Entry(UserPrincipal principal, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.morpheus.stockbetting.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service exporting the bar history of a symbol in columnar formats for analytics clients.
+ */
+public interface HistoryExportService {
+
+    /**
+     * Media type of Arrow IPC streams.
+     */
+    String ARROW_STREAM = "application/vnd.apache.arrow.stream";
+
+    /**
+     * Media type of Parquet files.
+     */
+    String PARQUET = "application/vnd.apache.parquet";
+
+    /**
+     * Prepares an Arrow IPC stream of the bars of a symbol within a date range.
+     *
+     * @param symbol The stock symbol
+     * @param from Optional inclusive start date (YYYY-MM-DD)
+     * @param to Optional inclusive end date (YYYY-MM-DD)
+     * @return The export, written once the response body is requested
+     */
+    HistoryExport exportArrow(String symbol, String from, String to);
+
+    /**
+     * Prepares a Parquet file of the bars of a symbol within a date range.
+     *
+     * @param symbol The stock symbol
+     * @param from Optional inclusive start date (YYYY-MM-DD)
+     * @param to Optional inclusive end date (YYYY-MM-DD)
+     * @return The export, written once the response body is requested
+     */
+    HistoryExport exportParquet(String symbol, String from, String to);
+
+    /**
+     * Export whose arguments have been validated, writing its data on demand.
+     */
+    @FunctionalInterface
+    interface HistoryExport {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,77 @@
+package com.morpheus.stockbetting.service;
+
+import java.time.LocalDate;
+import java.util.regex.Pattern;
+
+import com.morpheus.stockbetting.exception.ValidationException;
+
+/**
+ * Bar aggregation interval such as {@code 5d}, {@code 1w}, {@code 1M} or {@code 1y}.
+ * Day buckets are aligned to the epoch, week buckets start on Monday and month and year
+ * buckets start on the first day of the period.
+ *
+ * @param length number of units per bucket
+ * @param unit   one of {@code d} (days), {@code w} (weeks), {@code M} (months) or {@code y} (years)
+ */
+public record RollupInterval(int length, char unit) {
+
+    private static final Pattern FORMAT = Pattern.compile("([1-9][0-9]{0,3})([dwMy])");
+    private static final long FIRST_MONDAY_EPOCH_DAY = 4; // 1970-01-05
+
+    /**
+     * Parses an interval such as {@code 1w}.
+     *
+     * @param value the interval text
+     * @return the parsed interval
+     * @throws ValidationException if the text is not a valid interval
+     */
+    public static RollupInterval parse(String value) {
+        var matcher = value == null ? null : FORMAT.matcher(value.trim());
+        if (matcher == null || !matcher.matches()) {
+            throw new ValidationException("Invalid interval, expected e.g. 5d, 1w, 1M or 1y: " + value);
+        }
+        return new RollupInterval(Integer.parseInt(matcher.group(1)), matcher.group(2).charAt(0));
+    }
+
+    /**
+     * Returns the epoch day of the first day of the bucket containing the given day.
+     *
+     * @param epochDay the day to locate
+     * @return the first day of its bucket
+     */
+    public long bucketStart(long epochDay) {
+        return switch (unit) {
+            case 'd' -> Math.floorDiv(epochDay, length) * length;
+            case 'w' -> FIRST_MONDAY_EPOCH_DAY
+                + Math.floorDiv(epochDay - FIRST_MONDAY_EPOCH_DAY, 7L * length) * 7L * length;
+            default -> {
+                var date = LocalDate.ofEpochDay(epochDay);
+                long months = unit == 'y' ? 12L * length : length;
+                long index = Math.floorDiv(date.getYear() * 12L + date.getMonthValue() - 1, months) * months;
+                yield LocalDate.of((int) Math.floorDiv(index, 12), (int) Math.floorMod(index, 12) + 1, 1).toEpochDay();
+            }
+        };
+    }
+
+    /**
+     * Returns the epoch day of the last day of the bucket starting at the given day.
+     *
+     * @param bucketStart the first day of the bucket
+     * @return the last day of the bucket
+     */
+    public long bucketEnd(long bucketStart) {
+        var start = LocalDate.ofEpochDay(bucketStart);
+        var next = switch (unit) {
+            case 'd' -> start.plusDays(length);
+            case 'w' -> start.plusWeeks(length);
+            case 'M' -> start.plusMonths(length);
+            default -> start.plusYears(length);
+        };
+        return next.toEpochDay() - 1;
+    }
+
+    @Override
+    public String toString() {
+        return length + String.valueOf(unit);
+    }
+}
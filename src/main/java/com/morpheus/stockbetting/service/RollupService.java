@@ -0,0 +1,44 @@
+package com.morpheus.stockbetting.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.dto.response.OhlcvBar;
+
+/**
+ * Service maintaining pre-aggregated OHLCV bars for coarser intervals than the stored daily data.
+ */
+public interface RollupService {
+
+    /**
+     * Merges a newly saved bar into the buckets of every configured interval.
+     *
+     * @param stockData The saved stock data
+     */
+    void apply(StockData stockData);
+
+    /**
+     * Returns the precomputed bars of a symbol for an interval, oldest first.
+     *
+     * @param symbol The stock symbol
+     * @param interval The rollup interval (e.g. "1w")
+     * @return The aggregated bars, empty if the symbol has no data
+     */
+    List<OhlcvBar> getBars(String symbol, String interval);
+
+    /**
+     * Rebuilds all rollups from the stored stock data, processing symbols in parallel.
+     *
+     * @return CompletableFuture completing once every symbol has been rebuilt
+     */
+    CompletableFuture<Void> rebuild();
+
+    /**
+     * Returns the configured rollup intervals.
+     *
+     * @return The intervals bars are maintained for
+     */
+    Set<RollupInterval> getIntervals();
+}
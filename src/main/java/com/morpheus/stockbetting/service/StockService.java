@@ -1,9 +1,11 @@
 package com.morpheus.stockbetting.service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.store.BarSeries;
 
 /**
  * Service interface for managing stock data operations.
@@ -19,6 +21,40 @@ public interface StockService {
      */
     CompletableFuture<List<StockData>> getStockDataAsync(String symbol);
 
+    /**
+     * Retrieves the stock data of a symbol within a date range asynchronously.
+     * Reads both the database and the archive of older bars, in date order.
+     *
+     * @param symbol The stock symbol to retrieve data for
+     * @param from Optional inclusive start date (YYYY-MM-DD); null for no lower bound
+     * @param to Optional inclusive end date (YYYY-MM-DD); null for no upper bound
+     * @return CompletableFuture of the stock data of the symbol within the range
+     */
+    CompletableFuture<List<StockData>> getStockDataAsync(String symbol, String from, String to);
+
+    /**
+     * Retrieves the bars of a symbol within a date range as columns asynchronously.
+     * Meant for history, feature and backtest computations, which read the columns without
+     * creating an entity per bar. Reads the same tiers as the date range query, in date order.
+     *
+     * @param symbol The stock symbol to retrieve bars for
+     * @param from Optional inclusive start date (YYYY-MM-DD); null for no lower bound
+     * @param to Optional inclusive end date (YYYY-MM-DD); null for no upper bound
+     * @return CompletableFuture of the bars of the symbol within the range
+     */
+    CompletableFuture<BarSeries> getBarSeriesAsync(String symbol, String from, String to);
+
+    /**
+     * Retrieves stock data for several symbols at once asynchronously.
+     * Cached symbols are resolved in bulk and all remaining symbols are loaded with a single query.
+     * Archived bars are included like for date range queries.
+     *
+     * @param symbols The stock symbols to retrieve data for
+     * @param from Optional inclusive start date (YYYY-MM-DD); null returns the full history
+     * @return CompletableFuture of the stock data per symbol, in request order
+     */
+    CompletableFuture<Map<String, List<StockData>>> getStockDataAsync(List<String> symbols, String from);
+
     /**
      * Saves new stock data asynchronously.
      *
@@ -2,10 +2,12 @@ package com.morpheus.stockbetting.service.impl;
 
 import org.apache.spark.ml.Pipeline;
 import org.apache.spark.ml.PipelineStage;
+import org.apache.spark.ml.Transformer;
 import org.apache.spark.ml.classification.LogisticRegression;
 import org.apache.spark.ml.evaluation.BinaryClassificationEvaluator;
 import org.apache.spark.ml.feature.StandardScaler;
 import org.apache.spark.ml.feature.VectorAssembler;
+import org.apache.spark.ml.linalg.Vector;
 import org.apache.spark.ml.tuning.CrossValidator;
 import org.apache.spark.ml.tuning.CrossValidatorModel;
 import org.apache.spark.ml.tuning.ParamGridBuilder;
@@ -13,15 +15,21 @@ import org.apache.spark.sql.*;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import com.morpheus.stockbetting.config.AsyncConfig;
 import com.morpheus.stockbetting.dto.response.PredictionResponse;
 import com.morpheus.stockbetting.service.MLService;
+import com.morpheus.stockbetting.tracing.Tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
-import jakarta.annotation.PreDestroy;
 
 import java.io.IOException;
 import java.util.List;
@@ -33,8 +41,10 @@ import java.util.concurrent.*;
  * for better accuracy.
  */
 @Service
+@ConditionalOnProperty(name = "ml.engine", havingValue = "advanced", matchIfMissing = true)
 public class AdvancedMLService implements MLService {
     private static final String MODEL_PATH = "models/stock_prediction_model"; // Path to save/load the trained model
+    private static final String TRAINING_DATA_PATH = "data/stock_data.csv"; // Path to the training data
     private static final String OPEN_COLUMN = "Open"; // Column name for opening price
     private static final String HIGH_COLUMN = "High"; // Column name for highest price
     private static final String LOW_COLUMN = "Low"; // Column name for lowest price
@@ -43,20 +53,60 @@ public class AdvancedMLService implements MLService {
     private static final String LABEL_COLUMN = "Label"; // Column for classification label
 
     private final SparkSession spark; // Spark session for processing data
-    private CrossValidatorModel trainedModel; // The trained model (cross-validated)
-    private final ExecutorService executorService;
+    private Transformer trainedModel; // The trained model (cross-validated)
+    private final Executor scoringExecutor; // Executor for predictions (CPU-bound)
+    private final Executor trainingExecutor; // Low priority executor for loading data and training
+    private final Timer queueTimer; // Wait between submitting a prediction and a scoring thread picking it up
+    private final Timer inputTimer; // Building the input DataFrame
+    private final Timer transformTimer; // Applying the model to the input
+    private final Timer predictionTimer; // Collecting the predicted label
+    private final Timer probabilityTimer; // Collecting the probability
 
     private static final Logger logger = LoggerFactory.getLogger(AdvancedMLService.class);
 
     /**
      * Initializes the service, setting up Spark session and loading/training the model.
      *
+     * @param scoringExecutor Executor for predictions
+     * @param trainingExecutor Executor for loading the training data and training the model
+     * @param meterRegistry Registry of the prediction stage timers
      * @throws IOException If an error occurs while loading or training the model
      */
-    public AdvancedMLService() throws IOException {
-        this.spark = initializeSparkSession();
+    @Autowired
+    public AdvancedMLService(@Qualifier(AsyncConfig.CPU_EXECUTOR) Executor scoringExecutor,
+                             @Qualifier(AsyncConfig.TRAINING_EXECUTOR) Executor trainingExecutor,
+                             MeterRegistry meterRegistry) throws IOException {
+        this(initializeSparkSession(), null, scoringExecutor, trainingExecutor, meterRegistry);
         this.trainedModel = loadOrTrainModel();
-        this.executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates the service around an already trained model, e.g. one fitted on synthetic data by a benchmark.
+     *
+     * @param spark Spark session the prediction inputs are created in
+     * @param trainedModel Model transforming the prediction inputs
+     * @param scoringExecutor Executor for predictions
+     * @param trainingExecutor Executor for loading the training data and training the model
+     * @param meterRegistry Registry of the prediction stage timers
+     */
+    AdvancedMLService(SparkSession spark, Transformer trainedModel, Executor scoringExecutor,
+                      Executor trainingExecutor, MeterRegistry meterRegistry) {
+        this.spark = spark;
+        this.trainedModel = trainedModel;
+        this.scoringExecutor = scoringExecutor;
+        this.trainingExecutor = trainingExecutor;
+        this.queueTimer = stageTimer(meterRegistry, "queue");
+        this.inputTimer = stageTimer(meterRegistry, "input");
+        this.transformTimer = stageTimer(meterRegistry, "transform");
+        this.predictionTimer = stageTimer(meterRegistry, "collect_prediction");
+        this.probabilityTimer = stageTimer(meterRegistry, "collect_probability");
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("prediction.stage")
+            .tag("stage", stage)
+            .description("Time spent in each stage of a prediction")
+            .register(meterRegistry);
     }
 
     /**
@@ -64,13 +114,21 @@ public class AdvancedMLService implements MLService {
      *
      * @return The initialized Spark session
      */
-    private SparkSession initializeSparkSession() {
+    private static SparkSession initializeSparkSession() {
+        return sparkSessionBuilder().getOrCreate(); // Get or create the Spark session
+    }
+
+    /**
+     * Creates the builder of the Spark session with the configuration used by the application.
+     *
+     * @return The configured session builder
+     */
+    static SparkSession.Builder sparkSessionBuilder() {
         return SparkSession.builder()
             .appName("StockBetting") // Set the application name
             .master("local[*]") // Run locally using all available cores
             .config("spark.memory.offHeap.enabled", true) // Enable off-heap memory for Spark
-            .config("spark.memory.offHeap.size", "2g") // Allocate 2GB of off-heap memory for Spark
-            .getOrCreate(); // Get or create the Spark session
+            .config("spark.memory.offHeap.size", "2g"); // Allocate 2GB of off-heap memory for Spark
     }
 
     /**
@@ -116,7 +174,7 @@ public class AdvancedMLService implements MLService {
      *
      * @return A schema defining the structure of the stock data
      */
-    private StructType createSchema() {
+    static StructType createSchema() {
         return DataTypes.createStructType(List.of(
             DataTypes.createStructField(OPEN_COLUMN, DataTypes.DoubleType, false),
             DataTypes.createStructField(HIGH_COLUMN, DataTypes.DoubleType, false),
@@ -128,28 +186,39 @@ public class AdvancedMLService implements MLService {
     }
 
     /**
-     * Asynchronously loads the stock market training data from a CSV file.
+     * Asynchronously loads the stock market training data from a CSV file on the training executor.
      *
      * @param schema The schema to be used for loading the data
      * @return CompletableFuture of the loaded dataset
      */
-    @Async
     public CompletableFuture<Dataset<Row>> loadTrainingData(StructType schema) {
         return CompletableFuture.supplyAsync(() ->
-            spark.read()
-                .option("header", true) // Read CSV with headers
-                .schema(schema) // Use the provided schema
-                .csv("data/stock_data.csv"), // Path to the training data
-            executorService
+            readTrainingData(spark, schema, TRAINING_DATA_PATH),
+            trainingExecutor
         );
     }
 
+    /**
+     * Reads stock market training data from a CSV file with a header line.
+     *
+     * @param spark The Spark session to read with
+     * @param schema The schema of the file
+     * @param path Path to the training data
+     * @return The dataset, read lazily
+     */
+    static Dataset<Row> readTrainingData(SparkSession spark, StructType schema, String path) {
+        return spark.read()
+            .option("header", true) // Read CSV with headers
+            .schema(schema) // Use the provided schema
+            .csv(path);
+    }
+
     /**
      * Creates the machine learning pipeline consisting of feature assembly, scaling, and logistic regression.
      *
      * @return The configured machine learning pipeline
      */
-    private Pipeline createPipeline() {
+    static Pipeline createPipeline() {
         var assembler = new VectorAssembler()
             .setInputCols(new String[]{OPEN_COLUMN, HIGH_COLUMN, LOW_COLUMN, CLOSE_COLUMN, VOLUME_COLUMN}) // Input features
             .setOutputCol("features"); // Output column for assembled features
@@ -170,37 +239,24 @@ public class AdvancedMLService implements MLService {
      *
      * @return The parameter grid for cross-validation
      */
-    private ParamGridBuilder createParamGrid() {
+    static ParamGridBuilder createParamGrid() {
         return new ParamGridBuilder()
             .addGrid(new LogisticRegression().regParam(), new double[]{0.01, 0.1, 1.0}) // Regularization parameter
             .addGrid(new LogisticRegression().elasticNetParam(), new double[]{0.0, 0.5, 1.0}); // ElasticNet parameter
     }
 
     /**
-     * Asynchronously trains the machine learning model using the specified data, pipeline, and parameter grid.
+     * Asynchronously trains the machine learning model on the training executor using the specified data, pipeline, and parameter grid.
      *
      * @param data The training dataset
      * @param pipeline The machine learning pipeline
      * @param paramGrid The parameter grid for hyperparameter tuning
      * @return CompletableFuture of the trained model
      */
-    @Async
     public CompletableFuture<CrossValidatorModel> trainModel(Dataset<Row> data, Pipeline pipeline, ParamGridBuilder paramGrid) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                var cv = new CrossValidator()
-                    .setEstimator(pipeline) // Set the pipeline as the estimator
-                    .setEvaluator(new BinaryClassificationEvaluator().setLabelCol(LABEL_COLUMN)) // Set the evaluator
-                    .setEstimatorParamMaps(paramGrid.build()) // Set the parameter grid
-                    .setNumFolds(5); // Perform 5-fold cross-validation
-
-                // Split data into training and test sets
-                var splits = data.randomSplit(new double[]{0.8, 0.2}, 42);
-                // Train the model using the training set
-                var model = cv.fit(splits[0]);
-                
-                // Evaluate the model using the test set
-                evaluateModel(model, splits[1]);
+                var model = fitAndEvaluate(data, pipeline, paramGrid);
                 // Save the trained model to disk
                 model.save(MODEL_PATH);
                 
@@ -208,7 +264,32 @@ public class AdvancedMLService implements MLService {
             } catch (IOException e) {
                 throw new CompletionException(e);
             }
-        }, executorService);
+        }, trainingExecutor);
+    }
+
+    /**
+     * Cross-validates the pipeline on 80% of the data and evaluates the best model on the rest.
+     *
+     * @param data The training dataset
+     * @param pipeline The machine learning pipeline
+     * @param paramGrid The parameter grid for hyperparameter tuning
+     * @return The trained model
+     */
+    static CrossValidatorModel fitAndEvaluate(Dataset<Row> data, Pipeline pipeline, ParamGridBuilder paramGrid) {
+        var cv = new CrossValidator()
+            .setEstimator(pipeline) // Set the pipeline as the estimator
+            .setEvaluator(new BinaryClassificationEvaluator().setLabelCol(LABEL_COLUMN)) // Set the evaluator
+            .setEstimatorParamMaps(paramGrid.build()) // Set the parameter grid
+            .setNumFolds(5); // Perform 5-fold cross-validation
+
+        // Split data into training and test sets
+        var splits = data.randomSplit(new double[]{0.8, 0.2}, 42);
+        // Train the model using the training set
+        var model = cv.fit(splits[0]);
+
+        // Evaluate the model using the test set
+        evaluateModel(model, splits[1]);
+        return model;
     }
 
     /**
@@ -217,7 +298,7 @@ public class AdvancedMLService implements MLService {
      * @param model The trained model
      * @param testData The test dataset
      */
-    private void evaluateModel(CrossValidatorModel model, Dataset<Row> testData) {
+    private static void evaluateModel(CrossValidatorModel model, Dataset<Row> testData) {
         var predictions = model.transform(testData); // Get model predictions
         var evaluator = new BinaryClassificationEvaluator().setLabelCol(LABEL_COLUMN); // Create evaluator
         var accuracy = evaluator.evaluate(predictions); // Calculate accuracy
@@ -227,6 +308,8 @@ public class AdvancedMLService implements MLService {
 
     /**
      * Makes an async prediction for a given stock symbol based on the provided stock data.
+     * Every stage, from waiting for a scoring thread to collecting the result, is timed separately
+     * and the Spark stages are recorded as spans of the current trace.
      *
      * @param symbol The stock symbol (e.g., "AAPL")
      * @param open The opening price
@@ -237,18 +320,23 @@ public class AdvancedMLService implements MLService {
      * @return CompletableFuture of the prediction response
      */
     @Override
-    @Async
     public CompletableFuture<PredictionResponse> predict(String symbol, double open, double high,
                                                        double low, double close, long volume) {
-        return CompletableFuture.supplyAsync(() -> {
+        long submitted = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> Tracing.inSpan("ml.predict", () -> {
+            long started = System.nanoTime();
+            queueTimer.record(started - submitted, TimeUnit.NANOSECONDS);
             // Create a dataset for the given input
-            var input = createPredictionInput(open, high, low, close, volume);
+            var input = Tracing.inSpan("spark.input", () -> createPredictionInput(open, high, low, close, volume));
+            long built = System.nanoTime();
+            inputTimer.record(built - started, TimeUnit.NANOSECONDS);
             // Make the prediction using the trained model
-            var prediction = trainedModel.transform(input);
-            
+            var prediction = Tracing.inSpan("spark.transform", () -> trainedModel.transform(input));
+            transformTimer.record(System.nanoTime() - built, TimeUnit.NANOSECONDS);
+
             // Create and return the prediction response
             return createPredictionResponse(prediction);
-        }, executorService);
+        }), scoringExecutor);
     }
 
     /**
@@ -291,8 +379,15 @@ public class AdvancedMLService implements MLService {
      * @return The prediction response with result and probability
      */
     private PredictionResponse createPredictionResponse(Dataset<Row> prediction) {
-        var result = prediction.select("prediction").first().getDouble(0);
-        var probability = prediction.select("probability").first().getDouble(0);
+        long start = System.nanoTime();
+        var result = Tracing.inSpan("spark.collect.prediction",
+            () -> prediction.select("prediction").first().getDouble(0));
+        long collected = System.nanoTime();
+        predictionTimer.record(collected - start, TimeUnit.NANOSECONDS);
+        // The probability column holds one probability per class, index 1 being an upward trend
+        var probability = Tracing.inSpan("spark.collect.probability",
+            () -> prediction.select("probability").first().<Vector>getAs(0).apply(1));
+        probabilityTimer.record(System.nanoTime() - collected, TimeUnit.NANOSECONDS);
         
         return new PredictionResponse(
             result > 0.5 ? "UP" : "DOWN", // Prediction result ("UP" or "DOWN")
@@ -301,21 +396,4 @@ public class AdvancedMLService implements MLService {
             "Prediction based on historical patterns" // Explanation
         );
     }
-
-    /**
-     * Cleanup method to properly shutdown the executor service.
-     * Called when the Spring container is destroying the bean.
-     */
-    @PreDestroy
-    public void cleanup() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-    }
 }
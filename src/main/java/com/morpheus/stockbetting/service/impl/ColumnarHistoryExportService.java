@@ -0,0 +1,491 @@
+package com.morpheus.stockbetting.service.impl;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.morpheus.stockbetting.service.HistoryExportService;
+import com.morpheus.stockbetting.store.BarArchive;
+import com.morpheus.stockbetting.store.BarArchive.BarVisitor;
+import com.morpheus.stockbetting.util.DateUtil;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Columnar implementation of the HistoryExportService interface.
+ * Archived bars are scanned from the memory-mapped archive and the rest is streamed from a JDBC
+ * cursor; both feed the columns directly, so no StockData entities are created. Arrow batches of
+ * {@value #CHUNK_ROWS} rows are sent as soon as they are full; Parquet is written to the response
+ * in row groups of at most {@value #PARQUET_ROW_GROUP_BYTES} bytes.
+ */
+@Service
+public class ColumnarHistoryExportService implements HistoryExportService {
+
+    /**
+     * Rows per Arrow record batch and per JDBC fetch.
+     */
+    static final int CHUNK_ROWS = 4096;
+
+    /**
+     * Upper bound for the Parquet row groups buffered in memory.
+     */
+    static final long PARQUET_ROW_GROUP_BYTES = 8L * 1024 * 1024;
+
+    private static final int INVALID_DAY = Integer.MIN_VALUE;
+
+    private static final String SYMBOL_METADATA = "symbol";
+
+    private static final List<String> COLUMNS = List.of("id", "date", "open", "high", "low", "close", "volume");
+
+    private static final MessageType PARQUET_SCHEMA = Types.buildMessage()
+        .required(PrimitiveTypeName.INT64).named("id")
+        .required(PrimitiveTypeName.INT32).as(LogicalTypeAnnotation.dateType()).named("date")
+        .required(PrimitiveTypeName.DOUBLE).named("open")
+        .required(PrimitiveTypeName.DOUBLE).named("high")
+        .required(PrimitiveTypeName.DOUBLE).named("low")
+        .required(PrimitiveTypeName.DOUBLE).named("close")
+        .required(PrimitiveTypeName.INT64).named("volume")
+        .named("bar");
+
+    /**
+     * JDBC access streaming rows with a server-side cursor.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Read-only transactions; PostgreSQL only uses a cursor for fetch sizes inside a transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Archive of bars moved out of the database.
+     */
+    private final BarArchive barArchive;
+
+    /**
+     * Off-heap memory for Arrow batches, created by the first Arrow export.
+     */
+    private volatile BufferAllocator allocator;
+
+    /**
+     * Constructor for ColumnarHistoryExportService.
+     *
+     * @param dataSource Data source of the stock data table
+     * @param transactionManager Transaction manager for the read-only cursor transaction
+     * @param barArchive Archive of bars moved out of the database
+     */
+    public ColumnarHistoryExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                        BarArchive barArchive) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(CHUNK_ROWS);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.barArchive = barArchive;
+    }
+
+    @Override
+    public HistoryExport exportArrow(String symbol, String from, String to) {
+        DateUtil.validateRange(from, to);
+        return out -> writeArrow(symbol, bars(symbol, DateUtil.parseDate(from), DateUtil.parseDate(to)), out);
+    }
+
+    @Override
+    public HistoryExport exportParquet(String symbol, String from, String to) {
+        DateUtil.validateRange(from, to);
+        return out -> writeParquet(symbol, bars(symbol, DateUtil.parseDate(from), DateUtil.parseDate(to)), out);
+    }
+
+    /**
+     * Source of bars in date order, archived bars first.
+     */
+    @FunctionalInterface
+    interface BarSource {
+        void forEach(BarVisitor visitor);
+    }
+
+    private BarSource bars(String symbol, LocalDate from, LocalDate to) {
+        return visitor -> {
+            var archivedIds = new LongList();
+            int[] lastArchivedDay = {INVALID_DAY};
+            barArchive.scan(symbol, from, to, (id, day, open, high, low, close, volume) -> {
+                archivedIds.add(id);
+                lastArchivedDay[0] = day;
+                visitor.visit(id, day, open, high, low, close, volume);
+            });
+            archivedIds.sort();
+            streamDatabase(symbol, from, to, (id, day, open, high, low, close, volume) -> {
+                // Rows being archived are in both tiers for a moment
+                if (day <= lastArchivedDay[0] && archivedIds.contains(id)) {
+                    return;
+                }
+                visitor.visit(id, day, open, high, low, close, volume);
+            });
+        };
+    }
+
+    private void streamDatabase(String symbol, LocalDate from, LocalDate to, BarVisitor visitor) {
+        var sql = new StringBuilder("select id, date, open, high, low, close, volume from stock_data where symbol = ?");
+        var args = new ArrayList<Object>(3);
+        args.add(symbol);
+        if (from != null) {
+            sql.append(" and date >= ?");
+            args.add(from.toString());
+        }
+        if (to != null) {
+            sql.append(" and date <= ?");
+            args.add(to.toString());
+        }
+        sql.append(" order by date, id");
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            int day = epochDay(rs.getString(2));
+            if (day != INVALID_DAY) {
+                visitor.visit(rs.getLong(1), day, rs.getDouble(3), rs.getDouble(4), rs.getDouble(5),
+                    rs.getDouble(6), rs.getLong(7));
+            }
+        }, args.toArray()));
+    }
+
+    void writeArrow(String symbol, BarSource source, OutputStream out) throws IOException {
+        try (var batchAllocator = allocator().newChildAllocator("history-export", 0, Long.MAX_VALUE);
+             var root = VectorSchemaRoot.create(arrowSchema(symbol), batchAllocator);
+             var writer = new ArrowStreamWriter(root, null, Channels.newChannel(new NonClosingOutputStream(out)))) {
+            var ids = (BigIntVector) root.getVector("id");
+            var dates = (DateDayVector) root.getVector("date");
+            var opens = (Float8Vector) root.getVector("open");
+            var highs = (Float8Vector) root.getVector("high");
+            var lows = (Float8Vector) root.getVector("low");
+            var closes = (Float8Vector) root.getVector("close");
+            var volumes = (BigIntVector) root.getVector("volume");
+            root.getFieldVectors().forEach(vector -> vector.setInitialCapacity(CHUNK_ROWS));
+            root.allocateNew();
+
+            writer.start();
+            int[] rows = {0};
+            try {
+                source.forEach((id, day, open, high, low, close, volume) -> {
+                    int row = rows[0];
+                    ids.setSafe(row, id);
+                    dates.setSafe(row, day);
+                    opens.setSafe(row, open);
+                    highs.setSafe(row, high);
+                    lows.setSafe(row, low);
+                    closes.setSafe(row, close);
+                    volumes.setSafe(row, volume);
+                    if (++rows[0] == CHUNK_ROWS) {
+                        writeBatch(root, writer, CHUNK_ROWS);
+                        rows[0] = 0;
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (rows[0] > 0) {
+                writeBatch(root, writer, rows[0]);
+            }
+            writer.end();
+        }
+    }
+
+    private BufferAllocator allocator() {
+        var current = allocator;
+        if (current == null) {
+            synchronized (this) {
+                if (allocator == null) {
+                    allocator = new RootAllocator();
+                }
+                current = allocator;
+            }
+        }
+        return current;
+    }
+
+    private static void writeBatch(VectorSchemaRoot root, ArrowStreamWriter writer, int rows) {
+        // Vectors are reused: every row of the next batch is overwritten before it is sent
+        root.setRowCount(rows);
+        try {
+            writer.writeBatch();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void writeParquet(String symbol, BarSource source, OutputStream out) throws IOException {
+        var row = new BarRow();
+        try (var writer = new BarParquetWriterBuilder(new StreamOutputFile(out), symbol)
+                .withConf(new Configuration(false))
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .withRowGroupSize(PARQUET_ROW_GROUP_BYTES)
+                .build()) {
+            source.forEach((id, day, open, high, low, close, volume) -> {
+                row.id = id;
+                row.day = day;
+                row.open = open;
+                row.high = high;
+                row.low = low;
+                row.close = close;
+                row.volume = volume;
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Schema arrowSchema(String symbol) {
+        var int64 = FieldType.notNullable(new ArrowType.Int(64, true));
+        var float64 = FieldType.notNullable(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE));
+        return new Schema(List.of(
+            new Field("id", int64, null),
+            new Field("date", FieldType.notNullable(new ArrowType.Date(DateUnit.DAY)), null),
+            new Field("open", float64, null),
+            new Field("high", float64, null),
+            new Field("low", float64, null),
+            new Field("close", float64, null),
+            new Field("volume", int64, null)
+        ), Map.of(SYMBOL_METADATA, symbol));
+    }
+
+    /**
+     * Parses a YYYY-MM-DD date to its epoch day.
+     *
+     * @param date the stored date
+     * @return the epoch day, or {@link #INVALID_DAY} if the date is malformed
+     */
+    static int epochDay(String date) {
+        long day = DateUtil.toEpochDay(date);
+        // Canonical dates have four digit years, their epoch days always fit an int
+        return day == DateUtil.INVALID_EPOCH_DAY ? INVALID_DAY : (int) day;
+    }
+
+    /**
+     * Releases the Arrow memory pool.
+     * Called when the Spring container is destroying the bean.
+     */
+    @PreDestroy
+    public synchronized void cleanup() {
+        if (allocator != null) {
+            allocator.close();
+        }
+    }
+
+    /**
+     * Growable list of primitive ids.
+     */
+    private static final class LongList {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void sort() {
+            Arrays.sort(values, 0, size);
+        }
+
+        boolean contains(long value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+
+    /**
+     * Reused holder of the row being written to Parquet.
+     */
+    private static final class BarRow {
+        long id;
+        int day;
+        double open;
+        double high;
+        double low;
+        double close;
+        long volume;
+    }
+
+    private static final class BarWriteSupport extends WriteSupport<BarRow> {
+        private final String symbol;
+        private RecordConsumer consumer;
+
+        BarWriteSupport(String symbol) {
+            this.symbol = symbol;
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(PARQUET_SCHEMA, Map.of(SYMBOL_METADATA, symbol));
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(BarRow row) {
+            consumer.startMessage();
+            writeLong(0, row.id);
+            consumer.startField(COLUMNS.get(1), 1);
+            consumer.addInteger(row.day);
+            consumer.endField(COLUMNS.get(1), 1);
+            writeDouble(2, row.open);
+            writeDouble(3, row.high);
+            writeDouble(4, row.low);
+            writeDouble(5, row.close);
+            writeLong(6, row.volume);
+            consumer.endMessage();
+        }
+
+        private void writeLong(int index, long value) {
+            consumer.startField(COLUMNS.get(index), index);
+            consumer.addLong(value);
+            consumer.endField(COLUMNS.get(index), index);
+        }
+
+        private void writeDouble(int index, double value) {
+            consumer.startField(COLUMNS.get(index), index);
+            consumer.addDouble(value);
+            consumer.endField(COLUMNS.get(index), index);
+        }
+    }
+
+    private static final class BarParquetWriterBuilder extends ParquetWriter.Builder<BarRow, BarParquetWriterBuilder> {
+        private final String symbol;
+
+        BarParquetWriterBuilder(OutputFile file, String symbol) {
+            super(file);
+            this.symbol = symbol;
+        }
+
+        @Override
+        protected BarParquetWriterBuilder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<BarRow> getWriteSupport(Configuration conf) {
+            return new BarWriteSupport(symbol);
+        }
+    }
+
+    /**
+     * Parquet output written straight to the response instead of a file.
+     */
+    private static final class StreamOutputFile implements OutputFile {
+        private final OutputStream out;
+
+        StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.flush(); // The container closes the response
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush(); // The container closes the response
+        }
+    }
+}
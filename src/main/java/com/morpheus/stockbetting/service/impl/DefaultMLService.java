@@ -3,18 +3,20 @@ package com.morpheus.stockbetting.service.impl;
 import java.util.concurrent.*;
 import org.apache.spark.ml.classification.LogisticRegressionModel;
 import org.apache.spark.ml.linalg.Vectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import com.morpheus.stockbetting.config.AsyncConfig;
 import com.morpheus.stockbetting.dto.response.PredictionResponse;
 import com.morpheus.stockbetting.service.MLService;
 
-import jakarta.annotation.PreDestroy;
-
 /**
  * Implementation of the {@link MLService} interface using a Logistic Regression model.
  * This service predicts the stock price trend (upward or downward) based on historical data.
  */
 @Service
+@ConditionalOnProperty(name = "ml.engine", havingValue = "default")
 public class DefaultMLService implements MLService {
 
     /**
@@ -23,20 +25,20 @@ public class DefaultMLService implements MLService {
     private final LogisticRegressionModel logisticRegressionModel;
 
     /**
-     * ExecutorService for handling async operations.
+     * Executor for scoring, shared by all CPU-bound work.
      */
-    private final ExecutorService executorService;
+    private final Executor executor;
 
     /**
      * Constructor for DefaultMLService.
      *
      * @param logisticRegressionModel the pre-trained Logistic Regression model
+     * @param executor the executor for CPU-bound work
      */
-    public DefaultMLService(LogisticRegressionModel logisticRegressionModel) {
+    public DefaultMLService(LogisticRegressionModel logisticRegressionModel,
+                            @Qualifier(AsyncConfig.CPU_EXECUTOR) Executor executor) {
         this.logisticRegressionModel = logisticRegressionModel;
-        this.executorService = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors()
-        );
+        this.executor = executor;
     }
 
     /**
@@ -75,23 +77,6 @@ public class DefaultMLService implements MLService {
 
             // Return the prediction response
             return new PredictionResponse(symbol, "2025-01-23", probabilities[1], message);
-        }, executorService);
-    }
-
-    /**
-     * Cleanup method to properly shutdown the executor service.
-     * Called when the Spring container is destroying the bean.
-     */
-    @PreDestroy
-    public void cleanup() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        }, executor);
     }
 }
@@ -1,18 +1,40 @@
 package com.morpheus.stockbetting.service.impl;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
+import com.morpheus.stockbetting.config.AsyncConfig;
+import com.morpheus.stockbetting.config.RedisConfig;
 import com.morpheus.stockbetting.domain.entity.StockData;
 import com.morpheus.stockbetting.domain.repository.StockRepository;
+import com.morpheus.stockbetting.exception.ValidationException;
+import com.morpheus.stockbetting.service.RollupService;
 import com.morpheus.stockbetting.service.StockService;
+import com.morpheus.stockbetting.store.BarArchive;
+import com.morpheus.stockbetting.store.BarSeries;
+import com.morpheus.stockbetting.store.OffHeapBarStore;
+import com.morpheus.stockbetting.tracing.Tracing;
+import com.morpheus.stockbetting.util.CacheUtil;
+import com.morpheus.stockbetting.util.DateUtil;
 
-import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Default implementation of the StockService interface.
@@ -21,70 +43,322 @@ import jakarta.annotation.PreDestroy;
 @Service
 public class DefaultStockService implements StockService {
 
+    /**
+     * Maximum number of symbols accepted by a single multi-symbol request.
+     */
+    static final int MAX_SYMBOLS_PER_REQUEST = 500;
+
+    /**
+     * Date order of histories, bars without a date last.
+     */
+    private static final Comparator<StockData> BY_DATE =
+        Comparator.comparing(StockData::getDate, Comparator.nullsLast(Comparator.naturalOrder()));
+
     /**
      * Repository for stock data persistence operations.
      */
     private final StockRepository stockRepository;
 
     /**
-     * ExecutorService for handling async operations.
+     * Cache of stock data per symbol (near cache in front of Redis).
+     */
+    private final Cache stockDataCache;
+
+    /**
+     * Rollups updated with every saved bar.
+     */
+    private final RollupService rollupService;
+
+    /**
+     * Off-heap history of recently read symbols.
+     */
+    private final OffHeapBarStore barStore;
+
+    /**
+     * Archive of bars moved out of the database.
      */
-    private final ExecutorService executorService;
+    private final BarArchive barArchive;
+
+    /**
+     * Executor for the blocking repository, cache and archive calls.
+     */
+    private final Executor executor;
+
+    /**
+     * Stage timers of each operation.
+     */
+    private final OperationTimers historyTimers;
+    private final OperationTimers rangeTimers;
+    private final OperationTimers seriesTimers;
+    private final OperationTimers batchTimers;
+    private final OperationTimers saveTimers;
 
     /**
      * Constructor for DefaultStockService.
      *
      * @param stockRepository Repository for stock data operations
+     * @param cacheManager Cache manager providing the stock data cache
+     * @param rollupService Service maintaining the aggregated bars
+     * @param barStore Off-heap store for the history of hot symbols
+     * @param barArchive Archive of bars moved out of the database
+     * @param executor Executor for blocking I/O
+     * @param meterRegistry Registry of the operation stage timers
      */
-    public DefaultStockService(StockRepository stockRepository) {
+    public DefaultStockService(StockRepository stockRepository, CacheManager cacheManager,
+                               RollupService rollupService, OffHeapBarStore barStore,
+                               BarArchive barArchive, @Qualifier(AsyncConfig.IO_EXECUTOR) Executor executor,
+                               MeterRegistry meterRegistry) {
         this.stockRepository = stockRepository;
-        this.executorService = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors()
-        );
+        this.stockDataCache = cacheManager.getCache(RedisConfig.STOCK_DATA_CACHE);
+        this.rollupService = rollupService;
+        this.barStore = barStore;
+        this.barArchive = barArchive;
+        this.executor = executor;
+        this.historyTimers = new OperationTimers(meterRegistry, "history");
+        this.rangeTimers = new OperationTimers(meterRegistry, "range");
+        this.seriesTimers = new OperationTimers(meterRegistry, "series");
+        this.batchTimers = new OperationTimers(meterRegistry, "batch");
+        this.saveTimers = new OperationTimers(meterRegistry, "save");
     }
 
     /**
      * Retrieves stock data for a given symbol asynchronously.
+     * Hot symbols are served from the off-heap store, in date order; others are read through the
+     * cache and then kept in the store.
      *
      * @param symbol The stock symbol to retrieve data for
      * @return CompletableFuture of a list of StockData for the specified symbol
      */
     @Override
     public CompletableFuture<List<StockData>> getStockDataAsync(String symbol) {
-        return CompletableFuture.supplyAsync(() -> 
-            stockRepository.findBySymbol(symbol),
-            executorService
-        );
+        return supplyTimed(historyTimers, () -> history(symbol));
+    }
+
+    /**
+     * Retrieves the stock data of a symbol within a date range asynchronously.
+     * The bars are read as a {@link BarSeries} like {@link #getBarSeriesAsync} and only turned into
+     * entities for the response.
+     *
+     * @param symbol The stock symbol to retrieve data for
+     * @param from Optional inclusive start date (YYYY-MM-DD); null for no lower bound
+     * @param to Optional inclusive end date (YYYY-MM-DD); null for no upper bound
+     * @return CompletableFuture of the stock data of the symbol within the range, in date order
+     */
+    @Override
+    public CompletableFuture<List<StockData>> getStockDataAsync(String symbol, String from, String to) {
+        DateUtil.validateRange(from, to);
+
+        return supplyTimed(rangeTimers,
+            () -> series(symbol, DateUtil.parseDate(from), DateUtil.parseDate(to)).toStockData(symbol));
+    }
+
+    /**
+     * Retrieves the bars of a symbol within a date range as columns asynchronously.
+     * Recent bars come from the hot store, which is loaded through the cache on a miss, older bars
+     * from the archive. A range without archived bars is a view of the hot series and costs no
+     * copy; otherwise both tiers are merged into one series, bars present in both while they are
+     * being archived once.
+     *
+     * @param symbol The stock symbol to retrieve bars for
+     * @param from Optional inclusive start date (YYYY-MM-DD); null for no lower bound
+     * @param to Optional inclusive end date (YYYY-MM-DD); null for no upper bound
+     * @return CompletableFuture of the bars of the symbol within the range, in date order
+     */
+    @Override
+    public CompletableFuture<BarSeries> getBarSeriesAsync(String symbol, String from, String to) {
+        DateUtil.validateRange(from, to);
+
+        return supplyTimed(seriesTimers, () -> series(symbol, DateUtil.parseDate(from), DateUtil.parseDate(to)));
+    }
+
+    private BarSeries series(String symbol, LocalDate from, LocalDate to) {
+        return BarSeries.merge(archived(symbol, from, to), recentSeries(symbol).between(from, to));
+    }
+
+    private BarSeries archived(String symbol, LocalDate from, LocalDate to) {
+        var archived = new BarSeries.Builder();
+        barArchive.scan(symbol, from, to, archived);
+        return archived.build();
+    }
+
+    /**
+     * Returns the bars of a symbol held by the database, from the hot store if possible.
+     * Histories the store declines, e.g. while the invalidation bus is down, are copied.
+     */
+    private BarSeries recentSeries(String symbol) {
+        var hot = barStore.get(symbol);
+        if (hot != null) {
+            return hot;
+        }
+        var history = loadHistory(symbol);
+        var loaded = barStore.get(symbol);
+        if (loaded != null) {
+            return loaded;
+        }
+        return history == null ? BarSeries.empty() : BarSeries.of(sortByDate(history));
+    }
+
+    private List<StockData> history(String symbol) {
+        var hot = barStore.get(symbol);
+        if (hot != null) {
+            return hot.toStockData(symbol);
+        }
+        return loadHistory(symbol);
+    }
+
+    private List<StockData> loadHistory(String symbol) {
+        long token = barStore.loadToken();
+        List<StockData> history = stockDataCache.get(symbol,
+            () -> sortByDate(Tracing.inSpan("repository.findBySymbol", () -> stockRepository.findBySymbol(symbol))));
+        if (history != null) {
+            barStore.load(symbol, history, token);
+        }
+        return history;
+    }
+
+    /**
+     * Retrieves stock data for several symbols at once asynchronously.
+     * Symbols held by the near cache are served locally, the rest of the cache hits come from a
+     * single Redis MGET and all remaining symbols are loaded with one {@code IN} query whose rows
+     * are grouped per symbol in memory. Archived bars are merged in like for date range reads.
+     *
+     * @param symbols The stock symbols to retrieve data for
+     * @param from Optional inclusive start date (YYYY-MM-DD); null returns the full history
+     * @return CompletableFuture of the stock data per symbol, in request order
+     */
+    @Override
+    public CompletableFuture<Map<String, List<StockData>>> getStockDataAsync(List<String> symbols, String from) {
+        var requested = normalizeSymbols(symbols);
+        var fromDate = DateUtil.parseDate(from);
+
+        return supplyTimed(batchTimers, () -> {
+            Map<String, List<StockData>> histories =
+                CacheUtil.getAll(stockDataCache, requested, this::loadHistories);
+
+            var result = new LinkedHashMap<String, List<StockData>>(requested.size() * 2);
+            for (String symbol : requested) {
+                var history = histories.getOrDefault(symbol, List.of());
+                var recent = from == null ? history : since(history, from);
+                var archived = archived(symbol, fromDate, null);
+                result.put(symbol, archived.size() == 0
+                    ? recent
+                    : BarSeries.merge(archived, BarSeries.of(sortByDate(recent))).toStockData(symbol));
+            }
+            return result;
+        });
+    }
+
+    private Map<String, List<StockData>> loadHistories(Set<String> symbols) {
+        var grouped = new HashMap<String, List<StockData>>(symbols.size() * 2);
+        symbols.forEach(symbol -> grouped.put(symbol, new ArrayList<>()));
+        var rows = Tracing.inSpan("repository.findBySymbolIn", () -> stockRepository.findBySymbolIn(symbols));
+        for (StockData row : rows) {
+            grouped.computeIfAbsent(row.getSymbol(), symbol -> new ArrayList<>()).add(row);
+        }
+        grouped.values().forEach(bars -> bars.sort(BY_DATE));
+        return grouped;
+    }
+
+    /**
+     * Puts bars loaded from the database in date order, the order the hot store serves them in,
+     * so a history reads the same whether it was cached or not.
+     */
+    private static List<StockData> sortByDate(List<StockData> bars) {
+        if (bars == null) {
+            return null;
+        }
+        var sorted = new ArrayList<>(bars);
+        sorted.sort(BY_DATE);
+        return sorted;
+    }
+
+    private static List<StockData> since(List<StockData> history, String from) {
+        return between(history, from, null);
+    }
+
+    private static List<StockData> between(List<StockData> history, String from, String to) {
+        // ISO dates order lexicographically, no parsing needed
+        return history.stream()
+            .filter(row -> row.getDate() != null
+                && (from == null || row.getDate().compareTo(from) >= 0)
+                && (to == null || row.getDate().compareTo(to) <= 0))
+            .toList();
+    }
+
+    private static Set<String> normalizeSymbols(List<String> symbols) {
+        var requested = new LinkedHashSet<String>();
+        if (symbols != null) {
+            for (String symbol : symbols) {
+                if (symbol != null && !symbol.isBlank()) {
+                    requested.add(symbol.trim());
+                }
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new ValidationException("At least one symbol is required");
+        }
+        if (requested.size() > MAX_SYMBOLS_PER_REQUEST) {
+            throw new ValidationException("At most " + MAX_SYMBOLS_PER_REQUEST + " symbols can be requested at once");
+        }
+        return requested;
     }
 
     /**
      * Saves new stock data asynchronously.
+     * The cached history of the symbol is evicted on every instance once the save completes,
+     * the saved bar is appended to the hot store and merged into the rollups.
      *
      * @param stockData The stock data to save
      * @return CompletableFuture of the saved StockData
      */
     @Override
     public CompletableFuture<StockData> saveStockDataAsync(StockData stockData) {
-        return CompletableFuture.supplyAsync(() ->
-            stockRepository.save(stockData),
-            executorService
-        );
+        return supplyTimed(saveTimers, () -> {
+            var saved = Tracing.inSpan("repository.save", () -> stockRepository.save(stockData));
+            stockDataCache.evict(stockData.getSymbol());
+            barStore.append(saved);
+            rollupService.apply(saved);
+            return saved;
+        });
     }
 
     /**
-     * Cleanup method to properly shutdown the executor service.
-     * Called when the Spring container is destroying the bean.
+     * Runs a task on the I/O executor, timing its wait for a thread and its execution separately.
+     * The execution is also recorded as a span of the current trace.
      */
-    @PreDestroy
-    public void cleanup() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+    private <T> CompletableFuture<T> supplyTimed(OperationTimers timers, Supplier<T> task) {
+        long submitted = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            long started = System.nanoTime();
+            timers.queue.record(started - submitted, TimeUnit.NANOSECONDS);
+            try {
+                return Tracing.inSpan(timers.spanName, task);
+            } finally {
+                timers.run.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
             }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
+        }, executor);
+    }
+
+    /**
+     * Queue wait and execution timers of one operation.
+     */
+    private static final class OperationTimers {
+        private final String spanName;
+        private final Timer queue;
+        private final Timer run;
+
+        OperationTimers(MeterRegistry meterRegistry, String operation) {
+            this.spanName = "stock." + operation;
+            this.queue = timer(meterRegistry, operation, "queue");
+            this.run = timer(meterRegistry, operation, "run");
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String operation, String stage) {
+            return Timer.builder("stock.service.stage")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .description("Time spent waiting for and running stock data operations")
+                .register(meterRegistry);
         }
     }
 }
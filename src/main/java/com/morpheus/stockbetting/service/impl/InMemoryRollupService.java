@@ -0,0 +1,325 @@
+package com.morpheus.stockbetting.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.morpheus.stockbetting.cache.CacheInvalidation;
+import com.morpheus.stockbetting.cache.NearCacheManager;
+import com.morpheus.stockbetting.config.AsyncConfig;
+import com.morpheus.stockbetting.config.RedisConfig;
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.domain.repository.StockRepository;
+import com.morpheus.stockbetting.dto.response.OhlcvBar;
+import com.morpheus.stockbetting.exception.ValidationException;
+import com.morpheus.stockbetting.service.RollupInterval;
+import com.morpheus.stockbetting.service.RollupService;
+import com.morpheus.stockbetting.store.BarArchive;
+import com.morpheus.stockbetting.util.DateUtil;
+
+/**
+ * In-memory implementation of the RollupService interface.
+ * Keeps one sorted bucket map per symbol and interval. Saved bars are merged into their bucket
+ * in O(log n) without rescanning the history; a full rebuild from the database runs at startup
+ * and can be triggered again for backfills. Symbols changed by other instances are rebuilt when
+ * their stock data invalidation arrives.
+ */
+@Service
+public class InMemoryRollupService implements RollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryRollupService.class);
+
+    /**
+     * Intervals bars are maintained for, in configuration order.
+     */
+    private final Map<String, RollupInterval> intervals;
+
+    /**
+     * Repository the rollups are rebuilt from.
+     */
+    private final StockRepository stockRepository;
+
+    /**
+     * Archive of bars moved out of the database, also rebuilt from.
+     */
+    private final BarArchive barArchive;
+
+    /**
+     * Whether the rollups are rebuilt once the application is ready.
+     */
+    private final boolean rebuildOnStartup;
+
+    /**
+     * Rollups per symbol. A rebuild swaps in a fresh instance per symbol.
+     */
+    private final Map<String, SymbolRollups> rollups = new ConcurrentHashMap<>();
+
+    /**
+     * Bars saved while their symbol is being rebuilt, replayed into the rebuilt rollups.
+     */
+    private final Map<String, List<StockData>> rebuildLogs = new ConcurrentHashMap<>();
+
+    /**
+     * Symbols whose rebuild after a remote change has been requested but not started yet.
+     */
+    private final Set<String> pendingRebuilds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Executor rebuilding symbols in parallel.
+     */
+    private final Executor executor;
+
+    /**
+     * Constructor for InMemoryRollupService.
+     *
+     * @param stockRepository Repository for stock data operations
+     * @param barArchive Archive of bars moved out of the database
+     * @param intervals Rollup intervals to maintain (e.g. "1w", "1M")
+     * @param rebuildOnStartup Whether to rebuild all rollups once the application is ready
+     * @param executor Executor for blocking I/O, runs the rebuild
+     * @param cacheManager Cache manager whose stock data invalidations from other instances are followed
+     */
+    public InMemoryRollupService(
+            StockRepository stockRepository,
+            BarArchive barArchive,
+            @Value("${rollups.intervals}") List<String> intervals,
+            @Value("${rollups.rebuild-on-startup}") boolean rebuildOnStartup,
+            @Qualifier(AsyncConfig.IO_EXECUTOR) Executor executor,
+            CacheManager cacheManager) {
+        this.stockRepository = stockRepository;
+        this.barArchive = barArchive;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.intervals = new LinkedHashMap<>();
+        for (String value : intervals) {
+            var interval = RollupInterval.parse(value);
+            this.intervals.put(interval.toString(), interval);
+        }
+        this.executor = executor;
+        if (cacheManager instanceof NearCacheManager nearCacheManager) {
+            nearCacheManager.addInvalidationListener(this::onInvalidation);
+        }
+    }
+
+    /**
+     * Merges a saved bar into its bucket of every interval.
+     * Bars without a parseable date cannot be bucketed and are skipped, bars already counted
+     * (e.g. by a rebuild that read them from the database) are ignored.
+     *
+     * @param stockData The saved stock data
+     */
+    @Override
+    public void apply(StockData stockData) {
+        if (stockData == null || stockData.getSymbol() == null
+                || DateUtil.toEpochDay(stockData.getDate()) == DateUtil.INVALID_EPOCH_DAY) {
+            return;
+        }
+        var symbol = stockData.getSymbol();
+        var log = rebuildLogs.get(symbol);
+        if (log == null) {
+            rollups.computeIfAbsent(symbol, s -> new SymbolRollups()).apply(stockData);
+            return;
+        }
+        // Holding the log while applying orders this bar against the swap in rebuildSymbol:
+        // it either lands in the log before the swap or in the fresh rollups after it
+        synchronized (log) {
+            log.add(stockData);
+            rollups.computeIfAbsent(symbol, s -> new SymbolRollups()).apply(stockData);
+        }
+    }
+
+    /**
+     * Returns the precomputed bars of a symbol for an interval, oldest first.
+     *
+     * @param symbol The stock symbol
+     * @param interval The rollup interval (e.g. "1w")
+     * @return The aggregated bars, empty if the symbol has no data
+     * @throws ValidationException if the interval is invalid or not maintained
+     */
+    @Override
+    public List<OhlcvBar> getBars(String symbol, String interval) {
+        var parsed = RollupInterval.parse(interval);
+        if (!intervals.containsKey(parsed.toString())) {
+            throw new ValidationException("Interval " + parsed + " is not maintained, available: " + intervals.keySet());
+        }
+        var symbolRollups = rollups.get(symbol);
+        if (symbolRollups == null) {
+            return List.of();
+        }
+        var buckets = symbolRollups.buckets(parsed);
+        var bars = new ArrayList<OhlcvBar>(buckets.size());
+        for (Bucket bucket : buckets.values()) {
+            bars.add(bucket.toBar(symbol, parsed));
+        }
+        return bars;
+    }
+
+    /**
+     * Rebuilds all rollups from the database and the archive, one task per symbol.
+     *
+     * @return CompletableFuture completing once every symbol has been rebuilt
+     */
+    @Override
+    public CompletableFuture<Void> rebuild() {
+        return CompletableFuture.supplyAsync(() -> {
+                var symbols = new LinkedHashSet<>(stockRepository.findDistinctSymbols());
+                symbols.addAll(barArchive.symbols());
+                return symbols;
+            }, executor)
+            .thenCompose(symbols -> CompletableFuture.allOf(symbols.stream()
+                .map(symbol -> CompletableFuture.runAsync(() -> rebuildSymbol(symbol), executor))
+                .toArray(CompletableFuture[]::new)));
+    }
+
+    @Override
+    public Set<RollupInterval> getIntervals() {
+        return new LinkedHashSet<>(intervals.values());
+    }
+
+    /**
+     * Rebuilds the rollups once the application is ready, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        long start = System.nanoTime();
+        rebuild().whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.error("Rollup rebuild failed", error);
+            } else {
+                logger.info("Rollups rebuilt in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the symbol named by a stock data invalidation from another instance, or every
+     * symbol if that instance cleared the cache. Requests for a symbol whose rebuild has not
+     * started yet are coalesced.
+     */
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (!RedisConfig.STOCK_DATA_CACHE.equals(invalidation.cacheName())) {
+            return;
+        }
+        if (invalidation.isClear()) {
+            rebuild().exceptionally(error -> {
+                logger.error("Rollup rebuild after remote clear failed", error);
+                return null;
+            });
+            return;
+        }
+        var symbol = invalidation.key();
+        if (!pendingRebuilds.add(symbol)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+                pendingRebuilds.remove(symbol);
+                rebuildSymbol(symbol);
+            }, executor)
+            .exceptionally(error -> {
+                logger.error("Rollup rebuild of {} after remote change failed", symbol, error);
+                return null;
+            });
+    }
+
+    private void rebuildSymbol(String symbol) {
+        var log = Collections.synchronizedList(new ArrayList<StockData>());
+        rebuildLogs.put(symbol, log);
+        try {
+            var fresh = new SymbolRollups();
+            stockRepository.findBySymbol(symbol).forEach(fresh::apply);
+            // Rows being archived can be in both tiers for a moment, they are counted once
+            barArchive.read(symbol, null, null).forEach(fresh::apply);
+            synchronized (log) {
+                log.forEach(fresh::apply);
+                rollups.put(symbol, fresh);
+                rebuildLogs.remove(symbol, log);
+            }
+        } catch (RuntimeException e) {
+            rebuildLogs.remove(symbol, log);
+            throw e;
+        }
+    }
+
+    /**
+     * Buckets of one symbol for every interval, keyed by the epoch day the bucket starts on.
+     * The ids of the bars merged so far are kept, so a bar that reaches the rollups both through
+     * a rebuild and through {@link #apply} is only counted once.
+     */
+    private final class SymbolRollups {
+        private final Map<RollupInterval, ConcurrentSkipListMap<Long, Bucket>> byInterval = new ConcurrentHashMap<>();
+        private final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        SymbolRollups() {
+            intervals.values().forEach(interval -> byInterval.put(interval, new ConcurrentSkipListMap<>()));
+        }
+
+        void apply(StockData bar) {
+            long day = DateUtil.toEpochDay(bar.getDate());
+            if (day == DateUtil.INVALID_EPOCH_DAY || (bar.getId() != null && !ids.add(bar.getId()))) {
+                return;
+            }
+            byInterval.forEach((interval, buckets) -> buckets.compute(interval.bucketStart(day),
+                (start, current) -> current == null ? Bucket.of(start, day, bar) : current.merge(day, bar)));
+        }
+
+        ConcurrentSkipListMap<Long, Bucket> buckets(RollupInterval interval) {
+            return byInterval.get(interval);
+        }
+    }
+
+    /**
+     * Immutable aggregate of one bucket. Open and close follow the earliest and latest day seen,
+     * so bars arriving out of order still merge correctly.
+     */
+    private record Bucket(long start, long firstDay, long lastDay, double open, double high,
+                          double low, double close, long volume, int count) {
+
+        static Bucket of(long start, long day, StockData bar) {
+            return new Bucket(start, day, day, bar.getOpen(), bar.getHigh(), bar.getLow(),
+                bar.getClose(), bar.getVolume(), 1);
+        }
+
+        Bucket merge(long day, StockData bar) {
+            boolean earlier = day < firstDay;
+            boolean laterOrSame = day >= lastDay;
+            return new Bucket(
+                start,
+                earlier ? day : firstDay,
+                laterOrSame ? day : lastDay,
+                earlier ? bar.getOpen() : open,
+                Math.max(high, bar.getHigh()),
+                Math.min(low, bar.getLow()),
+                laterOrSame ? bar.getClose() : close,
+                volume + bar.getVolume(),
+                count + 1);
+        }
+
+        OhlcvBar toBar(String symbol, RollupInterval interval) {
+            return new OhlcvBar(symbol, interval.toString(),
+                LocalDate.ofEpochDay(start).toString(),
+                LocalDate.ofEpochDay(interval.bucketEnd(start)).toString(),
+                open, high, low, close, volume, count);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.morpheus.stockbetting.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+
+/**
+ * Cold tier holding old bars outside the database.
+ *
+ * <p>Every symbol has an append-only {@code SYMBOL.bars} file of fixed-width little-endian
+ * records ordered by date, and a sparse {@code SYMBOL.idx} file holding the day and position
+ * of every {@value #INDEX_STRIDE}th record. Range reads binary search the index and scan the
+ * memory-mapped bar file from there, so only the pages of the requested range are touched.
+ *
+ * <p>Bars older than the last archived day cannot be appended; the files are then rewritten
+ * in date order and swapped in atomically. Readers check the index hint against the bar file,
+ * so a read racing with a swap still returns the right rows. Ids that are already archived
+ * are skipped, so a batch can safely be archived twice.
+ */
+@Component
+public class BarArchive {
+
+    static final int RECORD_BYTES = 56;
+    static final int INDEX_STRIDE = 64;
+    private static final int INDEX_ENTRY_BYTES = 8;
+    private static final Pattern SYMBOL = Pattern.compile("[A-Za-z0-9._-]{1,32}");
+
+    // Record layout
+    private static final int ID = 0;
+    private static final int DAY = 8;
+    private static final int OPEN = 16; // 4 bytes of padding keep the doubles aligned
+    private static final int HIGH = 24;
+    private static final int LOW = 32;
+    private static final int CLOSE = 40;
+    private static final int VOLUME = 48;
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, Object> writeLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an archive in the given directory.
+     *
+     * @param directory the directory holding the archive files, created if missing
+     */
+    public BarArchive(@Value("${archive.directory}") Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create archive directory " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the directory holding the archive files.
+     *
+     * @return the archive directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns whether bars of the symbol can be archived. Symbols must be usable as file names.
+     *
+     * @param symbol the stock symbol
+     * @return true if the symbol can be archived
+     */
+    public boolean supports(String symbol) {
+        return symbol != null && SYMBOL.matcher(symbol).matches();
+    }
+
+    /**
+     * Returns the symbols that have archived bars.
+     *
+     * @return the archived symbols
+     * @throws UncheckedIOException if the archive directory cannot be listed
+     */
+    public List<String> symbols() {
+        try (var files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(".bars"))
+                .map(name -> name.substring(0, name.length() - ".bars".length()))
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list archive directory " + directory, e);
+        }
+    }
+
+    /**
+     * Durably adds bars of one symbol to the archive. Bars already archived are skipped.
+     *
+     * @param symbol the stock symbol
+     * @param bars   bars of the symbol with an id and a YYYY-MM-DD date, in any order
+     * @throws IllegalArgumentException if the symbol is not supported
+     * @throws UncheckedIOException if the archive files cannot be written
+     */
+    public void append(String symbol, List<StockData> bars) {
+        if (!supports(symbol)) {
+            throw new IllegalArgumentException("Symbol cannot be archived: " + symbol);
+        }
+        if (bars.isEmpty()) {
+            return;
+        }
+        var sorted = new ArrayList<Record>(bars.size());
+        for (StockData bar : bars) {
+            sorted.add(Record.of(bar));
+        }
+        sorted.sort(Record.ORDER);
+
+        synchronized (writeLocks.computeIfAbsent(symbol, s -> new Object())) {
+            try {
+                var existing = readRange(symbol, sorted.get(0).day(), sorted.get(sorted.size() - 1).day());
+                var archivedIds = new HashSet<Long>();
+                existing.forEach(record -> archivedIds.add(record.id()));
+                sorted.removeIf(record -> !archivedIds.add(record.id()));
+                if (sorted.isEmpty()) {
+                    return;
+                }
+                int count = recordCount(symbol);
+                if (count > 0 && sorted.get(0).day() < lastDay(symbol, count)) {
+                    rewrite(symbol, sorted);
+                } else {
+                    appendRecords(symbol, sorted, count);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot archive bars of " + symbol, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the archived bars of a symbol in an inclusive date range, in date order.
+     *
+     * @param symbol the stock symbol
+     * @param from   first day, or null for no lower bound
+     * @param to     last day, or null for no upper bound
+     * @return the archived bars, empty if the symbol has none
+     * @throws UncheckedIOException if the archive files cannot be read
+     */
+    public List<StockData> read(String symbol, LocalDate from, LocalDate to) {
+        if (!supports(symbol)) {
+            return List.of();
+        }
+        long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        try {
+            var records = readRange(symbol, fromDay, toDay);
+            var bars = new ArrayList<StockData>(records.size());
+            records.forEach(record -> bars.add(record.toStockData(symbol)));
+            return bars;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived bars of " + symbol, e);
+        }
+    }
+
+    /**
+     * Passes the archived bars of a symbol in an inclusive date range to a visitor, in date
+     * order, without creating objects per bar.
+     *
+     * @param symbol  the stock symbol
+     * @param from    first day, or null for no lower bound
+     * @param to      last day, or null for no upper bound
+     * @param visitor receives every bar in the range
+     * @throws UncheckedIOException if the archive files cannot be read
+     */
+    public void scan(String symbol, LocalDate from, LocalDate to, BarVisitor visitor) {
+        if (!supports(symbol)) {
+            return;
+        }
+        try {
+            scan(symbol, from == null ? Long.MIN_VALUE : from.toEpochDay(),
+                to == null ? Long.MAX_VALUE : to.toEpochDay(), visitor);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived bars of " + symbol, e);
+        }
+    }
+
+    private List<Record> readRange(String symbol, long fromDay, long toDay) throws IOException {
+        var records = new ArrayList<Record>();
+        scan(symbol, fromDay, toDay, (id, day, open, high, low, close, volume) ->
+            records.add(new Record(id, day, open, high, low, close, volume)));
+        return records;
+    }
+
+    private void scan(String symbol, long fromDay, long toDay, BarVisitor visitor) throws IOException {
+        MappedByteBuffer bars;
+        try (var channel = FileChannel.open(barsFile(symbol), StandardOpenOption.READ)) {
+            long size = channel.size() / RECORD_BYTES * RECORD_BYTES;
+            if (size == 0) {
+                return;
+            }
+            bars = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        bars.order(ByteOrder.LITTLE_ENDIAN);
+        int count = bars.capacity() / RECORD_BYTES;
+
+        // The index only gives a hint, the bar file decides
+        int row = Math.min(indexHint(symbol, fromDay), count);
+        while (row > 0 && day(bars, row - 1) >= fromDay) {
+            row--;
+        }
+        while (row < count && day(bars, row) < fromDay) {
+            row++;
+        }
+
+        for (; row < count; row++) {
+            int base = row * RECORD_BYTES;
+            int day = bars.getInt(base + DAY);
+            if (day > toDay) {
+                break;
+            }
+            visitor.visit(bars.getLong(base + ID), day, bars.getDouble(base + OPEN), bars.getDouble(base + HIGH),
+                bars.getDouble(base + LOW), bars.getDouble(base + CLOSE), bars.getLong(base + VOLUME));
+        }
+    }
+
+    private int indexHint(String symbol, long fromDay) throws IOException {
+        MappedByteBuffer index;
+        try (var channel = FileChannel.open(indexFile(symbol), StandardOpenOption.READ)) {
+            long size = channel.size() / INDEX_ENTRY_BYTES * INDEX_ENTRY_BYTES;
+            if (size == 0) {
+                return 0;
+            }
+            index = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        index.order(ByteOrder.LITTLE_ENDIAN);
+        // Last entry whose day is before fromDay; every record from there on is a candidate
+        int low = 0;
+        int high = index.capacity() / INDEX_ENTRY_BYTES - 1;
+        int hint = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (index.getInt(mid * INDEX_ENTRY_BYTES) < fromDay) {
+                hint = index.getInt(mid * INDEX_ENTRY_BYTES + 4);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return hint;
+    }
+
+    private void appendRecords(String symbol, List<Record> records, int count) throws IOException {
+        var bars = ByteBuffer.allocate(records.size() * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        var index = ByteBuffer.allocate((records.size() / INDEX_STRIDE + 1) * INDEX_ENTRY_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < records.size(); i++) {
+            var record = records.get(i);
+            record.write(bars);
+            if ((count + i) % INDEX_STRIDE == 0) {
+                index.putInt(record.day()).putInt(count + i);
+            }
+        }
+        // Bars first: an index entry must never point past the end of the bar file
+        write(barsFile(symbol), bars.flip(), count * (long) RECORD_BYTES);
+        long indexEnd = (count + INDEX_STRIDE - 1) / INDEX_STRIDE * (long) INDEX_ENTRY_BYTES;
+        var indexFile = indexFile(symbol);
+        if ((Files.exists(indexFile) ? Files.size(indexFile) : 0) < indexEnd) {
+            // An earlier append was interrupted before its index entries were written
+            rewrite(symbol, List.of());
+        } else if (index.position() > 0) {
+            write(indexFile, index.flip(), indexEnd);
+        }
+    }
+
+    private void rewrite(String symbol, List<Record> added) throws IOException {
+        var merged = new ArrayList<>(readRange(symbol, Long.MIN_VALUE, Long.MAX_VALUE));
+        merged.addAll(added);
+        merged.sort(Record.ORDER);
+
+        var bars = ByteBuffer.allocate(merged.size() * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        var index = ByteBuffer.allocate((merged.size() / INDEX_STRIDE + 1) * INDEX_ENTRY_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < merged.size(); i++) {
+            merged.get(i).write(bars);
+            if (i % INDEX_STRIDE == 0) {
+                index.putInt(merged.get(i).day()).putInt(i);
+            }
+        }
+        swap(barsFile(symbol), bars.flip());
+        swap(indexFile(symbol), index.flip());
+    }
+
+    private static void write(Path file, ByteBuffer data, long position) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Drops a partial record left behind by an interrupted write
+            channel.truncate(position);
+            while (data.hasRemaining()) {
+                position += channel.write(data, position);
+            }
+            channel.force(false);
+        }
+    }
+
+    private static void swap(Path file, ByteBuffer data) throws IOException {
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        write(temp, data, 0);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int recordCount(String symbol) throws IOException {
+        var file = barsFile(symbol);
+        return Files.exists(file) ? Math.toIntExact(Files.size(file) / RECORD_BYTES) : 0;
+    }
+
+    private int lastDay(String symbol, int count) throws IOException {
+        try (var channel = FileChannel.open(barsFile(symbol), StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(buffer, (count - 1L) * RECORD_BYTES + DAY);
+            return buffer.getInt(0);
+        }
+    }
+
+    private static long day(ByteBuffer bars, int row) {
+        return bars.getInt(row * RECORD_BYTES + DAY);
+    }
+
+    private Path barsFile(String symbol) {
+        return directory.resolve(symbol + ".bars");
+    }
+
+    private Path indexFile(String symbol) {
+        return directory.resolve(symbol + ".idx");
+    }
+
+    /**
+     * Receives archived bars one by one.
+     */
+    @FunctionalInterface
+    public interface BarVisitor {
+        void visit(long id, int epochDay, double open, double high, double low, double close, long volume);
+    }
+
+    private record Record(long id, int day, double open, double high, double low, double close, long volume) {
+
+        static final Comparator<Record> ORDER = Comparator.comparingInt(Record::day).thenComparingLong(Record::id);
+
+        static Record of(StockData bar) {
+            if (bar.getId() == null || bar.getDate() == null) {
+                throw new IllegalArgumentException("Archived bars need an id and a date");
+            }
+            return new Record(bar.getId(), Math.toIntExact(LocalDate.parse(bar.getDate()).toEpochDay()),
+                bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose(), bar.getVolume());
+        }
+
+        void write(ByteBuffer bars) {
+            bars.putLong(id).putInt(day).putInt(0)
+                .putDouble(open).putDouble(high).putDouble(low).putDouble(close)
+                .putLong(volume);
+        }
+
+        StockData toStockData(String symbol) {
+            var bar = new StockData();
+            bar.setId(id);
+            bar.setSymbol(symbol);
+            bar.setDate(LocalDate.ofEpochDay(day).toString());
+            bar.setOpen(open);
+            bar.setHigh(high);
+            bar.setLow(low);
+            bar.setClose(close);
+            bar.setVolume(volume);
+            return bar;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.morpheus.stockbetting.store;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.morpheus.stockbetting.config.RedisConfig;
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.domain.repository.StockRepository;
+
+/**
+ * Background job moving bars older than the configured age from the database to the
+ * {@link BarArchive}.
+ *
+ * <p>Bars are archived durably before they are deleted, so a crash in between only leaves
+ * rows in both tiers, which readers deduplicate by id and the next run cleans up. A lock
+ * file in the archive directory keeps instances sharing the directory from running the job
+ * at the same time.
+ */
+@Component
+public class BarArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarArchiveJob.class);
+    static final int BATCH_SIZE = 10_000;
+
+    private final StockRepository stockRepository;
+    private final BarArchive archive;
+    private final OffHeapBarStore barStore;
+    private final Cache stockDataCache;
+    private final Period maxAge;
+
+    public BarArchiveJob(StockRepository stockRepository, BarArchive archive, OffHeapBarStore barStore,
+                         CacheManager cacheManager, @Value("${archive.max-age}") Period maxAge) {
+        this.stockRepository = stockRepository;
+        this.archive = archive;
+        this.barStore = barStore;
+        this.stockDataCache = cacheManager.getCache(RedisConfig.STOCK_DATA_CACHE);
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Archives every bar older than the configured age.
+     */
+    @Scheduled(cron = "${archive.cron}")
+    public void run() {
+        var cutoff = LocalDate.now().minus(maxAge);
+        try (var channel = FileChannel.open(archive.getDirectory().resolve("archive.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             var lock = channel.tryLock()) {
+            if (lock == null) {
+                logger.info("Bar archiving skipped, another instance is running it");
+                return;
+            }
+            long start = System.nanoTime();
+            long archived = archiveBefore(cutoff);
+            logger.info("Archived {} bars older than {} in {} ms", archived, cutoff,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.error("Bar archiving failed", e);
+        }
+    }
+
+    /**
+     * Moves all bars dated before the cutoff to the archive.
+     *
+     * @param cutoff first day that stays in the database
+     * @return the number of bars moved
+     */
+    public long archiveBefore(LocalDate cutoff) {
+        long moved = 0;
+        for (String symbol : stockRepository.findDistinctSymbols()) {
+            if (!archive.supports(symbol)) {
+                logger.warn("Bars of {} cannot be archived, keeping them in the database", symbol);
+                continue;
+            }
+            try {
+                moved += archiveSymbol(symbol, cutoff.toString());
+            } catch (RuntimeException e) {
+                logger.error("Archiving bars of {} failed, continuing with the next symbol", symbol, e);
+            }
+        }
+        return moved;
+    }
+
+    private long archiveSymbol(String symbol, String cutoff) {
+        long moved = 0;
+        List<StockData> batch;
+        // Archived rows are deleted, so the first page always holds the next batch
+        while (!(batch = stockRepository.findBySymbolAndDateLessThanOrderByDateAsc(
+                symbol, cutoff, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            archive.append(symbol, batch);
+            stockRepository.deleteAllByIdInBatch(batch.stream().map(StockData::getId).toList());
+            moved += batch.size();
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            stockDataCache.evict(symbol);
+            barStore.evict(symbol);
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,318 @@
+package com.morpheus.stockbetting.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.store.BarArchive.BarVisitor;
+import com.morpheus.stockbetting.util.DateUtil;
+
+/**
+ * Immutable columnar view of the bars of one symbol, ordered by date.
+ *
+ * <p>Rows are held in fixed-width chunks of {@value #ROWS_PER_CHUNK} rows, each chunk storing one
+ * column after the other (id, epoch day, open, high, low, close and volume). Series of the hot
+ * store share its off-heap chunks; a {@link Builder} fills heap chunks for bars read from the
+ * other tiers. Accessors read straight from the chunks, so history, feature and backtest code
+ * can scan a series without creating objects per row. {@link #toStockData} materializes entities
+ * for callers that need them, such as the JSON API.
+ */
+public final class BarSeries {
+
+    static final int ROWS_PER_CHUNK = 256;
+    private static final int CHUNK_SHIFT = 8;
+    private static final int CHUNK_MASK = ROWS_PER_CHUNK - 1;
+
+    // Column offsets inside a chunk, every column holds ROWS_PER_CHUNK values
+    private static final int ID_OFFSET = 0;
+    private static final int DAY_OFFSET = ID_OFFSET + Long.BYTES * ROWS_PER_CHUNK;
+    private static final int OPEN_OFFSET = DAY_OFFSET + Integer.BYTES * ROWS_PER_CHUNK;
+    private static final int HIGH_OFFSET = OPEN_OFFSET + Double.BYTES * ROWS_PER_CHUNK;
+    private static final int LOW_OFFSET = HIGH_OFFSET + Double.BYTES * ROWS_PER_CHUNK;
+    private static final int CLOSE_OFFSET = LOW_OFFSET + Double.BYTES * ROWS_PER_CHUNK;
+    private static final int VOLUME_OFFSET = CLOSE_OFFSET + Double.BYTES * ROWS_PER_CHUNK;
+    static final int CHUNK_BYTES = VOLUME_OFFSET + Long.BYTES * ROWS_PER_CHUNK;
+
+    private static final BarSeries EMPTY = new BarSeries(new ByteBuffer[0], 0, 0);
+
+    private final ByteBuffer[] chunks;
+    private final int offset;
+    private final int size;
+
+    BarSeries(ByteBuffer[] chunks, int offset, int size) {
+        this.chunks = chunks;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Returns a series without rows.
+     *
+     * @return the empty series
+     */
+    public static BarSeries empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Copies bars into a heap series. Bars without a parseable date are left out.
+     *
+     * @param bars the bars, in date order
+     * @return the series
+     */
+    public static BarSeries of(List<StockData> bars) {
+        var builder = new Builder();
+        bars.forEach(builder::add);
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return chunk(row).getLong(ID_OFFSET + slot(row) * Long.BYTES);
+    }
+
+    public int epochDay(int row) {
+        return chunk(row).getInt(DAY_OFFSET + slot(row) * Integer.BYTES);
+    }
+
+    public double open(int row) {
+        return chunk(row).getDouble(OPEN_OFFSET + slot(row) * Double.BYTES);
+    }
+
+    public double high(int row) {
+        return chunk(row).getDouble(HIGH_OFFSET + slot(row) * Double.BYTES);
+    }
+
+    public double low(int row) {
+        return chunk(row).getDouble(LOW_OFFSET + slot(row) * Double.BYTES);
+    }
+
+    public double close(int row) {
+        return chunk(row).getDouble(CLOSE_OFFSET + slot(row) * Double.BYTES);
+    }
+
+    public long volume(int row) {
+        return chunk(row).getLong(VOLUME_OFFSET + slot(row) * Long.BYTES);
+    }
+
+    /**
+     * Returns the first row on or after the given day, or {@link #size()} if there is none.
+     *
+     * @param epochDay the day to search for
+     * @return the index of the first matching row
+     */
+    public int lowerBound(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDay(mid) < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns a view of a range of rows sharing the chunks of this series.
+     *
+     * @param from first row, inclusive
+     * @param to   last row, exclusive
+     * @return the rows in the range
+     */
+    public BarSeries slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice " + from + ".." + to + " of " + size + " rows");
+        }
+        if (from == 0 && to == size) {
+            return this;
+        }
+        return new BarSeries(chunks, offset + from, to - from);
+    }
+
+    /**
+     * Returns the rows within an inclusive range of days.
+     *
+     * @param from first day, or null for no lower bound
+     * @param to   last day, or null for no upper bound
+     * @return a view of the rows in the range
+     */
+    public BarSeries between(LocalDate from, LocalDate to) {
+        int start = from == null ? 0 : lowerBound(from.toEpochDay());
+        int end = to == null ? size : Math.max(start, lowerBound(to.toEpochDay() + 1));
+        return slice(start, end);
+    }
+
+    /**
+     * Passes every row to a visitor, in date order.
+     *
+     * @param visitor receives every row
+     */
+    public void forEach(BarVisitor visitor) {
+        for (int row = 0; row < size; row++) {
+            visitor.visit(id(row), epochDay(row), open(row), high(row), low(row), close(row), volume(row));
+        }
+    }
+
+    /**
+     * Materializes the series as entities.
+     *
+     * @param symbol the symbol of the series
+     * @return the bars in date order
+     */
+    public List<StockData> toStockData(String symbol) {
+        return toStockData(symbol, 0, size);
+    }
+
+    /**
+     * Materializes rows as entities for callers that need them.
+     *
+     * @param symbol the symbol of the series
+     * @param from   first row, inclusive
+     * @param to     last row, exclusive
+     * @return the bars in date order
+     */
+    public List<StockData> toStockData(String symbol, int from, int to) {
+        var rows = new ArrayList<StockData>(Math.max(0, to - from));
+        for (int row = from; row < to; row++) {
+            var bar = new StockData();
+            long id = id(row);
+            bar.setId(id == 0 ? null : id);
+            bar.setSymbol(symbol);
+            bar.setDate(LocalDate.ofEpochDay(epochDay(row)).toString());
+            bar.setOpen(open(row));
+            bar.setHigh(high(row));
+            bar.setLow(low(row));
+            bar.setClose(close(row));
+            bar.setVolume(volume(row));
+            rows.add(bar);
+        }
+        return rows;
+    }
+
+    /**
+     * Merges two series in date order. Bars present in both tiers while they are being archived
+     * have the same id and day in both; their row in the newer series is dropped.
+     *
+     * @param older series of the older tier, e.g. the archive
+     * @param newer series of the newer tier
+     * @return the merged series, one of the inputs if the other is empty
+     */
+    public static BarSeries merge(BarSeries older, BarSeries newer) {
+        if (older.size == 0) {
+            return newer;
+        }
+        if (newer.size == 0) {
+            return older;
+        }
+        var builder = new Builder();
+        int o = 0;
+        int n = 0;
+        while (o < older.size || n < newer.size) {
+            if (n == newer.size || (o < older.size && older.epochDay(o) <= newer.epochDay(n))) {
+                builder.append(older, o++);
+            } else if (!older.containsOnDay(newer.id(n), newer.epochDay(n))) {
+                builder.append(newer, n++);
+            } else {
+                n++;
+            }
+        }
+        return builder.build();
+    }
+
+    private boolean containsOnDay(long id, int day) {
+        for (int row = lowerBound(day); row < size && epochDay(row) == day; row++) {
+            if (id(row) == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ByteBuffer chunk(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        return chunks[(offset + row) >>> CHUNK_SHIFT];
+    }
+
+    private int slot(int row) {
+        return (offset + row) & CHUNK_MASK;
+    }
+
+    /**
+     * Writes a row into slot {@code row} of the chunk holding it, adding a chunk if needed.
+     *
+     * @return the chunks, grown by one if the row starts a new chunk
+     */
+    static ByteBuffer[] write(ByteBuffer[] chunks, boolean direct, int row, long id, int day,
+                              double open, double high, double low, double close, long volume) {
+        var current = chunks;
+        if ((row >>> CHUNK_SHIFT) == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = direct
+                ? ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.nativeOrder())
+                : ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.nativeOrder());
+        }
+        var chunk = current[row >>> CHUNK_SHIFT];
+        int slot = row & CHUNK_MASK;
+        chunk.putLong(ID_OFFSET + slot * Long.BYTES, id);
+        chunk.putInt(DAY_OFFSET + slot * Integer.BYTES, day);
+        chunk.putDouble(OPEN_OFFSET + slot * Double.BYTES, open);
+        chunk.putDouble(HIGH_OFFSET + slot * Double.BYTES, high);
+        chunk.putDouble(LOW_OFFSET + slot * Double.BYTES, low);
+        chunk.putDouble(CLOSE_OFFSET + slot * Double.BYTES, close);
+        chunk.putLong(VOLUME_OFFSET + slot * Long.BYTES, volume);
+        return current;
+    }
+
+    /**
+     * Collects bars in date order into a heap series, e.g. from an archive scan.
+     * A builder is used by one thread and is not reusable once built.
+     */
+    public static final class Builder implements BarVisitor {
+        private ByteBuffer[] chunks = new ByteBuffer[0];
+        private int size;
+
+        @Override
+        public void visit(long id, int epochDay, double open, double high, double low, double close, long volume) {
+            chunks = write(chunks, false, size, id, epochDay, open, high, low, close, volume);
+            size++;
+        }
+
+        /**
+         * Appends a bar unless its date cannot be parsed.
+         *
+         * @param bar the bar, not older than the bars added before
+         */
+        public void add(StockData bar) {
+            long day = DateUtil.toEpochDay(bar.getDate());
+            if (day != DateUtil.INVALID_EPOCH_DAY) {
+                visit(bar.getId() == null ? 0 : bar.getId(), (int) day, bar.getOpen(), bar.getHigh(),
+                    bar.getLow(), bar.getClose(), bar.getVolume());
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public BarSeries build() {
+            return size == 0 ? EMPTY : new BarSeries(chunks, 0, size);
+        }
+
+        private void append(BarSeries series, int row) {
+            visit(series.id(row), series.epochDay(row), series.open(row), series.high(row), series.low(row),
+                series.close(row), series.volume(row));
+        }
+    }
+}
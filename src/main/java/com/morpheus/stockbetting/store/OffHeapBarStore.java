@@ -0,0 +1,271 @@
+package com.morpheus.stockbetting.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.morpheus.stockbetting.cache.CacheInvalidation;
+import com.morpheus.stockbetting.cache.CacheInvalidationBus;
+import com.morpheus.stockbetting.cache.NearCacheManager;
+import com.morpheus.stockbetting.config.RedisConfig;
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.util.DateUtil;
+
+/**
+ * Hot tier holding the bar history of recently used symbols off-heap.
+ *
+ * <p>Every symbol is stored as a {@link BarSeries} of fixed-width columnar chunks in direct
+ * buffers, ordered by date. Series are append-only: a writer fills the next row and then
+ * publishes it by bumping a volatile row count, so any number of readers can scan a snapshot
+ * without locking and without creating objects per row. Saves that do not extend a series at its end (updates or
+ * back-dated bars) drop the series instead, so it is reloaded from the database on next use.
+ *
+ * <p>The store keeps to a memory budget by dropping the least recently read symbols. Series
+ * loaded under a previous invalidation subscription, or read while the invalidation bus is
+ * down, are not trusted since changes made by other instances may have been missed.
+ */
+@Component
+public class OffHeapBarStore {
+
+    private final CacheInvalidationBus bus;
+    private final long maxBytes;
+    private final ConcurrentHashMap<String, Segment> segments = new ConcurrentHashMap<>();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong modifications = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * Creates the store and subscribes it to stock data invalidations from other instances.
+     *
+     * @param cacheManager the cache manager whose stock data invalidations are followed
+     * @param bus          the invalidation bus, used to detect missed invalidations
+     * @param maxBytes     memory budget for all series
+     */
+    public OffHeapBarStore(CacheManager cacheManager, CacheInvalidationBus bus,
+                           @Value("${hot-store.max-bytes}") DataSize maxBytes) {
+        this.bus = bus;
+        this.maxBytes = maxBytes.toBytes();
+        if (cacheManager instanceof NearCacheManager nearCacheManager) {
+            nearCacheManager.addInvalidationListener(this::onInvalidation);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the series of a symbol if it is resident and current.
+     *
+     * @param symbol the stock symbol
+     * @return the series, or null if it has to be loaded from the database
+     */
+    @Nullable
+    public BarSeries get(String symbol) {
+        var segment = segments.get(symbol);
+        if (segment == null) {
+            return null;
+        }
+        if (!bus.isConnected() || segment.epoch != bus.epoch()) {
+            remove(symbol, segment);
+            return null;
+        }
+        segment.lastAccess = System.nanoTime();
+        return segment.snapshot();
+    }
+
+    /**
+     * Returns a token to pass to {@link #load} for a history that is about to be read.
+     *
+     * @return the current modification count
+     */
+    public long loadToken() {
+        return modifications.get();
+    }
+
+    /**
+     * Makes the full history of a symbol resident. The history is discarded if the store was
+     * modified since the token was taken, as it may predate the change. Histories with missing
+     * or malformed dates are not stored.
+     *
+     * @param symbol the stock symbol
+     * @param rows   every bar of the symbol, in any order
+     * @param token  the {@link #loadToken()} taken before the history was read
+     */
+    public void load(String symbol, List<StockData> rows, long token) {
+        if (!bus.isConnected() || modifications.get() != token) {
+            return;
+        }
+        for (StockData row : rows) {
+            if (DateUtil.toEpochDay(row.getDate()) == DateUtil.INVALID_EPOCH_DAY) {
+                return;
+            }
+        }
+        var sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(StockData::getDate));
+
+        var segment = new Segment(bus.epoch());
+        sorted.forEach(row -> segment.append(row, (int) DateUtil.toEpochDay(row.getDate())));
+        allocatedBytes.addAndGet(segment.bytes());
+        var previous = segments.put(symbol, segment);
+        if (previous != null) {
+            synchronized (previous) {
+                allocatedBytes.addAndGet(-previous.bytes());
+            }
+        }
+        // Writers count before they touch a series, so a change racing with the put is seen here
+        if (modifications.get() != token) {
+            remove(symbol, segment);
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * Adds a saved bar to the series of its symbol if resident. A bar that does not extend
+     * the series at its end drops the series.
+     *
+     * @param bar the saved bar
+     */
+    public void append(StockData bar) {
+        modifications.incrementAndGet();
+        var segment = segments.get(bar.getSymbol());
+        if (segment == null) {
+            return;
+        }
+        long day = DateUtil.toEpochDay(bar.getDate());
+        boolean appended;
+        synchronized (segment) {
+            appended = day != DateUtil.INVALID_EPOCH_DAY && segment.canAppend(bar.getId(), (int) day)
+                && segments.get(bar.getSymbol()) == segment;
+            if (appended) {
+                long before = segment.bytes();
+                segment.append(bar, (int) day);
+                allocatedBytes.addAndGet(segment.bytes() - before);
+            }
+        }
+        if (appended) {
+            evictIfNeeded();
+        } else {
+            remove(bar.getSymbol(), segment);
+        }
+    }
+
+    /**
+     * Drops the series of a symbol.
+     *
+     * @param symbol the stock symbol
+     */
+    public void evict(String symbol) {
+        modifications.incrementAndGet();
+        var segment = segments.get(symbol);
+        if (segment != null) {
+            remove(symbol, segment);
+        }
+    }
+
+    /**
+     * Drops every series.
+     */
+    public void clear() {
+        modifications.incrementAndGet();
+        segments.forEach(this::remove);
+    }
+
+    /**
+     * Returns the number of bytes held by resident series.
+     *
+     * @return the allocated off-heap bytes
+     */
+    public long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (!RedisConfig.STOCK_DATA_CACHE.equals(invalidation.cacheName())) {
+            return;
+        }
+        if (invalidation.isClear()) {
+            clear();
+        } else {
+            evict(invalidation.key());
+        }
+    }
+
+    private void remove(String symbol, Segment segment) {
+        // Readers holding a snapshot keep it; its memory is released once they drop it
+        synchronized (segment) {
+            if (segments.remove(symbol, segment)) {
+                allocatedBytes.addAndGet(-segment.bytes());
+            }
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (allocatedBytes.get() <= maxBytes || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            var coldestFirst = segments.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .toList();
+            for (var entry : coldestFirst) {
+                if (allocatedBytes.get() <= maxBytes) {
+                    break;
+                }
+                remove(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Append-only series of one symbol. Appends are serialized by the store; the row count is
+     * written last so readers only ever see fully written rows.
+     */
+    private static final class Segment {
+        private final long epoch;
+        private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+        private volatile int count;
+        private volatile long lastAccess = System.nanoTime();
+        private long maxId = Long.MIN_VALUE;
+        private int lastDay = Integer.MIN_VALUE;
+
+        Segment(long epoch) {
+            this.epoch = epoch;
+        }
+
+        boolean canAppend(@Nullable Long id, int day) {
+            return id != null && id > maxId && day >= lastDay;
+        }
+
+        void append(StockData bar, int day) {
+            int row = count;
+            long id = bar.getId() == null ? 0 : bar.getId();
+            var current = chunks;
+            var written = BarSeries.write(current, true, row, id, day, bar.getOpen(), bar.getHigh(), bar.getLow(),
+                bar.getClose(), bar.getVolume());
+            if (written != current) {
+                chunks = written;
+            }
+            maxId = Math.max(maxId, id);
+            lastDay = day;
+            count = row + 1; // Publishes the row
+        }
+
+        long bytes() {
+            return (long) chunks.length * BarSeries.CHUNK_BYTES;
+        }
+
+        BarSeries snapshot() {
+            int size = count;
+            return new BarSeries(chunks, 0, size);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.morpheus.stockbetting.tracing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timed unit of work within a trace, started with {@link Tracing#span(String)}.
+ * A span becomes the current span of its thread until it is closed, so spans started meanwhile,
+ * on this thread or in tasks submitted to a traced executor, become its children.
+ * Spans are used by a single thread and must be closed in reverse order of starting.
+ */
+public final class Span implements AutoCloseable {
+
+    /**
+     * Span returned when no trace is active, recording nothing.
+     */
+    static final Span NOOP = new Span(null, -1, -1, null, null);
+
+    private final Trace trace;
+    private final int id;
+    private final int parentId;
+    private final String name;
+    private final Span previous;
+    private final long startNanos;
+    private Throwable error;
+    private boolean closed;
+
+    Span(Trace trace, int id, int parentId, String name, Span previous) {
+        this.trace = trace;
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.previous = previous;
+        this.startNanos = System.nanoTime();
+    }
+
+    Trace trace() {
+        return trace;
+    }
+
+    int id() {
+        return id;
+    }
+
+    /**
+     * Marks the span as failed.
+     *
+     * @param error The exception the work failed with
+     */
+    public void error(Throwable error) {
+        this.error = error;
+    }
+
+    /**
+     * Ends the span and makes the span that was current when it started current again.
+     * Closing a span a second time has no effect.
+     */
+    @Override
+    public void close() {
+        if (trace == null || closed) {
+            return;
+        }
+        closed = true;
+        long end = System.nanoTime();
+        trace.record(new SpanData(id, parentId, name, Thread.currentThread().getName(),
+            TimeUnit.NANOSECONDS.toMicros(startNanos - trace.startNanos()),
+            TimeUnit.NANOSECONDS.toMicros(end - startNanos),
+            error == null ? null : error.getClass().getName() + ": " + error.getMessage()));
+        Tracing.restore(this, previous);
+    }
+}
@@ -0,0 +1,16 @@
+package com.morpheus.stockbetting.tracing;
+
+/**
+ * Finished span of a trace.
+ *
+ * @param id Id of the span, unique within its trace
+ * @param parentId Id of the enclosing span, -1 for the root span
+ * @param name What the span timed, e.g. "repository.findBySymbol"
+ * @param thread Name of the thread the span ran on
+ * @param startMicros Start of the span relative to the start of the trace
+ * @param durationMicros Duration of the span
+ * @param error Class and message of the exception the span failed with, null if it succeeded
+ */
+public record SpanData(int id, int parentId, String name, String thread,
+                       long startMicros, long durationMicros, String error) {
+}
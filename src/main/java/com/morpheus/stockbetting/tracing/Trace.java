@@ -0,0 +1,114 @@
+package com.morpheus.stockbetting.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spans recorded while handling one request.
+ * Spans are recorded from any thread the request hops onto; the trace is finished by the
+ * middleware once the response is complete.
+ */
+public final class Trace {
+
+    private final String traceId;
+    private final String name;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final int maxSpans;
+    private final AtomicInteger nextSpanId = new AtomicInteger();
+    private final List<SpanData> spans = new ArrayList<>();
+    private int droppedSpans;
+    private boolean failed;
+    private volatile int status;
+    private volatile long durationNanos = -1;
+    private Span root;
+
+    Trace(String traceId, String name, int maxSpans) {
+        this.traceId = traceId;
+        this.name = name;
+        this.maxSpans = maxSpans;
+    }
+
+    Span root() {
+        return root;
+    }
+
+    void setRoot(Span root) {
+        this.root = root;
+    }
+
+    int nextSpanId() {
+        return nextSpanId.getAndIncrement();
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    synchronized void record(SpanData span) {
+        if (span.error() != null) {
+            failed = true;
+        }
+        if (spans.size() < maxSpans) {
+            spans.add(span);
+        } else {
+            droppedSpans++;
+        }
+    }
+
+    void finish(int status, long durationNanos) {
+        this.status = status;
+        this.durationNanos = durationNanos;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return HTTP status of the response, 0 while the trace is not finished
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Duration of the whole request in microseconds, -1 while the trace is not finished
+     */
+    public long getDurationMicros() {
+        long duration = durationNanos;
+        return duration < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(duration);
+    }
+
+    /**
+     * @return Whether any span of the trace failed
+     */
+    public synchronized boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return Spans finished so far, in the order they finished
+     */
+    public synchronized List<SpanData> getSpans() {
+        return List.copyOf(spans);
+    }
+
+    /**
+     * @return Spans left out because the trace already held the maximum number of spans
+     */
+    public synchronized int getDroppedSpans() {
+        return droppedSpans;
+    }
+}
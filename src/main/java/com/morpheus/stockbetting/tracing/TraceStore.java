@@ -0,0 +1,104 @@
+package com.morpheus.stockbetting.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the trace of every request and keeps the interesting ones once they finish.
+ * Sampling happens at the tail: whether a trace is kept is decided when it is complete, so
+ * every slow or failed request is kept while fast successful ones are discarded. Kept traces
+ * are held in a fixed size ring, the oldest being evicted first.
+ */
+@Component
+@EnableConfigurationProperties(TracingProperties.class)
+public class TraceStore {
+
+    private final TracingProperties properties;
+    private final long slowThresholdNanos;
+    private final Trace[] kept;
+    private int next;
+    private int size;
+
+    public TraceStore(TracingProperties properties) {
+        if (properties.capacity() < 1 || properties.maxSpans() < 1) {
+            throw new IllegalArgumentException("Trace capacity and spans per trace must be positive");
+        }
+        this.properties = properties;
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+        this.kept = new Trace[properties.capacity()];
+    }
+
+    /**
+     * Starts the trace of a request on the current thread.
+     *
+     * @param traceId Id of the trace, the request id
+     * @param name Name of the root span, e.g. "GET /api/stocks/AAPL"
+     * @return The started trace, null if tracing is disabled
+     */
+    public Trace begin(String traceId, String name) {
+        if (!properties.enabled()) {
+            return null;
+        }
+        var trace = new Trace(traceId, name, properties.maxSpans());
+        Tracing.start(trace, name);
+        return trace;
+    }
+
+    /**
+     * Ends the root span of a trace and keeps the trace if it was slow or failed.
+     *
+     * @param trace The trace to finish, ignored if null
+     * @param status HTTP status of the response
+     * @param error Exception the request failed with, null if none
+     * @return Whether the trace was kept
+     */
+    public boolean finish(Trace trace, int status, Throwable error) {
+        if (trace == null) {
+            return false;
+        }
+        var root = trace.root();
+        if (error != null) {
+            root.error(error);
+        }
+        root.close();
+        long duration = System.nanoTime() - trace.startNanos();
+        trace.finish(status, duration);
+        if (status < 500 && !trace.isFailed() && duration < slowThresholdNanos) {
+            return false;
+        }
+        synchronized (this) {
+            kept[next] = trace;
+            next = (next + 1) % kept.length;
+            size = Math.min(size + 1, kept.length);
+        }
+        return true;
+    }
+
+    /**
+     * @return The kept traces, most recent first
+     */
+    public synchronized List<Trace> recent() {
+        var traces = new ArrayList<Trace>(size);
+        for (int i = 1; i <= size; i++) {
+            traces.add(kept[(next - i + kept.length) % kept.length]);
+        }
+        return traces;
+    }
+
+    /**
+     * @param traceId Id of the trace
+     * @return The most recent kept trace with this id, null if none
+     */
+    public synchronized Trace find(String traceId) {
+        for (int i = 1; i <= size; i++) {
+            var trace = kept[(next - i + kept.length) % kept.length];
+            if (trace.getTraceId().equals(traceId)) {
+                return trace;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.morpheus.stockbetting.tracing;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint listing the slow and failed requests kept by the {@link TraceStore}:
+ * {@code /actuator/traces} for a summary of each, {@code /actuator/traces/{traceId}} for all spans of one.
+ */
+@Component
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private final TraceStore traceStore;
+
+    public TracesEndpoint(TraceStore traceStore) {
+        this.traceStore = traceStore;
+    }
+
+    @ReadOperation
+    public List<TraceSummary> traces() {
+        return traceStore.recent().stream()
+            .map(trace -> new TraceSummary(trace.getTraceId(), trace.getName(), trace.getStartedAt(),
+                trace.getStatus(), trace.getDurationMicros(), trace.isFailed(), trace.getSpans().size()))
+            .toList();
+    }
+
+    /**
+     * @param traceId Id of the trace, the request id returned in the X-Request-ID header
+     * @return The trace with its spans, null (404) if it was not kept
+     */
+    @ReadOperation
+    public Trace trace(@Selector String traceId) {
+        return traceStore.find(traceId);
+    }
+
+    /**
+     * One kept trace without its spans.
+     */
+    public record TraceSummary(String traceId, String name, Instant startedAt, int status,
+                               long durationMicros, boolean failed, int spans) {
+    }
+}
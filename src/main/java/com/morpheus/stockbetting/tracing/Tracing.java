@@ -0,0 +1,135 @@
+package com.morpheus.stockbetting.tracing;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import org.slf4j.MDC;
+
+/**
+ * Entry point for recording spans of the request being handled by the current thread.
+ * The current span is kept in a thread local. Executors wrapped with {@link #wrap(ExecutorService)}
+ * capture it together with the MDC when a task is submitted and restore both while the task runs,
+ * so spans and log lines of asynchronous work stay tied to their request.
+ * Without an active trace, spans are no-ops that cost a thread local lookup.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /**
+     * Starts the root span of a trace and makes it current.
+     *
+     * @param trace The trace to record into
+     * @param name Name of the root span
+     * @return The root span, closed when the trace is finished
+     */
+    static Span start(Trace trace, String name) {
+        var root = new Span(trace, trace.nextSpanId(), -1, name, null);
+        trace.setRoot(root);
+        CURRENT.set(root);
+        return root;
+    }
+
+    /**
+     * Forgets the span current on this thread, once the thread is done with a request whose
+     * trace is finished elsewhere.
+     */
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Starts a span as a child of the current span and makes it current.
+     *
+     * @param name What the span times, e.g. "repository.findBySymbol"
+     * @return The started span, a no-op if no trace is active
+     */
+    public static Span span(String name) {
+        var parent = CURRENT.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        var span = new Span(parent.trace(), parent.trace().nextSpanId(), parent.id(), name, parent);
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Runs a task in a span, marking the span as failed if the task throws.
+     *
+     * @param name What the span times
+     * @param task The work to time
+     * @return The result of the task
+     */
+    public static <T> T inSpan(String name, Supplier<T> task) {
+        try (var span = span(name)) {
+            try {
+                return task.get();
+            } catch (RuntimeException | Error e) {
+                span.error(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Binds a task to the span and MDC of the submitting thread.
+     *
+     * @param task The task to run later, possibly on another thread
+     * @return A task running with the captured context, or the task itself if there is nothing to capture
+     */
+    public static Runnable wrap(Runnable task) {
+        var span = CURRENT.get();
+        var mdc = MDC.getCopyOfContextMap();
+        if (span == null && (mdc == null || mdc.isEmpty())) {
+            return task;
+        }
+        return () -> {
+            var previousSpan = CURRENT.get();
+            var previousMdc = MDC.getCopyOfContextMap();
+            set(span, mdc);
+            try {
+                task.run();
+            } finally {
+                set(previousSpan, previousMdc);
+            }
+        };
+    }
+
+    /**
+     * Wraps an executor so that its tasks run with the span and MDC of the submitting thread.
+     *
+     * @param executor The executor to wrap
+     * @return An executor propagating the context to the tasks of the given executor
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        return new ContextPropagatingExecutorService(executor);
+    }
+
+    static void restore(Span closing, Span previous) {
+        if (CURRENT.get() == closing) {
+            set(previous);
+        }
+    }
+
+    private static void set(Span span) {
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+    }
+
+    private static void set(Span span, Map<String, String> mdc) {
+        set(span);
+        if (mdc == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(mdc);
+        }
+    }
+}
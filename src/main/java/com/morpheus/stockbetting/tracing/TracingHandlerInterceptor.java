@@ -0,0 +1,48 @@
+package com.morpheus.stockbetting.tracing;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Records a span for each controller method invocation.
+ * For controllers returning a future the span ends when the method returns; the asynchronous
+ * work it started is recorded as children of the span by the traced executors.
+ */
+public class TracingHandlerInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SPAN_ATTRIBUTE = TracingHandlerInterceptor.class.getName() + ".span";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The span of an async request was closed by its first dispatch
+        if (handler instanceof HandlerMethod method && request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(SPAN_ATTRIBUTE, Tracing.span(
+                "controller." + method.getBeanType().getSimpleName() + '.' + method.getMethod().getName()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        close(request, null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        close(request, ex);
+    }
+
+    private static void close(HttpServletRequest request, Exception error) {
+        if (request.getAttribute(SPAN_ATTRIBUTE) instanceof Span span) {
+            request.removeAttribute(SPAN_ATTRIBUTE);
+            if (error != null) {
+                span.error(error);
+            }
+            span.close();
+        }
+    }
+}
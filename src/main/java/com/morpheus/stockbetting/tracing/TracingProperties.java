@@ -0,0 +1,17 @@
+package com.morpheus.stockbetting.tracing;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tracing settings, bound from the "tracing" configuration prefix.
+ *
+ * @param enabled Whether requests are traced at all
+ * @param slowThreshold Traces taking at least this long are kept; failed traces are always kept
+ * @param capacity Kept traces held in memory, the oldest are evicted first
+ * @param maxSpans Spans recorded per trace, further spans are counted but not kept
+ */
+@ConfigurationProperties("tracing")
+public record TracingProperties(boolean enabled, Duration slowThreshold, int capacity, int maxSpans) {
+}
@@ -0,0 +1,58 @@
+package com.morpheus.stockbetting.util;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.cache.Cache;
+
+import com.morpheus.stockbetting.cache.NearCache;
+
+/**
+ * Utility class for multi-key cache access
+ */
+public final class CacheUtil {
+    private CacheUtil() {}
+
+    /**
+     * Resolves many keys of a cache, loading all misses with a single loader call.
+     * Near caches read shared cache hits and write loaded values back in bulk; other caches
+     * are read and written key by key.
+     *
+     * @param cache  the cache to read
+     * @param keys   the keys to resolve
+     * @param loader loads the values of all keys that were not cached
+     * @param <V>    the value type
+     * @return the resolved values in the order of {@code keys}
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> Map<String, V> getAll(Cache cache, Collection<String> keys,
+                                            Function<Set<String>, Map<String, V>> loader) {
+        if (cache instanceof NearCache nearCache) {
+            return (Map<String, V>) (Map<String, ?>) nearCache.getAll(keys, loader::apply);
+        }
+
+        var result = new LinkedHashMap<String, V>();
+        var missing = new LinkedHashSet<String>();
+        for (String key : keys) {
+            var wrapper = cache.get(key);
+            if (wrapper != null) {
+                result.put(key, (V) wrapper.get());
+            } else {
+                result.put(key, null);
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loader.apply(missing).forEach((key, value) -> {
+                cache.put(key, value);
+                result.put(key, value);
+            });
+        }
+        result.values().removeIf(value -> value == null);
+        return result;
+    }
+}
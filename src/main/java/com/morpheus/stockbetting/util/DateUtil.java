@@ -0,0 +1,89 @@
+package com.morpheus.stockbetting.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import com.morpheus.stockbetting.exception.ValidationException;
+
+/**
+ * Utility class for parsing and validating dates
+ */
+public final class DateUtil {
+
+    /**
+     * Returned by {@link #toEpochDay(String)} for dates it does not accept.
+     */
+    public static final long INVALID_EPOCH_DAY = Long.MIN_VALUE;
+
+    private DateUtil() {}
+
+    /**
+     * Parses an optional YYYY-MM-DD request date.
+     *
+     * @param date the date, or null
+     * @return the parsed date, or null if none was given
+     * @throws ValidationException if the date is malformed
+     */
+    public static LocalDate parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid date, expected YYYY-MM-DD: " + date, e);
+        }
+    }
+
+    /**
+     * Validates an optional inclusive YYYY-MM-DD date range.
+     *
+     * @param from the start date, or null
+     * @param to   the end date, or null
+     * @throws ValidationException if a date is malformed or the range is reversed
+     */
+    public static void validateRange(String from, String to) {
+        var fromDate = parseDate(from);
+        var toDate = parseDate(to);
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new ValidationException("Start date must not be after end date: " + from + " > " + to);
+        }
+    }
+
+    /**
+     * Parses a canonical YYYY-MM-DD date to its epoch day without intermediate objects.
+     * Only strings {@link LocalDate#toString()} would reproduce exactly are accepted.
+     *
+     * @param date the date, or null
+     * @return the epoch day, or {@link #INVALID_EPOCH_DAY} if the date is null or malformed
+     */
+    public static long toEpochDay(String date) {
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return INVALID_EPOCH_DAY;
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return INVALID_EPOCH_DAY;
+        }
+        try {
+            return LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return INVALID_EPOCH_DAY;
+        }
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -0,0 +1,291 @@
+package com.morpheus.stockbetting.accesslog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import com.morpheus.stockbetting.capture.CaptureProperties;
+import com.morpheus.stockbetting.capture.RequestCapture;
+import com.morpheus.stockbetting.exception.ValidationException;
+import com.morpheus.stockbetting.middleware.RequestLoggingMiddleware;
+import com.morpheus.stockbetting.tracing.TraceStore;
+import com.morpheus.stockbetting.tracing.TracingProperties;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the access log using BDD style testing
+ */
+@DisplayName("AccessLog Behavior")
+class AccessLogTest {
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        appender.start();
+        ((Logger) LoggerFactory.getLogger("access")).addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger("access")).detachAppender(appender);
+    }
+
+    private AccessLog accessLog(double successSampleRate, int bufferSize) {
+        return new AccessLog(new AccessLogProperties(true, bufferSize, successSampleRate, Duration.ofSeconds(1),
+            List.of("User-Agent"), Duration.ofMillis(10)), meterRegistry);
+    }
+
+    private List<String> lines() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        var request = new MockHttpServletRequest("GET", path);
+        request.addHeader("User-Agent", "curl/8.5 \"test\"");
+        request.addHeader("Authorization", "Bearer secret");
+        return request;
+    }
+
+    @Nested
+    @DisplayName("Sampling")
+    class Sampling {
+
+        @Test
+        @DisplayName("When successful requests are not sampled, then still log failed and slow requests")
+        void whenSuccessNotSampled_thenLogFailuresAndSlowRequests() {
+            // Arrange
+            var accessLog = accessLog(0, 16);
+
+            // Act
+            accessLog.record(request("/api/stocks/AAPL"), "a", 200, 1_000, null);
+            accessLog.record(request("/api/stocks/XXXX"), "b", 404, 1_000, null);
+            accessLog.record(request("/api/stocks/MSFT"), "c", 200, Duration.ofSeconds(2).toNanos(), null);
+            accessLog.record(request("/api/stocks/predict"), "d", 200, 1_000, new IllegalStateException());
+            accessLog.flush();
+
+            // Assert
+            assertEquals(3, lines().size());
+            assertTrue(lines().get(0).contains("\"id\":\"b\""));
+            assertTrue(lines().get(2).contains("\"error\":\"IllegalStateException\""));
+        }
+
+        @Test
+        @DisplayName("When an event is written, then emit one JSON line with allow-listed headers only")
+        void whenWritten_thenOneLineWithAllowListedHeaders() {
+            // Arrange
+            var accessLog = accessLog(1, 16);
+
+            // Act
+            accessLog.record(request("/api/stocks/AAPL"), "req-1", 200, 1_500_000, null);
+            accessLog.flush();
+
+            // Assert
+            var line = lines().getFirst();
+            assertTrue(line.startsWith("{\"ts\":\""));
+            assertTrue(line.contains("\"id\":\"req-1\",\"method\":\"GET\",\"path\":\"/api/stocks/AAPL\",\"status\":200,\"durationMs\":1.5"));
+            assertTrue(line.contains("\"User-Agent\":\"curl/8.5 \\\"test\\\"\""));
+            assertFalse(line.contains("secret"));
+            assertFalse(line.contains("\n"));
+        }
+
+        @Test
+        @DisplayName("When the buffer is full, then drop events and count them")
+        void whenBufferFull_thenDropAndCount() {
+            // Arrange
+            var accessLog = accessLog(1, 4);
+
+            // Act
+            for (int i = 0; i < 6; i++) {
+                accessLog.record(request("/api/stocks/AAPL"), "r" + i, 200, 1_000, null);
+            }
+            accessLog.flush();
+
+            // Assert
+            assertEquals(4, lines().size());
+            assertEquals(2.0, meterRegistry.get("access.log.dropped").functionCounter().count());
+        }
+
+        @Test
+        @DisplayName("When reading the request fails, then publish the claimed slot so later events are still written")
+        void whenRequestUnreadable_thenSlotPublishedAndSkipped() {
+            // Arrange
+            var accessLog = accessLog(1, 4);
+            var broken = new MockHttpServletRequest("GET", "/api/stocks/AAPL") {
+                @Override
+                public String getHeader(String name) {
+                    throw new IllegalStateException("Request already recycled");
+                }
+            };
+
+            // Act
+            assertThrows(IllegalStateException.class, () -> accessLog.record(broken, "a", 200, 1_000, null));
+            accessLog.record(request("/api/stocks/MSFT"), "b", 200, 1_000, null);
+            int written = accessLog.flush();
+
+            // Assert
+            assertEquals(1, written);
+            assertEquals(1, lines().size());
+            assertTrue(lines().getFirst().contains("\"id\":\"b\""));
+            assertEquals(1.0, meterRegistry.get("access.log.dropped").functionCounter().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ring Buffer")
+    class RingBuffer {
+
+        @Test
+        @DisplayName("When a claimed slot is not published yet, then stop draining before it")
+        void whenUnpublished_thenStopBeforeIt() {
+            // Arrange
+            var buffer = new AccessLogRingBuffer(4, 0);
+            long first = buffer.claim();
+            long second = buffer.claim();
+            buffer.get(second).status = 201;
+            buffer.publish(second);
+            var statuses = new ArrayList<Integer>();
+
+            // Act
+            int drainedBefore = buffer.drain(event -> statuses.add(event.getStatus()));
+            buffer.get(first).status = 200;
+            buffer.publish(first);
+            int drainedAfter = buffer.drain(event -> statuses.add(event.getStatus()));
+
+            // Assert
+            assertEquals(0, drainedBefore);
+            assertEquals(2, drainedAfter);
+            assertEquals(List.of(200, 201), statuses);
+        }
+
+        @Test
+        @DisplayName("When a claimed slot is discarded, then skip it and keep draining")
+        void whenDiscarded_thenSkipAndContinue() {
+            // Arrange
+            var buffer = new AccessLogRingBuffer(4, 1);
+            long first = buffer.claim();
+            long second = buffer.claim();
+            buffer.get(first).headers[0] = "partial";
+            buffer.discard(first);
+            buffer.get(second).status = 201;
+            buffer.publish(second);
+            var statuses = new ArrayList<Integer>();
+
+            // Act
+            int drained = buffer.drain(event -> statuses.add(event.getStatus()));
+
+            // Assert
+            assertEquals(1, drained);
+            assertEquals(List.of(201), statuses);
+            assertNull(buffer.get(first).getHeader(0));
+            assertEquals(1, buffer.getDropped());
+        }
+
+        @Test
+        @DisplayName("When events wrap around the ring, then reuse the slots in order")
+        void whenWrapping_thenReuseSlots() {
+            // Arrange
+            var buffer = new AccessLogRingBuffer(4, 0);
+            var statuses = new ArrayList<Integer>();
+
+            // Act
+            for (int i = 0; i < 10; i++) {
+                long sequence = buffer.claim();
+                buffer.get(sequence).status = i;
+                buffer.publish(sequence);
+                buffer.drain(event -> statuses.add(event.getStatus()));
+            }
+
+            // Assert
+            assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), statuses);
+            assertEquals(0, buffer.getDropped());
+        }
+    }
+
+    @Nested
+    @DisplayName("Request Logging Middleware")
+    class Middleware {
+
+        private final TraceStore traceStore = new TraceStore(new TracingProperties(false, Duration.ZERO, 1, 1));
+        private final RequestCapture requestCapture = new RequestCapture(new CaptureProperties(false, 0, Path.of("target"),
+            0, DataSize.ofBytes(0), 1, Duration.ZERO), new SimpleMeterRegistry());
+
+        @Test
+        @DisplayName("When a request is handled asynchronously, then record it once the response is complete")
+        void whenAsync_thenRecordOnCompletion() throws Exception {
+            // Arrange
+            var accessLog = accessLog(1, 16);
+            var middleware = new RequestLoggingMiddleware(accessLog, traceStore, requestCapture);
+            var request = request("/api/stocks/AAPL");
+            request.setAsyncSupported(true);
+            var response = new MockHttpServletResponse();
+            var servlet = new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) {
+                    req.startAsync();
+                }
+            };
+
+            // Act
+            middleware.doFilter(request, response, new MockFilterChain(servlet));
+            accessLog.flush();
+            int linesBeforeCompletion = lines().size();
+            response.setStatus(202);
+            ((MockAsyncContext) request.getAsyncContext()).complete();
+            accessLog.flush();
+
+            // Assert
+            assertEquals(0, linesBeforeCompletion);
+            assertEquals(1, lines().size());
+            assertTrue(lines().getFirst().contains("\"status\":202"));
+            assertNotNull(response.getHeader(RequestLoggingMiddleware.REQUEST_ID_HEADER));
+        }
+
+        @Test
+        @DisplayName("When the request fails, then record it and rethrow")
+        void whenFails_thenRecordAndRethrow() {
+            // Arrange
+            var accessLog = accessLog(0, 16);
+            var middleware = new RequestLoggingMiddleware(accessLog, traceStore, requestCapture);
+            var request = request("/api/stocks/AAPL");
+            request.addHeader(RequestLoggingMiddleware.REQUEST_ID_HEADER, "client-id-1");
+            var servlet = new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) {
+                    throw new ValidationException("Invalid symbol");
+                }
+            };
+
+            // Act & Assert
+            assertThrows(ValidationException.class,
+                () -> middleware.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet)));
+            accessLog.flush();
+            assertTrue(lines().getFirst().contains("\"id\":\"client-id-1\""));
+            assertTrue(lines().getFirst().contains("\"status\":500"));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.morpheus.stockbetting.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.morpheus.stockbetting.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter using BDD style testing
+ */
+@DisplayName("AdaptiveConcurrencyLimiter Behavior")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(2);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max, int queue, Duration threshold) {
+        return limiter(initial, min, max, queue, Duration.ofSeconds(10), threshold);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max, int queue, Duration queueTimeout,
+                                               Duration threshold) {
+        var settings = new AdmissionProperties.Limit(initial, min, max, queue, queueTimeout, threshold, 0.5);
+        return new AdaptiveConcurrencyLimiter("predict", settings, RETRY_AFTER, meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("Admission")
+    class Admission {
+
+        @Test
+        @DisplayName("When below the limit, then start the task right away")
+        void whenBelowLimit_thenStartRightAway() {
+            // Arrange
+            var limiter = limiter(2, 1, 4, 0, Duration.ofSeconds(10));
+            var task = new CompletableFuture<String>();
+
+            // Act
+            var result = limiter.submit(() -> task);
+
+            // Assert
+            assertEquals(1, limiter.getInFlight());
+            task.complete("done");
+            assertEquals("done", result.join());
+            assertEquals(0, limiter.getInFlight());
+        }
+
+        @Test
+        @DisplayName("When at the limit, then queue the task until a slot frees up")
+        void whenAtLimit_thenQueueUntilSlotFree() {
+            // Arrange
+            var limiter = limiter(1, 1, 1, 1, Duration.ofSeconds(10));
+            var first = new CompletableFuture<String>();
+            var second = new CompletableFuture<String>();
+            var started = new ArrayList<String>();
+            limiter.submit(() -> {
+                started.add("first");
+                return first;
+            });
+
+            // Act
+            var queued = limiter.submit(() -> {
+                started.add("second");
+                return second;
+            });
+
+            // Assert
+            assertEquals(List.of("first"), started);
+            assertEquals(1, limiter.getQueued());
+            first.complete("a");
+            assertEquals(List.of("first", "second"), started);
+            second.complete("b");
+            assertEquals("b", queued.join());
+        }
+
+        @Test
+        @DisplayName("When limit and queue are full, then shed the request with retry after")
+        void whenLimitAndQueueFull_thenShed() {
+            // Arrange
+            var limiter = limiter(1, 1, 1, 1, Duration.ofSeconds(10));
+            limiter.submit(CompletableFuture::new);
+            limiter.submit(CompletableFuture::new);
+
+            // Act
+            var exception = assertThrows(ServiceOverloadedException.class,
+                () -> limiter.submit(CompletableFuture::new));
+
+            // Assert
+            assertEquals(RETRY_AFTER, exception.getRetryAfter());
+            assertEquals(1.0, meterRegistry.get("admission.shed").tag("endpoint", "predict").counter().count());
+        }
+
+        @Test
+        @DisplayName("When a queued task waits longer than the queue timeout, then shed it and free its place")
+        void whenQueuedTooLong_thenShedAndFreePlace() {
+            // Arrange
+            var limiter = limiter(1, 1, 1, 1, Duration.ofMillis(20), Duration.ofSeconds(10));
+            var first = new CompletableFuture<String>();
+            var started = new ArrayList<String>();
+            limiter.submit(() -> first);
+
+            // Act
+            var queued = limiter.submit(() -> {
+                started.add("queued");
+                return CompletableFuture.completedFuture("late");
+            });
+
+            // Assert
+            var exception = assertThrows(CompletionException.class, queued::join);
+            assertInstanceOf(ServiceOverloadedException.class, exception.getCause());
+            assertEquals(0, limiter.getQueued());
+            assertEquals(1.0, meterRegistry.get("admission.queue.expired").tag("endpoint", "predict").counter().count());
+            first.complete("a");
+            assertTrue(started.isEmpty());
+            assertEquals(0, limiter.getInFlight());
+        }
+
+        @Test
+        @DisplayName("When the caller cancels a queued task, then it leaves the queue and never starts")
+        void whenQueuedTaskCancelled_thenLeaveQueue() {
+            // Arrange
+            var limiter = limiter(1, 1, 1, 1, Duration.ofSeconds(10));
+            var first = new CompletableFuture<String>();
+            var started = new ArrayList<String>();
+            limiter.submit(() -> first);
+            var queued = limiter.submit(() -> {
+                started.add("queued");
+                return CompletableFuture.completedFuture("late");
+            });
+
+            // Act
+            queued.cancel(false);
+
+            // Assert
+            assertEquals(0, limiter.getQueued());
+            first.complete("a");
+            assertTrue(started.isEmpty());
+            assertEquals(0, limiter.getInFlight());
+        }
+
+        @Test
+        @DisplayName("When the task fails to start, then free its slot and rethrow")
+        void whenTaskFailsToStart_thenFreeSlotAndRethrow() {
+            // Arrange
+            var limiter = limiter(1, 1, 1, 0, Duration.ofSeconds(10));
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> limiter.submit(() -> {
+                throw new IllegalArgumentException("Symbol cannot be null");
+            }));
+            assertEquals(0, limiter.getInFlight());
+            assertEquals("ok", limiter.submit(() -> CompletableFuture.completedFuture("ok")).join());
+        }
+    }
+
+    @Nested
+    @DisplayName("Limit Adaptation")
+    class LimitAdaptation {
+
+        @Test
+        @DisplayName("When latency exceeds the threshold, then decrease the limit multiplicatively")
+        void whenLatencyAboveThreshold_thenDecreaseLimit() {
+            // Arrange
+            var limiter = limiter(8, 2, 16, 0, Duration.ZERO);
+
+            // Act
+            limiter.submit(() -> CompletableFuture.supplyAsync(() -> "slow")).join();
+
+            // Assert
+            assertEquals(4.0, limiter.getLimit());
+        }
+
+        @Test
+        @DisplayName("When latency stays low under saturation, then increase the limit additively")
+        void whenFastAndSaturated_thenIncreaseLimit() {
+            // Arrange
+            var limiter = limiter(2, 1, 16, 4, Duration.ofSeconds(10));
+            var tasks = new ArrayList<CompletableFuture<String>>();
+            for (int i = 0; i < 4; i++) {
+                var task = new CompletableFuture<String>();
+                tasks.add(task);
+                limiter.submit(() -> task);
+            }
+
+            // Act
+            tasks.forEach(task -> task.complete("fast"));
+
+            // Assert
+            assertTrue(limiter.getLimit() > 2.0);
+            assertEquals(0, limiter.getInFlight());
+            assertEquals(0, limiter.getQueued());
+        }
+
+        @Test
+        @DisplayName("When latency stays low without saturation, then keep the limit")
+        void whenFastAndIdle_thenKeepLimit() {
+            // Arrange
+            var limiter = limiter(4, 1, 16, 0, Duration.ofSeconds(10));
+
+            // Act
+            limiter.submit(() -> CompletableFuture.completedFuture("fast")).join();
+
+            // Assert
+            assertEquals(4.0, limiter.getLimit());
+        }
+
+        @Test
+        @DisplayName("When latency keeps exceeding the threshold, then never go below the minimum")
+        void whenRepeatedlySlow_thenStayAtMinimum() {
+            // Arrange
+            var limiter = limiter(4, 2, 16, 0, Duration.ZERO);
+
+            // Act
+            for (int i = 0; i < 5; i++) {
+                limiter.submit(() -> CompletableFuture.supplyAsync(() -> "slow")).join();
+            }
+
+            // Assert
+            assertEquals(2.0, limiter.getLimit());
+        }
+    }
+}
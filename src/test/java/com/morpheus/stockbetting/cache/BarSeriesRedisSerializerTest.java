@@ -0,0 +1,144 @@
+package com.morpheus.stockbetting.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the compact bar series Redis serializer using BDD style testing
+ */
+@DisplayName("BarSeriesRedisSerializer Behavior")
+class BarSeriesRedisSerializerTest {
+
+    private final BarSeriesRedisSerializer serializer = new BarSeriesRedisSerializer();
+
+    static List<StockData> dailyBars(String symbol, int count) {
+        var bars = new ArrayList<StockData>(count);
+        var date = LocalDate.of(2015, 1, 2);
+        double close = 100.0;
+        for (int i = 0; i < count; i++) {
+            var bar = new StockData();
+            bar.setId(1_000L + i);
+            bar.setSymbol(symbol);
+            bar.setDate(date.plusDays(i).toString());
+            bar.setOpen(close);
+            bar.setHigh(close + 1.25);
+            bar.setLow(close - 0.75);
+            close = Math.round((close + Math.sin(i) * 2) * 100) / 100.0;
+            bar.setClose(close);
+            bar.setVolume(1_000_000L + (i * 7919L) % 250_000L);
+            bars.add(bar);
+        }
+        return bars;
+    }
+
+    private static void assertSameBars(List<StockData> expected, Object actual) {
+        assertInstanceOf(List.class, actual);
+        var bars = (List<?>) actual;
+        assertEquals(expected.size(), bars.size());
+        for (int i = 0; i < expected.size(); i++) {
+            var want = expected.get(i);
+            var got = assertInstanceOf(StockData.class, bars.get(i));
+            assertEquals(want.getId(), got.getId());
+            assertEquals(want.getSymbol(), got.getSymbol());
+            assertEquals(want.getDate(), got.getDate());
+            assertEquals(want.getOpen(), got.getOpen());
+            assertEquals(want.getHigh(), got.getHigh());
+            assertEquals(want.getLow(), got.getLow());
+            assertEquals(want.getClose(), got.getClose());
+            assertEquals(want.getVolume(), got.getVolume());
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a bar series")
+    class GivenBarSeries {
+
+        @Test
+        @DisplayName("When serialized, then it round-trips exactly")
+        void whenSerialized_thenRoundTripsExactly() {
+            var bars = dailyBars("AAPL", 2_000);
+
+            byte[] bytes = serializer.serialize(bars);
+
+            assertTrue(BarSeriesCodec.isEncodedSeries(bytes));
+            assertSameBars(bars, serializer.deserialize(bytes));
+        }
+
+        @Test
+        @DisplayName("When serialized, then it is much smaller than the JSON encoding")
+        void whenSerialized_thenMuchSmallerThanJson() {
+            var bars = dailyBars("AAPL", 2_000);
+
+            byte[] binary = serializer.serialize(bars);
+            byte[] json = new GenericJackson2JsonRedisSerializer().serialize(bars);
+
+            assertTrue(binary.length * 10 < json.length,
+                "binary=" + binary.length + " json=" + json.length);
+        }
+
+        @Test
+        @DisplayName("When values have no compact form, then they are stored losslessly")
+        void whenValuesHaveNoCompactForm_thenStoredLosslessly() {
+            var bars = dailyBars("AAPL", 3);
+            bars.get(0).setOpen(Math.PI);
+            bars.get(1).setDate("2024-1-5");
+            bars.get(1).setId(null);
+            bars.get(2).setSymbol("MSFT");
+            bars.get(2).setVolume(-1L);
+
+            assertSameBars(bars, serializer.deserialize(serializer.serialize(bars)));
+        }
+
+        @Test
+        @DisplayName("When series is empty, then it round-trips to an empty list")
+        void whenSeriesIsEmpty_thenRoundTripsToEmptyList() {
+            var result = serializer.deserialize(serializer.serialize(List.of()));
+
+            assertEquals(List.of(), result);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given other cached values")
+    class GivenOtherValues {
+
+        @Test
+        @DisplayName("When value is not a bar series, then JSON is used")
+        void whenValueIsNotBarSeries_thenJsonIsUsed() {
+            byte[] bytes = serializer.serialize(new ArrayList<>(List.of("AAPL", "MSFT")));
+
+            assertFalse(BarSeriesCodec.isEncodedSeries(bytes));
+            assertEquals(List.of("AAPL", "MSFT"), serializer.deserialize(bytes));
+        }
+
+        @Test
+        @DisplayName("When entry was written by the JSON serializer, then it is still readable")
+        void whenEntryWrittenAsJson_thenStillReadable() {
+            var bars = dailyBars("AAPL", 5);
+            byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(bars);
+
+            assertSameBars(bars, serializer.deserialize(legacy));
+        }
+
+        @Test
+        @DisplayName("When payload is truncated, then throw SerializationException")
+        void whenPayloadTruncated_thenThrowSerializationException() {
+            byte[] bytes = serializer.serialize(dailyBars("AAPL", 100));
+            byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+            assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+        }
+    }
+}
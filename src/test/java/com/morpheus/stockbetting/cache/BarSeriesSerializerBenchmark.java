@@ -0,0 +1,67 @@
+package com.morpheus.stockbetting.cache;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+
+import java.util.List;
+
+/**
+ * Size and speed comparison between the bar series serializer and the Jackson serializer
+ * it replaces. Not part of the default test run, execute it explicitly with
+ * {@code ./mvnw test -Dtest=BarSeriesSerializerBenchmark}.
+ */
+@DisplayName("Bar series serializer benchmark")
+class BarSeriesSerializerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    @ParameterizedTest(name = "{0} bars")
+    @ValueSource(ints = {50, 500, 5_000})
+    @DisplayName("Compare encoded size and encode/decode time against JSON")
+    void compareAgainstJackson(int barCount) {
+        var bars = BarSeriesRedisSerializerTest.dailyBars("AAPL", barCount);
+        var binary = measure(new BarSeriesRedisSerializer(), bars);
+        var json = measure(new GenericJackson2JsonRedisSerializer(), bars);
+
+        System.out.printf("%,6d bars | binary %,9d B  enc %8.1f us  dec %8.1f us | "
+                + "json %,9d B  enc %8.1f us  dec %8.1f us%n",
+            barCount, binary.bytes, binary.encodeMicros, binary.decodeMicros,
+            json.bytes, json.encodeMicros, json.decodeMicros);
+
+        assertTrue(binary.bytes < json.bytes);
+    }
+
+    private static Result measure(RedisSerializer<Object> serializer, List<StockData> bars) {
+        byte[] bytes = null;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            bytes = serializer.serialize(bars);
+            serializer.deserialize(bytes);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            bytes = serializer.serialize(bars);
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        return new Result(bytes.length,
+            encodeNanos / 1_000.0 / MEASURED_ROUNDS,
+            decodeNanos / 1_000.0 / MEASURED_ROUNDS);
+    }
+
+    private record Result(int bytes, double encodeMicros, double decodeMicros) {}
+}
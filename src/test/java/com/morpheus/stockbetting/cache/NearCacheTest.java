@@ -0,0 +1,245 @@
+package com.morpheus.stockbetting.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Unit tests for the near cache using two simulated instances sharing one cache
+ */
+@DisplayName("NearCache Behavior")
+class NearCacheTest {
+
+    private ConcurrentMapCacheManager shared;
+    private InMemoryBus busA;
+    private InMemoryBus busB;
+    private NearCache nodeA;
+    private NearCache nodeB;
+
+    /**
+     * Stand-in for the Redis channel that lets tests hold back and reorder messages.
+     */
+    static final class InMemoryBus implements CacheInvalidationBus {
+        private final List<InMemoryBus> peers = new ArrayList<>();
+        private final List<CacheInvalidation> inbox = new ArrayList<>();
+        private final AtomicLong epoch = new AtomicLong(1);
+        private Consumer<CacheInvalidation> handler = invalidation -> {};
+        private boolean connected = true;
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            inbox.add(invalidation);
+            peers.forEach(peer -> peer.inbox.add(invalidation));
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public long epoch() {
+            return epoch.get();
+        }
+
+        void deliverAll() {
+            var pending = new ArrayList<>(inbox);
+            inbox.clear();
+            pending.forEach(handler);
+        }
+
+        void deliverNewestFirst() {
+            var pending = new ArrayList<>(inbox);
+            inbox.clear();
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                handler.accept(pending.get(i));
+            }
+        }
+
+        void disconnect() {
+            connected = false;
+        }
+
+        void reconnect() {
+            epoch.incrementAndGet();
+            connected = true;
+        }
+    }
+
+    private static NearCache nearCache(NearCacheManager manager) {
+        return (NearCache) manager.getCache("stockData");
+    }
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCacheManager("stockData");
+        busA = new InMemoryBus();
+        busB = new InMemoryBus();
+        busA.peers.add(busB);
+        busB.peers.add(busA);
+        nodeA = nearCache(new NearCacheManager(shared, busA, null, 100, Duration.ofMinutes(1), Duration.ZERO));
+        nodeB = nearCache(new NearCacheManager(shared, busB, null, 100, Duration.ofMinutes(1), Duration.ZERO));
+    }
+
+    @Nested
+    @DisplayName("Given a value cached on two instances")
+    class GivenValueCachedOnTwoInstances {
+
+        @BeforeEach
+        void cacheOnBothNodes() {
+            nodeA.put("AAPL", "v1");
+            busB.deliverAll();
+            assertEquals("v1", nodeB.get("AAPL").get());
+        }
+
+        @Test
+        @DisplayName("When read again, then it is served locally")
+        void whenReadAgain_thenServedLocally() {
+            shared.getCache("stockData").put("AAPL", "changed-behind-our-back");
+
+            assertEquals("v1", nodeB.get("AAPL").get());
+        }
+
+        @Test
+        @DisplayName("When another instance evicts it, then the local copy is dropped")
+        void whenAnotherInstanceEvicts_thenLocalCopyDropped() {
+            nodeA.evict("AAPL");
+            busB.deliverAll();
+
+            assertNull(nodeB.getLocal("AAPL"));
+            assertNull(nodeB.get("AAPL"));
+        }
+
+        @Test
+        @DisplayName("When another instance clears the cache, then every local copy is dropped")
+        void whenAnotherInstanceClears_thenLocalCopiesDropped() {
+            nodeA.clear();
+            busB.deliverAll();
+
+            assertNull(nodeB.getLocal("AAPL"));
+        }
+
+        @Test
+        @DisplayName("When invalidations arrive out of order, then the newest value wins")
+        void whenInvalidationsOutOfOrder_thenNewestValueWins() {
+            nodeA.put("AAPL", "v2");
+            nodeA.put("AAPL", "v3");
+            busB.deliverNewestFirst();
+
+            assertEquals("v3", nodeB.get("AAPL").get());
+            assertEquals("v3", nodeB.get("AAPL").get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a load racing an invalidation")
+    class GivenLoadRacingInvalidation {
+
+        @Test
+        @DisplayName("When the invalidation lands mid-load, then the stale load is not kept")
+        void whenInvalidationLandsMidLoad_thenStaleLoadNotKept() {
+            long observed = nodeB.observedVersion("AAPL");
+            nodeA.evict("AAPL");
+            busB.deliverAll();
+
+            nodeB.putLocal("AAPL", "stale", observed);
+
+            assertNull(nodeB.getLocal("AAPL"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the invalidation channel is down")
+    class GivenChannelDown {
+
+        @Test
+        @DisplayName("When disconnected, then local entries use the short TTL")
+        void whenDisconnected_thenShortTtlApplies() {
+            nodeB.get("AAPL", () -> "v1");
+            busB.disconnect();
+
+            assertNull(nodeB.getLocal("AAPL"));
+        }
+
+        @Test
+        @DisplayName("When reconnected, then entries from before the outage are not trusted")
+        void whenReconnected_thenOldEntriesNotTrusted() {
+            nodeB.get("AAPL", () -> "v1");
+            busB.disconnect();
+            busB.reconnect();
+
+            assertNull(nodeB.getLocal("AAPL"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Given keys missing from both caches")
+    class GivenKeysMissingFromBothCaches {
+
+        @Test
+        @DisplayName("When resolved together, then write the loaded values back in one bulk call")
+        void whenResolvedTogether_thenWriteBackInOneCall() {
+            // Arrange
+            var writes = new ArrayList<Map<String, ?>>();
+            var bulkOperations = new BulkCacheOperations() {
+                @Override
+                public Map<String, Object> getAll(String cacheName, Collection<String> keys) {
+                    return Map.of();
+                }
+
+                @Override
+                public void putAll(String cacheName, Map<String, ?> entries) {
+                    writes.add(Map.copyOf(entries));
+                }
+            };
+            var node = nearCache(new NearCacheManager(shared, busA, bulkOperations, 100, Duration.ofMinutes(1),
+                Duration.ZERO));
+
+            // Act
+            var result = node.getAll(List.of("AAPL", "MSFT"), keys -> Map.of("AAPL", "v1", "MSFT", "v2"));
+
+            // Assert
+            assertEquals(Map.of("AAPL", "v1", "MSFT", "v2"), result);
+            assertEquals(List.of(Map.of("AAPL", "v1", "MSFT", "v2")), writes);
+            assertNull(shared.getCache("stockData").get("AAPL"));
+            assertEquals("v2", node.getLocal("MSFT").get());
+        }
+    }
+
+    @Test
+    @DisplayName("When more keys than the bound are cached, then the local size stays bounded")
+    void whenMoreKeysThanBound_thenLocalSizeBounded() {
+        for (int i = 0; i < 1_000; i++) {
+            nodeA.get("SYM" + i, () -> "value");
+        }
+
+        assertTrue(nodeA.localSize() <= 100);
+    }
+
+    @Test
+    @DisplayName("When invalidation is encoded, then it decodes to the same message")
+    void whenInvalidationEncoded_thenDecodesToSameMessage() {
+        var keyed = new CacheInvalidation("stockData", "BRK|B", 42L, "node-1");
+        var clear = new CacheInvalidation("stockData", null, 43L, "node-1");
+
+        assertEquals(keyed, CacheInvalidation.decode(keyed.encode()));
+        assertEquals(clear, CacheInvalidation.decode(clear.encode()));
+    }
+}
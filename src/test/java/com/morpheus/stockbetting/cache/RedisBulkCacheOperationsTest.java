@@ -0,0 +1,94 @@
+package com.morpheus.stockbetting.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for RedisBulkCacheOperations using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisBulkCacheOperations Behavior")
+class RedisBulkCacheOperationsTest {
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    private RedisBulkCacheOperations bulkOperations;
+
+    @BeforeEach
+    void setUp() {
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        bulkOperations = new RedisBulkCacheOperations(connectionFactory,
+            Map.of("stockData", RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10))));
+    }
+
+    private static byte[] key(String key) {
+        return ("stockData::" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("When several keys are read, then fetch them with one MGET")
+    void whenSeveralKeysRead_thenOneMget() {
+        // Arrange
+        when(stringCommands.mGet(any(byte[][].class))).thenReturn(Arrays.asList(null, null));
+
+        // Act
+        var result = bulkOperations.getAll("stockData", List.of("AAPL", "MSFT"));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(stringCommands).mGet(aryEq(key("AAPL")), aryEq(key("MSFT")));
+    }
+
+    @Test
+    @DisplayName("When several entries are written, then pipeline them with the cache TTL")
+    void whenSeveralEntriesWritten_thenPipelineWithTtl() {
+        // Arrange
+        var entries = new LinkedHashMap<String, Object>();
+        entries.put("AAPL", "v1");
+        entries.put("MSFT", "v2");
+
+        // Act
+        bulkOperations.putAll("stockData", entries);
+
+        // Assert
+        InOrder inOrder = inOrder(connection, stringCommands);
+        inOrder.verify(connection).openPipeline();
+        inOrder.verify(stringCommands).set(aryEq(key("AAPL")), any(byte[].class),
+            eq(Expiration.from(Duration.ofMinutes(10))), eq(SetOption.upsert()));
+        inOrder.verify(stringCommands).set(aryEq(key("MSFT")), any(byte[].class),
+            eq(Expiration.from(Duration.ofMinutes(10))), eq(SetOption.upsert()));
+        inOrder.verify(connection).closePipeline();
+        verify(connection).close();
+    }
+}
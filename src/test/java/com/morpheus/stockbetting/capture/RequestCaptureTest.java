@@ -0,0 +1,175 @@
+package com.morpheus.stockbetting.capture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import com.morpheus.stockbetting.accesslog.AccessLog;
+import com.morpheus.stockbetting.accesslog.AccessLogProperties;
+import com.morpheus.stockbetting.middleware.RequestLoggingMiddleware;
+import com.morpheus.stockbetting.tracing.TraceStore;
+import com.morpheus.stockbetting.tracing.TracingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Unit tests for request capture using BDD style testing
+ */
+@DisplayName("RequestCapture Behavior")
+class RequestCaptureTest {
+
+    private static CapturedRequest captured(String path, String body) {
+        return new CapturedRequest(1_500, 1_700_000_000_000L, "POST", path, "application/json", true,
+            body.getBytes(StandardCharsets.UTF_8), 200, 12_345, 42, 0xCAFEBABE);
+    }
+
+    private static List<CapturedRequest> readAll(InputStream in) throws IOException {
+        CaptureCodec.readHeader(in);
+        var requests = new ArrayList<CapturedRequest>();
+        for (var request = CaptureCodec.read(in); request != null; request = CaptureCodec.read(in)) {
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    @Nested
+    @DisplayName("Format")
+    class Format {
+
+        @Test
+        @DisplayName("When a request is written and read back, then keep every field")
+        void whenRoundTrip_thenKeepEveryField() throws IOException {
+            // Arrange
+            var out = new ByteArrayOutputStream();
+            var request = captured("/api/stocks?symbols=AAPL", "{\"symbol\":\"AAPL\"}");
+
+            // Act
+            CaptureCodec.writeHeader(out, 1_700_000_000_000L);
+            CaptureCodec.write(out, request);
+            var read = readAll(new ByteArrayInputStream(out.toByteArray()));
+
+            // Assert
+            assertEquals(1, read.size());
+            var copy = read.get(0);
+            assertEquals(request.path(), copy.path());
+            assertArrayEquals(request.body(), copy.body());
+            assertEquals(request.durationMicros(), copy.durationMicros());
+            assertEquals(0xCAFEBABE, copy.responseCrc());
+            assertTrue(copy.authenticated());
+        }
+
+        @Test
+        @DisplayName("When the last frame is cut short, then end the file before it")
+        void whenLastFrameTruncated_thenEndBeforeIt() throws IOException {
+            // Arrange
+            var out = new ByteArrayOutputStream();
+            CaptureCodec.writeHeader(out, 0);
+            CaptureCodec.write(out, captured("/api/stocks/AAPL", ""));
+            CaptureCodec.write(out, captured("/api/stocks/MSFT", ""));
+            var bytes = out.toByteArray();
+
+            // Act
+            var read = readAll(new ByteArrayInputStream(bytes, 0, bytes.length - 3));
+
+            // Assert
+            assertEquals(List.of("/api/stocks/AAPL"), read.stream().map(CapturedRequest::path).toList());
+        }
+
+        @Test
+        @DisplayName("When a frame is corrupted, then fail on its checksum")
+        void whenFrameCorrupted_thenFailOnChecksum() throws IOException {
+            // Arrange
+            var out = new ByteArrayOutputStream();
+            CaptureCodec.writeHeader(out, 0);
+            CaptureCodec.write(out, captured("/api/stocks/AAPL", ""));
+            var bytes = out.toByteArray();
+            bytes[20] ^= 1;
+
+            // Act & Assert
+            var in = new ByteArrayInputStream(bytes);
+            CaptureCodec.readHeader(in);
+            assertThrows(IOException.class, () -> CaptureCodec.read(in));
+        }
+    }
+
+    @Test
+    @DisplayName("When a request carries credentials, then redact them")
+    void whenCredentials_thenRedact() {
+        // Arrange
+        var request = captured("/api/auth/reset?token=abc.def&lang=en",
+            "{\"username\":\"alice\",\"password\":\"s3cr\\\"et\",\"refreshToken\":\"xyz\"}");
+
+        // Act
+        var redacted = RequestCapture.redact(request);
+
+        // Assert
+        assertEquals("/api/auth/reset?token=REDACTED&lang=en", redacted.path());
+        assertEquals("{\"username\":\"alice\",\"password\":\"REDACTED\",\"refreshToken\":\"REDACTED\"}",
+            new String(redacted.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("When a sampled request completes, then write it with its status and response checksum")
+    void whenSampledRequestCompletes_thenWriteIt(@TempDir Path directory) throws Exception {
+        // Arrange
+        var meterRegistry = new SimpleMeterRegistry();
+        var capture = new RequestCapture(new CaptureProperties(true, 1, directory, 1024, DataSize.ofMegabytes(1),
+            16, Duration.ofMillis(10)), meterRegistry);
+        var middleware = new RequestLoggingMiddleware(
+            new AccessLog(new AccessLogProperties(false, 2, 0, Duration.ofSeconds(1), List.of(), Duration.ofMillis(10)),
+                meterRegistry),
+            new TraceStore(new TracingProperties(false, Duration.ZERO, 1, 1)), capture);
+        var request = new MockHttpServletRequest("POST", "/api/stocks/predict");
+        request.addHeader("Authorization", "Bearer secret-token");
+        request.setContentType("application/json");
+        request.setContent("{\"symbol\":\"AAPL\"}".getBytes(StandardCharsets.UTF_8));
+        var responseBody = "{\"direction\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+        capture.start();
+
+        // Act
+        middleware.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.getInputStream().readAllBytes();
+            ((HttpServletResponse) res).setStatus(201);
+            res.getOutputStream().write(responseBody);
+        });
+        middleware.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+            (req, res) -> { });
+        capture.stop();
+
+        // Assert
+        List<CapturedRequest> requests;
+        try (var files = Files.list(directory); var in = Files.newInputStream(files.findFirst().orElseThrow())) {
+            requests = readAll(in);
+        }
+        assertEquals(1, requests.size());
+        var captured = requests.get(0);
+        var crc = new CRC32();
+        crc.update(responseBody);
+        assertEquals("/api/stocks/predict", captured.path());
+        assertEquals("{\"symbol\":\"AAPL\"}", new String(captured.body(), StandardCharsets.UTF_8));
+        assertEquals(201, captured.status());
+        assertEquals(responseBody.length, captured.responseLength());
+        assertEquals((int) crc.getValue(), captured.responseCrc());
+        assertTrue(captured.authenticated());
+        assertEquals(1.0, meterRegistry.get("capture.written").functionCounter().count());
+    }
+}
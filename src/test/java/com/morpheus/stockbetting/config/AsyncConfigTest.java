@@ -0,0 +1,141 @@
+package com.morpheus.stockbetting.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the executors defined by AsyncConfig using BDD style testing
+ */
+@DisplayName("AsyncConfig Executors")
+class AsyncConfigTest {
+
+    private final AsyncConfig asyncConfig = new AsyncConfig();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorService ioExecutor;
+    private ExecutorService cpuExecutor;
+    private ExecutorService trainingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ioExecutor = asyncConfig.ioExecutor(meterRegistry);
+        cpuExecutor = asyncConfig.cpuExecutor(2, 4, meterRegistry);
+        trainingExecutor = asyncConfig.trainingExecutor(1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ioExecutor.shutdownNow();
+        cpuExecutor.shutdownNow();
+        trainingExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("When I/O task submitted, then run it on a virtual thread and count it as active")
+    void whenIoTaskSubmitted_thenRunOnVirtualThread() throws Exception {
+        // Arrange
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        // Act
+        var virtual = CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Thread.currentThread().isVirtual();
+        }, ioExecutor);
+        started.await();
+        double activeWhileRunning = meterRegistry.get("executor.active").tag("name", AsyncConfig.IO_EXECUTOR).gauge().value();
+        release.countDown();
+
+        // Assert
+        assertTrue(virtual.get());
+        assertEquals(1.0, activeWhileRunning);
+        // The task timer is recorded once the task returns, after the future has completed
+        ioExecutor.shutdown();
+        assertTrue(ioExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("executor").tag("name", AsyncConfig.IO_EXECUTOR).timer().count());
+    }
+
+    @Test
+    @DisplayName("When CPU queue is full, then run the task on the calling thread")
+    void whenCpuQueueFull_thenRunOnCallingThread() throws Exception {
+        // Arrange
+        var release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        for (int i = 0; i < 6; i++) {
+            cpuExecutor.execute(blocker);
+        }
+
+        // Act
+        var caller = Thread.currentThread();
+        var ranOn = new Thread[1];
+        cpuExecutor.execute(() -> ranOn[0] = Thread.currentThread());
+        double queued = meterRegistry.get("executor.queued").tag("name", AsyncConfig.CPU_EXECUTOR).gauge().value();
+        release.countDown();
+
+        // Assert
+        assertSame(caller, ranOn[0]);
+        assertEquals(4.0, queued);
+    }
+
+    @Test
+    @DisplayName("When training task submitted, then run it on a minimum priority platform thread")
+    void whenTrainingTaskSubmitted_thenRunAtMinimumPriority() throws Exception {
+        // Act
+        var thread = CompletableFuture.supplyAsync(Thread::currentThread, trainingExecutor).get();
+
+        // Assert
+        assertFalse(thread.isVirtual());
+        assertEquals(Thread.MIN_PRIORITY, thread.getPriority());
+        assertTrue(thread.getName().startsWith("training-"));
+    }
+
+    @Test
+    @DisplayName("When password hashing queue is full, then reject the task instead of running it on the caller")
+    void whenHashingQueueFull_thenReject() {
+        // Arrange
+        var hashingExecutor = asyncConfig.passwordHashingExecutor(1, 1, meterRegistry);
+        var release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            hashingExecutor.execute(blocker);
+            hashingExecutor.execute(blocker);
+
+            // Act & Assert
+            assertThrows(RejectedExecutionException.class, () -> hashingExecutor.execute(blocker));
+        } finally {
+            release.countDown();
+            hashingExecutor.shutdownNow();
+        }
+    }
+}
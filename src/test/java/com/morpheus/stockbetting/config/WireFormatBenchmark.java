@@ -0,0 +1,136 @@
+package com.morpheus.stockbetting.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.dto.response.OhlcvBar;
+import com.morpheus.stockbetting.dto.response.PredictionResponse;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Size and speed comparison between the CBOR and JSON bodies of the stock endpoints.
+ * Not part of the default test run, execute it explicitly with
+ * {@code ./mvnw test -Dtest=WireFormatBenchmark}.
+ */
+@DisplayName("Wire format benchmark")
+class WireFormatBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = new WebConfig(Runnable::run).cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json())
+        .getObjectMapper();
+
+    @Test
+    @DisplayName("Compare prediction responses")
+    void comparePredictionResponse() throws IOException {
+        var response = new PredictionResponse("UP", "BUY", 0.8731,
+            "Model predicts upward movement with 87.31% confidence based on open/high/low/close/volume features");
+
+        var cborResult = measure(cbor, response, null);
+        var jsonResult = measure(json, response, null);
+        print("prediction", cborResult, jsonResult);
+
+        assertSameContent(cborResult, jsonResult);
+        assertTrue(cborResult.bytes < jsonResult.bytes);
+    }
+
+    @ParameterizedTest(name = "{0} bars")
+    @ValueSource(ints = {1, 250, 2_500})
+    @DisplayName("Compare stock data lists")
+    void compareStockData(int count) throws IOException {
+        var bars = new ArrayList<StockData>(count);
+        var date = LocalDate.of(2015, 1, 2);
+        for (int i = 0; i < count; i++) {
+            var bar = new StockData();
+            bar.setId(1_000L + i);
+            bar.setSymbol("AAPL");
+            bar.setDate(date.plusDays(i).toString());
+            bar.setOpen(100 + i * 0.01);
+            bar.setHigh(101.25 + i * 0.01);
+            bar.setLow(99.25 + i * 0.01);
+            bar.setClose(100.5 + i * 0.01);
+            bar.setVolume(1_000_000L + i * 7919L % 250_000L);
+            bars.add(bar);
+        }
+
+        var type = new TypeReference<List<StockData>>() {};
+        var cborResult = measure(cbor, bars, type);
+        var jsonResult = measure(json, bars, type);
+        print(count + " stock data", cborResult, jsonResult);
+
+        assertSameContent(cborResult, jsonResult);
+        assertTrue(cborResult.bytes < jsonResult.bytes);
+    }
+
+    @Test
+    @DisplayName("Compare weekly bar lists")
+    void compareOhlcvBars() throws IOException {
+        var bars = new ArrayList<OhlcvBar>();
+        var week = LocalDate.of(2015, 1, 5);
+        for (int i = 0; i < 520; i++) {
+            bars.add(new OhlcvBar("AAPL", "1w", week.plusWeeks(i).toString(), week.plusWeeks(i).plusDays(6).toString(),
+                100 + i * 0.1, 103 + i * 0.1, 98 + i * 0.1, 101 + i * 0.1, 5_000_000L + i, 5));
+        }
+
+        var cborResult = measure(cbor, bars, new TypeReference<List<OhlcvBar>>() {});
+        var jsonResult = measure(json, bars, new TypeReference<List<OhlcvBar>>() {});
+        print("520 weekly bars", cborResult, jsonResult);
+
+        assertSameContent(cborResult, jsonResult);
+        assertTrue(cborResult.bytes < jsonResult.bytes);
+    }
+
+    private static <T> Result measure(ObjectMapper mapper, T value, TypeReference<T> type) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(value);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            bytes = mapper.writeValueAsBytes(value);
+            mapper.readTree(bytes);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            bytes = mapper.writeValueAsBytes(value);
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            if (type != null) {
+                mapper.readValue(bytes, type);
+            } else {
+                mapper.readTree(bytes);
+            }
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        return new Result(bytes, bytes.length,
+            encodeNanos / 1_000.0 / MEASURED_ROUNDS,
+            decodeNanos / 1_000.0 / MEASURED_ROUNDS);
+    }
+
+    private void assertSameContent(Result cborResult, Result jsonResult) throws IOException {
+        assertEquals(json.readTree(jsonResult.body), cbor.readTree(cborResult.body));
+    }
+
+    private static void print(String label, Result cbor, Result json) {
+        System.out.printf("%-16s | cbor %,9d B  enc %8.2f us  dec %8.2f us | json %,9d B  enc %8.2f us  dec %8.2f us%n",
+            label, cbor.bytes, cbor.encodeMicros, cbor.decodeMicros, json.bytes, json.encodeMicros, json.decodeMicros);
+    }
+
+    private record Result(byte[] body, int bytes, double encodeMicros, double decodeMicros) {}
+}
@@ -0,0 +1,238 @@
+package com.morpheus.stockbetting.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.morpheus.stockbetting.domain.entity.User;
+import com.morpheus.stockbetting.domain.repository.UserRepository;
+import com.morpheus.stockbetting.dto.request.SignUpRequest;
+import com.morpheus.stockbetting.middleware.ErrorHandlingMiddleware;
+import com.morpheus.stockbetting.security.RefreshTokenService;
+import com.morpheus.stockbetting.security.TokenRevocationStore;
+import com.morpheus.stockbetting.security.UserPrincipal;
+import com.morpheus.stockbetting.security.UsernameRegistry;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Unit tests for AuthController using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthController Behavior")
+class AuthControllerTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationStore revocationStore;
+
+    private UsernameRegistry usernameRegistry;
+    private AuthController authController;
+
+    @BeforeEach
+    void setUp() {
+        usernameRegistry = new UsernameRegistry(userRepository, Runnable::run, 1_000, 0.01, 100);
+        authController = new AuthController(authenticationManager, userRepository, passwordEncoder,
+            refreshTokenService, revocationStore, usernameRegistry, Runnable::run, Runnable::run, Duration.ofSeconds(1));
+    }
+
+    private static DataIntegrityViolationException violation(ConstraintKind kind, String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("could not execute statement", new SQLException("violation"),
+                kind, constraintName));
+    }
+
+    private void seed(String... usernames) {
+        when(userRepository.findAllUsernames(any(Pageable.class)))
+            .thenReturn(new SliceImpl<>(List.of(usernames)));
+        usernameRegistry.seedAsync();
+    }
+
+    @Nested
+    @DisplayName("Registration")
+    class Registration {
+
+        @Test
+        @DisplayName("When username is taken, then reject it before hashing the password")
+        void whenUsernameTaken_thenRejectWithoutHashing() {
+            // Arrange
+            seed("alice");
+            when(userRepository.existsByUsername("alice")).thenReturn(true);
+
+            // Act
+            var response = authController.register(new SignUpRequest("alice", "secret")).join();
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verifyNoInteractions(passwordEncoder);
+            verify(userRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("When username is known to be free, then register without an existence query")
+        void whenUsernameFree_thenSkipExistenceQuery() {
+            // Arrange
+            seed("alice");
+            when(passwordEncoder.encode("secret")).thenReturn("$2a$12$hash");
+
+            // Act
+            var response = authController.register(new SignUpRequest("bob", "secret")).join();
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            verify(userRepository, never()).existsByUsername(any());
+            verify(userRepository).save(any(User.class));
+            assertTrue(usernameRegistry.mightBeTaken("bob"));
+        }
+
+        @Test
+        @DisplayName("When the name was found taken before, then reject it again without a query")
+        void whenKnownTaken_thenRejectWithoutQuery() {
+            // Arrange
+            when(userRepository.existsByUsername("alice")).thenReturn(true);
+            authController.register(new SignUpRequest("alice", "secret")).join();
+
+            // Act
+            var response = authController.register(new SignUpRequest("alice", "secret")).join();
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verify(userRepository, times(1)).existsByUsername("alice");
+            verifyNoInteractions(passwordEncoder);
+        }
+
+        @Test
+        @DisplayName("When a concurrent signup took the name first, then report it as taken")
+        void whenUniqueConstraintViolated_thenReportTaken() {
+            // Arrange
+            when(userRepository.existsByUsername("carol")).thenReturn(false);
+            when(passwordEncoder.encode("secret")).thenReturn("$2a$12$hash");
+            when(userRepository.save(any(User.class)))
+                .thenThrow(violation(ConstraintKind.UNIQUE, User.USERNAME_CONSTRAINT));
+
+            // Act
+            var response = authController.register(new SignUpRequest("carol", "secret")).join();
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals("Username already taken", response.getBody().getMessage());
+            assertTrue(usernameRegistry.isKnownTaken("carol"));
+        }
+
+        @Test
+        @DisplayName("When a unique violation has a generated name, then report it as taken only if the name exists")
+        void whenUnnamedUniqueViolation_thenConfirmWithLookup() {
+            // Arrange
+            when(userRepository.existsByUsername("carol")).thenReturn(false, true);
+            when(passwordEncoder.encode("secret")).thenReturn("$2a$12$hash");
+            when(userRepository.save(any(User.class))).thenThrow(violation(ConstraintKind.UNIQUE, "ukr43af9ap4edm43mmtq01oddj6"));
+
+            // Act
+            var response = authController.register(new SignUpRequest("carol", "secret")).join();
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verify(userRepository, times(2)).existsByUsername("carol");
+        }
+
+        @Test
+        @DisplayName("When another integrity constraint fails, then do not report the name as taken")
+        void whenOtherConstraintViolated_thenPropagate() {
+            // Arrange
+            when(userRepository.existsByUsername("carol")).thenReturn(false);
+            when(passwordEncoder.encode("secret")).thenReturn("$2a$12$hash");
+            when(userRepository.save(any(User.class))).thenThrow(violation(ConstraintKind.OTHER, "users_roles_check"));
+
+            // Act & Assert
+            var failure = assertThrows(CompletionException.class,
+                () -> authController.register(new SignUpRequest("carol", "secret")).join());
+            assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+            assertFalse(usernameRegistry.isKnownTaken("carol"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Login")
+    class Login {
+
+        @Test
+        @DisplayName("When the password is wrong, then answer 401 with an error response")
+        void whenPasswordWrong_thenAnswerUnauthorizedJson() throws Exception {
+            // Arrange
+            when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+            var mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .addFilters(new ErrorHandlingMiddleware(Jackson2ObjectMapperBuilder.json().build()))
+                .build();
+            var result = mockMvc.perform(post("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"alice\",\"password\":\"wrong\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Act & Assert
+            mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(401))
+                .andExpect(jsonPath("$.message").value("Invalid username or password"));
+            verifyNoInteractions(refreshTokenService);
+        }
+    }
+
+    @Nested
+    @DisplayName("Logout")
+    class Logout {
+
+        @Test
+        @DisplayName("When the user logs out, then revoke every token up to their current version")
+        void whenLoggedOut_thenRevokeCurrentVersion() {
+            // Arrange
+            var principal = new UserPrincipal(7L, "alice", null, List.of("USER"), 3);
+
+            // Act
+            var response = authController.logout(principal);
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            verify(userRepository).incrementTokenVersion(7L);
+            verify(revocationStore).revoke(7L, 4);
+            verify(refreshTokenService).revokeAll(7L);
+        }
+    }
+}
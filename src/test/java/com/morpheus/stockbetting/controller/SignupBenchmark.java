@@ -0,0 +1,191 @@
+package com.morpheus.stockbetting.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.morpheus.stockbetting.domain.entity.User;
+import com.morpheus.stockbetting.domain.repository.UserRepository;
+import com.morpheus.stockbetting.dto.request.SignUpRequest;
+import com.morpheus.stockbetting.security.RefreshTokenService;
+import com.morpheus.stockbetting.security.TokenRevocationStore;
+import com.morpheus.stockbetting.security.UsernameRegistry;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Signup throughput of AuthController.register during a registration burst in which most
+ * requests ask for names that are already taken, with and without the username filter.
+ * The database is simulated with a fixed latency per query and a unique constraint on the name;
+ * passwords are hashed with BCrypt on a bounded executor, at strength 10 instead of the production
+ * 12 so that a run takes about a minute on a single core.
+ * Not part of the default test run, execute it explicitly with
+ * {@code ./mvnw test -Dtest=SignupBenchmark}.
+ */
+@DisplayName("Signup benchmark")
+class SignupBenchmark {
+
+    private static final int EXISTING_USERS = 100_000;
+    private static final int SIGNUPS = 2_000;
+    private static final double TAKEN_SHARE = 0.95;
+    private static final int BCRYPT_STRENGTH = 10;
+    private static final long QUERY_LATENCY_MICROS = 1_000;
+    private static final int HASHING_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    @Test
+    @DisplayName("Compare signup bursts with and without the username filter")
+    void compareSignupBurst() throws Exception {
+        var unfiltered = run(false);
+        var filtered = run(true);
+
+        System.out.printf("%-10s %10s %12s %10s %10s%n", "filter", "signups/s", "queries", "created", "taken");
+        print("off", unfiltered);
+        print("on", filtered);
+
+        assertEquals(unfiltered.created(), filtered.created());
+        assertEquals(unfiltered.taken(), filtered.taken());
+        assertTrue(filtered.queries() < unfiltered.queries());
+    }
+
+    @Test
+    @DisplayName("Concurrent signups for one name create exactly one user")
+    void concurrentSignupsForOneName() throws Exception {
+        var database = new SimulatedUsers();
+        try (var bench = new Bench(database, true)) {
+            var responses = new ArrayList<CompletableFuture<HttpStatus>>();
+            for (int i = 0; i < 16; i++) {
+                responses.add(CompletableFuture.supplyAsync(() -> bench.register("same-name"), bench.clients)
+                    .thenCompose(future -> future));
+            }
+
+            long created = responses.stream().map(CompletableFuture::join).filter(HttpStatus.OK::equals).count();
+            assertEquals(1, created);
+        }
+    }
+
+    private static Result run(boolean filter) throws Exception {
+        var database = new SimulatedUsers();
+        for (int i = 0; i < EXISTING_USERS; i++) {
+            database.usernames.add("user" + i);
+        }
+        try (var bench = new Bench(database, filter)) {
+            int takenCount = (int) (SIGNUPS * TAKEN_SHARE);
+            var requests = new ArrayList<String>(SIGNUPS);
+            for (int i = 0; i < SIGNUPS; i++) {
+                requests.add(i < takenCount ? "user" + (i * 37 % EXISTING_USERS) : "new" + i);
+            }
+            Collections.shuffle(requests, new Random(42));
+            database.queries.set(0);
+
+            long start = System.nanoTime();
+            var responses = requests.stream()
+                .map(username -> CompletableFuture.supplyAsync(() -> bench.register(username), bench.clients)
+                    .thenCompose(future -> future))
+                .toList();
+            var statuses = responses.stream().map(CompletableFuture::join).toList();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long created = statuses.stream().filter(HttpStatus.OK::equals).count();
+            return new Result(SIGNUPS / seconds, database.queries.get(), created, SIGNUPS - created);
+        }
+    }
+
+    private static void print(String name, Result result) {
+        System.out.printf("%-10s %10.0f %12d %10d %10d%n",
+            name, result.signupsPerSecond(), result.queries(), result.created(), result.taken());
+    }
+
+    private record Result(double signupsPerSecond, int queries, long created, long taken) {
+    }
+
+    /**
+     * AuthController wired to the simulated database and real executors.
+     */
+    private static final class Bench implements AutoCloseable {
+        private final ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        private final ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+        private final ExecutorService hashing = Executors.newFixedThreadPool(HASHING_THREADS);
+        private final AuthController controller;
+
+        Bench(SimulatedUsers database, boolean filter) {
+            var registry = new UsernameRegistry(database.repository, Runnable::run, EXISTING_USERS * 2L, 0.01, 10_000);
+            if (filter) {
+                registry.seedAsync();
+            }
+            controller = new AuthController(mock(AuthenticationManager.class), database.repository,
+                new BCryptPasswordEncoder(BCRYPT_STRENGTH), mock(RefreshTokenService.class), mock(TokenRevocationStore.class),
+                registry, hashing, io, Duration.ofSeconds(1));
+        }
+
+        CompletableFuture<HttpStatus> register(String username) {
+            return controller.register(new SignUpRequest(username, "correct horse battery staple"))
+                .thenApply(response -> HttpStatus.valueOf(response.getStatusCode().value()));
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            clients.shutdown();
+            io.shutdown();
+            hashing.shutdown();
+            hashing.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Users table with a unique username and a fixed latency per query.
+     */
+    private static final class SimulatedUsers {
+        private final Set<String> usernames = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger queries = new AtomicInteger();
+        private final UserRepository repository = mock(UserRepository.class);
+
+        SimulatedUsers() {
+            when(repository.existsByUsername(any())).thenAnswer(invocation -> {
+                query();
+                return usernames.contains(invocation.<String>getArgument(0));
+            });
+            when(repository.save(any(User.class))).thenAnswer(invocation -> {
+                query();
+                User user = invocation.getArgument(0);
+                if (!usernames.add(user.getUsername())) {
+                    throw new DataIntegrityViolationException("duplicate key value violates unique constraint",
+                        new ConstraintViolationException("duplicate key value violates unique constraint",
+                            new SQLException("unique_violation", "23505"), ConstraintKind.UNIQUE, User.USERNAME_CONSTRAINT));
+                }
+                return user;
+            });
+            when(repository.findAllUsernames(any(Pageable.class))).thenAnswer(invocation ->
+                new SliceImpl<>(List.copyOf(usernames), invocation.getArgument(0), false));
+        }
+
+        private void query() throws InterruptedException {
+            queries.incrementAndGet();
+            TimeUnit.MICROSECONDS.sleep(QUERY_LATENCY_MICROS);
+        }
+    }
+}
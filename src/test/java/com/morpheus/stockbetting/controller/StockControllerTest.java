@@ -0,0 +1,282 @@
+package com.morpheus.stockbetting.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.morpheus.stockbetting.admission.AdmissionControl;
+import com.morpheus.stockbetting.admission.AdmissionProperties;
+import com.morpheus.stockbetting.config.WebConfig;
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.dto.response.OhlcvBar;
+import com.morpheus.stockbetting.dto.response.PredictionResponse;
+import com.morpheus.stockbetting.middleware.ErrorHandlingMiddleware;
+import com.morpheus.stockbetting.service.HistoryExportService;
+import com.morpheus.stockbetting.service.MLService;
+import com.morpheus.stockbetting.service.RollupService;
+import com.morpheus.stockbetting.service.StockService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for StockController using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockController Behavior")
+class StockControllerTest {
+
+    private static final String BAR_JSON = """
+        {"id":7,"symbol":"AAPL","open":150.0,"high":155.0,"low":148.0,"close":152.0,"volume":1000000,"date":"2024-01-02"}
+        """;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private MLService mlService;
+
+    @Mock
+    private RollupService rollupService;
+
+    @Mock
+    private HistoryExportService historyExportService;
+
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = mockMvc(Map.of());
+    }
+
+    private MockMvc mockMvc(Map<String, AdmissionProperties.Limit> limits) {
+        var admissionControl = new AdmissionControl(new AdmissionProperties(Duration.ofSeconds(1), limits),
+            new SimpleMeterRegistry());
+        // Same converters as the application: JSON first, then the CBOR converter of WebConfig
+        return MockMvcBuilders.standaloneSetup(
+            new StockController(stockService, mlService, rollupService, historyExportService, admissionControl))
+            .setMessageConverters(
+                new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build()),
+                new WebConfig(Runnable::run).cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()))
+            .addFilters(new ErrorHandlingMiddleware(Jackson2ObjectMapperBuilder.json().build()))
+            .build();
+    }
+
+    private static StockData bar(String date) {
+        var bar = new StockData();
+        bar.setSymbol("AAPL");
+        bar.setOpen(150.0);
+        bar.setHigh(155.0);
+        bar.setLow(148.0);
+        bar.setClose(152.0);
+        bar.setVolume(1_000_000L);
+        bar.setDate(date);
+        return bar;
+    }
+
+    @Nested
+    @DisplayName("Saving Stock Data")
+    class SavingStockData {
+
+        @Test
+        @DisplayName("When the body carries an id, then insert a new row instead of overwriting that one")
+        void whenBodyHasId_thenInsertNewRow() throws Exception {
+            // Arrange
+            var idsSaved = new ArrayList<Long>();
+            when(stockService.saveStockDataAsync(any(StockData.class))).thenAnswer(invocation -> {
+                StockData bar = invocation.getArgument(0);
+                idsSaved.add(bar.getId());
+                // The repository assigns a fresh id to rows inserted without one
+                bar.setId(42L);
+                return CompletableFuture.completedFuture(bar);
+            });
+
+            // Act
+            var result = mockMvc.perform(post("/api/stocks").contentType(MediaType.APPLICATION_JSON).content(BAR_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(42));
+            assertEquals(Collections.singletonList(null), idsSaved);
+        }
+    }
+
+    @Nested
+    @DisplayName("Admission Control")
+    class AdmissionControlLimits {
+
+        @BeforeEach
+        void setUp() {
+            // One prediction at a time, one more may wait for 50 ms
+            mockMvc = mockMvc(Map.of(AdmissionControl.PREDICT,
+                new AdmissionProperties.Limit(1, 1, 1, 1, Duration.ofMillis(50), Duration.ofSeconds(10), 0.9)));
+            when(mlService.predict(anyString(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyLong()))
+                .thenReturn(new CompletableFuture<>());
+        }
+
+        private ResultActions predict() throws Exception {
+            return mockMvc.perform(post("/api/stocks/predict").contentType(MediaType.APPLICATION_JSON).content(BAR_JSON));
+        }
+
+        @Test
+        @DisplayName("When the limit and the queue are full, then answer 503 with Retry-After and a JSON error")
+        void whenLimitAndQueueFull_thenServiceUnavailable() throws Exception {
+            // Arrange
+            predict().andExpect(request().asyncStarted());
+            predict().andExpect(request().asyncStarted());
+
+            // Act & Assert
+            predict()
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.error").value("Service Overloaded"))
+                .andExpect(jsonPath("$.path").value("/api/stocks/predict"));
+        }
+
+        @Test
+        @DisplayName("When a queued request waits longer than the queue timeout, then answer 503 with Retry-After")
+        void whenQueuedTooLong_thenServiceUnavailable() throws Exception {
+            // Arrange
+            predict().andExpect(request().asyncStarted());
+            var queued = predict().andExpect(request().asyncStarted()).andReturn();
+
+            // Act & Assert
+            mockMvc.perform(asyncDispatch(queued))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Service Overloaded"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Content Negotiation")
+    class ContentNegotiation {
+
+        @Test
+        @DisplayName("When the body is CBOR, then bind it to the stock data and answer in CBOR")
+        void whenCborBody_thenBindAndAnswerCbor() throws Exception {
+            // Arrange
+            when(stockService.saveStockDataAsync(any(StockData.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+            var result = mockMvc.perform(post("/api/stocks")
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .accept(MediaType.APPLICATION_CBOR)
+                    .content(cbor.writeValueAsBytes(bar("2024-01-02"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Act
+            var response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+
+            // Assert
+            var saved = cbor.readValue(response.getContentAsByteArray(), StockData.class);
+            assertEquals("AAPL", saved.getSymbol());
+            assertEquals(152.0, saved.getClose());
+            assertEquals("2024-01-02", saved.getDate());
+            verify(stockService).saveStockDataAsync(argThat(bar -> bar.getVolume() == 1_000_000L));
+        }
+
+        @Test
+        @DisplayName("When CBOR is accepted, then answer predictions in CBOR")
+        void whenCborAccepted_thenAnswerPredictionInCbor() throws Exception {
+            // Arrange
+            when(mlService.predict("AAPL", 150.0, 155.0, 148.0, 152.0, 1_000_000L)).thenReturn(
+                CompletableFuture.completedFuture(new PredictionResponse("UP", "BUY", 0.87, "Upward movement")));
+            var result = mockMvc.perform(post("/api/stocks/predict")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.APPLICATION_CBOR)
+                    .content(BAR_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Act
+            var response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+
+            // Assert
+            var prediction = cbor.readTree(response.getContentAsByteArray());
+            assertEquals("UP", prediction.get("direction").asText());
+            assertEquals(0.87, prediction.get("confidence").asDouble());
+        }
+
+        @Test
+        @DisplayName("When CBOR is accepted, then answer bar lists in CBOR")
+        void whenCborAccepted_thenAnswerBarListsInCbor() throws Exception {
+            // Arrange
+            when(stockService.getStockDataAsync("AAPL"))
+                .thenReturn(CompletableFuture.completedFuture(List.of(bar("2024-01-02"), bar("2024-01-03"))));
+            when(rollupService.getBars("AAPL", "1w")).thenReturn(List.of(
+                new OhlcvBar("AAPL", "1w", "2024-01-01", "2024-01-05", 150.0, 155.0, 148.0, 152.0, 2_000_000L, 2)));
+            var result = mockMvc.perform(get("/api/stocks/AAPL").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Act
+            var history = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+            var bars = mockMvc.perform(get("/api/stocks/AAPL/bars").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+
+            // Assert
+            List<StockData> decoded = cbor.readValue(history.getContentAsByteArray(), new TypeReference<>() {});
+            assertEquals(List.of("2024-01-02", "2024-01-03"), decoded.stream().map(StockData::getDate).toList());
+            List<OhlcvBar> rollups = cbor.readValue(bars.getContentAsByteArray(), new TypeReference<>() {});
+            assertEquals(2, rollups.get(0).bars());
+        }
+
+        @Test
+        @DisplayName("When no format is requested, then answer in JSON")
+        void whenNoFormatRequested_thenAnswerJson() throws Exception {
+            // Arrange
+            when(rollupService.getBars("AAPL", "1w")).thenReturn(List.of(
+                new OhlcvBar("AAPL", "1w", "2024-01-01", "2024-01-05", 150.0, 155.0, 148.0, 152.0, 2_000_000L, 2)));
+
+            // Act & Assert
+            mockMvc.perform(get("/api/stocks/AAPL/bars"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].bars").value(2));
+        }
+    }
+}
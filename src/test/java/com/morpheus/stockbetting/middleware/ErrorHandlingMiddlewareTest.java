@@ -0,0 +1,258 @@
+package com.morpheus.stockbetting.middleware;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.morpheus.stockbetting.exception.ValidationException;
+import com.morpheus.stockbetting.ratelimit.RateLimitProperties;
+import com.morpheus.stockbetting.ratelimit.RateLimiter;
+import com.morpheus.stockbetting.security.RateLimitingFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for ErrorHandlingMiddleware using BDD style testing
+ */
+@DisplayName("ErrorHandlingMiddleware Behavior")
+class ErrorHandlingMiddlewareTest {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final long LARGE_BODY_SIZE = 64L * 1024 * 1024;
+
+    private ErrorHandlingMiddleware middleware;
+
+    @BeforeEach
+    void setUp() {
+        middleware = new ErrorHandlingMiddleware(Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/stocks/AAPL");
+    }
+
+    private void handle(HttpServletRequest request, HttpServletResponse response, HttpServlet servlet) throws Exception {
+        middleware.doFilter(request, response, new MockFilterChain(servlet));
+    }
+
+    @Nested
+    @DisplayName("Successful Responses")
+    class SuccessfulResponses {
+
+        @Test
+        @DisplayName("When a large body is streamed, then pass it through without buffering it")
+        void whenLargeBodyStreamed_thenMemoryStaysFlat() throws Exception {
+            // Arrange
+            var chunk = new byte[CHUNK_SIZE];
+            var streaming = new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                    var out = res.getOutputStream();
+                    for (long written = 0; written < LARGE_BODY_SIZE; written += chunk.length) {
+                        out.write(chunk);
+                    }
+                }
+            };
+            // Warm up so class loading and JIT do not count as allocations of the measured run
+            handle(request(), new DiscardingResponse(), streaming);
+            var response = new DiscardingResponse();
+            var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+            // Act
+            long before = threads.getCurrentThreadAllocatedBytes();
+            handle(request(), response, streaming);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            // Assert
+            assertEquals(LARGE_BODY_SIZE, response.written);
+            assertTrue(response.committedBeforeEnd, "body should reach the client while it is written");
+            assertTrue(allocated < 1024 * 1024, "allocated " + allocated + " bytes for a " + LARGE_BODY_SIZE + " byte body");
+        }
+
+        @Test
+        @DisplayName("When the handler writes its own error body, then keep it")
+        void whenHandlerWritesErrorBody_thenKeepIt() throws Exception {
+            // Arrange
+            var response = new MockHttpServletResponse();
+
+            // Act
+            handle(request(), response, new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                    res.setStatus(400);
+                    res.getWriter().write("{\"success\":false,\"message\":\"Username already taken\"}");
+                }
+            });
+
+            // Assert
+            assertEquals(400, response.getStatus());
+            assertEquals("{\"success\":false,\"message\":\"Username already taken\"}", response.getContentAsString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Errors")
+    class Errors {
+
+        @Test
+        @DisplayName("When the handler throws before writing, then answer with a JSON error")
+        void whenExceptionBeforeCommit_thenJsonError() throws Exception {
+            // Arrange
+            var response = new MockHttpServletResponse();
+
+            // Act
+            handle(request(), response, new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) {
+                    throw new ValidationException("Invalid symbol");
+                }
+            });
+
+            // Assert
+            assertEquals(400, response.getStatus());
+            assertTrue(response.getContentAsString().contains("\"message\":\"Invalid symbol\""));
+        }
+
+        @Test
+        @DisplayName("When the handler calls sendError, then answer with a JSON error instead of the container page")
+        void whenSendError_thenJsonError() throws Exception {
+            // Arrange
+            var response = new MockHttpServletResponse();
+
+            // Act
+            handle(request(), response, new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                    res.sendError(403, "Access Denied");
+                }
+            });
+
+            // Assert
+            assertEquals(403, response.getStatus());
+            assertNull(response.getErrorMessage());
+            assertTrue(response.getContentAsString().contains("\"error\":\"Forbidden\""));
+            assertTrue(response.getContentAsString().contains("\"message\":\"Access Denied\""));
+        }
+
+        @Test
+        @DisplayName("When the rate limiting filter rejects a request, then answer 429 with Retry-After")
+        void whenRateLimitExceeded_then429WithRetryAfter() throws Exception {
+            // Arrange - the client has to wait 1.5 seconds for its next token
+            var group = new RateLimitProperties.Group("stocks", List.of("/api/stocks/**"), 1, 1.0);
+            RateLimiter exhausted = new RateLimiter() {
+                @Override
+                public long tryAcquire(RateLimitProperties.Group g, String key) {
+                    return TimeUnit.MILLISECONDS.toNanos(1500);
+                }
+
+                @Override
+                public void evictIdle() {
+                }
+            };
+            var rateLimitingFilter = new RateLimitingFilter(exhausted,
+                new RateLimitProperties(RateLimitProperties.Mode.LOCAL, null, Duration.ofMinutes(1), List.of(group)),
+                new SimpleMeterRegistry());
+            var handler = new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) {
+                    fail("a rejected request should not reach the handler");
+                }
+            };
+            var response = new MockHttpServletResponse();
+
+            // Act
+            middleware.doFilter(request(), response, new MockFilterChain(handler, rateLimitingFilter));
+
+            // Assert
+            assertEquals(429, response.getStatus());
+            assertEquals("2", response.getHeader("Retry-After"));
+            assertTrue(response.getContentType().startsWith("application/json"));
+            assertTrue(response.getContentAsString().contains("\"error\":\"Too Many Requests\""));
+            assertTrue(response.getContentAsString().contains("\"message\":\"Rate limit of stocks requests exceeded\""));
+        }
+
+        @Test
+        @DisplayName("When the handler throws after the body was committed, then leave the body untouched")
+        void whenExceptionAfterCommit_thenLeaveBody() throws Exception {
+            // Arrange
+            var response = new MockHttpServletResponse();
+
+            // Act
+            handle(request(), response, new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                    res.getOutputStream().write("partial".getBytes(StandardCharsets.UTF_8));
+                    res.flushBuffer();
+                    throw new IllegalStateException("Stream broken");
+                }
+            });
+
+            // Assert
+            assertEquals(200, response.getStatus());
+            assertEquals("partial", response.getContentAsString());
+        }
+    }
+
+    /**
+     * Response counting the body bytes and discarding them, committed once its buffer is exceeded.
+     */
+    private static final class DiscardingResponse extends HttpServletResponseWrapper {
+        private long written;
+        private boolean committedBeforeEnd;
+
+        DiscardingResponse() {
+            super(new MockHttpServletResponse());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    written++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    written += len;
+                    committedBeforeEnd |= isCommitted() && written < LARGE_BODY_SIZE;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return written > getBufferSize();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.morpheus.stockbetting.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for RedisRateLimiter using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisRateLimiter Behavior")
+class RedisRateLimiterTest {
+
+    private static final RateLimitProperties.Group PREDICT =
+        new RateLimitProperties.Group("predict", List.of("/api/stocks/predict"), 20, 5);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private RedisRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RedisRateLimiter(redisTemplate, 10, Duration.ofMinutes(1), new LocalRateLimiter());
+    }
+
+    /**
+     * Matches any script with the raw List result type of the reservation script, so stubbing stays checked.
+     */
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> anyScript() {
+        return any();
+    }
+
+    private void whenReserved(Object... reply) {
+        when(redisTemplate.execute(anyScript(), eq(List.of("stockbetting:rate-limit:predict:user:1")),
+            any(), any(), any())).thenReturn(List.of(reply));
+    }
+
+    @Test
+    @DisplayName("When tokens are reserved, then serve the batch without further Redis calls")
+    void whenBatchReserved_thenServeLocally() {
+        // Arrange
+        whenReserved(10L, 0L);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(PREDICT, "user:1"));
+        }
+
+        // Assert
+        verify(redisTemplate, times(1)).execute(anyScript(), anyList(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("When the batch is used up, then reserve the next one")
+    void whenBatchUsedUp_thenReserveNext() {
+        // Arrange
+        whenReserved(2L, 0L);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(PREDICT, "user:1"));
+        }
+
+        // Assert
+        verify(redisTemplate, times(2)).execute(anyScript(), anyList(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("When Redis has no tokens left, then reject locally until the reported wait has passed")
+    void whenNoTokensLeft_thenRejectLocally() {
+        // Arrange
+        whenReserved(0L, 60_000L);
+
+        // Act
+        long first = rateLimiter.tryAcquire(PREDICT, "user:1");
+        long second = rateLimiter.tryAcquire(PREDICT, "user:1");
+
+        // Assert
+        assertTrue(first > TimeUnit.SECONDS.toNanos(59));
+        assertTrue(second > 0 && second <= first);
+        verify(redisTemplate, times(1)).execute(anyScript(), anyList(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("When Redis is unavailable, then fall back to the local budget")
+    void whenRedisUnavailable_thenUseLocalBudget() {
+        // Arrange
+        when(redisTemplate.execute(anyScript(), anyList(), any(), any(), any()))
+            .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        // Act
+        int allowed = 0;
+        while (rateLimiter.tryAcquire(PREDICT, "user:1") == 0) {
+            allowed++;
+        }
+
+        // Assert
+        assertEquals(PREDICT.capacity(), allowed);
+    }
+}
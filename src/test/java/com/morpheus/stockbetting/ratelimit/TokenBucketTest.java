@@ -0,0 +1,103 @@
+package com.morpheus.stockbetting.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for TokenBucket using BDD style testing
+ */
+@DisplayName("TokenBucket Behavior")
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("When burst fits the capacity, then allow every request")
+    void whenBurstWithinCapacity_thenAllowAll() {
+        // Arrange
+        var bucket = new TokenBucket(5, 1, 0);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+    }
+
+    @Test
+    @DisplayName("When capacity is used up, then reject with the time until the next token")
+    void whenCapacityUsedUp_thenRejectWithWait() {
+        // Arrange
+        var bucket = new TokenBucket(2, 2, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        // Act
+        long wait = bucket.tryAcquire(0);
+
+        // Assert
+        assertEquals(SECOND / 2, wait);
+        assertEquals(0, bucket.tryAcquire(wait));
+    }
+
+    @Test
+    @DisplayName("When idle long enough, then refill up to the capacity only")
+    void whenIdle_thenRefillUpToCapacity() {
+        // Arrange
+        var bucket = new TokenBucket(3, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        // Act
+        long now = 60 * SECOND;
+        int allowed = 0;
+        while (bucket.tryAcquire(now) == 0) {
+            allowed++;
+        }
+
+        // Assert
+        assertEquals(3, allowed);
+        assertFalse(bucket.isFull(now));
+        assertTrue(bucket.isFull(now + SECOND));
+    }
+
+    @Test
+    @DisplayName("When acquired concurrently, then never allow more than the capacity")
+    void whenAcquiredConcurrently_thenNeverExceedCapacity() throws Exception {
+        // Arrange
+        var bucket = new TokenBucket(1_000, 0.001, 0);
+        var allowed = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(1_000, allowed.get());
+    }
+}
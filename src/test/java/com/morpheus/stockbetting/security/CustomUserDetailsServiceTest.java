@@ -0,0 +1,86 @@
+package com.morpheus.stockbetting.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.morpheus.stockbetting.domain.entity.User;
+import com.morpheus.stockbetting.domain.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unit tests for CustomUserDetailsService using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomUserDetailsService Behavior")
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new CustomUserDetailsService(userRepository);
+    }
+
+    private static User user(long id, String username) {
+        var user = new User(username, "$2a$12$hash");
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+
+    @Test
+    @DisplayName("When user logs in, then return the principal with password hash, roles and token version")
+    void whenLoadedByUsername_thenPrincipalForLogin() {
+        // Arrange
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user(1, "alice")));
+
+        // Act
+        var principal = (UserPrincipal) userDetailsService.loadUserByUsername("alice");
+
+        // Assert
+        assertEquals(1L, principal.getId());
+        assertEquals("$2a$12$hash", principal.getPassword());
+        assertEquals(List.of("USER"), principal.getRoles());
+        assertEquals(0, principal.getTokenVersion());
+    }
+
+    @Test
+    @DisplayName("When user is deleted, then revoke every token issued to them and release the name")
+    void whenUserDeleted_thenRevokeTokens() {
+        // Arrange
+        var revocationStore = new InMemoryTokenRevocationStore(Duration.ofHours(1));
+        var usernameRegistry = new UsernameRegistry(userRepository, Runnable::run, 1_000, 0.01, 100);
+        usernameRegistry.add("alice");
+
+        // Act
+        new UserChangeListener(revocationStore, usernameRegistry).onRemove(user(1, "alice"));
+
+        // Assert
+        assertEquals(1, revocationStore.minimumVersion(1L));
+        assertFalse(usernameRegistry.isKnownTaken("alice"));
+    }
+
+    @Test
+    @DisplayName("When user does not exist, then throw UsernameNotFoundException")
+    void whenUserMissing_thenThrow() {
+        // Arrange
+        when(userRepository.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.morpheus.stockbetting.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Unit tests for JwtTokenProvider using BDD style testing
+ */
+@DisplayName("JwtTokenProvider Behavior")
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 60_000, 100);
+    }
+
+    private String tokenFor(long userId) {
+        var principal = new UserPrincipal(userId, "user" + userId, null, List.of("USER", "ADMIN"), 3);
+        return tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @Test
+    @DisplayName("When token is valid, then return the principal described by its claims")
+    void whenValidToken_thenReturnPrincipalFromClaims() {
+        // Arrange
+        var token = tokenFor(42);
+
+        // Act
+        var principal = tokenProvider.verify(token);
+
+        // Assert
+        assertEquals(42L, principal.getId());
+        assertEquals("user42", principal.getUsername());
+        assertNull(principal.getPassword());
+        assertEquals(List.of("USER", "ADMIN"), principal.getRoles());
+        assertEquals(3, principal.getTokenVersion());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"),
+            principal.getAuthorities().stream().map(Object::toString).toList());
+        assertSame(principal, tokenProvider.verify(token));
+    }
+
+    @Test
+    @DisplayName("When token has no username claim, then reject it as issued before claims were added")
+    void whenTokenWithoutClaims_thenReject() {
+        // Arrange
+        var legacy = Jwts.builder()
+            .setSubject("42")
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+
+        // Act & Assert
+        assertNull(tokenProvider.verify(legacy));
+    }
+
+    @Test
+    @DisplayName("When token signature is tampered, then reject it even after the original was cached")
+    void whenTamperedToken_thenReject() {
+        // Arrange
+        var token = tokenFor(42);
+        tokenProvider.verify(token);
+        var tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Act & Assert
+        assertNull(tokenProvider.verify(tampered));
+    }
+
+    @Test
+    @DisplayName("When token is signed with another key, then reject it")
+    void whenForeignKey_thenReject() {
+        // Arrange
+        var foreign = Jwts.builder()
+            .setSubject("42")
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8)))
+            .compact();
+
+        // Act & Assert
+        assertNull(tokenProvider.verify(foreign));
+    }
+
+    @Test
+    @DisplayName("When token has expired, then reject it")
+    void whenExpiredToken_thenReject() {
+        // Arrange
+        var expired = Jwts.builder()
+            .setSubject("42")
+            .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+
+        // Act & Assert
+        assertNull(tokenProvider.verify(expired));
+    }
+
+    @Test
+    @DisplayName("When header is malformed, then reject it")
+    void whenMalformedToken_thenReject() {
+        // Act & Assert
+        assertNull(tokenProvider.verify("not-a-token"));
+    }
+
+    @Test
+    @DisplayName("When verified cache is full, then keep it within its capacity")
+    void whenCacheFull_thenStayBounded() {
+        // Arrange
+        var cache = new VerifiedTokenCache(8);
+        long now = System.currentTimeMillis();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            cache.put(VerifiedTokenCache.key("token-" + i), new UserPrincipal((long) i, "user" + i, null),
+                now + 60_000, now);
+        }
+
+        // Assert
+        assertTrue(cache.size() <= 8);
+        assertEquals(99L, cache.get(VerifiedTokenCache.key("token-99"), now).getId());
+        assertNull(cache.get(VerifiedTokenCache.key("token-99"), now + 60_000));
+    }
+}
@@ -0,0 +1,152 @@
+package com.morpheus.stockbetting.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.morpheus.stockbetting.domain.entity.RefreshToken;
+import com.morpheus.stockbetting.domain.entity.User;
+import com.morpheus.stockbetting.domain.repository.RefreshTokenRepository;
+import com.morpheus.stockbetting.domain.repository.UserRepository;
+import com.morpheus.stockbetting.exception.AuthenticationFailedException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unit tests for RefreshTokenService using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Behavior")
+class RefreshTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-03T14:30:00Z");
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtTokenProvider tokenProvider;
+    private InMemoryTokenRevocationStore revocationStore;
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider("0123456789abcdef0123456789abcdef", 60_000, 100);
+        revocationStore = new InMemoryTokenRevocationStore(Duration.ofHours(1));
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, tokenProvider,
+            revocationStore, Duration.ofDays(30), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static User user(long id) {
+        var user = new User("alice", "$2a$12$hash");
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+
+    private RefreshToken stored(String token, Instant expiresAt, Instant usedAt) {
+        var stored = new RefreshToken(RefreshTokenService.hash(token), 1L, "family", expiresAt);
+        ReflectionTestUtils.setField(stored, "id", 10L);
+        ReflectionTestUtils.setField(stored, "usedAt", usedAt);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(token))).thenReturn(Optional.of(stored));
+        return stored;
+    }
+
+    @Test
+    @DisplayName("When tokens are issued, then store only the hash of the refresh token")
+    void whenIssued_thenStoreHashOnly() {
+        // Act
+        var tokens = refreshTokenService.issue(new UserPrincipal(1L, "alice", null, List.of("USER"), 0));
+
+        // Assert
+        var saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(RefreshTokenService.hash(tokens.refreshToken()), saved.getValue().getTokenHash());
+        assertNotEquals(tokens.refreshToken(), saved.getValue().getTokenHash());
+        assertEquals(NOW.plus(Duration.ofDays(30)), saved.getValue().getExpiresAt());
+        assertEquals(1L, tokenProvider.verify(tokens.accessToken()).getId());
+    }
+
+    @Test
+    @DisplayName("When an unused refresh token is presented, then rotate it within its family")
+    void whenUnusedToken_thenRotate() {
+        // Arrange
+        stored("refresh-1", NOW.plusSeconds(60), null);
+        when(refreshTokenRepository.markUsed(10L, NOW)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1)));
+
+        // Act
+        var tokens = refreshTokenService.refresh("refresh-1");
+
+        // Assert
+        var saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("family", saved.getValue().getFamilyId());
+        assertNotEquals("refresh-1", tokens.refreshToken());
+        assertEquals("alice", tokenProvider.verify(tokens.accessToken()).getUsername());
+    }
+
+    @Test
+    @DisplayName("When a used refresh token is presented again, then revoke its family and the user's tokens")
+    void whenReusedToken_thenRevokeFamilyAndAccessTokens() {
+        // Arrange
+        stored("refresh-1", NOW.plusSeconds(60), NOW.minusSeconds(5));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1)));
+
+        // Act & Assert
+        assertThrows(AuthenticationFailedException.class, () -> refreshTokenService.refresh("refresh-1"));
+        verify(refreshTokenRepository).deleteByFamilyId("family");
+        verify(userRepository).incrementTokenVersion(1L);
+        assertEquals(1, revocationStore.minimumVersion(1L));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("When a concurrent exchange used the token first, then treat it as reuse")
+    void whenLostRace_thenTreatAsReuse() {
+        // Arrange
+        stored("refresh-1", NOW.plusSeconds(60), null);
+        when(refreshTokenRepository.markUsed(10L, NOW)).thenReturn(0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1)));
+
+        // Act & Assert
+        assertThrows(AuthenticationFailedException.class, () -> refreshTokenService.refresh("refresh-1"));
+        verify(refreshTokenRepository).deleteByFamilyId("family");
+    }
+
+    @Test
+    @DisplayName("When the refresh token has expired, then reject it")
+    void whenExpiredToken_thenReject() {
+        // Arrange
+        stored("refresh-1", NOW, null);
+
+        // Act & Assert
+        assertThrows(AuthenticationFailedException.class, () -> refreshTokenService.refresh("refresh-1"));
+        verify(refreshTokenRepository, never()).markUsed(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("When the refresh token is unknown, then reject it")
+    void whenUnknownToken_thenReject() {
+        // Arrange
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(AuthenticationFailedException.class, () -> refreshTokenService.refresh("forged"));
+    }
+}
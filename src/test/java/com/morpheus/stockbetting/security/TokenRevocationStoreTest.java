@@ -0,0 +1,192 @@
+package com.morpheus.stockbetting.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for the token revocation stores using BDD style testing
+ */
+@DisplayName("TokenRevocationStore Behavior")
+class TokenRevocationStoreTest {
+
+    private static final Duration TOKEN_LIFETIME = Duration.ofHours(1);
+
+    private InMemoryTokenRevocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryTokenRevocationStore(TOKEN_LIFETIME);
+    }
+
+    @Nested
+    @DisplayName("In Memory")
+    class InMemory {
+
+        @Test
+        @DisplayName("When a user's tokens are revoked, then never lower the minimum version")
+        void whenRevoked_thenKeepHighestVersion() {
+            // Act
+            store.revoke(1L, 3);
+            store.revoke(1L, 2);
+
+            // Assert
+            assertEquals(3, store.minimumVersion(1L));
+            assertEquals(0, store.minimumVersion(2L));
+        }
+
+        @Test
+        @DisplayName("When a revocation is older than the token lifetime, then prune it")
+        void whenRevocationOutlivedTokens_thenPrune() {
+            // Arrange
+            long now = System.currentTimeMillis();
+            store.apply(1L, 2, now - TOKEN_LIFETIME.toMillis() - 1_000);
+            store.apply(2L, 2, now);
+
+            // Act
+            store.prune();
+
+            // Assert
+            assertEquals(0, store.minimumVersion(1L));
+            assertEquals(2, store.minimumVersion(2L));
+        }
+    }
+
+    @Nested
+    @DisplayName("Redis Replication")
+    class RedisReplication {
+
+        private StringRedisTemplate redisTemplate;
+        private RedisTokenRevocationStore redisStore;
+
+        @BeforeEach
+        void setUp() {
+            redisTemplate = mock(StringRedisTemplate.class);
+            redisStore = new RedisTokenRevocationStore(redisTemplate, mock(RedisMessageListenerContainer.class),
+                "revoked", "revocations", store);
+        }
+
+        @Test
+        @DisplayName("When tokens are revoked, then apply locally, store and broadcast the revocation")
+        void whenRevoked_thenApplyStoreAndBroadcast() {
+            // Act
+            redisStore.revoke(7L, 4);
+
+            // Assert
+            assertEquals(4, redisStore.minimumVersion(7L));
+            verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of("revoked")),
+                eq("7"), eq("4"), any());
+            verify(redisTemplate).convertAndSend(eq("revocations"), startsWith("7=4:"));
+        }
+
+        @Test
+        @DisplayName("When another instance broadcasts a revocation, then apply it to the replica")
+        void whenRevocationReceived_thenApplyToReplica() {
+            // Arrange
+            var body = ("7=5:" + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+
+            // Act
+            redisStore.onMessage(new DefaultMessage("revocations".getBytes(StandardCharsets.UTF_8), body), null);
+            redisStore.onMessage(new DefaultMessage("revocations".getBytes(StandardCharsets.UTF_8),
+                "garbage".getBytes(StandardCharsets.UTF_8)), null);
+
+            // Assert
+            assertEquals(5, redisStore.minimumVersion(7L));
+        }
+
+        @Test
+        @DisplayName("When the subscription is established, then reload revocations and drop expired ones")
+        @SuppressWarnings("unchecked")
+        void whenSubscribed_thenReloadAndDropExpired() {
+            // Arrange
+            HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+            when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hash);
+            long now = System.currentTimeMillis();
+            when(hash.entries("revoked")).thenReturn(Map.of(
+                "7", "2:" + now,
+                "8", "9:" + (now - TOKEN_LIFETIME.toMillis() - 1_000)));
+
+            // Act
+            redisStore.onChannelSubscribed("revocations".getBytes(StandardCharsets.UTF_8), 1);
+
+            // Assert
+            assertEquals(2, redisStore.minimumVersion(7L));
+            assertEquals(0, redisStore.minimumVersion(8L));
+            verify(hash).delete("revoked", "8");
+        }
+    }
+
+    @Nested
+    @DisplayName("Authentication Filter")
+    class AuthenticationFilter {
+
+        private JwtTokenProvider tokenProvider;
+        private JwtAuthenticationFilter filter;
+        private SimpleMeterRegistry meterRegistry;
+
+        @BeforeEach
+        void setUp() {
+            tokenProvider = new JwtTokenProvider("0123456789abcdef0123456789abcdef", 60_000, 100);
+            meterRegistry = new SimpleMeterRegistry();
+            filter = new JwtAuthenticationFilter(tokenProvider, store, meterRegistry);
+            SecurityContextHolder.clearContext();
+        }
+
+        private Object authenticate(String token) throws Exception {
+            var request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer " + token);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            SecurityContextHolder.clearContext();
+            return authentication == null ? null : authentication.getPrincipal();
+        }
+
+        private String tokenFor(int tokenVersion) {
+            var principal = new UserPrincipal(1L, "alice", null, List.of("USER"), tokenVersion);
+            return tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        }
+
+        @Test
+        @DisplayName("When the token version was revoked, then continue unauthenticated")
+        void whenTokenRevoked_thenContinueUnauthenticated() throws Exception {
+            // Arrange
+            var oldToken = tokenFor(0);
+            var newToken = tokenFor(1);
+            assertNotNull(authenticate(oldToken));
+
+            // Act
+            store.revoke(1L, 1);
+
+            // Assert
+            assertNull(authenticate(oldToken));
+            var principal = (UserPrincipal) authenticate(newToken);
+            assertEquals("alice", principal.getUsername());
+            assertEquals(List.of("USER"), principal.getRoles());
+            assertEquals(1, meterRegistry.get("security.jwt.filter").tag("outcome", "rejected").timer().count());
+            assertEquals(2, meterRegistry.get("security.jwt.filter").tag("outcome", "authenticated").timer().count());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.morpheus.stockbetting.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import com.morpheus.stockbetting.domain.repository.UserRepository;
+
+import java.util.List;
+
+/**
+ * Unit tests for UsernameRegistry using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UsernameRegistry Behavior")
+class UsernameRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UsernameRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new UsernameRegistry(userRepository, Runnable::run, 1_000, 0.01, 2);
+    }
+
+    @Nested
+    @DisplayName("Seeding")
+    class Seeding {
+
+        @Test
+        @DisplayName("When not seeded yet, then report every name as possibly taken")
+        void whenNotSeeded_thenPossiblyTaken() {
+            // Act & Assert
+            assertFalse(registry.isSeeded());
+            assertTrue(registry.mightBeTaken("alice"));
+        }
+
+        @Test
+        @DisplayName("When seeded, then load every page of usernames")
+        void whenSeeded_thenLoadAllPages() {
+            // Arrange
+            when(userRepository.findAllUsernames(any(Pageable.class))).thenAnswer(invocation -> {
+                Pageable page = invocation.getArgument(0);
+                return page.getPageNumber() == 0
+                    ? new SliceImpl<>(List.of("alice", "bob"), page, true)
+                    : new SliceImpl<>(List.of("carol"), page, false);
+            });
+
+            // Act
+            registry.seedAsync();
+
+            // Assert
+            assertTrue(registry.isSeeded());
+            assertTrue(registry.mightBeTaken("alice"));
+            assertTrue(registry.mightBeTaken("carol"));
+            assertFalse(registry.mightBeTaken("mallory"));
+            verify(userRepository, times(2)).findAllUsernames(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("When the database cannot be read, then keep asking the database")
+        void whenSeedFails_thenStayUnseeded() {
+            // Arrange
+            when(userRepository.findAllUsernames(any(Pageable.class)))
+                .thenThrow(new IllegalStateException("Connection refused"));
+
+            // Act
+            registry.seedAsync();
+
+            // Assert
+            assertFalse(registry.isSeeded());
+            assertTrue(registry.mightBeTaken("mallory"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Bloom Filter")
+    class BloomFilter {
+
+        @Test
+        @DisplayName("When names were added, then never report them as free")
+        void whenAdded_thenNoFalseNegatives() {
+            // Arrange
+            var filter = new UsernameBloomFilter(10_000, 0.01);
+
+            // Act
+            for (int i = 0; i < 10_000; i++) {
+                filter.add("user" + i);
+            }
+
+            // Assert
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(filter.mightContain("user" + i));
+            }
+        }
+
+        @Test
+        @DisplayName("When filled to the expected size, then stay close to the configured false positive rate")
+        void whenFull_thenFalsePositiveRateBounded() {
+            // Arrange
+            var filter = new UsernameBloomFilter(10_000, 0.01);
+            for (int i = 0; i < 10_000; i++) {
+                filter.add("user" + i);
+            }
+
+            // Act
+            int falsePositives = 0;
+            for (int i = 0; i < 100_000; i++) {
+                if (filter.mightContain("free" + i)) {
+                    falsePositives++;
+                }
+            }
+
+            // Assert
+            assertEquals(7, filter.hashCount());
+            assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        }
+    }
+
+    @Test
+    @DisplayName("When a name is registered after seeding, then report it as possibly taken")
+    void whenAddedAfterSeeding_thenPossiblyTaken() {
+        // Arrange
+        when(userRepository.findAllUsernames(any(Pageable.class)))
+            .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        registry.seedAsync();
+
+        // Act
+        registry.add("dave");
+
+        // Assert
+        assertTrue(registry.mightBeTaken("dave"));
+        assertFalse(registry.mightBeTaken("erin"));
+    }
+
+    @Test
+    @DisplayName("When names are confirmed taken, then remember the most recently requested ones exactly")
+    void whenConfirmedTaken_thenKnownTakenWithinBound() {
+        // Arrange
+        registry.add("alice");
+        registry.add("bob");
+        registry.isKnownTaken("alice");
+
+        // Act
+        registry.add("carol");
+
+        // Assert
+        assertTrue(registry.isKnownTaken("alice"));
+        assertFalse(registry.isKnownTaken("bob"));
+        assertTrue(registry.isKnownTaken("carol"));
+        assertFalse(registry.isKnownTaken("dave"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("When a name is released, then no longer reject it")
+    void whenRemoved_thenNotKnownTaken() {
+        // Arrange
+        registry.add("alice");
+
+        // Act
+        registry.remove("alice");
+
+        // Assert
+        assertFalse(registry.isKnownTaken("alice"));
+    }
+}
@@ -0,0 +1,191 @@
+package com.morpheus.stockbetting.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.morpheus.stockbetting.exception.ValidationException;
+import com.morpheus.stockbetting.service.impl.ColumnarHistoryExportService.BarSource;
+import com.morpheus.stockbetting.store.BarArchive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Unit tests for ColumnarHistoryExportService using BDD style testing
+ */
+@DisplayName("ColumnarHistoryExportService Behavior")
+public class ColumnarHistoryExportServiceTest {
+
+    private static final int ROWS = ColumnarHistoryExportService.CHUNK_ROWS * 2 + 100;
+    private static final int FIRST_DAY = (int) LocalDate.of(2010, 1, 1).toEpochDay();
+
+    private ColumnarHistoryExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ColumnarHistoryExportService(mock(DataSource.class),
+            mock(PlatformTransactionManager.class), mock(BarArchive.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportService.cleanup();
+    }
+
+    private static final BarSource SOURCE = visitor -> {
+        for (int i = 0; i < ROWS; i++) {
+            visitor.visit(i + 1, FIRST_DAY + i, i + 0.5, i + 1.0, i - 0.25, i + 0.75, i * 100L);
+        }
+    };
+
+    @Test
+    @DisplayName("When history is exported as Arrow, then every row arrives in fixed-size batches")
+    void whenExportedAsArrow_thenRowsArriveInBatches() throws IOException {
+        // Arrange
+        var out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.writeArrow("AAPL", SOURCE, out);
+
+        // Assert
+        var batchSizes = new ArrayList<Integer>();
+        int row = 0;
+        try (var allocator = new RootAllocator();
+             var reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            var root = reader.getVectorSchemaRoot();
+            assertEquals("AAPL", root.getSchema().getCustomMetadata().get("symbol"));
+            while (reader.loadNextBatch()) {
+                batchSizes.add(root.getRowCount());
+                var ids = (BigIntVector) root.getVector("id");
+                var dates = (DateDayVector) root.getVector("date");
+                var closes = (Float8Vector) root.getVector("close");
+                var volumes = (BigIntVector) root.getVector("volume");
+                for (int i = 0; i < root.getRowCount(); i++, row++) {
+                    assertEquals(row + 1, ids.get(i));
+                    assertEquals(FIRST_DAY + row, dates.get(i));
+                    assertEquals(row + 0.75, closes.get(i));
+                    assertEquals(row * 100L, volumes.get(i));
+                }
+            }
+        }
+        int chunk = ColumnarHistoryExportService.CHUNK_ROWS;
+        assertEquals(List.of(chunk, chunk, 100), batchSizes);
+    }
+
+    @Test
+    @DisplayName("When history is exported as Parquet, then the file holds every row")
+    void whenExportedAsParquet_thenFileHoldsEveryRow() throws IOException {
+        // Arrange
+        var out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.writeParquet("AAPL", SOURCE, out);
+
+        // Assert
+        int row = 0;
+        try (var reader = ParquetFileReader.open(new BytesInputFile(out.toByteArray()))) {
+            var metadata = reader.getFooter().getFileMetaData();
+            assertEquals("AAPL", metadata.getKeyValueMetaData().get("symbol"));
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                var records = new ColumnIOFactory().getColumnIO(metadata.getSchema())
+                    .getRecordReader(pages, new GroupRecordConverter(metadata.getSchema()));
+                for (long i = 0; i < pages.getRowCount(); i++, row++) {
+                    Group group = records.read();
+                    assertEquals(row + 1, group.getLong("id", 0));
+                    assertEquals(FIRST_DAY + row, group.getInteger("date", 0));
+                    assertEquals(row + 0.5, group.getDouble("open", 0));
+                    assertEquals(row * 100L, group.getLong("volume", 0));
+                }
+            }
+        }
+        assertEquals(ROWS, row);
+    }
+
+    @Test
+    @DisplayName("When dates are parsed, then malformed dates are rejected")
+    void whenDatesParsed_thenMalformedRejected() {
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), ColumnarHistoryExportService.epochDay("2024-02-29"));
+        assertEquals(Integer.MIN_VALUE, ColumnarHistoryExportService.epochDay("2023-02-29"));
+        assertEquals(Integer.MIN_VALUE, ColumnarHistoryExportService.epochDay("2024/01/01"));
+        assertEquals(Integer.MIN_VALUE, ColumnarHistoryExportService.epochDay("2024-1-01x"));
+        assertEquals(Integer.MIN_VALUE, ColumnarHistoryExportService.epochDay(null));
+    }
+
+    @Test
+    @DisplayName("When date range is invalid, then throw ValidationException before streaming")
+    void whenRangeInvalid_thenThrowValidationException() {
+        assertThrows(ValidationException.class, () -> exportService.exportArrow("AAPL", "2024-02-01", "2024-01-01"));
+        assertThrows(ValidationException.class, () -> exportService.exportParquet("AAPL", "yesterday", null));
+    }
+
+    private record BytesInputFile(byte[] data) implements InputFile {
+        @Override
+        public long getLength() {
+            return data.length;
+        }
+
+        @Override
+        public SeekableInputStream newStream() {
+            var in = new ByteArrayInputStream(data);
+            return new DelegatingSeekableInputStream(in) {
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void seek(long newPos) {
+                    in.reset();
+                    in.skip(newPos);
+                    position = newPos;
+                }
+
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        position++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) {
+                        position += n;
+                    }
+                    return n;
+                }
+            };
+        }
+    }
+}
@@ -9,14 +9,31 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 import com.morpheus.stockbetting.domain.entity.StockData;
 import com.morpheus.stockbetting.domain.repository.StockRepository;
+import com.morpheus.stockbetting.exception.ValidationException;
+import com.morpheus.stockbetting.service.RollupService;
+import com.morpheus.stockbetting.store.BarArchive;
+import com.morpheus.stockbetting.store.BarArchive.BarVisitor;
+import com.morpheus.stockbetting.store.BarSeries;
+import com.morpheus.stockbetting.store.OffHeapBarStore;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Unit tests for DefaultStockService implementation using BDD style testing
@@ -28,6 +45,24 @@ public class DefaultStockServiceTest {
     @Mock
     private StockRepository stockRepository;
 
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager("stockData");
+
+    @Mock
+    private RollupService rollupService;
+
+    @Mock
+    private OffHeapBarStore barStore;
+
+    @Mock
+    private BarArchive barArchive;
+
+    @Spy
+    private Executor ioExecutor = new SimpleAsyncTaskExecutor();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private DefaultStockService stockService;
 
@@ -78,6 +113,8 @@ public class DefaultStockServiceTest {
         assertEquals(testStockData.getSymbol(), savedData.getSymbol());
         assertEquals(testStockData.getOpen(), savedData.getOpen());
         verify(stockRepository).save(testStockData);
+        verify(barStore).append(testStockData);
+        verify(rollupService).apply(testStockData);
     }
 
     @Test
@@ -105,4 +142,176 @@ public class DefaultStockServiceTest {
             stockService.saveStockDataAsync(null));
         verify(stockRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    private static StockData bar(String symbol, String date) {
+        var bar = new StockData();
+        bar.setSymbol(symbol);
+        bar.setDate(date);
+        return bar;
+    }
+
+    @Test
+    @DisplayName("When several symbols requested, then uncached ones are loaded with one query")
+    void whenSeveralSymbols_thenUncachedLoadedWithOneQuery() {
+        // Arrange
+        when(stockRepository.findBySymbol("AAPL")).thenReturn(List.of(bar("AAPL", "2024-01-02")));
+        stockService.getStockDataAsync("AAPL").join();
+        when(stockRepository.findBySymbolIn(Set.of("MSFT", "TSLA")))
+            .thenReturn(List.of(bar("MSFT", "2024-01-02"), bar("MSFT", "2024-01-03")));
+
+        // Act
+        Map<String, List<StockData>> result =
+            stockService.getStockDataAsync(List.of("MSFT", "AAPL", "TSLA"), null).join();
+
+        // Assert
+        assertEquals(List.of("MSFT", "AAPL", "TSLA"), List.copyOf(result.keySet()));
+        assertEquals(2, result.get("MSFT").size());
+        assertEquals(1, result.get("AAPL").size());
+        assertTrue(result.get("TSLA").isEmpty());
+        verify(stockRepository).findBySymbolIn(Set.of("MSFT", "TSLA"));
+    }
+
+    @Test
+    @DisplayName("When start date provided, then older bars are filtered out")
+    void whenStartDateProvided_thenOlderBarsFilteredOut() {
+        // Arrange
+        when(stockRepository.findBySymbolIn(Set.of("AAPL")))
+            .thenReturn(List.of(bar("AAPL", "2023-12-29"), bar("AAPL", "2024-01-02")));
+
+        // Act
+        var result = stockService.getStockDataAsync(List.of("AAPL"), "2024-01-01").join();
+
+        // Assert
+        assertEquals(1, result.get("AAPL").size());
+        assertEquals("2024-01-02", result.get("AAPL").get(0).getDate());
+    }
+
+    @Test
+    @DisplayName("When no symbols or a malformed date provided, then throw ValidationException")
+    void whenInvalidMultiSymbolRequest_thenThrowValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> stockService.getStockDataAsync(List.of(" "), null));
+        assertThrows(ValidationException.class, () -> stockService.getStockDataAsync(List.of("AAPL"), "01/02/2024"));
+        verifyNoInteractions(stockRepository);
+    }
+
+    private static StockData bar(long id, String date) {
+        var bar = bar("AAPL", date);
+        bar.setId(id);
+        return bar;
+    }
+
+    private void archive(LocalDate from, LocalDate to, StockData... bars) {
+        doAnswer(invocation -> {
+            BarSeries.of(List.of(bars)).forEach(invocation.getArgument(3, BarVisitor.class));
+            return null;
+        }).when(barArchive).scan(eq("AAPL"), eq(from), eq(to), any());
+    }
+
+    @Test
+    @DisplayName("When date range requested, then database and archived bars are merged once in date order")
+    void whenDateRangeRequested_thenTiersMergedInDateOrder() {
+        // Arrange - bar 2 is in both tiers while it is being archived
+        when(stockRepository.findBySymbol("AAPL"))
+            .thenReturn(List.of(bar(4, "2024-03-05"), bar(2, "2024-01-10"), bar(3, "2024-02-01")));
+        archive(LocalDate.of(2023, 6, 1), LocalDate.of(2024, 2, 29), bar(1, "2023-12-01"), bar(2, "2024-01-10"));
+
+        // Act
+        List<StockData> result = stockService.getStockDataAsync("AAPL", "2023-06-01", "2024-02-29").join();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), result.stream().map(StockData::getId).toList());
+    }
+
+    @Test
+    @DisplayName("When several symbols requested since a date, then archived bars after it are merged once in date order")
+    void whenSeveralSymbolsSinceDate_thenArchivedBarsMerged() {
+        // Arrange - bar 2 is in both tiers while it is being archived
+        when(stockRepository.findBySymbolIn(Set.of("AAPL")))
+            .thenReturn(List.of(bar(3, "2024-02-01"), bar(2, "2024-01-10")));
+        archive(LocalDate.of(2023, 6, 1), null, bar(1, "2023-12-01"), bar(2, "2024-01-10"));
+
+        // Act
+        var result = stockService.getStockDataAsync(List.of("AAPL"), "2023-06-01").join();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), result.get("AAPL").stream().map(StockData::getId).toList());
+        assertEquals("AAPL", result.get("AAPL").get(0).getSymbol());
+    }
+
+    @Test
+    @DisplayName("When bars of a hot symbol are requested as columns, then return a view of the hot series")
+    void whenHotSeriesRequested_thenReturnViewWithoutEntities() {
+        // Arrange
+        var hot = BarSeries.of(List.of(bar(1, "2024-01-02"), bar(2, "2024-01-03"), bar(3, "2024-01-04")));
+        when(barStore.get("AAPL")).thenReturn(hot);
+
+        // Act
+        BarSeries result = stockService.getBarSeriesAsync("AAPL", "2024-01-03", null).join();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2L, result.id(0));
+        assertEquals(LocalDate.of(2024, 1, 4).toEpochDay(), result.epochDay(1));
+        verifyNoInteractions(stockRepository);
+    }
+
+    @Test
+    @DisplayName("When bars of a cold symbol are requested as columns, then merge database and archive in date order")
+    void whenColdSeriesRequested_thenTiersMergedInDateOrder() {
+        // Arrange - the store declines the history, bar 2 is in both tiers while it is being archived
+        when(stockRepository.findBySymbol("AAPL"))
+            .thenReturn(List.of(bar(3, "2024-02-01"), bar(2, "2024-01-10")));
+        archive(null, null, bar(1, "2023-12-01"), bar(2, "2024-01-10"));
+
+        // Act
+        BarSeries result = stockService.getBarSeriesAsync("AAPL", null, null).join();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), result.toStockData("AAPL").stream().map(StockData::getId).toList());
+        verify(barStore).load(eq("AAPL"), anyList(), anyLong());
+    }
+
+    @Test
+    @DisplayName("When history is loaded from the database, then return it in date order on every read")
+    void whenHistoryLoadedFromDatabase_thenReturnInDateOrder() {
+        // Arrange
+        when(stockRepository.findBySymbol("AAPL"))
+            .thenReturn(List.of(bar(3, "2024-02-01"), bar(1, "2023-12-01"), bar(2, "2024-01-10")));
+
+        // Act
+        List<StockData> first = stockService.getStockDataAsync("AAPL").join();
+        List<StockData> cached = stockService.getStockDataAsync("AAPL").join();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), first.stream().map(StockData::getId).toList());
+        assertEquals(List.of(1L, 2L, 3L), cached.stream().map(StockData::getId).toList());
+        verify(stockRepository, times(1)).findBySymbol("AAPL");
+    }
+
+    @Test
+    @DisplayName("When date range is reversed, then throw ValidationException")
+    void whenDateRangeReversed_thenThrowValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> stockService.getStockDataAsync("AAPL", "2024-02-01", "2024-01-01"));
+        verifyNoInteractions(stockRepository, barArchive);
+    }
+
+    @Test
+    @DisplayName("When data is saved, then time the queue wait and the execution of the save")
+    void whenSaved_thenRecordStageTimers() {
+        // Arrange
+        when(stockRepository.save(any(StockData.class))).thenReturn(testStockData);
+
+        // Act
+        stockService.saveStockDataAsync(testStockData).join();
+
+        // Assert
+        for (String stage : List.of("queue", "run")) {
+            assertEquals(1, meterRegistry.get("stock.service.stage")
+                .tag("operation", "save").tag("stage", stage).timer().count());
+        }
+        assertEquals(0, meterRegistry.get("stock.service.stage")
+            .tag("operation", "history").tag("stage", "run").timer().count());
+    }
+}
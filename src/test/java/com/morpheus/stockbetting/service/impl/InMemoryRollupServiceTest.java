@@ -0,0 +1,311 @@
+package com.morpheus.stockbetting.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.morpheus.stockbetting.cache.CacheInvalidation;
+import com.morpheus.stockbetting.cache.LocalCacheInvalidationBus;
+import com.morpheus.stockbetting.cache.NearCacheManager;
+import com.morpheus.stockbetting.config.RedisConfig;
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.domain.repository.StockRepository;
+import com.morpheus.stockbetting.dto.response.OhlcvBar;
+import com.morpheus.stockbetting.exception.ValidationException;
+import com.morpheus.stockbetting.service.RollupInterval;
+import com.morpheus.stockbetting.store.BarArchive;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for InMemoryRollupService using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InMemoryRollupService Behavior")
+public class InMemoryRollupServiceTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private BarArchive barArchive;
+
+    private ExecutorService executor;
+
+    private LocalCacheInvalidationBus bus;
+
+    private InMemoryRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        bus = new LocalCacheInvalidationBus();
+        rollupService = new InMemoryRollupService(stockRepository, barArchive, List.of("1w", "1M", "3d"), false,
+            executor, nearCacheManager(bus));
+    }
+
+    private static NearCacheManager nearCacheManager(LocalCacheInvalidationBus bus) {
+        return new NearCacheManager(new ConcurrentMapCacheManager(RedisConfig.STOCK_DATA_CACHE), bus, null,
+            100, Duration.ofMinutes(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static StockData bar(long id, String date, double open, double high, double low, double close, long volume) {
+        var bar = new StockData();
+        bar.setId(id);
+        bar.setSymbol("AAPL");
+        bar.setDate(date);
+        bar.setOpen(open);
+        bar.setHigh(high);
+        bar.setLow(low);
+        bar.setClose(close);
+        bar.setVolume(volume);
+        return bar;
+    }
+
+    @Nested
+    @DisplayName("Incremental updates")
+    class IncrementalUpdates {
+
+        @Test
+        @DisplayName("When bars of one week are applied, then they merge into a single weekly bar")
+        void whenBarsOfOneWeek_thenMergeIntoWeeklyBar() {
+            // Arrange - Monday to Wednesday of the same week
+            rollupService.apply(bar(1, "2024-03-04", 10, 12, 9, 11, 100));
+            rollupService.apply(bar(2, "2024-03-05", 11, 15, 10, 14, 200));
+            rollupService.apply(bar(3, "2024-03-06", 14, 14, 8, 9, 300));
+
+            // Act
+            List<OhlcvBar> bars = rollupService.getBars("AAPL", "1w");
+
+            // Assert
+            assertEquals(List.of(new OhlcvBar("AAPL", "1w", "2024-03-04", "2024-03-10",
+                10, 15, 8, 9, 600, 3)), bars);
+        }
+
+        @Test
+        @DisplayName("When bars arrive out of order, then open and close follow the dates")
+        void whenBarsOutOfOrder_thenOpenAndCloseFollowDates() {
+            // Arrange
+            rollupService.apply(bar(2, "2024-03-15", 20, 21, 19, 20.5, 10));
+            rollupService.apply(bar(3, "2024-03-29", 30, 31, 29, 30.5, 10));
+            rollupService.apply(bar(1, "2024-03-01", 10, 11, 9, 10.5, 10));
+
+            // Act
+            OhlcvBar month = rollupService.getBars("AAPL", "1M").get(0);
+
+            // Assert
+            assertEquals("2024-03-01", month.start());
+            assertEquals("2024-03-31", month.end());
+            assertEquals(10, month.open());
+            assertEquals(30.5, month.close());
+            assertEquals(31, month.high());
+            assertEquals(9, month.low());
+        }
+
+        @Test
+        @DisplayName("When bars span several buckets, then bars are returned oldest first")
+        void whenBarsSpanBuckets_thenReturnedOldestFirst() {
+            // Arrange
+            rollupService.apply(bar(2, "2024-02-10", 2, 2, 2, 2, 1));
+            rollupService.apply(bar(1, "2024-01-10", 1, 1, 1, 1, 1));
+
+            // Act
+            List<OhlcvBar> bars = rollupService.getBars("AAPL", "1M");
+
+            // Assert
+            assertEquals(List.of("2024-01-01", "2024-02-01"), bars.stream().map(OhlcvBar::start).toList());
+        }
+
+        @Test
+        @DisplayName("When bar has no date, then it is skipped")
+        void whenBarHasNoDate_thenSkipped() {
+            // Act
+            rollupService.apply(bar(1, null, 1, 1, 1, 1, 1));
+
+            // Assert
+            assertTrue(rollupService.getBars("AAPL", "1w").isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Interval handling")
+    class IntervalHandling {
+
+        @Test
+        @DisplayName("When interval is not configured, then throw validation exception")
+        void whenIntervalNotConfigured_thenThrowValidationException() {
+            assertThrows(ValidationException.class, () -> rollupService.getBars("AAPL", "2w"));
+        }
+
+        @Test
+        @DisplayName("When interval is malformed, then throw validation exception")
+        void whenIntervalMalformed_thenThrowValidationException() {
+            assertThrows(ValidationException.class, () -> rollupService.getBars("AAPL", "weekly"));
+        }
+
+        @Test
+        @DisplayName("When any day is bucketed, then it falls inside its bucket")
+        void whenDayBucketed_thenInsideBucket() {
+            for (String value : List.of("3d", "2w", "1M", "3M", "1y")) {
+                var interval = RollupInterval.parse(value);
+                for (long day = LocalDate.of(2023, 1, 1).toEpochDay(); day < LocalDate.of(2025, 1, 1).toEpochDay(); day++) {
+                    long start = interval.bucketStart(day);
+                    assertTrue(start <= day && day <= interval.bucketEnd(start), value + " " + LocalDate.ofEpochDay(day));
+                    assertEquals(start, interval.bucketStart(start), value);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("When week is bucketed, then it starts on Monday")
+        void whenWeekBucketed_thenStartsOnMonday() {
+            var start = RollupInterval.parse("1w").bucketStart(LocalDate.of(2024, 3, 10).toEpochDay());
+
+            assertEquals(LocalDate.of(2024, 3, 4), LocalDate.ofEpochDay(start));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rebuild")
+    class Rebuild {
+
+        @Test
+        @DisplayName("When rebuilt, then rollups match the stored data")
+        void whenRebuilt_thenRollupsMatchStoredData() {
+            // Arrange - a stale bucket that is not in the database
+            rollupService.apply(bar(9, "2024-01-02", 99, 99, 99, 99, 99));
+            when(stockRepository.findDistinctSymbols()).thenReturn(List.of("AAPL"));
+            when(stockRepository.findBySymbol("AAPL")).thenReturn(List.of(
+                bar(1, "2024-03-04", 10, 12, 9, 11, 100),
+                bar(2, "2024-03-05", 11, 15, 10, 14, 200)));
+
+            // Act
+            rollupService.rebuild().join();
+
+            // Assert
+            List<OhlcvBar> bars = rollupService.getBars("AAPL", "1w");
+            assertEquals(1, bars.size());
+            assertEquals(300, bars.get(0).volume());
+            assertEquals(14, bars.get(0).close());
+        }
+
+        @Test
+        @DisplayName("When bars are archived, then rebuild includes them once")
+        void whenBarsArchived_thenRebuildIncludesThemOnce() {
+            // Arrange - bar 1 is in both tiers while it is being archived
+            when(stockRepository.findDistinctSymbols()).thenReturn(List.of("AAPL"));
+            when(barArchive.symbols()).thenReturn(List.of("AAPL"));
+            when(stockRepository.findBySymbol("AAPL")).thenReturn(List.of(
+                bar(1, "2024-03-04", 10, 12, 9, 11, 100),
+                bar(2, "2024-03-05", 11, 15, 10, 14, 200)));
+            when(barArchive.read("AAPL", null, null)).thenReturn(List.of(
+                bar(0, "2024-03-01", 8, 9, 7, 8.5, 50),
+                bar(1, "2024-03-04", 10, 12, 9, 11, 100)));
+
+            // Act
+            rollupService.rebuild().join();
+
+            // Assert
+            OhlcvBar month = rollupService.getBars("AAPL", "1M").get(0);
+            assertEquals(350, month.volume());
+            assertEquals(3, month.bars());
+            assertEquals(8, month.open());
+        }
+
+        @Test
+        @DisplayName("When a bar committed before the rebuild is applied after it, then it is counted once")
+        void whenBarAppliedAfterRebuildReadIt_thenCountedOnce() {
+            // Arrange - the save committed bar 2, then the rebuild read it before apply ran
+            when(stockRepository.findDistinctSymbols()).thenReturn(List.of("AAPL"));
+            when(stockRepository.findBySymbol("AAPL")).thenReturn(List.of(
+                bar(1, "2024-03-04", 10, 12, 9, 11, 100),
+                bar(2, "2024-03-05", 11, 15, 10, 14, 200)));
+            rollupService.rebuild().join();
+
+            // Act
+            rollupService.apply(bar(2, "2024-03-05", 11, 15, 10, 14, 200));
+
+            // Assert
+            OhlcvBar week = rollupService.getBars("AAPL", "1w").get(0);
+            assertEquals(300, week.volume());
+            assertEquals(2, week.bars());
+        }
+    }
+
+    @Nested
+    @DisplayName("Remote changes")
+    class RemoteChanges {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @BeforeEach
+        void setUp() {
+            rollupService = new InMemoryRollupService(stockRepository, barArchive, List.of("1w"), false,
+                tasks::add, nearCacheManager(bus));
+        }
+
+        @Test
+        @DisplayName("When another instance invalidates a symbol, then its rollups are rebuilt from the database")
+        void whenRemoteInvalidation_thenSymbolRebuilt() {
+            // Arrange - this instance only saw the first bar, another one saved the second
+            rollupService.apply(bar(1, "2024-03-04", 10, 12, 9, 11, 100));
+            when(stockRepository.findBySymbol("AAPL")).thenReturn(List.of(
+                bar(1, "2024-03-04", 10, 12, 9, 11, 100),
+                bar(2, "2024-03-05", 11, 15, 10, 14, 200)));
+
+            // Act
+            bus.publish(new CacheInvalidation(RedisConfig.STOCK_DATA_CACHE, "AAPL", 1, "other-instance"));
+            tasks.forEach(Runnable::run);
+
+            // Assert
+            OhlcvBar week = rollupService.getBars("AAPL", "1w").get(0);
+            assertEquals(300, week.volume());
+            assertEquals(14, week.close());
+        }
+
+        @Test
+        @DisplayName("When a symbol is invalidated repeatedly before its rebuild starts, then it is rebuilt once")
+        void whenRepeatedRemoteInvalidations_thenRebuiltOnce() {
+            // Arrange
+            when(stockRepository.findBySymbol("AAPL")).thenReturn(List.of(bar(1, "2024-03-04", 10, 12, 9, 11, 100)));
+
+            // Act
+            bus.publish(new CacheInvalidation(RedisConfig.STOCK_DATA_CACHE, "AAPL", 1, "other-instance"));
+            bus.publish(new CacheInvalidation(RedisConfig.STOCK_DATA_CACHE, "AAPL", 2, "other-instance"));
+            tasks.forEach(Runnable::run);
+
+            // Assert
+            assertEquals(1, tasks.size());
+            verify(stockRepository, times(1)).findBySymbol("AAPL");
+        }
+
+        @Test
+        @DisplayName("When another cache is invalidated, then rollups are not rebuilt")
+        void whenOtherCacheInvalidated_thenNotRebuilt() {
+            // Act
+            bus.publish(new CacheInvalidation(RedisConfig.PREDICTIONS_CACHE, "AAPL", 1, "other-instance"));
+
+            // Assert
+            assertTrue(tasks.isEmpty());
+        }
+    }
+}
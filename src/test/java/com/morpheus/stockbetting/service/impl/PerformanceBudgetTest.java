@@ -0,0 +1,246 @@
+package com.morpheus.stockbetting.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+import org.apache.spark.ml.classification.LogisticRegressionModel;
+import org.apache.spark.ml.linalg.Vectors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import com.morpheus.stockbetting.cache.LocalCacheInvalidationBus;
+import com.morpheus.stockbetting.config.RedisConfig;
+import com.morpheus.stockbetting.domain.entity.StockData;
+import com.morpheus.stockbetting.domain.repository.StockRepository;
+import com.morpheus.stockbetting.service.RollupService;
+import com.morpheus.stockbetting.store.BarArchive;
+import com.morpheus.stockbetting.store.BarArchive.BarVisitor;
+import com.morpheus.stockbetting.store.OffHeapBarStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * Allocation and latency budgets of the predict and history paths, read from perf-budgets.properties.
+ * Operations run in-process with a same-thread executor, so that the allocation counter of the
+ * test thread sees all their work. Each is warmed up before it is measured.
+ * Allocation budgets are deterministic and checked by every build; latency budgets depend on the
+ * machine and are tagged "perf", run them with {@code mvn test -Pperf -Dtest=PerformanceBudgetTest}.
+ */
+@DisplayName("Performance Budgets")
+class PerformanceBudgetTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceBudgetTest.class);
+
+    private static final String BUDGETS = "/perf-budgets.properties";
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 5_000;
+    private static final int LATENCY_ROUNDS = 3;
+    private static final Executor SAME_THREAD = Runnable::run;
+
+    private static Properties budgets;
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        budgets = new Properties();
+        try (var input = PerformanceBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            assertNotNull(input, BUDGETS + " is missing");
+            budgets.load(input);
+        }
+    }
+
+    private static long budget(String key) {
+        var value = budgets.getProperty(key);
+        assertNotNull(value, "No budget " + key + " in " + BUDGETS);
+        return Long.parseLong(value.trim());
+    }
+
+    private static void assertWithinBudget(String key, long measured) {
+        long budget = budget(key);
+        logger.info("{} measured {}, budget {}", key, measured, budget);
+        assertTrue(measured <= budget, () -> key + " exceeded: measured " + measured + ", budget " + budget);
+    }
+
+    /**
+     * Bytes allocated by the current thread per call, averaged over the measured calls.
+     */
+    private static long bytesPerCall(Runnable operation) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Allocation counters not supported by this JVM");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            operation.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            operation.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / MEASURED_CALLS;
+    }
+
+    /**
+     * p99 in microseconds of the measured calls, the lowest of several rounds so that a single
+     * collection or scheduling hiccup of a shared machine does not fail the build.
+     */
+    private static long p99Micros(Runnable operation) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            operation.run();
+        }
+        long best = Long.MAX_VALUE;
+        var latencies = new long[MEASURED_CALLS];
+        for (int round = 0; round < LATENCY_ROUNDS; round++) {
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                long start = System.nanoTime();
+                operation.run();
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            best = Math.min(best, latencies[(int) Math.ceil(MEASURED_CALLS * 0.99) - 1]);
+        }
+        return best / 1_000;
+    }
+
+    @Nested
+    @DisplayName("Predict")
+    class Predict {
+
+        private DefaultMLService mlService;
+
+        @BeforeEach
+        void setUp() {
+            var model = new LogisticRegressionModel("budget", Vectors.dense(-0.8, 0.1, -0.1, 0.8, 0.0), 0.0);
+            mlService = new DefaultMLService(model, SAME_THREAD);
+        }
+
+        private void predict() {
+            mlService.predict("AAPL", 150.0, 155.0, 148.0, 152.0, 1_000_000L).join();
+        }
+
+        @Test
+        @DisplayName("When predicting, then allocate no more than the budget per call")
+        void whenPredicting_thenStayWithinAllocationBudget() {
+            // Act
+            long bytes = bytesPerCall(this::predict);
+
+            // Assert
+            assertWithinBudget("predict.max-bytes-per-call", bytes);
+        }
+
+        @Test
+        @Tag("perf")
+        @DisplayName("When predicting, then keep the p99 within the budget")
+        void whenPredicting_thenStayWithinLatencyBudget() {
+            // Act
+            long p99 = p99Micros(this::predict);
+
+            // Assert
+            assertWithinBudget("predict.max-p99-micros", p99);
+        }
+    }
+
+    @Nested
+    @DisplayName("History")
+    class History {
+
+        @TempDir
+        Path archiveDirectory;
+
+        private DefaultStockService stockService;
+
+        @BeforeEach
+        void setUp() {
+            var bus = new LocalCacheInvalidationBus();
+            var cacheManager = new ConcurrentMapCacheManager(RedisConfig.STOCK_DATA_CACHE);
+            var barStore = new OffHeapBarStore(cacheManager, bus, DataSize.ofMegabytes(16));
+            var stockRepository = mock(StockRepository.class);
+            when(stockRepository.findBySymbol("AAPL")).thenReturn(bars((int) budget("history.bars")));
+            // The archive is stubbed out, its file access is not part of the hot store budget
+            var barArchive = new BarArchive(archiveDirectory) {
+                @Override
+                public void scan(String symbol, LocalDate from, LocalDate to, BarVisitor visitor) {
+                }
+            };
+            stockService = new DefaultStockService(stockRepository, cacheManager, mock(RollupService.class),
+                barStore, barArchive, SAME_THREAD, new SimpleMeterRegistry());
+            // The first read loads the series into the off-heap store, later ones are served from it
+            history();
+            verify(stockRepository).findBySymbol("AAPL");
+        }
+
+        private static List<StockData> bars(int count) {
+            var rows = new ArrayList<StockData>(count);
+            var start = LocalDate.of(2024, 1, 2);
+            for (int i = 0; i < count; i++) {
+                var bar = new StockData();
+                bar.setId(i + 1L);
+                bar.setSymbol("AAPL");
+                bar.setDate(start.plusDays(i).toString());
+                bar.setOpen(150 + i * 0.1);
+                bar.setHigh(152 + i * 0.1);
+                bar.setLow(149 + i * 0.1);
+                bar.setClose(151 + i * 0.1);
+                bar.setVolume(1_000_000L + i);
+                rows.add(bar);
+            }
+            return rows;
+        }
+
+        private void history() {
+            stockService.getStockDataAsync("AAPL").join();
+        }
+
+        private void series() {
+            stockService.getBarSeriesAsync("AAPL", null, null).join();
+        }
+
+        @Test
+        @DisplayName("When reading a hot history, then allocate no more than the budget per call")
+        void whenReadingHotHistory_thenStayWithinAllocationBudget() {
+            // Act
+            long bytes = bytesPerCall(this::history);
+
+            // Assert
+            assertWithinBudget("history.max-bytes-per-call", bytes);
+        }
+
+        @Test
+        @DisplayName("When reading a hot history as columns, then allocate no more than the budget per call")
+        void whenReadingHotSeries_thenStayWithinAllocationBudget() {
+            // Act
+            long bytes = bytesPerCall(this::series);
+
+            // Assert
+            assertWithinBudget("series.max-bytes-per-call", bytes);
+        }
+
+        @Test
+        @Tag("perf")
+        @DisplayName("When reading a hot history, then keep the p99 within the budget")
+        void whenReadingHotHistory_thenStayWithinLatencyBudget() {
+            // Act
+            long p99 = p99Micros(this::history);
+
+            // Assert
+            assertWithinBudget("history.max-p99-micros", p99);
+        }
+    }
+}
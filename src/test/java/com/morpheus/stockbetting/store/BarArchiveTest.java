@@ -0,0 +1,157 @@
+package com.morpheus.stockbetting.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for BarArchive using BDD style testing
+ */
+@DisplayName("BarArchive Behavior")
+public class BarArchiveTest {
+
+    private static final LocalDate START = LocalDate.of(2015, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    private BarArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new BarArchive(directory);
+    }
+
+    private static StockData bar(long id, LocalDate date) {
+        var bar = new StockData();
+        bar.setId(id);
+        bar.setSymbol("AAPL");
+        bar.setDate(date.toString());
+        bar.setOpen(id + 0.1);
+        bar.setHigh(id + 0.2);
+        bar.setLow(id - 0.3);
+        bar.setClose(id + 0.4);
+        bar.setVolume(id * 10);
+        return bar;
+    }
+
+    private static List<StockData> bars(long firstId, int count) {
+        var bars = new ArrayList<StockData>(count);
+        for (int i = 0; i < count; i++) {
+            bars.add(bar(firstId + i, START.plusDays(firstId + i)));
+        }
+        return bars;
+    }
+
+    private List<Long> ids(LocalDate from, LocalDate to) {
+        return archive.read("AAPL", from, to).stream().map(StockData::getId).toList();
+    }
+
+    @Test
+    @DisplayName("When bars are archived, then all fields round-trip")
+    void whenBarsArchived_thenFieldsRoundTrip() {
+        // Arrange
+        var original = bars(0, 3);
+
+        // Act
+        archive.append("AAPL", original);
+        var read = archive.read("AAPL", null, null);
+
+        // Assert
+        assertEquals(3, read.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(original.get(i).getId(), read.get(i).getId());
+            assertEquals(original.get(i).getDate(), read.get(i).getDate());
+            assertEquals(original.get(i).getOpen(), read.get(i).getOpen());
+            assertEquals(original.get(i).getHigh(), read.get(i).getHigh());
+            assertEquals(original.get(i).getLow(), read.get(i).getLow());
+            assertEquals(original.get(i).getClose(), read.get(i).getClose());
+            assertEquals(original.get(i).getVolume(), read.get(i).getVolume());
+            assertEquals("AAPL", read.get(i).getSymbol());
+        }
+    }
+
+    @Test
+    @DisplayName("When range is read across appends, then exactly the bars in range are returned")
+    void whenRangeRead_thenExactlyBarsInRange() {
+        // Arrange - several appends so the index spans batches
+        archive.append("AAPL", bars(0, 100));
+        archive.append("AAPL", bars(100, 250));
+        archive.append("AAPL", bars(350, 10));
+
+        // Act
+        var ids = ids(START.plusDays(130), START.plusDays(300));
+
+        // Assert
+        assertEquals(171, ids.size());
+        assertEquals(130L, ids.get(0));
+        assertEquals(300L, ids.get(ids.size() - 1));
+        assertTrue(ids(START.minusDays(10), START.minusDays(1)).isEmpty());
+        assertEquals(360, ids(null, null).size());
+    }
+
+    @Test
+    @DisplayName("When back-dated bars are archived, then files are rewritten in date order")
+    void whenBackDatedBarsArchived_thenRewrittenInDateOrder() {
+        // Arrange
+        archive.append("AAPL", bars(100, 200));
+
+        // Act
+        archive.append("AAPL", bars(0, 100));
+
+        // Assert
+        var ids = ids(null, null);
+        assertEquals(300, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, ids.get(i));
+        }
+        assertEquals(List.of(64L, 65L), ids(START.plusDays(64), START.plusDays(65)));
+    }
+
+    @Test
+    @DisplayName("When a batch is archived twice, then its bars are stored once")
+    void whenBatchArchivedTwice_thenStoredOnce() {
+        // Act
+        archive.append("AAPL", bars(0, 80));
+        archive.append("AAPL", bars(40, 80));
+
+        // Assert
+        assertEquals(120, ids(null, null).size());
+    }
+
+    @Test
+    @DisplayName("When the index file is missing, then reads still find the range")
+    void whenIndexMissing_thenReadsStillFindRange() throws IOException {
+        // Arrange
+        archive.append("AAPL", bars(0, 500));
+        Files.delete(directory.resolve("AAPL.idx"));
+
+        // Act & Assert
+        assertEquals(List.of(400L), ids(START.plusDays(400), START.plusDays(400)));
+
+        // The next append restores the index
+        archive.append("AAPL", bars(500, 1));
+        assertEquals(Files.size(directory.resolve("AAPL.idx")), 8L * 8);
+    }
+
+    @Test
+    @DisplayName("When symbol is not usable as a file name, then it is not supported")
+    void whenSymbolNotFileName_thenNotSupported() {
+        assertFalse(archive.supports("../etc"));
+        assertThrows(IllegalArgumentException.class, () -> archive.append("../etc", bars(0, 1)));
+        assertTrue(archive.read("../etc", null, null).isEmpty());
+        assertTrue(archive.supports("BRK.B"));
+    }
+}
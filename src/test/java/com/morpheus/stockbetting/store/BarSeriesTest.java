@@ -0,0 +1,142 @@
+package com.morpheus.stockbetting.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.morpheus.stockbetting.domain.entity.StockData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for BarSeries using BDD style testing
+ */
+@DisplayName("BarSeries Behavior")
+public class BarSeriesTest {
+
+    private static StockData bar(long id, String date) {
+        var bar = new StockData();
+        bar.setId(id);
+        bar.setSymbol("AAPL");
+        bar.setDate(date);
+        bar.setOpen(id + 0.25);
+        bar.setHigh(id + 1.5);
+        bar.setLow(id - 1.5);
+        bar.setClose(id + 0.75);
+        bar.setVolume(id * 1000);
+        return bar;
+    }
+
+    private static List<Long> ids(BarSeries series) {
+        var ids = new ArrayList<Long>(series.size());
+        series.forEach((id, day, open, high, low, close, volume) -> ids.add(id));
+        return ids;
+    }
+
+    @Nested
+    @DisplayName("Building")
+    class Building {
+
+        @Test
+        @DisplayName("When bars span several chunks, then every column reads back")
+        void whenBarsSpanChunks_thenColumnsReadBack() {
+            // Arrange
+            var bars = new ArrayList<StockData>();
+            var start = LocalDate.of(2020, 1, 1);
+            for (int i = 0; i < BarSeries.ROWS_PER_CHUNK + 10; i++) {
+                bars.add(bar(i + 1, start.plusDays(i).toString()));
+            }
+
+            // Act
+            var series = BarSeries.of(bars);
+
+            // Assert
+            assertEquals(bars.size(), series.size());
+            int last = bars.size() - 1;
+            assertEquals(bars.get(last).getId(), series.id(last));
+            assertEquals(start.plusDays(last).toEpochDay(), series.epochDay(last));
+            assertEquals(bars.get(last).getOpen(), series.open(last));
+            assertEquals(bars.get(last).getHigh(), series.high(last));
+            assertEquals(bars.get(last).getLow(), series.low(last));
+            assertEquals(bars.get(last).getClose(), series.close(last));
+            assertEquals(bars.get(last).getVolume(), series.volume(last));
+        }
+
+        @Test
+        @DisplayName("When a bar has a malformed date, then it is left out")
+        void whenMalformedDate_thenLeftOut() {
+            // Act
+            var series = BarSeries.of(List.of(bar(1, "2024-01-02"), bar(2, "02/01/2024"), bar(3, null)));
+
+            // Assert
+            assertEquals(List.of(1L), ids(series));
+        }
+    }
+
+    @Nested
+    @DisplayName("Slicing")
+    class Slicing {
+
+        @Test
+        @DisplayName("When rows between two days are requested, then both days are included")
+        void whenBetweenDays_thenInclusiveRange() {
+            // Arrange
+            var series = BarSeries.of(List.of(bar(1, "2024-01-02"), bar(2, "2024-01-03"),
+                bar(3, "2024-01-04"), bar(4, "2024-01-05")));
+
+            // Act
+            var range = series.between(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 4));
+
+            // Assert
+            assertEquals(List.of(2L, 3L), ids(range));
+            assertEquals(List.of("2024-01-03", "2024-01-04"),
+                range.toStockData("AAPL").stream().map(StockData::getDate).toList());
+            assertThrows(IndexOutOfBoundsException.class, () -> range.id(2));
+        }
+
+        @Test
+        @DisplayName("When the range is outside the series, then the view is empty")
+        void whenRangeOutside_thenEmpty() {
+            // Arrange
+            var series = BarSeries.of(List.of(bar(1, "2024-01-02")));
+
+            // Act & Assert
+            assertEquals(0, series.between(LocalDate.of(2025, 1, 1), null).size());
+            assertEquals(0, series.between(null, LocalDate.of(2023, 1, 1)).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Merging")
+    class Merging {
+
+        @Test
+        @DisplayName("When tiers overlap, then bars are merged in date order and shared bars kept once")
+        void whenTiersOverlap_thenMergedOnceInDateOrder() {
+            // Arrange - bar 3 is in both tiers while it is being archived, bar 4 was back-dated
+            var archived = BarSeries.of(List.of(bar(1, "2024-01-02"), bar(3, "2024-01-04"), bar(5, "2024-01-08")));
+            var recent = BarSeries.of(List.of(bar(4, "2024-01-03"), bar(3, "2024-01-04"), bar(6, "2024-01-09")));
+
+            // Act
+            var merged = BarSeries.merge(archived, recent);
+
+            // Assert
+            assertEquals(List.of(1L, 4L, 3L, 5L, 6L), ids(merged));
+        }
+
+        @Test
+        @DisplayName("When one tier is empty, then the other is returned as is")
+        void whenOneTierEmpty_thenOtherReturned() {
+            // Arrange
+            var recent = BarSeries.of(List.of(bar(1, "2024-01-02")));
+
+            // Act & Assert
+            assertSame(recent, BarSeries.merge(BarSeries.empty(), recent));
+            assertSame(recent, BarSeries.merge(recent, BarSeries.empty()));
+        }
+    }
+}
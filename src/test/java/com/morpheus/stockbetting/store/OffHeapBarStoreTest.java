@@ -0,0 +1,245 @@
+package com.morpheus.stockbetting.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import com.morpheus.stockbetting.cache.CacheInvalidation;
+import com.morpheus.stockbetting.cache.CacheInvalidationBus;
+import com.morpheus.stockbetting.domain.entity.StockData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for OffHeapBarStore using BDD style testing
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("OffHeapBarStore Behavior")
+public class OffHeapBarStoreTest {
+
+    @Mock
+    private CacheInvalidationBus bus;
+
+    private OffHeapBarStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(bus.isConnected()).thenReturn(true);
+        when(bus.epoch()).thenReturn(1L);
+        store = new OffHeapBarStore(new ConcurrentMapCacheManager(), bus, DataSize.ofMegabytes(1));
+    }
+
+    private static StockData bar(String symbol, long id, LocalDate date) {
+        var bar = new StockData();
+        bar.setId(id);
+        bar.setSymbol(symbol);
+        bar.setDate(date.toString());
+        bar.setOpen(id + 0.25);
+        bar.setHigh(id + 1.5);
+        bar.setLow(id - 1.5);
+        bar.setClose(id + 0.75);
+        bar.setVolume(id * 1000);
+        return bar;
+    }
+
+    private static List<StockData> history(String symbol, int count) {
+        var rows = new ArrayList<StockData>(count);
+        var start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < count; i++) {
+            rows.add(bar(symbol, i + 1, start.plusDays(i)));
+        }
+        return rows;
+    }
+
+    @Nested
+    @DisplayName("Loading and reading")
+    class LoadingAndReading {
+
+        @Test
+        @DisplayName("When history is loaded, then rows are served in date order")
+        void whenHistoryLoaded_thenRowsInDateOrder() {
+            // Arrange - more rows than fit one chunk, in reverse order
+            var rows = new ArrayList<>(history("AAPL", 600));
+            var expected = List.copyOf(rows);
+            Collections.reverse(rows);
+
+            // Act
+            store.load("AAPL", rows, store.loadToken());
+            var series = store.get("AAPL");
+
+            // Assert
+            assertNotNull(series);
+            assertEquals(600, series.size());
+            var materialized = series.toStockData("AAPL", 0, series.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getId(), materialized.get(i).getId());
+                assertEquals(expected.get(i).getDate(), materialized.get(i).getDate());
+                assertEquals(expected.get(i).getOpen(), materialized.get(i).getOpen());
+                assertEquals(expected.get(i).getClose(), materialized.get(i).getClose());
+                assertEquals(expected.get(i).getVolume(), materialized.get(i).getVolume());
+            }
+        }
+
+        @Test
+        @DisplayName("When searching a day, then lower bound finds the first row on or after it")
+        void whenSearchingDay_thenLowerBound() {
+            // Arrange
+            store.load("AAPL", history("AAPL", 10), store.loadToken());
+            var series = store.get("AAPL");
+
+            // Act & Assert
+            assertEquals(0, series.lowerBound(LocalDate.of(2019, 6, 1).toEpochDay()));
+            assertEquals(3, series.lowerBound(LocalDate.of(2020, 1, 4).toEpochDay()));
+            assertEquals(10, series.lowerBound(LocalDate.of(2021, 1, 1).toEpochDay()));
+        }
+
+        @Test
+        @DisplayName("When store changed since the token was taken, then load is discarded")
+        void whenStoreChangedSinceToken_thenLoadDiscarded() {
+            // Arrange
+            long token = store.loadToken();
+            store.evict("MSFT");
+
+            // Act
+            store.load("AAPL", history("AAPL", 3), token);
+
+            // Assert
+            assertNull(store.get("AAPL"));
+        }
+
+        @Test
+        @DisplayName("When subscription epoch changed, then series is dropped")
+        void whenEpochChanged_thenSeriesDropped() {
+            // Arrange
+            store.load("AAPL", history("AAPL", 3), store.loadToken());
+
+            // Act
+            when(bus.epoch()).thenReturn(2L);
+
+            // Assert
+            assertNull(store.get("AAPL"));
+            assertEquals(0, store.allocatedBytes());
+        }
+    }
+
+    @Nested
+    @DisplayName("Appending")
+    class Appending {
+
+        @Test
+        @DisplayName("When newer bar is saved, then it is appended")
+        void whenNewerBarSaved_thenAppended() {
+            // Arrange
+            store.load("AAPL", history("AAPL", 3), store.loadToken());
+
+            // Act
+            store.append(bar("AAPL", 4, LocalDate.of(2020, 1, 4)));
+
+            // Assert
+            var series = store.get("AAPL");
+            assertEquals(4, series.size());
+            assertEquals(4, series.id(3));
+        }
+
+        @Test
+        @DisplayName("When back-dated or updated bar is saved, then series is dropped")
+        void whenBackDatedBarSaved_thenSeriesDropped() {
+            // Arrange
+            store.load("AAPL", history("AAPL", 3), store.loadToken());
+            store.load("MSFT", history("MSFT", 3), store.loadToken());
+
+            // Act
+            store.append(bar("AAPL", 4, LocalDate.of(2019, 12, 1)));
+            store.append(bar("MSFT", 2, LocalDate.of(2020, 1, 2)));
+
+            // Assert
+            assertNull(store.get("AAPL"));
+            assertNull(store.get("MSFT"));
+        }
+
+        @Test
+        @DisplayName("When readers scan during appends, then they always see complete rows")
+        void whenReadersScanDuringAppends_thenCompleteRows() {
+            // Arrange
+            store.load("AAPL", history("AAPL", 1), store.loadToken());
+            var done = new AtomicBoolean();
+            var reader = CompletableFuture.runAsync(() -> {
+                while (!done.get()) {
+                    var series = store.get("AAPL");
+                    for (int row = 0; row < series.size(); row++) {
+                        assertEquals(row + 1, series.id(row));
+                        assertEquals((row + 1) * 1000, series.volume(row));
+                    }
+                }
+            });
+
+            // Act
+            var start = LocalDate.of(2020, 1, 1);
+            for (int i = 1; i < 5000; i++) {
+                store.append(bar("AAPL", i + 1, start.plusDays(i)));
+            }
+            done.set(true);
+
+            // Assert
+            reader.join();
+            assertEquals(5000, store.get("AAPL").size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Memory budget")
+    class MemoryBudget {
+
+        @Test
+        @DisplayName("When budget is exceeded, then the least recently read symbols are dropped")
+        void whenBudgetExceeded_thenColdestDropped() {
+            // Arrange - every symbol needs 4 chunks, the budget holds 15 chunks
+            var small = new OffHeapBarStore(new ConcurrentMapCacheManager(), bus,
+                DataSize.ofBytes(15L * BarSeries.CHUNK_BYTES));
+            small.load("A", history("A", 1000), small.loadToken());
+            small.load("B", history("B", 1000), small.loadToken());
+            small.load("C", history("C", 1000), small.loadToken());
+            small.get("A");
+
+            // Act
+            small.load("D", history("D", 1000), small.loadToken());
+
+            // Assert
+            assertNull(small.get("B"));
+            assertNotNull(small.get("A"));
+            assertNotNull(small.get("C"));
+            assertNotNull(small.get("D"));
+            assertEquals(12L * BarSeries.CHUNK_BYTES, small.allocatedBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("When remote invalidation arrives, then series of the symbol is dropped")
+    void whenRemoteInvalidation_thenSeriesDropped() {
+        // Arrange
+        store.load("AAPL", history("AAPL", 3), store.loadToken());
+
+        // Act
+        store.onInvalidation(new CacheInvalidation("stockData", "AAPL", 1, "other"));
+
+        // Assert
+        assertNull(store.get("AAPL"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.morpheus.stockbetting.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for Tracing and TraceStore using BDD style testing
+ */
+@DisplayName("Tracing Behavior")
+class TracingTest {
+
+    @AfterEach
+    void tearDown() {
+        Tracing.detach();
+        MDC.clear();
+    }
+
+    private static TraceStore store(Duration slowThreshold, int capacity) {
+        return new TraceStore(new TracingProperties(true, slowThreshold, capacity, 16));
+    }
+
+    private static SpanData span(Trace trace, String name) {
+        return trace.getSpans().stream().filter(span -> span.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Nested
+    @DisplayName("Context Propagation")
+    class Propagation {
+
+        @Test
+        @DisplayName("When a task hops onto a wrapped executor, then its spans and MDC follow the request")
+        void whenTaskSubmitted_thenContextFollows() {
+            // Arrange
+            var traceStore = store(Duration.ZERO, 4);
+            var executor = Tracing.wrap(Executors.newSingleThreadExecutor());
+            var trace = traceStore.begin("req-1", "GET /api/stocks/AAPL");
+            MDC.put("requestId", "req-1");
+
+            // Act
+            String requestId;
+            try (var service = Tracing.span("stock.history")) {
+                requestId = CompletableFuture.supplyAsync(
+                    () -> Tracing.inSpan("repository.findBySymbol", () -> MDC.get("requestId")), executor).join();
+            }
+            traceStore.finish(trace, 200, null);
+            executor.shutdown();
+
+            // Assert
+            assertEquals("req-1", requestId);
+            var root = span(trace, "GET /api/stocks/AAPL");
+            var service = span(trace, "stock.history");
+            var repository = span(trace, "repository.findBySymbol");
+            assertEquals(-1, root.parentId());
+            assertEquals(root.id(), service.parentId());
+            assertEquals(service.id(), repository.parentId());
+            assertNotEquals(Thread.currentThread().getName(), repository.thread());
+        }
+
+        @Test
+        @DisplayName("When a span closes, then its parent becomes current again")
+        void whenSpanCloses_thenParentCurrent() {
+            // Arrange
+            var traceStore = store(Duration.ZERO, 4);
+            var trace = traceStore.begin("req-1", "root");
+
+            // Act
+            Tracing.inSpan("first", () -> "done");
+            Tracing.inSpan("second", () -> "done");
+            traceStore.finish(trace, 200, null);
+
+            // Assert
+            var root = span(trace, "root");
+            assertEquals(root.id(), span(trace, "first").parentId());
+            assertEquals(root.id(), span(trace, "second").parentId());
+        }
+
+        @Test
+        @DisplayName("When no trace is active, then spans record nothing")
+        void whenNoTrace_thenNoop() {
+            // Act
+            var span = Tracing.span("stock.history");
+            span.close();
+
+            // Assert
+            assertSame(Span.NOOP, span);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tail Sampling")
+    class Sampling {
+
+        @Test
+        @DisplayName("When a request is fast and succeeds, then drop its trace")
+        void whenFastAndSuccessful_thenDrop() {
+            // Arrange
+            var traceStore = store(Duration.ofMinutes(1), 4);
+            var trace = traceStore.begin("req-1", "root");
+            Tracing.detach();
+
+            // Act
+            boolean kept = traceStore.finish(trace, 200, null);
+
+            // Assert
+            assertFalse(kept);
+            assertEquals(List.of(), traceStore.recent());
+        }
+
+        @Test
+        @DisplayName("When a span fails, then keep the trace however fast it was")
+        void whenSpanFails_thenKeep() {
+            // Arrange
+            var traceStore = store(Duration.ofMinutes(1), 4);
+            var trace = traceStore.begin("req-1", "root");
+
+            // Act
+            assertThrows(IllegalStateException.class, () -> Tracing.inSpan("spark.transform", () -> {
+                throw new IllegalStateException("model not loaded");
+            }));
+            Tracing.detach();
+            boolean kept = traceStore.finish(trace, 200, null);
+
+            // Assert
+            assertTrue(kept);
+            assertTrue(trace.isFailed());
+            assertEquals("java.lang.IllegalStateException: model not loaded", span(trace, "spark.transform").error());
+            assertSame(trace, traceStore.find("req-1"));
+        }
+
+        @Test
+        @DisplayName("When more traces are kept than the capacity, then evict the oldest")
+        void whenOverCapacity_thenEvictOldest() {
+            // Arrange
+            var traceStore = store(Duration.ZERO, 2);
+
+            // Act
+            for (String id : List.of("a", "b", "c")) {
+                var trace = traceStore.begin(id, "root");
+                Tracing.detach();
+                traceStore.finish(trace, 200, null);
+            }
+
+            // Assert
+            assertEquals(List.of("c", "b"), traceStore.recent().stream().map(Trace::getTraceId).toList());
+            assertNull(traceStore.find("a"));
+        }
+
+        @Test
+        @DisplayName("When tracing is disabled, then start no trace")
+        void whenDisabled_thenNoTrace() {
+            // Arrange
+            var traceStore = new TraceStore(new TracingProperties(false, Duration.ZERO, 4, 16));
+
+            // Act
+            var trace = traceStore.begin("req-1", "root");
+
+            // Assert
+            assertNull(trace);
+            assertSame(Span.NOOP, Tracing.span("stock.history"));
+            assertFalse(traceStore.finish(trace, 500, null));
+        }
+    }
+}